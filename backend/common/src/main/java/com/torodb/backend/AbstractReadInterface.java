@@ -25,14 +25,19 @@ import com.torodb.backend.d2r.ResultSetDocPartResult;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.DocPartFilter;
+import com.torodb.core.backend.DocPartSort;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.language.AttributeFilter.Operator;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.kvdocument.values.KvValue;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jooq.DSLContext;
@@ -46,10 +51,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,20 +72,42 @@ import javax.inject.Singleton;
 @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
 public abstract class AbstractReadInterface implements ReadInterface {
 
+  /**
+   * The number of rows of each doc part that are fetched at once from the database when the
+   * driver supports it. Rows are translated to documents incrementally, so this limits the rows
+   * that are kept in memory while huge documents are read.
+   */
+  protected static final int DOC_PART_RESULT_FETCH_SIZE = 1000;
+
+  /**
+   * The number of dids that are fetched at once from the database when the driver supports it.
+   * Did cursors can be kept open between client requests, so this limits the dids that are kept
+   * in memory for each of them.
+   */
+  protected static final int DID_RESULT_FETCH_SIZE = 1000;
+
+  /**
+   * The number of values of a value set table that are sent on each batch.
+   */
+  protected static final int VALUE_SET_INSERT_BATCH_SIZE = 1000;
+
   private final MetaDataReadInterface metaDataReadInterface;
   private final DataTypeProvider dataTypeProvider;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
   private final TableRefFactory tableRefFactory;
+  private final PreparedStatementCache statementCache;
 
   public AbstractReadInterface(MetaDataReadInterface metaDataReadInterface,
       DataTypeProvider dataTypeProvider,
-      ErrorHandler errorHandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
+      ErrorHandler errorHandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      PreparedStatementCache statementCache) {
     this.metaDataReadInterface = metaDataReadInterface;
     this.dataTypeProvider = dataTypeProvider;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
     this.tableRefFactory = tableRefFactory;
+    this.statementCache = statementCache;
   }
 
   @Override
@@ -96,9 +126,9 @@ public abstract class AbstractReadInterface implements ReadInterface {
         metaDocPart.getIdentifier(), metaField.getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
-      sqlHelper.setPreparedStatementValue(preparedStatement, 1, metaField.getType(), value);
-      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+      return new DefaultDidCursor(errorHandler, statementCache.executeQuery(connection,
+          statement, preparedStatement -> sqlHelper.setPreparedStatementValue(
+              preparedStatement, 1, metaField.getType(), value)));
     } finally {
       dsl.configuration().connectionProvider().release(connection);
     }
@@ -121,6 +151,17 @@ public abstract class AbstractReadInterface implements ReadInterface {
     assert valuesMultimap.keySet().stream().allMatch(metafield -> metaDocPart
         .getMetaFieldByIdentifier(metafield.getIdentifier()) != null);
 
+    if (valuesMultimap.asMap().entrySet().stream()
+        .allMatch(e -> useValueSet(e.getKey().getType(), e.getValue().size()))) {
+      List<Integer> dids = new ArrayList<>();
+      for (Map.Entry<MetaField, Collection<KvValue<?>>> valuesMultimapEntry : valuesMultimap
+          .asMap().entrySet()) {
+        dids.addAll(getCollectionDidsWithFieldInValueSet(dsl, metaDatabase, metaDocPart,
+            valuesMultimapEntry.getKey(), valuesMultimapEntry.getValue()).getRemaining());
+      }
+      return new IteratorCursor<>(dids.iterator());
+    }
+
     if (valuesMultimap.size() > 500) {
       @SuppressWarnings("checkstyle:LineLength")
       Stream<Entry<Long, List<Tuple2<Entry<MetaField, KvValue<?>>, Long>>>> valuesEntriesBatchStream =
@@ -179,23 +220,23 @@ public abstract class AbstractReadInterface implements ReadInterface {
             .sorted((e1, e2) -> e1.getKey().getIdentifier().compareTo(e2.getKey().getIdentifier()));
     String statement = getReadCollectionDidsWithFieldInStatement(metaDatabase.getIdentifier(),
         metaDocPart.getIdentifier(), valuesMultimapSortedStreamProvider.get()
-        .map(e -> new Tuple2<String, Integer>(e.getKey().getIdentifier(), e.getValue().size())));
+        .map(e -> new Tuple2<String, Integer>(e.getKey().getIdentifier(),
+            PreparedStatementCache.getBucketedSize(e.getValue().size()))));
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
-      int parameterIndex = 1;
-      Iterator<Map.Entry<MetaField, Collection<KvValue<?>>>> valuesMultimapSortedIterator =
-          valuesMultimapSortedStreamProvider.get().iterator();
-      while (valuesMultimapSortedIterator.hasNext()) {
-        Map.Entry<MetaField, Collection<KvValue<?>>> valuesMultimapEntry =
-            valuesMultimapSortedIterator.next();
-        for (KvValue<?> value : valuesMultimapEntry.getValue()) {
-          sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, valuesMultimapEntry
-              .getKey().getType(), value);
-          parameterIndex++;
-        }
-      }
-      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+      return new DefaultDidCursor(errorHandler, statementCache.executeQuery(connection,
+          statement, preparedStatement -> {
+            preparedStatement.setFetchSize(DID_RESULT_FETCH_SIZE);
+            int parameterIndex = 1;
+            Iterator<Map.Entry<MetaField, Collection<KvValue<?>>>> valuesMultimapSortedIterator =
+                valuesMultimapSortedStreamProvider.get().iterator();
+            while (valuesMultimapSortedIterator.hasNext()) {
+              Map.Entry<MetaField, Collection<KvValue<?>>> valuesMultimapEntry =
+                  valuesMultimapSortedIterator.next();
+              parameterIndex = setBucketedValues(preparedStatement, parameterIndex,
+                  valuesMultimapEntry.getKey().getType(), valuesMultimapEntry.getValue());
+            }
+          }));
     } finally {
       dsl.configuration().connectionProvider().release(connection);
     }
@@ -205,6 +246,539 @@ public abstract class AbstractReadInterface implements ReadInterface {
       String rootTableName,
       Stream<Tuple2<String, Integer>> valuesCountList);
 
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  private Cursor<Integer> getCollectionDidsWithFieldInValueSet(DSLContext dsl,
+      MetaDatabase metaDatabase, MetaDocPart metaDocPart, MetaField metaField,
+      Collection<KvValue<?>> values) throws SQLException {
+    String statement = getReadCollectionDidsWithFieldInValueSetStatement(
+        metaDatabase.getIdentifier(), metaDocPart.getIdentifier(), metaField.getIdentifier(),
+        metaField.getType());
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      prepareValueSet(connection, metaDatabase.getIdentifier(), metaField.getType(), values);
+      return new DefaultDidCursor(errorHandler, statementCache.executeQuery(connection,
+          statement, preparedStatement -> setValueSet(preparedStatement, 1, metaField.getType(),
+              values)));
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that reads the dids of the root doc part whose column is one of the
+   * values of the value set of the given type.
+   *
+   * @see #useValueSet(FieldType, int)
+   */
+  protected String getReadCollectionDidsWithFieldInValueSetStatement(String schemaName,
+      String rootTableName, String columnName, FieldType fieldType) {
+    throw new UnsupportedOperationException("Value sets are not supported by this backend");
+  }
+
+  @Override
+  public Cursor<Integer> getCollectionDidsWithFilter(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, List<DocPartFilter> filters) throws SQLException {
+    assert !filters.isEmpty();
+    return getCollectionDidsWithFilter(dsl, metaDatabase, metaCol, filters,
+        Collections.emptyList(), 0, 0);
+  }
+
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  public Cursor<Integer> getCollectionDidsWithFilter(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, List<DocPartFilter> filters, List<DocPartSort> sorts, long skip,
+      long limit) throws SQLException {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+    assert filters.stream().allMatch(filter -> metaCol.getMetaDocPartByIdentifier(
+        filter.getDocPart().getIdentifier()) != null);
+    assert sorts.stream().allMatch(sort -> sort.getDocPart().getTableRef().isRoot());
+    assert skip >= 0 && limit >= 0;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return new EmptyCursor<>();
+    }
+
+    String statement = getReadCollectionDidsWithFilterStatement(metaDatabase.getIdentifier(),
+        rootDocPart.getIdentifier(), filters, sorts, skip, limit);
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      return new DefaultDidCursor(errorHandler, statementCache.executeQuery(connection,
+          statement, preparedStatement -> {
+            preparedStatement.setFetchSize(DID_RESULT_FETCH_SIZE);
+            int parameterIndex = setFilterParameters(preparedStatement, 1, filters);
+            setLimitParameters(preparedStatement, parameterIndex, skip, limit);
+          }));
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  @Override
+  public long countWithFilter(DSLContext dsl, MetaDatabase metaDatabase, MetaCollection metaCol,
+      List<DocPartFilter> filters) throws SQLException {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return 0;
+    }
+
+    String statement = getReadCountWithFilterStatement(metaDatabase.getIdentifier(),
+        rootDocPart.getIdentifier(), filters);
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try (ResultSet resultSet = statementCache.executeQuery(connection, statement,
+        preparedStatement -> setFilterParameters(preparedStatement, 1, filters))) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that counts the documents that fulfill all the given filters. It has
+   * the same parameters as
+   * {@link #getReadCollectionDidsWithFilterStatement(String, String, List, List, long, long)}
+   * without limit clause.
+   */
+  protected String getReadCountWithFilterStatement(String schemaName, String rootTableName,
+      List<DocPartFilter> filters) {
+    SqlBuilder sb = createSqlBuilder("SELECT COUNT(1) FROM ").table(schemaName, rootTableName);
+    appendFilterConditions(sb, schemaName, rootTableName, filters);
+    return sb.toString();
+  }
+
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<KvValue<?>>. It's iterated and closed in caller code")
+  public Cursor<KvValue<?>> getDistinctValuesWithFilter(DSLContext dsl,
+      MetaDatabase metaDatabase, MetaCollection metaCol, MetaDocPart metaDocPart,
+      String columnName, FieldType fieldType, List<DocPartFilter> filters) throws SQLException {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+    assert metaCol.getMetaDocPartByIdentifier(metaDocPart.getIdentifier()) != null;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return new EmptyCursor<>();
+    }
+
+    String statement = getReadDistinctValuesWithFilterStatement(metaDatabase.getIdentifier(),
+        rootDocPart.getIdentifier(), metaDocPart.getIdentifier(), columnName, filters);
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      ResultSet resultSet = statementCache.executeQuery(connection, statement,
+          preparedStatement -> setFilterParameters(preparedStatement, 1, filters));
+      return new AbstractCursor<KvValue<?>>(errorHandler, resultSet) {
+        @Override
+        protected KvValue<?> read(ResultSet resultSet) throws SQLException {
+          return sqlHelper.getResultSetKvValue(fieldType, dataTypeProvider.getDataType(
+              fieldType), resultSet, 1);
+        }
+      };
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that reads the distinct non null values of a column of a doc part on
+   * the documents that fulfill all the given filters.
+   *
+   * <p>When there are filters, the rows of the doc part are restricted to the dids returned by a
+   * subquery on the root doc part that has the same parameters as
+   * {@link #getReadCollectionDidsWithFilterStatement(String, String, List, List, long, long)}
+   * without limit clause.
+   */
+  protected String getReadDistinctValuesWithFilterStatement(String schemaName,
+      String rootTableName, String docPartTableName, String columnName,
+      List<DocPartFilter> filters) {
+    String alias = "distinct";
+    SqlBuilder sb = createSqlBuilder("SELECT DISTINCT ")
+        .quote(alias).append('.').quote(columnName)
+        .append(" FROM ").table(schemaName, docPartTableName)
+        .append(' ')
+        .quote(alias)
+        .append(" WHERE ")
+        .quote(alias).append('.').quote(columnName)
+        .append(" IS NOT NULL");
+    if (!filters.isEmpty()) {
+      sb.append(" AND ")
+          .quote(alias).append('.').quote(DocPartTableFields.DID)
+          .append(" IN (SELECT ")
+          .quote(rootTableName).append('.').quote(DocPartTableFields.DID)
+          .append(" FROM ").table(schemaName, rootTableName);
+      appendFilterConditions(sb, schemaName, rootTableName, filters);
+      sb.append(')');
+    }
+    return sb.toString();
+  }
+
+  private int setFilterParameters(PreparedStatement preparedStatement, int parameterIndex,
+      List<DocPartFilter> filters) throws SQLException {
+    for (DocPartFilter filter : filters) {
+      parameterIndex = setFilterParameters(preparedStatement, parameterIndex,
+          filter.getOperator(), filter.getValues().asMap().values());
+      parameterIndex = setFilterParameters(preparedStatement, parameterIndex,
+          filter.getOperator(), filter.getElementValues().asMap().values());
+    }
+    return parameterIndex;
+  }
+
+  /**
+   * Sets the values compared with each column of a filter. Each value is set with its own type,
+   * which can be different from the type of the column when both are numbers.
+   */
+  private int setFilterParameters(PreparedStatement preparedStatement, int parameterIndex,
+      Operator operator, Collection<Collection<KvValue<?>>> columnsValues) throws SQLException {
+    for (Collection<KvValue<?>> values : columnsValues) {
+      Collection<KvValue<?>> parameterValues = operator.isMultiValued()
+          ? getBucketedValues(values) : Collections.singletonList(values.iterator().next());
+      for (KvValue<?> value : parameterValues) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex,
+            FieldType.from(value.getType()), value);
+        parameterIndex++;
+      }
+    }
+    return parameterIndex;
+  }
+
+  /**
+   * Returns the statement that reads the dids of the root doc part that fulfill all the given
+   * filters, sorted by the given sorts and then by did.
+   *
+   * <p>Filters on the root doc part are evaluated on its rows. Filters on other doc parts are
+   * evaluated with a subquery on the doc part that is correlated by did, so documents with more
+   * than one matching row are read once. The statement has a parameter for each value of each
+   * filter, in the order of the filters and of their values and element values multimaps. Values
+   * of multivalued operators are repeated until their
+   * {@link PreparedStatementCache#getBucketedSize(int) bucketed size}. They are followed by the parameters of the
+   * {@link #appendLimitClause(SqlBuilder, boolean, boolean) limit clause}, if any.
+   */
+  protected String getReadCollectionDidsWithFilterStatement(String schemaName,
+      String rootTableName, List<DocPartFilter> filters, List<DocPartSort> sorts, long skip,
+      long limit) {
+    SqlBuilder sb = createSqlBuilder("SELECT ")
+        .quote(rootTableName).append('.').quote(DocPartTableFields.DID)
+        .append(" FROM ").table(schemaName, rootTableName);
+    appendFilterConditions(sb, schemaName, rootTableName, filters);
+    sb.append(" ORDER BY ");
+    for (DocPartSort sort : sorts) {
+      appendSortExpressions(sb, rootTableName, sort);
+    }
+    sb.quote(rootTableName).append('.').quote(DocPartTableFields.DID);
+    if (skip > 0 || limit > 0) {
+      sb.append(' ');
+      appendLimitClause(sb, skip > 0, limit > 0);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Appends the where clause that restricts the rows of the root doc part to the ones of the
+   * documents that fulfill all the given filters. Nothing is appended if there are no filters.
+   *
+   * <p>A filter is fulfilled if its condition on the doc part, the condition on the elements doc
+   * part or, when missing attributes are null, the absence of the attribute is fulfilled or, when
+   * the filter is negated, if none of them is.
+   */
+  private void appendFilterConditions(SqlBuilder sb, String schemaName, String rootTableName,
+      List<DocPartFilter> filters) {
+    for (int filterIndex = 0; filterIndex < filters.size(); filterIndex++) {
+      DocPartFilter filter = filters.get(filterIndex);
+      boolean negated = filter.getOperator().isNegated();
+      String separator = negated ? " AND " : " OR ";
+      boolean first = true;
+      sb.append(filterIndex == 0 ? " WHERE (" : " AND (");
+      if (!filter.getValues().isEmpty()) {
+        if (filter.getDocPart().getTableRef().isRoot()) {
+          appendFilterCondition(sb, rootTableName, filter.getOperator(),
+              filter.getValues().asMap(), MetaField::getIdentifier, MetaField::getType, negated);
+        } else {
+          appendFilterSubquery(sb, schemaName, rootTableName, filter.getDocPart(),
+              "filter" + filterIndex, filter.getOperator(), filter.getValues().asMap(),
+              MetaField::getIdentifier, MetaField::getType);
+        }
+        first = false;
+      }
+      if (!filter.getElementValues().isEmpty()) {
+        if (!first) {
+          sb.append(separator);
+        }
+        appendFilterSubquery(sb, schemaName, rootTableName, filter.getElementsDocPart(),
+            "elements" + filterIndex, filter.getOperator(), filter.getElementValues().asMap(),
+            MetaScalar::getIdentifier, MetaScalar::getType);
+        first = false;
+      }
+      if (filter.isMissingAsNull()) {
+        if (!first) {
+          sb.append(separator);
+        }
+        appendAttributePresenceCondition(sb, schemaName, rootTableName, filter,
+            "attribute" + filterIndex, negated);
+      }
+      sb.append(')');
+    }
+  }
+
+  /**
+   * Appends the condition that a document contains the attribute of a filter or, when
+   * {@code present} is false, that it does not contain it. A document contains the attribute if
+   * any of the attribute fields, whatever its type, is set on one of its rows of the doc part.
+   */
+  private void appendAttributePresenceCondition(SqlBuilder sb, String schemaName,
+      String rootTableName, DocPartFilter filter, String alias, boolean present) {
+    if (!present) {
+      sb.append("NOT ");
+    }
+    if (filter.getDocPart().getTableRef().isRoot()) {
+      appendAnyFieldIsSetCondition(sb, rootTableName, filter.getAttributeFields());
+      return;
+    }
+    sb.append("EXISTS (SELECT 1 FROM ")
+        .table(schemaName, filter.getDocPart().getIdentifier())
+        .append(' ')
+        .quote(alias)
+        .append(" WHERE ")
+        .quote(alias).append('.').quote(DocPartTableFields.DID)
+        .append(" = ")
+        .quote(rootTableName).append('.').quote(DocPartTableFields.DID)
+        .append(" AND ");
+    appendAnyFieldIsSetCondition(sb, alias, filter.getAttributeFields());
+    sb.append(')');
+  }
+
+  private void appendAnyFieldIsSetCondition(SqlBuilder sb, String tableName,
+      List<MetaField> fields) {
+    sb.append('(');
+    boolean first = true;
+    for (MetaField field : fields) {
+      if (!first) {
+        sb.append(" OR ");
+      }
+      first = false;
+      sb.quote(tableName).append('.').quote(field.getIdentifier()).append(" IS NOT NULL");
+    }
+    sb.append(')');
+  }
+
+  /**
+   * Appends the subquery that checks if a row of the given doc part, correlated by did, fulfills
+   * the positive version of the filter, preceded by {@code NOT} when the operator is negated.
+   */
+  private <C> void appendFilterSubquery(SqlBuilder sb, String schemaName, String rootTableName,
+      MetaDocPart docPart, String alias, Operator operator,
+      Map<C, Collection<KvValue<?>>> columnsValues, Function<C, String> identifierFunction,
+      Function<C, FieldType> typeFunction) {
+    if (operator.isNegated()) {
+      sb.append("NOT ");
+    }
+    sb.append("EXISTS (SELECT 1 FROM ")
+        .table(schemaName, docPart.getIdentifier())
+        .append(' ')
+        .quote(alias)
+        .append(" WHERE ")
+        .quote(alias).append('.').quote(DocPartTableFields.DID)
+        .append(" = ")
+        .quote(rootTableName).append('.').quote(DocPartTableFields.DID)
+        .append(" AND ");
+    appendFilterCondition(sb, alias, operator, columnsValues, identifierFunction, typeFunction,
+        false);
+    sb.append(')');
+  }
+
+  /**
+   * Appends the order by expressions of a sort, each one followed by a comma.
+   *
+   * <p>When the sort has more than one bracket, rows are first sorted by the bracket of the
+   * field that has a value and then by the value itself. Each row has a value on at most one
+   * field, so the values of each bracket are compared as the coalesce of its fields.
+   */
+  private void appendSortExpressions(SqlBuilder sb, String tableName, DocPartSort sort) {
+    boolean ascending = sort.getOrdering().isAscending();
+    List<List<MetaField>> brackets = sort.getBrackets();
+    if (brackets.size() > 1) {
+      sb.append("CASE");
+      for (int bracketIndex = 0; bracketIndex < brackets.size(); bracketIndex++) {
+        sb.append(" WHEN ");
+        appendSortBracketExpression(sb, tableName, brackets.get(bracketIndex));
+        sb.append(" IS NOT NULL THEN ").append(String.valueOf(bracketIndex + 1));
+      }
+      sb.append(" ELSE 0 END");
+      appendSortOrdering(sb, ascending);
+      sb.append(',');
+    }
+    for (List<MetaField> bracket : brackets) {
+      appendSortBracketExpression(sb, tableName, bracket);
+      appendSortOrdering(sb, ascending);
+      sb.append(',');
+    }
+  }
+
+  private void appendSortBracketExpression(SqlBuilder sb, String tableName,
+      List<MetaField> bracket) {
+    if (bracket.size() == 1) {
+      MetaField field = bracket.get(0);
+      if (field.getType() == FieldType.STRING) {
+        appendBinaryStringColumn(sb, tableName, field.getIdentifier());
+      } else {
+        sb.quote(tableName).append('.').quote(field.getIdentifier());
+      }
+      return;
+    }
+    sb.append("COALESCE(");
+    for (MetaField field : bracket) {
+      sb.quote(tableName).append('.').quote(field.getIdentifier()).append(',');
+    }
+    sb.setLastChar(')');
+  }
+
+  /**
+   * Appends a reference to a string column whose values are compared by their code points instead
+   * of by the collation of the database, so the backend orders strings as they are ordered in
+   * memory. By default the column is appended as it is, which is enough for databases whose
+   * default collation is already binary.
+   */
+  protected void appendBinaryStringColumn(SqlBuilder sb, String tableName, String columnName) {
+    sb.quote(tableName).append('.').quote(columnName);
+  }
+
+  /**
+   * Appends the direction of an order by expression. Null values must be sorted as the lowest
+   * ones.
+   */
+  protected void appendSortOrdering(SqlBuilder sb, boolean ascending) {
+    sb.append(ascending ? " ASC NULLS FIRST" : " DESC NULLS LAST");
+  }
+
+  /**
+   * Appends the clause that skips the first rows of a statement and limits the rows it returns.
+   * The clause has a parameter for the rows to skip, if {@code skip} is true, followed by a
+   * parameter for the max number of rows, if {@code limit} is true.
+   */
+  protected void appendLimitClause(SqlBuilder sb, boolean skip, boolean limit) {
+    if (skip) {
+      sb.append("OFFSET ? ROWS");
+    }
+    if (limit) {
+      if (skip) {
+        sb.append(' ');
+      }
+      sb.append("FETCH FIRST ? ROWS ONLY");
+    }
+  }
+
+  /**
+   * Sets the parameters of the
+   * {@link #appendLimitClause(SqlBuilder, boolean, boolean) limit clause}, starting at the given
+   * index.
+   */
+  protected int setLimitParameters(PreparedStatement preparedStatement, int parameterIndex,
+      long skip, long limit) throws SQLException {
+    if (skip > 0) {
+      preparedStatement.setLong(parameterIndex, skip);
+      parameterIndex++;
+    }
+    if (limit > 0) {
+      preparedStatement.setLong(parameterIndex, limit);
+      parameterIndex++;
+    }
+    return parameterIndex;
+  }
+
+  /**
+   * Appends the condition that a row of the given table must fulfill. When {@code negated} is
+   * false the condition is the positive version of the filter, otherwise it is its negation, which
+   * is fulfilled by rows where the column is null.
+   *
+   * <p>Numeric values can be compared with numeric columns of other types, so the placeholder of
+   * each value is {@link #getFilterPlaceholder(FieldType, FieldType) chosen} by its own type.
+   * String columns are compared by order with a
+   * {@link #appendBinaryStringColumn(SqlBuilder, String, String) binary collation}.
+   */
+  private <C> void appendFilterCondition(SqlBuilder sb, String tableName, Operator operator,
+      Map<C, Collection<KvValue<?>>> columnsValues, Function<C, String> identifierFunction,
+      Function<C, FieldType> typeFunction, boolean negated) {
+    sb.append('(');
+    boolean first = true;
+    for (Map.Entry<C, Collection<KvValue<?>>> valuesEntry : columnsValues.entrySet()) {
+      if (!first) {
+        sb.append(negated ? " AND " : " OR ");
+      }
+      first = false;
+      String columnIdentifier = identifierFunction.apply(valuesEntry.getKey());
+      FieldType columnType = typeFunction.apply(valuesEntry.getKey());
+      if (negated) {
+        sb.append('(')
+            .quote(tableName).append('.').quote(columnIdentifier)
+            .append(" IS NULL OR NOT ");
+      }
+      if (operator.isRange() && columnType == FieldType.STRING) {
+        appendBinaryStringColumn(sb, tableName, columnIdentifier);
+      } else {
+        sb.quote(tableName).append('.').quote(columnIdentifier);
+      }
+      if (operator.isMultiValued()) {
+        sb.append(" IN (");
+        for (KvValue<?> value : getBucketedValues(valuesEntry.getValue())) {
+          sb.append(getFilterPlaceholder(columnType, FieldType.from(value.getType())))
+              .append(',');
+        }
+        sb.setLastChar(')');
+      } else {
+        KvValue<?> value = valuesEntry.getValue().iterator().next();
+        sb.append(' ')
+            .append(getComparisonOperator(operator))
+            .append(' ')
+            .append(getFilterPlaceholder(columnType, FieldType.from(value.getType())));
+      }
+      if (negated) {
+        sb.append(')');
+      }
+    }
+    sb.append(')');
+  }
+
+  /**
+   * Returns the placeholder of a filter value compared with a column of the given type. Values are
+   * set with their own type, so by default the placeholder of the value type is used, which is
+   * enough when the database infers the type of a parameter from the value set on it.
+   */
+  protected String getFilterPlaceholder(FieldType columnType, FieldType valueType) {
+    return sqlHelper.getPlaceholder(valueType);
+  }
+
+  private String getComparisonOperator(Operator operator) {
+    switch (operator) {
+      case EQ:
+      case NE:
+        return "=";
+      case GT:
+        return ">";
+      case GTE:
+        return ">=";
+      case LT:
+        return "<";
+      case LTE:
+        return "<=";
+      default:
+        throw new IllegalArgumentException("Operator " + operator + " is not a comparison");
+    }
+  }
+
+  /**
+   * Creates the builder used to generate statements with the identifiers quoted as this backend
+   * requires.
+   */
+  protected SqlBuilder createSqlBuilder(String init) {
+    return new SqlBuilder(init);
+  }
+
   @Override
   @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
       justification = "ResultSet is wrapped in a Cursor<Tuple2<Integer, KVValue<?>>>. It's "
@@ -219,28 +793,36 @@ public abstract class AbstractReadInterface implements ReadInterface {
     assert valuesMultimap.keySet().stream().allMatch(metafield -> metaDocPart
         .getMetaFieldByIdentifier(metafield.getIdentifier()) != null);
 
-    Stream<Tuple2<MetaField, Collection<KvValue<?>>>> valuesBatchStream =
+    Stream<Tuple2<MetaField, Collection<KvValue<?>>>> valuesStream =
         valuesMultimap.asMap().entrySet().stream()
             .map(e -> new Tuple2<MetaField, Collection<KvValue<?>>>(e.getKey(), e.getValue()));
-    if (valuesMultimap.asMap().entrySet().stream().anyMatch(e -> e.getValue().size() > 500)) {
-      valuesBatchStream = valuesBatchStream
-          .flatMap(e -> Seq.seq(e.v2.stream())
-              .zipWithIndex()
-              .groupBy(t -> t.v2 / 500)
-              .entrySet()
-              .stream()
-              .map(se -> toValuesMap(e.v1, se)));
-    }
     Stream<Cursor<Tuple2<Integer, KvValue<?>>>> didProjectionCursorStream =
-        valuesBatchStream
-            .map(Unchecked.function(mapBatch ->
-                getCollectionDidsAndProjectionWithFieldsInBatch(
-                    dsl,
-                    metaDatabase,
-                    metaCol,
-                    metaDocPart,
-                    mapBatch.v1,
-                    mapBatch.v2)));
+        valuesStream
+            .flatMap(Unchecked.function(e -> {
+              if (useValueSet(e.v1.getType(), e.v2.size())) {
+                return Stream.of(getCollectionDidsAndProjectionWithFieldInValueSet(
+                    dsl, metaDatabase, metaDocPart, e.v1, e.v2));
+              }
+              Stream<Tuple2<MetaField, Collection<KvValue<?>>>> valuesBatchStream =
+                  Stream.of(e);
+              if (e.v2.size() > 500) {
+                valuesBatchStream = Seq.seq(e.v2.stream())
+                    .zipWithIndex()
+                    .groupBy(t -> t.v2 / 500)
+                    .entrySet()
+                    .stream()
+                    .map(se -> toValuesMap(e.v1, se));
+              }
+              return valuesBatchStream
+                  .map(Unchecked.function(mapBatch ->
+                      getCollectionDidsAndProjectionWithFieldsInBatch(
+                          dsl,
+                          metaDatabase,
+                          metaCol,
+                          metaDocPart,
+                          mapBatch.v1,
+                          mapBatch.v2)));
+            }));
     Stream<Tuple2<Integer, KvValue<?>>> didProjectionStream =
         didProjectionCursorStream
             .flatMap(cursor -> cursor.getRemaining().stream());
@@ -270,18 +852,14 @@ public abstract class AbstractReadInterface implements ReadInterface {
       throws SQLException {
     String statement = getReadCollectionDidsAndProjectionWithFieldInStatement(metaDatabase
         .getIdentifier(),
-        metaDocPart.getIdentifier(), metaField.getIdentifier(), values.size());
+        metaDocPart.getIdentifier(), metaField.getIdentifier(),
+        PreparedStatementCache.getBucketedSize(values.size()));
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
-      int parameterIndex = 1;
-      for (KvValue<?> value : values) {
-        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, metaField.getType(),
-            value);
-        parameterIndex++;
-      }
-      return new AbstractCursor<Tuple2<Integer, KvValue<?>>>(errorHandler, preparedStatement
-          .executeQuery()) {
+      ResultSet resultSet = statementCache.executeQuery(connection, statement,
+          preparedStatement -> setBucketedValues(preparedStatement, 1, metaField.getType(),
+              values));
+      return new AbstractCursor<Tuple2<Integer, KvValue<?>>>(errorHandler, resultSet) {
         @Override
         protected Tuple2<Integer, KvValue<?>> read(ResultSet resultSet) throws SQLException {
           return new Tuple2<>(
@@ -303,6 +881,156 @@ public abstract class AbstractReadInterface implements ReadInterface {
       String rootTableName,
       String columnName, int valuesCount);
 
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification = "ResultSet is wrapped in a Cursor<Tuple2<Integer, KVValue<?>>>. "
+          + "It's iterated and closed in caller code")
+  private Cursor<Tuple2<Integer, KvValue<?>>> getCollectionDidsAndProjectionWithFieldInValueSet(
+      DSLContext dsl, MetaDatabase metaDatabase, MetaDocPart metaDocPart, MetaField metaField,
+      Collection<KvValue<?>> values) throws SQLException {
+    String statement = getReadCollectionDidsAndProjectionWithFieldInValueSetStatement(
+        metaDatabase.getIdentifier(), metaDocPart.getIdentifier(), metaField.getIdentifier(),
+        metaField.getType());
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      prepareValueSet(connection, metaDatabase.getIdentifier(), metaField.getType(), values);
+      ResultSet resultSet = statementCache.executeQuery(connection, statement,
+          preparedStatement -> setValueSet(preparedStatement, 1, metaField.getType(), values));
+      return new AbstractCursor<Tuple2<Integer, KvValue<?>>>(errorHandler, resultSet) {
+        @Override
+        protected Tuple2<Integer, KvValue<?>> read(ResultSet resultSet) throws SQLException {
+          return new Tuple2<>(
+              resultSet.getInt(1),
+              sqlHelper.getResultSetKvValue(
+                metaField.getType(),
+                dataTypeProvider.getDataType(metaField.getType()), resultSet, 2
+              )
+          );
+        }
+      };
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that reads the did and the value of the column of the rows of the root
+   * doc part whose column is one of the values of the value set of the given type.
+   *
+   * @see #useValueSet(FieldType, int)
+   */
+  protected String getReadCollectionDidsAndProjectionWithFieldInValueSetStatement(
+      String schemaName, String rootTableName, String columnName, FieldType fieldType) {
+    throw new UnsupportedOperationException("Value sets are not supported by this backend");
+  }
+
+  /**
+   * Returns true if a lookup of {@code valuesCount} values on a column of the given type must be
+   * executed as a single statement that reads all the values from a value set instead of using
+   * {@code IN} lists of at most 500 parameters.
+   *
+   * <p>Backends that support value sets must override this method, the value set statements,
+   * {@link #prepareValueSet(Connection, String, FieldType, Collection)} and
+   * {@link #setValueSet(PreparedStatement, int, FieldType, Collection)}. By default value sets are
+   * not used.
+   */
+  protected boolean useValueSet(FieldType fieldType, int valuesCount) {
+    return false;
+  }
+
+  /**
+   * Makes the given values available to the next value set statement executed on the connection.
+   * It is called before the value set statement is prepared.
+   */
+  protected void prepareValueSet(Connection connection, String schemaName,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+  }
+
+  /**
+   * Sets the parameters that a value set statement needs to read the given values, starting at the
+   * given index.
+   *
+   * @return the index of the next parameter
+   */
+  protected int setValueSet(PreparedStatement preparedStatement, int parameterIndex,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+    return parameterIndex;
+  }
+
+  /**
+   * Returns the name of the temporary table that is used as value set of the given type by
+   * backends that store value sets on temporary tables.
+   */
+  protected String getValueSetTableName(FieldType fieldType) {
+    return "value_set$" + fieldType.name().toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Replaces the content of a temporary table that is used as value set with the given values.
+   *
+   * @param deleteStatement the statement that deletes all the rows of the table
+   * @param insertStatement the statement that inserts a row in the table from a single parameter
+   */
+  protected void fillValueSetTable(Connection connection, String deleteStatement,
+      String insertStatement, FieldType fieldType, Collection<KvValue<?>> values)
+      throws SQLException {
+    statementCache.prepareStatement(connection, deleteStatement).executeUpdate();
+    PreparedStatement preparedStatement = statementCache.prepareStatement(connection,
+        insertStatement);
+    try {
+      int batchSize = 0;
+      for (KvValue<?> value : values) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, 1, fieldType, value);
+        preparedStatement.addBatch();
+        batchSize++;
+        if (batchSize == VALUE_SET_INSERT_BATCH_SIZE) {
+          preparedStatement.executeBatch();
+          batchSize = 0;
+        }
+      }
+      if (batchSize > 0) {
+        preparedStatement.executeBatch();
+      }
+    } finally {
+      preparedStatement.clearBatch();
+    }
+  }
+
+  /**
+   * Returns the given values followed by the last one repeated until the
+   * {@link PreparedStatementCache#getBucketedSize(int) bucketed size} is reached.
+   */
+  private static List<KvValue<?>> getBucketedValues(Collection<KvValue<?>> values) {
+    List<KvValue<?>> bucketedValues = new ArrayList<>(
+        PreparedStatementCache.getBucketedSize(values.size()));
+    bucketedValues.addAll(values);
+    KvValue<?> lastValue = bucketedValues.get(bucketedValues.size() - 1);
+    while (bucketedValues.size() < PreparedStatementCache.getBucketedSize(values.size())) {
+      bucketedValues.add(lastValue);
+    }
+    return bucketedValues;
+  }
+
+  /**
+   * Sets the given values as parameters starting at the given index. The last value is repeated
+   * until the {@link PreparedStatementCache#getBucketedSize(int) bucketed size} is reached.
+   *
+   * @return the index of the next parameter
+   */
+  private int setBucketedValues(PreparedStatement preparedStatement, int parameterIndex,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+    KvValue<?> lastValue = null;
+    for (KvValue<?> value : values) {
+      sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, fieldType, value);
+      parameterIndex++;
+      lastValue = value;
+    }
+    for (int i = values.size(); i < PreparedStatementCache.getBucketedSize(values.size()); i++) {
+      sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, fieldType, lastValue);
+      parameterIndex++;
+    }
+    return parameterIndex;
+  }
+
   @Override
   @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
       justification =
@@ -320,8 +1048,8 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
-      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+      return new DefaultDidCursor(errorHandler, statementCache.executeQuery(connection,
+          statement, preparedStatement -> preparedStatement.setFetchSize(DID_RESULT_FETCH_SIZE)));
     } finally {
       dsl.configuration().connectionProvider().release(connection);
     }
@@ -364,6 +1092,10 @@ public abstract class AbstractReadInterface implements ReadInterface {
   public List<DocPartResult> getCollectionResultSets(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCollection, Collection<Integer> dids) throws SQLException {
     ArrayList<DocPartResult> result = new ArrayList<>();
+    if (dids.isEmpty()) {
+      return result;
+    }
+    int didsCount = PreparedStatementCache.getBucketedSize(dids.size());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
       Iterator<? extends MetaDocPart> metaDocPartIterator = metaCollection
@@ -372,11 +1104,15 @@ public abstract class AbstractReadInterface implements ReadInterface {
           .iterator();
       while (metaDocPartIterator.hasNext()) {
         MetaDocPart metaDocPart = metaDocPartIterator.next();
-        String statament = getDocPartStatament(metaDatabase, metaDocPart, dids);
+        String statament = getDocPartStatament(metaDatabase, metaDocPart, didsCount);
 
-        PreparedStatement preparedStatement = connection.prepareStatement(statament);
+        ResultSet resultSet = statementCache.executeQuery(connection, statament,
+            preparedStatement -> {
+              preparedStatement.setFetchSize(DOC_PART_RESULT_FETCH_SIZE);
+              setBucketedDids(preparedStatement, dids, didsCount);
+            });
         result.add(new ResultSetDocPartResult(metaDataReadInterface, dataTypeProvider, errorHandler,
-            metaDocPart, preparedStatement.executeQuery(), sqlHelper));
+            metaDocPart, resultSet, sqlHelper));
       }
     } finally {
       dsl.configuration().connectionProvider().release(connection);
@@ -384,8 +1120,27 @@ public abstract class AbstractReadInterface implements ReadInterface {
     return result;
   }
 
+  private void setBucketedDids(PreparedStatement preparedStatement, Collection<Integer> dids,
+      int didsCount) throws SQLException {
+    int parameterIndex = 1;
+    int lastDid = 0;
+    for (Integer did : dids) {
+      preparedStatement.setInt(parameterIndex, did);
+      parameterIndex++;
+      lastDid = did;
+    }
+    while (parameterIndex <= didsCount) {
+      preparedStatement.setInt(parameterIndex, lastDid);
+      parameterIndex++;
+    }
+  }
+
+  /**
+   * Returns the statement that reads the rows of a doc part whose did is one of the values of a
+   * list of {@code didsCount} parameters.
+   */
   protected abstract String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
-      Collection<Integer> dids);
+      int didsCount);
 
   @Override
   public int getLastRowIdUsed(DSLContext dsl, MetaDatabase metaDatabase,
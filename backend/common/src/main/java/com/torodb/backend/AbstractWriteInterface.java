@@ -18,8 +18,12 @@
 
 package com.torodb.backend;
 
+import com.google.common.collect.Iterables;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.core.backend.DocPartUpdate;
 import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
 import com.torodb.core.exceptions.user.UserException;
@@ -41,6 +45,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Singleton;
@@ -57,14 +62,17 @@ public abstract class AbstractWriteInterface implements WriteInterface {
   private final MetaDataReadInterface metaDataReadInterface;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
+  private final PreparedStatementCache statementCache;
 
   public AbstractWriteInterface(MetaDataReadInterface metaDataReadInterface,
       ErrorHandler errorHandler,
-      SqlHelper sqlHelper) {
+      SqlHelper sqlHelper,
+      PreparedStatementCache statementCache) {
     super();
     this.metaDataReadInterface = metaDataReadInterface;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
+    this.statementCache = statementCache;
   }
 
   @Override
@@ -74,7 +82,7 @@ public abstract class AbstractWriteInterface implements WriteInterface {
   ) {
     Connection c = dsl.configuration().connectionProvider().acquire();
     try {
-      int maxBatchSize = 100;
+      int maxBatchSize = getMaxDeleteBatchSize();
       long deleted = 0;
 
       while (didCursor.hasNext()) {
@@ -96,29 +104,181 @@ public abstract class AbstractWriteInterface implements WriteInterface {
   ) {
     Connection c = dsl.configuration().connectionProvider().acquire();
     try {
-      deleteCollectionDocParts(c, schemaName, metaCollection, dids);
+      for (List<Integer> didsBatch : Iterables.partition(dids, getMaxDeleteBatchSize())) {
+        deleteCollectionDocParts(c, schemaName, metaCollection, didsBatch);
+      }
+    } finally {
+      dsl.configuration().connectionProvider().release(c);
+    }
+  }
+
+  @Override
+  public void deleteAllCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull MetaCollection metaCollection) {
+    List<String> tableNames = metaCollection.streamContainedMetaDocParts()
+        .sorted(TableRefComparator.MetaDocPart.DESC)
+        .map(MetaDocPart::getIdentifier)
+        .collect(Collectors.toList());
+    if (tableNames.isEmpty()) {
+      return;
+    }
+
+    Connection c = dsl.configuration().connectionProvider().acquire();
+    try {
+      for (String statement : getDeleteAllDocPartsStatements(schemaName, tableNames)) {
+        sqlHelper.executeUpdate(c, statement, Context.DELETE);
+
+        LOGGER.trace("Executed {}", statement);
+      }
     } finally {
       dsl.configuration().connectionProvider().release(c);
     }
   }
 
+  /**
+   * Returns the statements that delete all the rows of the given doc part tables.
+   *
+   * <p>Statements must be transactional, so they can not imply a commit.
+   *
+   * @param tableNames the doc part tables of a collection, children before their parents
+   */
+  protected abstract List<String> getDeleteAllDocPartsStatements(String schemaName,
+      List<String> tableNames);
+
+  /**
+   * Returns the maximum number of dids that are deleted with each statement.
+   */
+  protected int getMaxDeleteBatchSize() {
+    return 1024;
+  }
+
   private void deleteCollectionDocParts(Connection c, String schemaName,
       MetaCollection metaCollection,
       Collection<Integer> dids) {
+    if (dids.isEmpty()) {
+      return;
+    }
+    int didsCount = PreparedStatementCache.getBucketedSize(dids.size());
     Iterator<? extends MetaDocPart> iterator = metaCollection.streamContainedMetaDocParts()
         .sorted(TableRefComparator.MetaDocPart.DESC).iterator();
     while (iterator.hasNext()) {
       MetaDocPart metaDocPart = iterator.next();
-      String statement = getDeleteDocPartsStatement(schemaName, metaDocPart.getIdentifier(), dids);
+      String statement = getDeleteDocPartsStatement(schemaName, metaDocPart.getIdentifier(),
+          didsCount);
 
-      sqlHelper.executeUpdate(c, statement, Context.DELETE);
+      try {
+        PreparedStatement preparedStatement = statementCache.prepareStatement(c, statement);
+        setDeleteDids(c, preparedStatement, dids, didsCount);
+        preparedStatement.executeUpdate();
+      } catch (SQLException ex) {
+        throw errorHandler.handleException(Context.DELETE, ex);
+      }
 
       LOGGER.trace("Executed {}", statement);
     }
   }
 
+  /**
+   * Returns the statement that deletes the rows of a doc part table whose did is one of the dids
+   * set by {@link #setDeleteDids(Connection, PreparedStatement, Collection, int)}.
+   *
+   * @param didsCount the {@link PreparedStatementCache#getBucketedSize(int) bucketed} number of
+   *                  dids to delete
+   */
   protected abstract String getDeleteDocPartsStatement(String schemaName, String tableName,
-      Collection<Integer> dids);
+      int didsCount);
+
+  /**
+   * Sets the dids to delete as parameters of a statement returned by
+   * {@link #getDeleteDocPartsStatement(String, String, int)}. By default each did is set on its own
+   * parameter and the last did is repeated until {@code didsCount} parameters are set.
+   */
+  protected void setDeleteDids(Connection c, PreparedStatement preparedStatement,
+      Collection<Integer> dids, int didsCount) throws SQLException {
+    int parameterIndex = 1;
+    int lastDid = 0;
+    for (Integer did : dids) {
+      preparedStatement.setInt(parameterIndex, did);
+      parameterIndex++;
+      lastDid = did;
+    }
+    while (parameterIndex <= didsCount) {
+      preparedStatement.setInt(parameterIndex, lastDid);
+      parameterIndex++;
+    }
+  }
+
+  @Override
+  public void updateRootDocPartRows(DSLContext dsl, String schemaName, DocPartUpdate update)
+      throws UserException {
+    final int maxBatchSize = getMaxBatchSize();
+    List<MetaField> fields = update.getFields();
+    String statement = getUpdateRootDocPartRowsStatement(schemaName, update.getDocPart(), fields);
+
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = statementCache.prepareStatement(connection, statement);
+      try {
+        int rowCounter = 0;
+        for (DocPartUpdate.Row row : update.getRows()) {
+          rowCounter++;
+          int parameterIndex = 1;
+          Iterator<MetaField> fieldIterator = fields.iterator();
+          for (KvValue<?> value : row.getValues()) {
+            sqlHelper.setPreparedStatementNullableValue(
+                preparedStatement, parameterIndex++,
+                fieldIterator.next().getType(),
+                value);
+          }
+          preparedStatement.setInt(parameterIndex, row.getDid());
+          preparedStatement.addBatch();
+
+          if (rowCounter % maxBatchSize == 0 || rowCounter == update.getRows().size()) {
+            preparedStatement.executeBatch();
+
+            LOGGER.trace("Update batch executed");
+          }
+        }
+      } finally {
+        //the statement is cached, so rows of a failed batch must not be kept on it
+        preparedStatement.clearBatch();
+      }
+    } catch (SQLException ex) {
+      throw errorHandler.handleUserException(Context.UPDATE, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns the statement that sets the given fields on the row of a root doc part table whose did
+   * is the last parameter.
+   */
+  protected String getUpdateRootDocPartRowsStatement(String schemaName, MetaDocPart metaDocPart,
+      List<MetaField> fields) {
+    SqlBuilder sb = createSqlBuilder("UPDATE ")
+        .table(schemaName, metaDocPart.getIdentifier())
+        .append(" SET ");
+    for (MetaField field : fields) {
+      sb.quote(field.getIdentifier())
+          .append(" = ")
+          .append(sqlHelper.getPlaceholder(field.getType()))
+          .append(',');
+    }
+    sb.setLastChar(' ')
+        .append("WHERE ")
+        .quote(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append(" = ?");
+    return sb.toString();
+  }
+
+  /**
+   * Creates the builder used to generate statements with the identifiers quoted as this backend
+   * requires.
+   */
+  protected SqlBuilder createSqlBuilder(String init) {
+    return new SqlBuilder(init);
+  }
 
   @Override
   public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
@@ -139,6 +299,14 @@ public abstract class AbstractWriteInterface implements WriteInterface {
     }
   }
 
+  @Override
+  public void insertCollectionData(DSLContext dsl, String schemaName,
+      CollectionData collectionData) throws UserException {
+    for (DocPartData docPartData : collectionData) {
+      insertDocPartData(dsl, schemaName, docPartData);
+    }
+  }
+
   protected int getMaxBatchSize() {
     return 30;
   }
@@ -161,7 +329,8 @@ public abstract class AbstractWriteInterface implements WriteInterface {
 
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+      PreparedStatement preparedStatement = statementCache.prepareStatement(connection, statement);
+      try {
         int docCounter = 0;
         while (docPartRowIterator.hasNext()) {
           DocPartRow docPartRow = docPartRowIterator.next();
@@ -196,6 +365,9 @@ public abstract class AbstractWriteInterface implements WriteInterface {
             LOGGER.trace("Insertion batch executed");
           }
         }
+      } finally {
+        //the statement is cached, so rows of a failed batch must not be kept on it
+        preparedStatement.clearBatch();
       }
     } catch (SQLException ex) {
       throw errorHandler.handleUserException(Context.INSERT, ex);
@@ -43,4 +43,16 @@ public interface BackendConfig extends BundleConfig {
   public int getDbPort();
 
   public boolean includeForeignKeys();
+
+  /**
+   * Returns true if the backend can insert rows with the binary format of COPY, when it supports
+   * it.
+   */
+  public boolean getBinaryCopyEnabled();
+
+  /**
+   * Returns true if the backend can encode the rows of the next doc parts of a collection batch
+   * while the current one is being inserted, when it supports it.
+   */
+  public boolean getPipelinedInsertEnabled();
 }
@@ -42,10 +42,13 @@ public class BackendConfigImpl implements BackendConfig {
   private final boolean includeForeignKeys;
   private final BundleConfig delegate;
   private final boolean sslEnabled;
+  private final boolean binaryCopyEnabled;
+  private final boolean pipelinedInsertEnabled;
 
   protected BackendConfigImpl(long connectionPoolTimeout, int connectionPoolSize,
       int reservedReadPoolSize, String username, String password, String dbHost, String dbName,
-      int dbPort, boolean includeForeignKeys, BundleConfig delegate, boolean sslEnabled) {
+      int dbPort, boolean includeForeignKeys, BundleConfig delegate, boolean sslEnabled,
+      boolean binaryCopyEnabled, boolean pipelinedInsertEnabled) {
     this.connectionPoolTimeout = connectionPoolTimeout;
     this.connectionPoolSize = connectionPoolSize;
     this.reservedReadPoolSize = reservedReadPoolSize;
@@ -57,6 +60,8 @@ public class BackendConfigImpl implements BackendConfig {
     this.includeForeignKeys = includeForeignKeys;
     this.delegate = delegate;
     this.sslEnabled = sslEnabled;
+    this.binaryCopyEnabled = binaryCopyEnabled;
+    this.pipelinedInsertEnabled = pipelinedInsertEnabled;
   }
 
   @Override
@@ -122,4 +127,14 @@ public class BackendConfigImpl implements BackendConfig {
   public boolean getSslEnabled() {
     return sslEnabled;
   }
+
+  @Override
+  public boolean getBinaryCopyEnabled() {
+    return binaryCopyEnabled;
+  }
+
+  @Override
+  public boolean getPipelinedInsertEnabled() {
+    return pipelinedInsertEnabled;
+  }
 }
@@ -33,6 +33,8 @@ public class BackendConfigImplBuilder implements BackendConfigBuilder {
   private boolean includeForeignKeys = true;
   private final BundleConfig generalConfig;
   private boolean sslEnabled = false;
+  private boolean binaryCopyEnabled = false;
+  private boolean pipelinedInsertEnabled = false;
 
   public BackendConfigImplBuilder(BundleConfig generalConfig) {
     this.generalConfig = generalConfig;
@@ -97,10 +99,21 @@ public class BackendConfigImplBuilder implements BackendConfigBuilder {
     return this;
   }
 
+  public BackendConfigImplBuilder setBinaryCopyEnabled(boolean binaryCopyEnabled) {
+    this.binaryCopyEnabled = binaryCopyEnabled;
+    return this;
+  }
+
+  public BackendConfigImplBuilder setPipelinedInsertEnabled(boolean pipelinedInsertEnabled) {
+    this.pipelinedInsertEnabled = pipelinedInsertEnabled;
+    return this;
+  }
+
   @Override
   public BackendConfig build() {
     return new BackendConfigImpl(connectionPoolTimeout, connectionPoolSize, reservedReadPoolSize,
-        username, password, dbHost, dbName, dbPort, includeForeignKeys, generalConfig, sslEnabled);
+        username, password, dbHost, dbName, dbPort, includeForeignKeys, generalConfig, sslEnabled,
+        binaryCopyEnabled, pipelinedInsertEnabled);
   }
 
 }
@@ -33,9 +33,13 @@ import javax.annotation.Nonnull;
  */
 public class LazyBackendCursor implements BackendCursor {
 
+  private final SqlInterface sqlInterface;
   private final Cursor<Integer> didCursor;
-  private final DefaultDocPartResultCursor docCursor;
-  private boolean usedAsDocPartCursor = false;
+  private final DSLContext dsl;
+  private final MetaDatabase metaDatabase;
+  private final MetaCollection metaCollection;
+  private DefaultDocPartResultCursor docCursor;
+  private MetaCollection docCursorProjection;
   private boolean usedAsDidCursor = false;
 
   public LazyBackendCursor(
@@ -44,21 +48,37 @@ public class LazyBackendCursor implements BackendCursor {
       @Nonnull DSLContext dsl,
       @Nonnull MetaDatabase metaDatabase,
       @Nonnull MetaCollection metaCollection) {
-    docCursor = new DefaultDocPartResultCursor(sqlInterface, didCursor, dsl, metaDatabase,
-        metaCollection);
+    this.sqlInterface = sqlInterface;
     this.didCursor = didCursor;
+    this.dsl = dsl;
+    this.metaDatabase = metaDatabase;
+    this.metaCollection = metaCollection;
   }
 
   @Override
   public Cursor<DocPartResult> asDocPartResultCursor() {
+    return asDocPartResultCursor(metaCollection);
+  }
+
+  @Override
+  public Cursor<DocPartResult> asDocPartResultCursor(MetaCollection projection) {
     Preconditions.checkState(!usedAsDidCursor, "This cursor has already been used as a did cursor");
-    usedAsDocPartCursor = true;
+    Preconditions.checkArgument(projection.getIdentifier().equals(metaCollection.getIdentifier()),
+        "The projection must be a projection of the iterated collection");
+    if (docCursor == null) {
+      docCursor = new DefaultDocPartResultCursor(sqlInterface, didCursor, dsl, metaDatabase,
+          projection);
+      docCursorProjection = projection;
+    } else {
+      Preconditions.checkState(docCursorProjection == projection,
+          "This cursor has already been used as a doc part cursor with another projection");
+    }
     return docCursor;
   }
 
   @Override
   public Cursor<Integer> asDidCursor() {
-    Preconditions.checkState(!usedAsDocPartCursor,
+    Preconditions.checkState(docCursor == null,
         "This cursor has already been used as a doc part cursor");
     usedAsDidCursor = true;
     return didCursor;
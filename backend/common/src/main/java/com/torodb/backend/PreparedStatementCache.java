@@ -0,0 +1,318 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import com.codahale.metrics.Meter;
+import com.torodb.core.metrics.ToroMetricRegistry;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A bounded cache of the prepared statements created on each connection.
+ *
+ * <p>Statements are cached by physical connection. Pooled connections are
+ * {@link Connection#unwrap(Class) unwrapped} and statements are prepared on the physical
+ * connection, so they are not closed when the pool proxy is returned at the end of a transaction
+ * and the next transactions that use the same physical connection reuse them. Statements of
+ * connections that have been closed by the pool are closed the next time a new connection is
+ * seen.
+ *
+ * <p>Each connection keeps at most {@link #MAX_STATEMENTS_PER_CONNECTION} statements, evicting
+ * the least recently used one. Statements are keyed by their SQL text, which already contains the
+ * schema, the doc part, the columns and the number of parameters of the statement.
+ *
+ * <p>The number of distinct statements that use dynamically sized IN lists is kept bounded by
+ * {@link #getBucketedSize(int) bucketing} the number of parameters of the IN list. The caller must
+ * fill the extra parameters repeating one of the values.
+ *
+ * <p>Statements that return result sets must be executed with
+ * {@link #executeQuery(Connection, String, ParameterSetter)}, which does not reuse a statement
+ * whose last result set is still open. Statements returned by this cache must not be closed by
+ * the caller. Instead, {@link #release(Connection)} must be called when the transaction that used
+ * the connection finishes, which closes the result sets that are still open and the statements
+ * that could not be cached.
+ */
+@Singleton
+@SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
+public class PreparedStatementCache {
+
+  private static final Logger LOGGER = BackendLoggerFactory.get(PreparedStatementCache.class);
+
+  public static final int MAX_STATEMENTS_PER_CONNECTION = 128;
+  private static final int MIN_BUCKET_SIZE = 8;
+
+  private final Map<Connection, ConnectionStatements> connections = new ConcurrentHashMap<>();
+  private final Meter hits;
+  private final Meter misses;
+  private final Meter evictions;
+
+  @Inject
+  public PreparedStatementCache(ToroMetricRegistry parentRegistry) {
+    ToroMetricRegistry registry = parentRegistry.createSubRegistry("BackendStatementCache");
+    hits = registry.meter("hits");
+    misses = registry.meter("misses");
+    evictions = registry.meter("evictions");
+  }
+
+  /**
+   * Returns the number of parameters that must be used on an IN list of the given size.
+   *
+   * <p>Sizes are rounded up to the next power of two (and to at least {@link #MIN_BUCKET_SIZE}),
+   * so IN lists of up to n elements generate at most log2(n) different statements.
+   */
+  public static int getBucketedSize(int size) {
+    if (size <= MIN_BUCKET_SIZE) {
+      return MIN_BUCKET_SIZE;
+    }
+    int highestOneBit = Integer.highestOneBit(size);
+    if (highestOneBit == size) {
+      return size;
+    }
+    return highestOneBit << 1;
+  }
+
+  /**
+   * Returns a prepared statement for the given SQL that can be used to execute updates or
+   * batches.
+   */
+  @Nonnull
+  public PreparedStatement prepareStatement(@Nonnull Connection connection, @Nonnull String sql)
+      throws SQLException {
+    ConnectionStatements connectionStatements = getConnectionStatements(connection);
+    synchronized (connectionStatements) {
+      CachedStatement cachedStatement = connectionStatements.get(sql);
+      if (cachedStatement != null && !cachedStatement.isBusy()) {
+        hits.mark();
+        return cachedStatement.statement;
+      }
+      misses.mark();
+      PreparedStatement statement = connectionStatements.connection.prepareStatement(sql);
+      if (cachedStatement == null) {
+        connectionStatements.put(sql, new CachedStatement(statement));
+      } else {
+        connectionStatements.uncachedStatements.add(statement);
+      }
+      return statement;
+    }
+  }
+
+  /**
+   * Executes the query with the given SQL, which has no parameters.
+   *
+   * @see #executeQuery(Connection, String, ParameterSetter)
+   */
+  @Nonnull
+  public ResultSet executeQuery(@Nonnull Connection connection, @Nonnull String sql)
+      throws SQLException {
+    return executeQuery(connection, sql, preparedStatement -> {
+    });
+  }
+
+  /**
+   * Executes the query with the given SQL, reusing a cached statement whose last result set has
+   * already been closed.
+   */
+  @Nonnull
+  public ResultSet executeQuery(@Nonnull Connection connection, @Nonnull String sql,
+      @Nonnull ParameterSetter parameterSetter) throws SQLException {
+    ConnectionStatements connectionStatements = getConnectionStatements(connection);
+    synchronized (connectionStatements) {
+      CachedStatement cachedStatement = connectionStatements.get(sql);
+      if (cachedStatement == null || cachedStatement.isBusy()) {
+        misses.mark();
+        PreparedStatement statement = connectionStatements.connection.prepareStatement(sql);
+        if (cachedStatement == null) {
+          cachedStatement = new CachedStatement(statement);
+          connectionStatements.put(sql, cachedStatement);
+        } else {
+          connectionStatements.uncachedStatements.add(statement);
+          statement.closeOnCompletion();
+          parameterSetter.setParameters(statement);
+          return statement.executeQuery();
+        }
+      } else {
+        hits.mark();
+      }
+      parameterSetter.setParameters(cachedStatement.statement);
+      cachedStatement.lastResultSet = cachedStatement.statement.executeQuery();
+      return cachedStatement.lastResultSet;
+    }
+  }
+
+  /**
+   * Called when the transaction that used the given connection finishes.
+   *
+   * <p>The result sets of the cached statements that are still open and the statements that
+   * could not be cached are closed. Cached statements are kept for the next transaction that
+   * uses the same physical connection.
+   */
+  public void release(@Nonnull Connection connection) {
+    ConnectionStatements connectionStatements;
+    try {
+      connectionStatements = connections.get(getPhysicalConnection(connection));
+    } catch (SQLException ex) {
+      LOGGER.debug("Error while looking for the physical connection", ex);
+      return;
+    }
+    if (connectionStatements == null) {
+      return;
+    }
+    synchronized (connectionStatements) {
+      for (CachedStatement cachedStatement : connectionStatements.values()) {
+        if (cachedStatement.lastResultSet != null) {
+          close(cachedStatement.lastResultSet);
+          cachedStatement.lastResultSet = null;
+        }
+      }
+      for (PreparedStatement statement : connectionStatements.uncachedStatements) {
+        close(statement);
+      }
+      connectionStatements.uncachedStatements.clear();
+    }
+  }
+
+  private ConnectionStatements getConnectionStatements(Connection connection)
+      throws SQLException {
+    Connection physicalConnection = getPhysicalConnection(connection);
+    ConnectionStatements connectionStatements = connections.get(physicalConnection);
+    if (connectionStatements == null) {
+      removeClosedConnections();
+      connectionStatements = connections.computeIfAbsent(physicalConnection,
+          ConnectionStatements::new);
+    }
+    return connectionStatements;
+  }
+
+  private Connection getPhysicalConnection(Connection connection) throws SQLException {
+    if (connection.isWrapperFor(Connection.class)) {
+      return connection.unwrap(Connection.class);
+    }
+    return connection;
+  }
+
+  /**
+   * Closes the statements of the connections that have been closed by the pool.
+   *
+   * <p>This is only done when a new physical connection is seen, as connections are only closed
+   * by the pool to be replaced by new ones.
+   */
+  private void removeClosedConnections() {
+    Iterator<ConnectionStatements> it = connections.values().iterator();
+    while (it.hasNext()) {
+      ConnectionStatements connectionStatements = it.next();
+      boolean closed;
+      try {
+        closed = connectionStatements.connection.isClosed();
+      } catch (SQLException ex) {
+        closed = true;
+      }
+      if (closed) {
+        it.remove();
+        synchronized (connectionStatements) {
+          for (CachedStatement cachedStatement : connectionStatements.values()) {
+            close(cachedStatement.statement);
+          }
+          for (PreparedStatement statement : connectionStatements.uncachedStatements) {
+            close(statement);
+          }
+          connectionStatements.clear();
+          connectionStatements.uncachedStatements.clear();
+        }
+      }
+    }
+  }
+
+  private static void close(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception ex) {
+      LOGGER.debug("Error while closing a cached statement or result set", ex);
+    }
+  }
+
+  @FunctionalInterface
+  public static interface ParameterSetter {
+
+    public void setParameters(PreparedStatement preparedStatement) throws SQLException;
+  }
+
+  private static class CachedStatement {
+
+    private final PreparedStatement statement;
+    private ResultSet lastResultSet;
+
+    public CachedStatement(PreparedStatement statement) {
+      this.statement = statement;
+    }
+
+    private boolean isBusy() throws SQLException {
+      return lastResultSet != null && !lastResultSet.isClosed();
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private class ConnectionStatements extends LinkedHashMap<String, CachedStatement> {
+
+    private final Connection connection;
+    /**
+     * Statements that are not cached and must be closed when the transaction finishes.
+     */
+    private final List<PreparedStatement> uncachedStatements = new ArrayList<>();
+
+    public ConnectionStatements(Connection connection) {
+      super(16, 0.75f, true);
+      this.connection = connection;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+      if (size() <= MAX_STATEMENTS_PER_CONNECTION) {
+        return false;
+      }
+      evictions.mark();
+      CachedStatement cachedStatement = eldest.getValue();
+      try {
+        //a statement whose result set is still in use is closed when the transaction finishes
+        if (cachedStatement.isBusy()) {
+          uncachedStatements.add(cachedStatement.statement);
+        } else {
+          cachedStatement.statement.close();
+        }
+      } catch (SQLException ex) {
+        LOGGER.debug("Error while closing an evicted statement", ex);
+      }
+      return true;
+    }
+  }
+}
@@ -19,8 +19,11 @@
 package com.torodb.backend;
 
 import com.google.common.collect.Multimap;
+import com.torodb.core.backend.DocPartFilter;
+import com.torodb.core.backend.DocPartSort;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -56,6 +59,47 @@ public interface ReadInterface {
       Multimap<MetaField, KvValue<?>> valuesMultimap)
       throws SQLException;
 
+  /**
+   * Returns the dids of the documents of the collection that fulfill all the given filters,
+   * evaluated on a single statement.
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull List<DocPartFilter> filters)
+      throws SQLException;
+
+  /**
+   * Returns the dids of the documents of the collection that fulfill all the given filters,
+   * sorted by the given sorts and then by did, skipping the first {@code skip} ones and returning
+   * at most {@code limit} of them if it is greater than 0.
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull List<DocPartFilter> filters, @Nonnull List<DocPartSort> sorts, long skip,
+      long limit)
+      throws SQLException;
+
+  /**
+   * Returns the number of documents of the collection that fulfill all the given filters,
+   * evaluated on a single statement.
+   */
+  long countWithFilter(@Nonnull DSLContext dsl, @Nonnull MetaDatabase metaDatabase,
+      @Nonnull MetaCollection metaCol, @Nonnull List<DocPartFilter> filters)
+      throws SQLException;
+
+  /**
+   * Returns the distinct non null values that the given column of the doc part has on the
+   * documents of the collection that fulfill all the given filters.
+   */
+  @Nonnull
+  Cursor<KvValue<?>> getDistinctValuesWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull MetaDocPart metaDocPart, @Nonnull String columnName, @Nonnull FieldType fieldType,
+      @Nonnull List<DocPartFilter> filters)
+      throws SQLException;
+
   long countAll(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection);
 
@@ -18,7 +18,9 @@
 
 package com.torodb.backend;
 
+import com.torodb.core.backend.DocPartUpdate;
 import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -33,10 +35,29 @@ public interface WriteInterface {
   void insertDocPartData(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull DocPartData docPartData) throws UserException;
 
+  void insertCollectionData(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull CollectionData collectionData) throws UserException;
+
+  /**
+   * Sets the values of the given update on the rows of its root doc part table whose did is the
+   * one of each updated row.
+   */
+  void updateRootDocPartRows(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull DocPartUpdate update) throws UserException;
+
   long deleteCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull MetaCollection metaCollection, @Nonnull Cursor<Integer> didCursor);
 
   void deleteCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull MetaCollection metaCollection, @Nonnull Collection<Integer> dids);
 
+  /**
+   * Deletes all the rows of all the doc part tables of the given collection.
+   *
+   * <p>The rows are deleted as part of the transaction of the given context, so they are restored
+   * if the transaction is rolled back.
+   */
+  void deleteAllCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull MetaCollection metaCollection);
+
 }
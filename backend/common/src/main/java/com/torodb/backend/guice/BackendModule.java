@@ -22,6 +22,7 @@ import com.google.inject.PrivateModule;
 import com.google.inject.Singleton;
 import com.torodb.backend.DslContextFactory;
 import com.torodb.backend.DslContextFactoryImpl;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.SqlInterface;
 import com.torodb.backend.SqlInterfaceDelegate;
@@ -67,6 +68,10 @@ public class BackendModule extends PrivateModule {
         .in(Singleton.class);
     expose(SqlHelper.class);
 
+    bind(PreparedStatementCache.class)
+        .in(Singleton.class);
+    expose(PreparedStatementCache.class);
+
     bind(KvMetainfoHandler.class);
 
     install(new BackendServiceModule());
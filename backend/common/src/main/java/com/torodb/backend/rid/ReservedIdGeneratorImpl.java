@@ -18,6 +18,7 @@
 
 package com.torodb.backend.rid;
 
+import com.google.common.base.Preconditions;
 import com.torodb.core.TableRef;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import com.torodb.core.transaction.metainf.MetaSnapshot;
@@ -96,6 +97,12 @@ public class ReservedIdGeneratorImpl implements ReservedIdGenerator {
       return get(tableRef).getAndAddLastUsedId(1) + 1;
     }
 
+    @Override
+    public int reserveRids(TableRef tableRef, int count) {
+      Preconditions.checkArgument(count > 0, "At least one rid must be reserved");
+      return get(tableRef).getAndAddLastUsedId(count) + 1;
+    }
+
     @Override
     public void setNextRid(TableRef tableRef, int nextRid) {
       get(tableRef).setLastUsedId(nextRid);
@@ -20,6 +20,7 @@ package com.torodb.backend.service;
 
 import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlInterface;
 import com.torodb.backend.ddl.DefaultDdlOperationExecutor;
 import com.torodb.backend.service.BackendServiceImpl.DdlOperationExecutorFactory;
@@ -45,19 +46,21 @@ public class BackendServiceModule extends PrivateModule {
 
   @Provides
   ReadDmlTransactionFactory createReadTransactionFactory(
-      SqlInterface sqlInterface, KvMetainfoHandler metainfoHandler) {
-    return () -> new ReadDmlTransactionImpl(sqlInterface, metainfoHandler);
+      SqlInterface sqlInterface, KvMetainfoHandler metainfoHandler,
+      PreparedStatementCache statementCache) {
+    return () -> new ReadDmlTransactionImpl(sqlInterface, metainfoHandler, statementCache);
   }
 
   @Provides
   WriteDmlTransactionFactory createWriteDmlTransactionFactory(
       SqlInterface sqlInterface, TableRefFactory tableRefFactory, IdentifierFactory idFactory,
-      KvMetainfoHandler metainfoHandler) {
+      KvMetainfoHandler metainfoHandler, PreparedStatementCache statementCache) {
     return () -> new WriteDmlTransactionImpl(
         sqlInterface,
         tableRefFactory,
         idFactory,
-        metainfoHandler
+        metainfoHandler,
+        statementCache
     );
   }
 
@@ -21,9 +21,12 @@ package com.torodb.backend.service;
 import com.google.common.collect.Multimap;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.LazyBackendCursor;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlInterface;
 import com.torodb.core.backend.BackendCursor;
 import com.torodb.core.backend.DmlTransaction;
+import com.torodb.core.backend.DocPartFilter;
+import com.torodb.core.backend.DocPartSort;
 import com.torodb.core.backend.EmptyBackendCursor;
 import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
@@ -33,12 +36,14 @@ import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.kvdocument.values.KvValue;
 import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -51,13 +56,15 @@ abstract class BackendTransactionImpl implements DmlTransaction {
   private final DSLContext dsl;
   private final SqlInterface sqlInterface;
   private final KvMetainfoHandler metainfoHandler;
+  private final PreparedStatementCache statementCache;
 
   public BackendTransactionImpl(Connection connection, SqlInterface sqlInterface,
-      KvMetainfoHandler metainfoHandler) {
+      KvMetainfoHandler metainfoHandler, PreparedStatementCache statementCache) {
     this.connection = connection;
     this.dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
     this.sqlInterface = sqlInterface;
     this.metainfoHandler = metainfoHandler;
+    this.statementCache = statementCache;
   }
 
   @Override
@@ -153,6 +160,61 @@ abstract class BackendTransactionImpl implements DmlTransaction {
     }
   }
 
+  @Override
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col,
+      List<DocPartFilter> filters) {
+    try {
+      Cursor<Integer> allDids = sqlInterface.getReadInterface().getCollectionDidsWithFilter(dsl,
+          db, col, filters);
+      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, col);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col,
+      List<DocPartFilter> filters, List<DocPartSort> sorts, long skip, long limit) {
+    try {
+      Cursor<Integer> allDids = sqlInterface.getReadInterface().getCollectionDidsWithFilter(dsl,
+          db, col, filters, sorts, skip, limit);
+      return new LazyBackendCursor(sqlInterface, allDids, dsl, db, col);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public long countByFilter(MetaDatabase db, MetaCollection col, List<DocPartFilter> filters) {
+    try {
+      return sqlInterface.getReadInterface().countWithFilter(dsl, db, col, filters);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, MetaField field, List<DocPartFilter> filters) {
+    try {
+      return sqlInterface.getReadInterface().getDistinctValuesWithFilter(dsl, db, col, docPart,
+          field.getIdentifier(), field.getType(), filters);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, MetaScalar scalar, List<DocPartFilter> filters) {
+    try {
+      return sqlInterface.getReadInterface().getDistinctValuesWithFilter(dsl, db, col, docPart,
+          scalar.getIdentifier(), scalar.getType(), filters);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
   @Override
   public BackendCursor fetch(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor) {
     return new LazyBackendCursor(sqlInterface, didCursor, dsl, db, col);
@@ -183,6 +245,7 @@ abstract class BackendTransactionImpl implements DmlTransaction {
     if (!closed) {
       closed = true;
       try {
+        statementCache.release(connection);
         connection.rollback();
         connection.close();
       } catch (SQLException ex) {
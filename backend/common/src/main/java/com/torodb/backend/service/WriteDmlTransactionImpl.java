@@ -21,10 +21,14 @@ package com.torodb.backend.service;
 import com.google.common.base.Preconditions;
 import com.torodb.backend.BackendLoggerFactory;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlInterface;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.DocPartUpdate;
 import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.backend.WriteDmlTransaction;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.exceptions.user.UserException;
@@ -46,8 +50,10 @@ class WriteDmlTransactionImpl extends BackendTransactionImpl implements
       SqlInterface sqlInterface,
       TableRefFactory tableRefFactory,
       IdentifierFactory identifierFactory,
-      KvMetainfoHandler metainfoHandler) {
-    super(sqlInterface.getDbBackend().createWriteConnection(), sqlInterface, metainfoHandler);
+      KvMetainfoHandler metainfoHandler,
+      PreparedStatementCache statementCache) {
+    super(sqlInterface.getDbBackend().createWriteConnection(), sqlInterface, metainfoHandler,
+        statementCache);
   }
 
   @Override
@@ -65,6 +71,28 @@ class WriteDmlTransactionImpl extends BackendTransactionImpl implements
     getSqlInterface().getWriteInterface().insertDocPartData(getDsl(), db.getIdentifier(), data);
   }
 
+  @Override
+  public void insert(MetaDatabase db, MetaCollection col, CollectionData data) throws
+      UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    getSqlInterface().getWriteInterface().insertCollectionData(getDsl(), db.getIdentifier(),
+        data);
+  }
+
+  @Override
+  public void update(MetaDatabase db, MetaCollection col, DocPartUpdate update)
+      throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    if (update.getRows().isEmpty()) {
+      return;
+    }
+
+    getSqlInterface().getWriteInterface().updateRootDocPartRows(getDsl(), db.getIdentifier(),
+        update);
+  }
+
   @Override
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids) {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
@@ -77,6 +105,29 @@ class WriteDmlTransactionImpl extends BackendTransactionImpl implements
         .deleteCollectionDocParts(getDsl(), db.getIdentifier(), col, dids);
   }
 
+  @Override
+  public long deleteDids(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor) {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    return getSqlInterface().getWriteInterface()
+        .deleteCollectionDocParts(getDsl(), db.getIdentifier(), col, didCursor);
+  }
+
+  @Override
+  public long deleteAll(MetaDatabase db, MetaCollection col) {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    long count = countAll(db, col);
+    if (count == 0) {
+      return 0;
+    }
+
+    getSqlInterface().getWriteInterface()
+        .deleteAllCollectionDocParts(getDsl(), db.getIdentifier(), col);
+
+    return count;
+  }
+
   @Override
   public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
     return getMetainfoHandler().writeMetaInfo(getDsl(), key, newValue);
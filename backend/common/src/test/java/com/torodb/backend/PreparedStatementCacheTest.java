@@ -0,0 +1,169 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@RunWith(JUnitPlatform.class)
+public class PreparedStatementCacheTest {
+
+  private static final String SQL = "SELECT did FROM test WHERE did IN (?,?,?,?,?,?,?,?)";
+
+  private PreparedStatementCache cache;
+  private Connection connection;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    cache = new PreparedStatementCache(new DisabledMetricRegistry());
+    connection = mockConnection();
+  }
+
+  @Test
+  public void bucketedSizes() {
+    assertEquals(8, PreparedStatementCache.getBucketedSize(1));
+    assertEquals(8, PreparedStatementCache.getBucketedSize(8));
+    assertEquals(16, PreparedStatementCache.getBucketedSize(9));
+    assertEquals(512, PreparedStatementCache.getBucketedSize(500));
+    assertEquals(1024, PreparedStatementCache.getBucketedSize(1024));
+  }
+
+  @Test
+  public void reusesStatements() throws SQLException {
+    PreparedStatement statement = cache.prepareStatement(connection, SQL);
+
+    assertSame(statement, cache.prepareStatement(connection, SQL));
+    verify(connection, times(1)).prepareStatement(SQL);
+  }
+
+  @Test
+  public void doesNotShareStatementsBetweenConnections() throws SQLException {
+    PreparedStatement statement = cache.prepareStatement(connection, SQL);
+
+    Connection otherConnection = mockConnection();
+    assertNotSame(statement, cache.prepareStatement(otherConnection, SQL));
+  }
+
+  @Test
+  public void reusesStatementsAcrossTransactions() throws SQLException {
+    Connection firstProxy = mockPooledConnection(connection);
+    ResultSet resultSet = cache.executeQuery(firstProxy, SQL);
+    cache.release(firstProxy);
+
+    Connection secondProxy = mockPooledConnection(connection);
+    assertSame(resultSet.getStatement(), cache.executeQuery(secondProxy, SQL).getStatement());
+    cache.release(secondProxy);
+
+    verify(connection, times(1)).prepareStatement(SQL);
+    verify(firstProxy, never()).prepareStatement(SQL);
+    verify(secondProxy, never()).prepareStatement(SQL);
+  }
+
+  @Test
+  public void doesNotReuseStatementsWithOpenResultSets() throws SQLException {
+    ResultSet first = cache.executeQuery(connection, SQL);
+    ResultSet second = cache.executeQuery(connection, SQL);
+
+    assertNotSame(first.getStatement(), second.getStatement());
+
+    first.close();
+    ResultSet third = cache.executeQuery(connection, SQL);
+    assertSame(first.getStatement(), third.getStatement());
+  }
+
+  @Test
+  public void releaseClosesOpenResultSetsAndUncachedStatements() throws SQLException {
+    ResultSet cached = cache.executeQuery(connection, SQL);
+    ResultSet uncached = cache.executeQuery(connection, SQL);
+
+    cache.release(connection);
+
+    assertTrue(cached.isClosed());
+    verify(cached.getStatement(), never()).close();
+    verify(uncached.getStatement()).close();
+    assertSame(cached.getStatement(), cache.executeQuery(connection, SQL).getStatement());
+  }
+
+  @Test
+  public void closesStatementsOfClosedConnections() throws SQLException {
+    PreparedStatement statement = cache.prepareStatement(connection, SQL);
+    when(connection.isClosed())
+        .thenReturn(true);
+
+    cache.prepareStatement(mockConnection(), SQL);
+
+    verify(statement).close();
+  }
+
+  private Connection mockConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(SQL))
+        .then(invocation -> mockStatement());
+    return connection;
+  }
+
+  private Connection mockPooledConnection(Connection physicalConnection) throws SQLException {
+    Connection proxy = mock(Connection.class);
+    when(proxy.isWrapperFor(Connection.class))
+        .thenReturn(true);
+    when(proxy.unwrap(Connection.class))
+        .thenReturn(physicalConnection);
+    return proxy;
+  }
+
+  private PreparedStatement mockStatement() throws SQLException {
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(statement.executeQuery())
+        .then(invocation -> mockResultSet(statement));
+    return statement;
+  }
+
+  private ResultSet mockResultSet(PreparedStatement statement) throws SQLException {
+    ResultSet resultSet = mock(ResultSet.class);
+    boolean[] closed = new boolean[] {false};
+    when(resultSet.getStatement())
+        .thenReturn(statement);
+    when(resultSet.isClosed())
+        .then(invocation -> closed[0]);
+    doAnswer(invocation -> {
+      closed[0] = true;
+      return null;
+    }).when(resultSet).close();
+    return resultSet;
+  }
+}
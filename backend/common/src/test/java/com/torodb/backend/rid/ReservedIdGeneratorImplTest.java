@@ -52,6 +52,21 @@ public class ReservedIdGeneratorImplTest {
 
   }
 
+  @Test
+  public void reservedBlocksAreContiguousAndDisjoint() {
+    TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+    ReservedIdGeneratorImpl container = new ReservedIdGeneratorImpl(
+        new MockedReservedIdInfoFactory());
+    container.load(new ImmutableMetaSnapshot.Builder().build());
+
+    DocPartRidGenerator docPartRidGenerator = container.getDocPartRidGenerator("myDB",
+        "myCollection");
+    TableRef root = tableRefFactory.createRoot();
+    assertEquals(1, docPartRidGenerator.reserveRids(root, 4));
+    assertEquals(5, docPartRidGenerator.reserveRids(root, 2));
+    assertEquals(7, docPartRidGenerator.nextRid(root));
+  }
+
   private static class MockedReservedIdInfoFactory implements ReservedIdInfoFactory {
 
     @Override
@@ -22,6 +22,7 @@ import static com.torodb.backend.ErrorHandler.Context.ADD_COLUMN;
 import static com.torodb.backend.ErrorHandler.Context.CREATE_SCHEMA;
 import static com.torodb.backend.ErrorHandler.Context.CREATE_TABLE;
 import static com.torodb.backend.ErrorHandler.Context.INSERT;
+import static com.torodb.backend.ErrorHandler.Context.UPDATE;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -49,9 +50,10 @@ public class DerbyErrorHandler extends AbstractErrorHandler {
          */
         rollbackRule("X0Y32", CREATE_TABLE, ADD_COLUMN),
         /**
-         * Duplicate key value in unique index on insert
+         * Duplicate key value in unique index on insert or update
          */
-        userRule("23505", b -> new UniqueIndexViolationException(b.getMessage(), b), INSERT)
+        userRule("23505", b -> new UniqueIndexViolationException(b.getMessage(), b), INSERT,
+            UPDATE)
     );
   }
 }
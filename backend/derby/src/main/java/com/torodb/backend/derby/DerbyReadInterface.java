@@ -20,17 +20,24 @@ package com.torodb.backend.derby;
 
 import com.torodb.backend.AbstractReadInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import org.jooq.Converter;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -39,14 +46,31 @@ import javax.inject.Singleton;
 @Singleton
 public class DerbyReadInterface extends AbstractReadInterface {
 
+  /**
+   * Lookups of more values than this are executed with a join against a temporary table.
+   */
+  private static final int VALUE_SET_THRESHOLD = 500;
+  private static final Set<FieldType> VALUE_SET_TYPES = EnumSet.of(
+      FieldType.BOOLEAN,
+      FieldType.DOUBLE,
+      FieldType.INTEGER,
+      FieldType.LONG,
+      FieldType.MONGO_OBJECT_ID,
+      FieldType.STRING);
+  private static final String OBJECT_ALREADY_EXISTS_SQL_STATE = "X0Y32";
+
   private final DerbyMetaDataReadInterface metaDataReadInterface;
+  private final DerbyDataTypeProvider dataTypeProvider;
 
   @Inject
   public DerbyReadInterface(DerbyMetaDataReadInterface metaDataReadInterface,
       DerbyDataTypeProvider dataTypeProvider,
-      DerbyErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
-    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory);
+      DerbyErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory,
+        statementCache);
     this.metaDataReadInterface = metaDataReadInterface;
+    this.dataTypeProvider = dataTypeProvider;
   }
 
   @Override
@@ -140,6 +164,100 @@ public class DerbyReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  /**
+   * Derby infers the type of a parameter from the column it is compared with, so values of other
+   * types are cast to their own type.
+   */
+  @Override
+  protected String getFilterPlaceholder(FieldType columnType, FieldType valueType) {
+    String placeholder = super.getFilterPlaceholder(columnType, valueType);
+    if (columnType == valueType) {
+      return placeholder;
+    }
+    return "CAST(" + placeholder + " AS " + dataTypeProvider.getDataType(valueType).getTypeName()
+        + ")";
+  }
+
+  @Override
+  protected boolean useValueSet(FieldType fieldType, int valuesCount) {
+    return valuesCount > VALUE_SET_THRESHOLD && VALUE_SET_TYPES.contains(fieldType);
+  }
+
+  @Override
+  protected void prepareValueSet(Connection connection, String schemaName,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+    String tableName = getValueSetTableName(fieldType);
+    StringBuilder sb = new StringBuilder()
+        .append("DECLARE GLOBAL TEMPORARY TABLE SESSION.\"")
+        .append(tableName)
+        .append("\" (\"v\" ")
+        .append(dataTypeProvider.getDataType(fieldType).getCastTypeName())
+        .append(") ON COMMIT DELETE ROWS NOT LOGGED");
+    String declareStatement = sb.toString();
+    sb = new StringBuilder()
+        .append("DELETE FROM SESSION.\"")
+        .append(tableName)
+        .append('"');
+    String deleteStatement = sb.toString();
+    sb = new StringBuilder()
+        .append("INSERT INTO SESSION.\"")
+        .append(tableName)
+        .append("\" (\"v\") VALUES (?)");
+    String insertStatement = sb.toString();
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(declareStatement);
+    } catch (SQLException ex) {
+      //the table is kept until the connection is closed
+      if (!OBJECT_ALREADY_EXISTS_SQL_STATE.equals(ex.getSQLState())) {
+        throw ex;
+      }
+    }
+    fillValueSetTable(connection, deleteStatement, insertStatement, fieldType, values);
+  }
+
+  @Override
+  protected String getReadCollectionDidsWithFieldInValueSetStatement(String schemaName,
+      String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" IN (SELECT \"v\" FROM SESSION.\"")
+        .append(getValueSetTableName(fieldType))
+        .append("\") ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getReadCollectionDidsAndProjectionWithFieldInValueSetStatement(
+      String schemaName, String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\",\"")
+        .append(columnName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" IN (SELECT \"v\" FROM SESSION.\"")
+        .append(getValueSetTableName(fieldType))
+        .append("\")");
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadAllCollectionDidsStatement(String schemaName, String rootTableName) {
     StringBuilder sb = new StringBuilder()
@@ -168,7 +286,7 @@ public class DerbyReadInterface extends AbstractReadInterface {
 
   @Override
   protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("SELECT ");
     Collection<InternalField<?>> internalFields = metaDataReadInterface.getInternalFields(
@@ -197,24 +315,20 @@ public class DerbyReadInterface extends AbstractReadInterface {
         .append("\" WHERE \"")
         .append(metaDataReadInterface.getMetaDocPartTable().DID.getName())
         .append("\" IN (");
-    Converter<?, Integer> converter =
-        metaDataReadInterface.getMetaDocPartTable().DID.getDataType().getConverter();
-    for (Integer requestedDoc : dids) {
-      sb.append(converter.to(requestedDoc))
-          .append(',');
+    for (int i = 0; i < didsCount; i++) {
+      sb.append("?,");
     }
     sb.setCharAt(sb.length() - 1, ')');
-    if (!metaDocPart.getTableRef().isRoot()) {
-      sb.append(" ORDER BY ");
-      Collection<InternalField<?>> internalFieldsIt = metaDataReadInterface
-          .getReadInternalFields(metaDocPart);
-      for (InternalField<?> internalField : internalFieldsIt) {
-        sb.append('"')
-            .append(internalField.getName())
-            .append("\",");
-      }
-      sb.deleteCharAt(sb.length() - 1);
+    // rows are ordered by did, so documents can be translated incrementally
+    sb.append(" ORDER BY ");
+    Collection<InternalField<?>> internalFieldsIt = metaDataReadInterface
+        .getReadInternalFields(metaDocPart);
+    for (InternalField<?> internalField : internalFieldsIt) {
+      sb.append('"')
+          .append(internalField.getName())
+          .append("\",");
     }
+    sb.deleteCharAt(sb.length() - 1);
     return sb.toString();
   }
 
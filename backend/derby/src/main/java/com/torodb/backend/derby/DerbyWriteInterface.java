@@ -20,6 +20,7 @@ package com.torodb.backend.derby;
 
 import com.torodb.backend.AbstractWriteInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable;
 import com.torodb.core.transaction.metainf.FieldType;
@@ -27,6 +28,7 @@ import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -43,13 +45,30 @@ public class DerbyWriteInterface extends AbstractWriteInterface {
   @Inject
   public DerbyWriteInterface(DerbyMetaDataReadInterface metaDataReadInterface,
       DerbyErrorHandler errorHandler,
-      SqlHelper sqlHelper) {
-    super(metaDataReadInterface, errorHandler, sqlHelper);
+      SqlHelper sqlHelper,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, errorHandler, sqlHelper, statementCache);
+  }
+
+  @Override
+  protected List<String> getDeleteAllDocPartsStatements(String schemaName,
+      List<String> tableNames) {
+    List<String> statements = new ArrayList<>(tableNames.size());
+    for (String tableName : tableNames) {
+      StringBuilder sb = new StringBuilder()
+          .append("DELETE FROM \"")
+          .append(schemaName)
+          .append("\".\"")
+          .append(tableName)
+          .append('"');
+      statements.add(sb.toString());
+    }
+    return statements;
   }
 
   @Override
   protected String getDeleteDocPartsStatement(String schemaName, String tableName,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("DELETE FROM \"")
         .append(schemaName)
@@ -58,9 +77,8 @@ public class DerbyWriteInterface extends AbstractWriteInterface {
         .append("\" WHERE \"")
         .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
         .append("\" IN (");
-    for (Integer did : dids) {
-      sb.append(did)
-          .append(',');
+    for (int index = 0; index < didsCount; index++) {
+      sb.append("?,");
     }
     sb.setCharAt(sb.length() - 1, ')');
     String statement = sb.toString();
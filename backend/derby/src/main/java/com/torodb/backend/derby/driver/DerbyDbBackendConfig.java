@@ -97,6 +97,16 @@ public class DerbyDbBackendConfig implements BackendConfig {
     return delegate.includeForeignKeys();
   }
 
+  @Override
+  public boolean getBinaryCopyEnabled() {
+    return delegate.getBinaryCopyEnabled();
+  }
+
+  @Override
+  public boolean getPipelinedInsertEnabled() {
+    return delegate.getPipelinedInsertEnabled();
+  }
+
   @Override
   public ThreadFactory getThreadFactory() {
     return delegate.getThreadFactory();
@@ -20,17 +20,25 @@ package com.torodb.backend.mysql;
 
 import com.torodb.backend.AbstractReadInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import org.jooq.Converter;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -39,14 +47,69 @@ import javax.inject.Singleton;
 @Singleton
 public class MySqlReadInterface extends AbstractReadInterface {
 
+  /**
+   * Lookups of more values than this are executed with a join against a temporary table.
+   */
+  private static final int VALUE_SET_THRESHOLD = 500;
+  private static final Set<FieldType> VALUE_SET_TYPES = EnumSet.of(
+      FieldType.BOOLEAN,
+      FieldType.DOUBLE,
+      FieldType.INTEGER,
+      FieldType.LONG,
+      FieldType.MONGO_OBJECT_ID,
+      FieldType.STRING);
+
+  /**
+   * MySQL requires a limit to skip rows, so this one is used when there is no limit.
+   */
+  private static final String MAX_LIMIT = "18446744073709551615";
+
   private final MySqlMetaDataReadInterface metaDataReadInterface;
+  private final MySqlDataTypeProvider dataTypeProvider;
 
   @Inject
   public MySqlReadInterface(MySqlMetaDataReadInterface metaDataReadInterface,
       MySqlDataTypeProvider dataTypeProvider,
-      MySqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
-    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory);
+      MySqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory,
+        statementCache);
     this.metaDataReadInterface = metaDataReadInterface;
+    this.dataTypeProvider = dataTypeProvider;
+  }
+
+  @Override
+  protected SqlBuilder createSqlBuilder(String init) {
+    return new MySqlBuilder(init);
+  }
+
+  /**
+   * MySQL already sorts null values as the lowest ones and does not support explicit null
+   * ordering.
+   */
+  @Override
+  protected void appendSortOrdering(SqlBuilder sb, boolean ascending) {
+    sb.append(ascending ? " ASC" : " DESC");
+  }
+
+  @Override
+  protected void appendLimitClause(SqlBuilder sb, boolean skip, boolean limit) {
+    sb.append("LIMIT ");
+    if (skip) {
+      sb.append("?, ");
+    }
+    sb.append(limit ? "?" : MAX_LIMIT);
+  }
+
+  /**
+   * The column is cast to a binary string, which is compared byte by byte whatever the character
+   * set of the column is, as naming a binary collation requires to know it.
+   */
+  @Override
+  protected void appendBinaryStringColumn(SqlBuilder sb, String tableName, String columnName) {
+    sb.append("CAST(");
+    super.appendBinaryStringColumn(sb, tableName, columnName);
+    sb.append(" AS BINARY)");
   }
 
   @Override
@@ -138,6 +201,91 @@ public class MySqlReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  @Override
+  protected boolean useValueSet(FieldType fieldType, int valuesCount) {
+    return valuesCount > VALUE_SET_THRESHOLD && VALUE_SET_TYPES.contains(fieldType);
+  }
+
+  @Override
+  protected void prepareValueSet(Connection connection, String schemaName,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+    String tableName = getValueSetTableName(fieldType);
+    StringBuilder sb = new StringBuilder()
+        .append("CREATE TEMPORARY TABLE IF NOT EXISTS `")
+        .append(schemaName)
+        .append("`.`")
+        .append(tableName)
+        .append("` (`v` ")
+        .append(dataTypeProvider.getDataType(fieldType).getCastTypeName())
+        .append(')');
+    String createStatement = sb.toString();
+    sb = new StringBuilder()
+        .append("DELETE FROM `")
+        .append(schemaName)
+        .append("`.`")
+        .append(tableName)
+        .append('`');
+    String deleteStatement = sb.toString();
+    sb = new StringBuilder()
+        .append("INSERT INTO `")
+        .append(schemaName)
+        .append("`.`")
+        .append(tableName)
+        .append("` (`v`) VALUES (?)");
+    String insertStatement = sb.toString();
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(createStatement);
+    }
+    fillValueSetTable(connection, deleteStatement, insertStatement, fieldType, values);
+  }
+
+  @Override
+  protected String getReadCollectionDidsWithFieldInValueSetStatement(String schemaName,
+      String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT `")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("` FROM `")
+        .append(schemaName)
+        .append("`.`")
+        .append(rootTableName)
+        .append("` WHERE `")
+        .append(columnName)
+        .append("` IN (SELECT `v` FROM `")
+        .append(schemaName)
+        .append("`.`")
+        .append(getValueSetTableName(fieldType))
+        .append("`) ORDER BY `")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('`');
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getReadCollectionDidsAndProjectionWithFieldInValueSetStatement(
+      String schemaName, String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT `")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("`,`")
+        .append(columnName)
+        .append("` FROM `")
+        .append(schemaName)
+        .append("`.`")
+        .append(rootTableName)
+        .append("` WHERE `")
+        .append(columnName)
+        .append("` IN (SELECT `v` FROM `")
+        .append(schemaName)
+        .append("`.`")
+        .append(getValueSetTableName(fieldType))
+        .append("`)");
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadAllCollectionDidsStatement(String schemaName, String rootTableName) {
     StringBuilder sb = new StringBuilder()
@@ -166,7 +314,7 @@ public class MySqlReadInterface extends AbstractReadInterface {
 
   @Override
   protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("SELECT ");
     Collection<InternalField<?>> internalFields = metaDataReadInterface.getInternalFields(
@@ -195,25 +343,21 @@ public class MySqlReadInterface extends AbstractReadInterface {
         .append("` WHERE `")
         .append(metaDataReadInterface.getMetaDocPartTable().DID.getName())
         .append("` IN (");
-    Converter<?, Integer> converter =
-        metaDataReadInterface.getMetaDocPartTable().DID.getDataType().getConverter();
-    for (Integer requestedDoc : dids) {
-      sb.append(converter.to(requestedDoc))
-          .append(',');
+    for (int i = 0; i < didsCount; i++) {
+      sb.append("?,");
     }
     sb.setCharAt(sb.length() - 1, ')');
-    if (!metaDocPart.getTableRef().isRoot()) {
-      sb.append(" ORDER BY ");
-      Collection<InternalField<?>> internalFieldsIt =
-          metaDataReadInterface.getReadInternalFields(metaDocPart);
-      for (InternalField<?> internalField : internalFieldsIt) {
-        sb
-            .append('`')
-            .append(internalField.getName())
-            .append("`,");
-      }
-      sb.deleteCharAt(sb.length() - 1);
+    // rows are ordered by did, so documents can be translated incrementally
+    sb.append(" ORDER BY ");
+    Collection<InternalField<?>> internalFieldsIt =
+        metaDataReadInterface.getReadInternalFields(metaDocPart);
+    for (InternalField<?> internalField : internalFieldsIt) {
+      sb
+          .append('`')
+          .append(internalField.getName())
+          .append("`,");
     }
+    sb.deleteCharAt(sb.length() - 1);
     return sb.toString();
   }
 
@@ -21,6 +21,8 @@ package com.torodb.backend.mysql;
 import com.codahale.metrics.Timer;
 import com.torodb.backend.AbstractWriteInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable;
 import com.torodb.core.d2r.DocPartData;
@@ -31,6 +33,7 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import org.jooq.DSLContext;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -48,15 +51,40 @@ public class MySqlWriteInterface extends AbstractWriteInterface {
   public MySqlWriteInterface(MySqlMetaDataReadInterface metaDataReadInterface,
       MySqlErrorHandler errorHandler,
       SqlHelper sqlHelper,
-      MySqlMetrics metrics) {
-    super(metaDataReadInterface, errorHandler, sqlHelper);
+      MySqlMetrics metrics,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, errorHandler, sqlHelper, statementCache);
     this.sqlHelper = sqlHelper;
     this.metrics = metrics;
   }
 
+  /**
+   * MySQL TRUNCATE implies a commit, so rows are deleted with a DELETE for each table.
+   */
+  @Override
+  protected List<String> getDeleteAllDocPartsStatements(String schemaName,
+      List<String> tableNames) {
+    List<String> statements = new ArrayList<>(tableNames.size());
+    for (String tableName : tableNames) {
+      StringBuilder sb = new StringBuilder()
+          .append("DELETE FROM `")
+          .append(schemaName)
+          .append("`.`")
+          .append(tableName)
+          .append('`');
+      statements.add(sb.toString());
+    }
+    return statements;
+  }
+
+  @Override
+  protected SqlBuilder createSqlBuilder(String init) {
+    return new MySqlBuilder(init);
+  }
+
   @Override
   protected String getDeleteDocPartsStatement(String schemaName, String tableName,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("DELETE FROM `")
         .append(schemaName)
@@ -65,9 +93,8 @@ public class MySqlWriteInterface extends AbstractWriteInterface {
         .append("` WHERE `")
         .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
         .append("` IN (");
-    for (Integer did : dids) {
-      sb.append(did)
-          .append(',');
+    for (int index = 0; index < didsCount; index++) {
+      sb.append("?,");
     }
     sb.setCharAt(sb.length() - 1, ')');
     String statement = sb.toString();
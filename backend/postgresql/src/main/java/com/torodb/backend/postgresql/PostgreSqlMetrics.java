@@ -33,6 +33,8 @@ public final class PostgreSqlMetrics {
   private final Meter insertFields;
   private final Meter insertDefault;
   private final Meter insertCopy;
+  private final Meter insertBinaryCopy;
+  private final Meter insertPipelined;
 
   @Inject
   public PostgreSqlMetrics(ToroMetricRegistry parentRegistry) {
@@ -42,6 +44,8 @@ public final class PostgreSqlMetrics {
     insertFields = registry.meter("insertFields");
     insertDefault = registry.meter("insertDefault");
     insertCopy = registry.meter("insertCopy");
+    insertBinaryCopy = registry.meter("insertBinaryCopy");
+    insertPipelined = registry.meter("insertPipelined");
   }
 
   public Timer getInsertDocPartDataTimer() {
@@ -64,4 +68,12 @@ public final class PostgreSqlMetrics {
     return insertCopy;
   }
 
+  public Meter getInsertBinaryCopy() {
+    return insertBinaryCopy;
+  }
+
+  public Meter getInsertPipelined() {
+    return insertPipelined;
+  }
+
 }
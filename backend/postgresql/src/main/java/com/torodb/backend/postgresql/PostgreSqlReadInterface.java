@@ -20,15 +20,21 @@ package com.torodb.backend.postgresql;
 
 import com.torodb.backend.AbstractReadInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToArrayLiteralConverter;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import org.jooq.Converter;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.stream.Stream;
@@ -40,13 +46,27 @@ import javax.inject.Singleton;
 public class PostgreSqlReadInterface extends AbstractReadInterface {
 
   private final PostgreSqlMetaDataReadInterface metaDataReadInterface;
+  private final SqlHelper sqlHelper;
 
   @Inject
   public PostgreSqlReadInterface(PostgreSqlMetaDataReadInterface metaDataReadInterface,
       PostgreSqlDataTypeProvider dataTypeProvider,
-      PostgreSqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
-    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory);
+      PostgreSqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory,
+        statementCache);
     this.metaDataReadInterface = metaDataReadInterface;
+    this.sqlHelper = sqlHelper;
+  }
+
+  /**
+   * The "C" collation compares strings by the bytes of their UTF-8 encoding, which follows the
+   * order of their code points.
+   */
+  @Override
+  protected void appendBinaryStringColumn(SqlBuilder sb, String tableName, String columnName) {
+    super.appendBinaryStringColumn(sb, tableName, columnName);
+    sb.append(" COLLATE \"C\"");
   }
 
   @Override
@@ -138,6 +158,65 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  /**
+   * Values of simple types are bound as a single array parameter, so lookups of any number of
+   * values are executed with one statement and one plan.
+   */
+  @Override
+  protected boolean useValueSet(FieldType fieldType, int valuesCount) {
+    return PostgreSqlValueToArrayLiteralConverter.SUPPORTED_TYPES.contains(fieldType);
+  }
+
+  @Override
+  protected int setValueSet(PreparedStatement preparedStatement, int parameterIndex,
+      FieldType fieldType, Collection<KvValue<?>> values) throws SQLException {
+    preparedStatement.setString(parameterIndex,
+        PostgreSqlValueToArrayLiteralConverter.INSTANCE.toArrayLiteral(values));
+    return parameterIndex + 1;
+  }
+
+  @Override
+  protected String getReadCollectionDidsWithFieldInValueSetStatement(String schemaName,
+      String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" = ANY(?::")
+        .append(sqlHelper.getSqlTypeName(fieldType))
+        .append("[]) ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getReadCollectionDidsAndProjectionWithFieldInValueSetStatement(
+      String schemaName, String rootTableName, String columnName, FieldType fieldType) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\",\"")
+        .append(columnName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" = ANY(?::")
+        .append(sqlHelper.getSqlTypeName(fieldType))
+        .append("[])");
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadAllCollectionDidsStatement(String schemaName, String rootTableName) {
     StringBuilder sb = new StringBuilder()
@@ -166,7 +245,7 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
 
   @Override
   protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("SELECT ");
     Collection<InternalField<?>> internalFields = metaDataReadInterface.getInternalFields(
@@ -195,25 +274,21 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
         .append("\" WHERE \"")
         .append(metaDataReadInterface.getMetaDocPartTable().DID.getName())
         .append("\" IN (");
-    Converter<?, Integer> converter =
-        metaDataReadInterface.getMetaDocPartTable().DID.getDataType().getConverter();
-    for (Integer requestedDoc : dids) {
-      sb.append(converter.to(requestedDoc))
-          .append(',');
+    for (int i = 0; i < didsCount; i++) {
+      sb.append("?,");
     }
     sb.setCharAt(sb.length() - 1, ')');
-    if (!metaDocPart.getTableRef().isRoot()) {
-      sb.append(" ORDER BY ");
-      Collection<InternalField<?>> internalFieldsIt =
-          metaDataReadInterface.getReadInternalFields(metaDocPart);
-      for (InternalField<?> internalField : internalFieldsIt) {
-        sb
-            .append('"')
-            .append(internalField.getName())
-            .append("\",");
-      }
-      sb.deleteCharAt(sb.length() - 1);
+    // rows are ordered by did, so documents can be translated incrementally
+    sb.append(" ORDER BY ");
+    Collection<InternalField<?>> internalFieldsIt =
+        metaDataReadInterface.getReadInternalFields(metaDocPart);
+    for (InternalField<?> internalField : internalFieldsIt) {
+      sb
+          .append('"')
+          .append(internalField.getName())
+          .append("\",");
     }
+    sb.deleteCharAt(sb.length() - 1);
     return sb.toString();
   }
 
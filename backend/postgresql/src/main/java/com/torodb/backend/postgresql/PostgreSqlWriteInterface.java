@@ -19,14 +19,22 @@
 package com.torodb.backend.postgresql;
 
 import com.codahale.metrics.Timer;
+import com.google.common.base.Throwables;
 import com.torodb.backend.AbstractWriteInterface;
+import com.torodb.backend.BackendConfig;
 import com.torodb.backend.BackendLoggerFactory;
 import com.torodb.backend.ErrorHandler;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.PreparedStatementCache;
 import com.torodb.backend.SqlHelper;
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToBinaryCopyConverter;
 import com.torodb.backend.postgresql.converters.PostgreSqlValueToCopyConverter;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
 import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.common.util.CompletionExceptions;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
 import com.torodb.core.exceptions.SystemException;
@@ -40,16 +48,34 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.copy.CopyManager;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -59,50 +85,116 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
 
   private static final Logger LOGGER = BackendLoggerFactory.get(PostgreSqlWriteInterface.class);
   public static final int MAX_CAPPED_SIZE = 10;
+  /**
+   * The number of bytes (or chars) that are accumulated before they are sent to the server.
+   */
+  private static final int COPY_FLUSH_THRESHOLD = 65536;
+  /**
+   * The number of encoded chunks of a doc part that can wait to be sent on pipelined inserts.
+   */
+  private static final int MAX_PENDING_CHUNKS = 4;
 
   private final PostgreSqlMetaDataReadInterface postgreSqlMetaDataReadInterface;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
   private final PostgreSqlMetrics metrics;
+  private final boolean binaryCopyEnabled;
+  private final boolean pipelinedInsertEnabled;
+  private final ExecutorService encoderExecutor;
+  private final int pipelineWindow;
 
   @Inject
   public PostgreSqlWriteInterface(PostgreSqlMetaDataReadInterface metaDataReadInterface,
       PostgreSqlErrorHandler errorHandler,
       SqlHelper sqlHelper,
-      PostgreSqlMetrics metrics) {
-    super(metaDataReadInterface, errorHandler, sqlHelper);
+      PostgreSqlMetrics metrics,
+      BackendConfig configuration,
+      ConcurrentToolsFactory concurrentToolsFactory,
+      PreparedStatementCache statementCache) {
+    super(metaDataReadInterface, errorHandler, sqlHelper, statementCache);
     this.postgreSqlMetaDataReadInterface = metaDataReadInterface;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
     this.metrics = metrics;
+    this.binaryCopyEnabled = configuration.getBinaryCopyEnabled();
+    this.pipelinedInsertEnabled = configuration.getPipelinedInsertEnabled();
+    this.pipelineWindow = concurrentToolsFactory.getDefaultMaxThreads();
+    if (pipelinedInsertEnabled) {
+      //encoders block while their chunk queue is full. Doc parts are submitted in the order they
+      //are sent, so the doc part being sent always has its encoder running
+      this.encoderExecutor = concurrentToolsFactory.createExecutorService(
+          "postgresql-copy-encoder", true, pipelineWindow);
+    } else {
+      this.encoderExecutor = null;
+    }
+  }
+
+  /**
+   * All the tables are truncated with a single statement, so foreign keys between them do not
+   * prevent the truncation. PostgreSQL TRUNCATE is transactional.
+   */
+  @Override
+  protected List<String> getDeleteAllDocPartsStatements(String schemaName,
+      List<String> tableNames) {
+    StringBuilder sb = new StringBuilder()
+        .append("TRUNCATE ");
+    for (String tableName : tableNames) {
+      sb.append('"')
+          .append(schemaName)
+          .append("\".\"")
+          .append(tableName)
+          .append("\",");
+    }
+    sb.deleteCharAt(sb.length() - 1);
+    return Collections.singletonList(sb.toString());
+  }
+
+  /**
+   * Dids are bound as a single array parameter, so they can be deleted on bigger batches and the
+   * same plan is used whatever the number of dids.
+   */
+  @Override
+  protected int getMaxDeleteBatchSize() {
+    return 10000;
   }
 
   @Override
   protected String getDeleteDocPartsStatement(String schemaName, String tableName,
-      Collection<Integer> dids) {
+      int didsCount) {
     StringBuilder sb = new StringBuilder()
         .append("DELETE FROM \"")
         .append(schemaName)
         .append("\".\"")
         .append(tableName)
-        .append("\" WHERE \"")
+        .append("\" USING unnest(?::integer[]) AS \"deleted\"(\"")
         .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
-        .append("\" IN (");
-    for (Integer did : dids) {
-      sb.append(did)
-          .append(',');
-    }
-    sb.setCharAt(sb.length() - 1, ')');
+        .append("\") WHERE \"")
+        .append(tableName)
+        .append("\".\"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append("\" = \"deleted\".\"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append('"');
     String statement = sb.toString();
     return statement;
   }
 
   @Override
-  public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
-      UserException {
+  protected void setDeleteDids(Connection c, PreparedStatement preparedStatement,
+      Collection<Integer> dids, int didsCount) throws SQLException {
+    preparedStatement.setArray(1, c.createArrayOf("int4", dids.toArray()));
+  }
+
+  private void markInsertMetrics(DocPartData docPartData) {
     metrics.getInsertRows().mark(docPartData.rowCount());
     metrics.getInsertFields().mark(docPartData.rowCount() * (docPartData.fieldColumnsCount()
         + docPartData.scalarColumnsCount()));
+  }
+
+  @Override
+  public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
+      UserException {
+    markInsertMetrics(docPartData);
 
     if (docPartData.rowCount() == 0) {
       return;
@@ -135,12 +227,21 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
             super.insertDocPartData(dsl, schemaName, docPartData);
           } else {
             try {
-              metrics.getInsertCopy().mark();
-              copyInsertDocPartData(
-                  connection.unwrap(PGConnection.class),
-                  schemaName,
-                  docPartData
-              );
+              if (binaryCopyEnabled) {
+                metrics.getInsertBinaryCopy().mark();
+                binaryCopyInsertDocPartData(
+                    connection.unwrap(PGConnection.class),
+                    schemaName,
+                    docPartData
+                );
+              } else {
+                metrics.getInsertCopy().mark();
+                copyInsertDocPartData(
+                    connection.unwrap(PGConnection.class),
+                    schemaName,
+                    docPartData
+                );
+              }
             } catch (DataAccessException ex) {
               throw errorHandler.handleUserException(Context.INSERT, ex);
             } catch (SQLException ex) {
@@ -163,32 +264,232 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     }
   }
 
+  /**
+   * Inserts the given collection data.
+   *
+   * <p>When pipelined inserts are enabled, the COPY payloads of the next doc parts are encoded on
+   * the encoder executor while the current one is being sent to the server. All COPY statements
+   * are executed on the connection of the transaction following the order given by
+   * {@link CollectionData#orderedDocPartData()}, so parent rows are always inserted before their
+   * children and the transaction semantics do not change.
+   *
+   * <p>Encoders do not build the whole payload of a doc part. They hand chunks of about
+   * {@link #COPY_FLUSH_THRESHOLD} bytes to the sender through a queue of at most
+   * {@link #MAX_PENDING_CHUNKS} chunks and block when it is full, so at most
+   * {@link #pipelineWindow} doc parts with a bounded number of chunks each are kept on memory
+   * whatever the size of the batch.
+   */
+  @Override
+  public void insertCollectionData(DSLContext dsl, String schemaName,
+      CollectionData collectionData) throws UserException {
+    if (!pipelinedInsertEnabled || !isPgConnection(dsl)) {
+      super.insertCollectionData(dsl, schemaName, collectionData);
+      return;
+    }
+
+    metrics.getInsertPipelined().mark();
+
+    Deque<PendingDocPartData> pendingDocParts = new ArrayDeque<>(pipelineWindow);
+    Iterator<DocPartData> docPartDataIterator = collectionData.orderedDocPartData().iterator();
+    try {
+      while (docPartDataIterator.hasNext() || !pendingDocParts.isEmpty()) {
+        while (docPartDataIterator.hasNext() && pendingDocParts.size() < pipelineWindow) {
+          pendingDocParts.add(startEncoding(schemaName, docPartDataIterator.next()));
+        }
+        PendingDocPartData pending = pendingDocParts.poll();
+        if (pending.encodedCopy == null) {
+          insertDocPartData(dsl, schemaName, pending.docPartData);
+        } else {
+          try {
+            insertEncodedDocPartData(dsl, pending.docPartData, pending.encodedCopy);
+          } finally {
+            pending.encodedCopy.cancel();
+          }
+        }
+      }
+    } finally {
+      for (PendingDocPartData pending : pendingDocParts) {
+        if (pending.encodedCopy != null) {
+          pending.encodedCopy.cancel();
+        }
+      }
+    }
+  }
+
+  private boolean isPgConnection(DSLContext dsl) {
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      return connection.isWrapperFor(PGConnection.class);
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(Context.INSERT, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  private PendingDocPartData startEncoding(String schemaName, DocPartData docPartData) {
+    if (docPartData.rowCount() < MAX_CAPPED_SIZE) {
+      return new PendingDocPartData(docPartData, null);
+    }
+    final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
+    Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
+        .getInternalFields(metaDocPart);
+    EncodedCopy encodedCopy;
+    if (binaryCopyEnabled) {
+      encodedCopy = new EncodedCopy(getBinaryCopyInsertDocPartDataStatement(
+          schemaName, docPartData, metaDocPart, internalFields), true);
+    } else {
+      encodedCopy = new EncodedCopy(getCopyInsertDocPartDataStatement(
+          schemaName, docPartData, metaDocPart, internalFields), false);
+    }
+    encodedCopy.encoding = CompletableFuture.runAsync(
+        () -> encodeDocPartData(encodedCopy, docPartData, internalFields), encoderExecutor);
+    return new PendingDocPartData(docPartData, encodedCopy);
+  }
+
+  private void encodeDocPartData(EncodedCopy encodedCopy, DocPartData docPartData,
+      Collection<InternalField<?>> internalFields) {
+    final BinaryCopyBuffer buffer = new BinaryCopyBuffer(COPY_FLUSH_THRESHOLD * 2);
+    try {
+      if (encodedCopy.binary) {
+        final int fieldCount = internalFields.size() + docPartData.scalarColumnsCount()
+            + docPartData.fieldColumnsCount();
+        buffer.writeHeader();
+        for (DocPartRow tableRow : docPartData) {
+          addValuesToBinaryCopy(buffer, tableRow, internalFields, fieldCount);
+          if (buffer.length() >= COPY_FLUSH_THRESHOLD) {
+            encodedCopy.offer(buffer);
+          }
+        }
+        buffer.writeTrailer();
+      } else {
+        final StringBuilder sb = new StringBuilder(COPY_FLUSH_THRESHOLD * 2);
+        for (DocPartRow tableRow : docPartData) {
+          addValuesToCopy(sb, tableRow, internalFields);
+          if (sb.length() >= COPY_FLUSH_THRESHOLD) {
+            buffer.writeUtf8(sb.toString());
+            sb.setLength(0);
+            encodedCopy.offer(buffer);
+          }
+        }
+        buffer.writeUtf8(sb.toString());
+      }
+      encodedCopy.offer(buffer);
+    } finally {
+      encodedCopy.finish();
+    }
+  }
+
+  private void insertEncodedDocPartData(DSLContext dsl, DocPartData docPartData,
+      EncodedCopy encodedCopy) throws UserException {
+    markInsertMetrics(docPartData);
+
+    if (encodedCopy.binary) {
+      metrics.getInsertBinaryCopy().mark();
+    } else {
+      metrics.getInsertCopy().mark();
+    }
+
+    try (Timer.Context ctx = metrics.getInsertDocPartDataTimer().time()) {
+      Connection connection = dsl.configuration().connectionProvider().acquire();
+      try {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+            .copyIn(encodedCopy.statement);
+        try {
+          byte[] chunk = encodedCopy.take();
+          while (chunk != EncodedCopy.END_OF_COPY) {
+            copyIn.writeToCopy(chunk, 0, chunk.length);
+            chunk = encodedCopy.take();
+          }
+          encodedCopy.checkEncoded();
+          copyIn.endCopy();
+        } finally {
+          cancelIfActive(copyIn);
+        }
+      } catch (DataAccessException ex) {
+        throw errorHandler.handleUserException(Context.INSERT, ex);
+      } catch (SQLException ex) {
+        throw errorHandler.handleUserException(Context.INSERT, ex);
+      } finally {
+        dsl.configuration().connectionProvider().release(connection);
+      }
+    }
+  }
+
   private void copyInsertDocPartData(
       PGConnection connection,
       String schemaName,
       DocPartData docPartData) throws SQLException, IOException {
 
-    final int maxBatchSize = 1024;
     final CopyManager copyManager = connection.getCopyAPI();
     final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
     Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
         .getInternalFields(metaDocPart);
-    final StringBuilder sb = new StringBuilder(65536);
+    final StringBuilder sb = new StringBuilder(COPY_FLUSH_THRESHOLD * 2);
+    final CopyInTextEncoder encoder = new CopyInTextEncoder();
     final String copyStatement = getCopyInsertDocPartDataStatement(
         schemaName, docPartData, metaDocPart, internalFields);
 
-    Iterator<DocPartRow> docPartRowIterator = docPartData.iterator();
-    int docCounter = 0;
-    while (docPartRowIterator.hasNext()) {
-      DocPartRow tableRow = docPartRowIterator.next();
-      docCounter++;
+    CopyIn copyIn = copyManager.copyIn(copyStatement);
+    try {
+      for (DocPartRow tableRow : docPartData) {
+        addValuesToCopy(sb, tableRow, internalFields);
+        assert sb.length() != 0;
+
+        if (sb.length() >= COPY_FLUSH_THRESHOLD) {
+          encoder.write(copyIn, sb);
+          sb.setLength(0);
+        }
+      }
+      if (sb.length() > 0) {
+        encoder.write(copyIn, sb);
+      }
+      copyIn.endCopy();
+    } finally {
+      cancelIfActive(copyIn);
+    }
+  }
+
+  private void binaryCopyInsertDocPartData(
+      PGConnection connection,
+      String schemaName,
+      DocPartData docPartData) throws SQLException, IOException {
+
+    final CopyManager copyManager = connection.getCopyAPI();
+    final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
+    Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
+        .getInternalFields(metaDocPart);
+    final int fieldCount = internalFields.size() + docPartData.scalarColumnsCount()
+        + docPartData.fieldColumnsCount();
+    final BinaryCopyBuffer buffer = new BinaryCopyBuffer(COPY_FLUSH_THRESHOLD * 2);
+    final String copyStatement = getBinaryCopyInsertDocPartDataStatement(
+        schemaName, docPartData, metaDocPart, internalFields);
+
+    CopyIn copyIn = copyManager.copyIn(copyStatement);
+    try {
+      buffer.writeHeader();
+      for (DocPartRow tableRow : docPartData) {
+        addValuesToBinaryCopy(buffer, tableRow, internalFields, fieldCount);
 
-      addValuesToCopy(sb, tableRow, internalFields);
-      assert sb.length() != 0;
+        if (buffer.length() >= COPY_FLUSH_THRESHOLD) {
+          copyIn.writeToCopy(buffer.array(), 0, buffer.length());
+          buffer.reset();
+        }
+      }
+      buffer.writeTrailer();
+      copyIn.writeToCopy(buffer.array(), 0, buffer.length());
+      copyIn.endCopy();
+    } finally {
+      cancelIfActive(copyIn);
+    }
+  }
 
-      if (docCounter % maxBatchSize == 0 || !docPartRowIterator.hasNext()) {
-        executeCopy(copyManager, copyStatement, sb);
-        sb.setLength(0);
+  private void cancelIfActive(CopyIn copyIn) {
+    if (copyIn.isActive()) {
+      try {
+        copyIn.cancelCopy();
+      } catch (SQLException ex) {
+        LOGGER.debug("Error while cancelling an unfinished COPY", ex);
       }
     }
   }
@@ -226,6 +527,13 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     return copyStatement;
   }
 
+  protected String getBinaryCopyInsertDocPartDataStatement(String schemaName,
+      DocPartData docPartData, final MetaDocPart metaDocPart,
+      Collection<InternalField<?>> internalFields) {
+    return getCopyInsertDocPartDataStatement(schemaName, docPartData, metaDocPart, internalFields)
+        + " WITH (FORMAT binary)";
+  }
+
   private void addValuesToCopy(
       StringBuilder sb,
       DocPartRow docPartRow,
@@ -257,38 +565,168 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     sb.append('\t');
   }
 
-  private void executeCopy(CopyManager copyManager, String copyStatement, final StringBuilder sb)
-      throws SQLException, IOException {
-    Reader reader = new StringBuilderReader(sb);
+  private void addValuesToBinaryCopy(
+      BinaryCopyBuffer buffer,
+      DocPartRow docPartRow,
+      Collection<InternalField<?>> internalFields,
+      int fieldCount) {
+    buffer.writeTupleStart(fieldCount);
+    for (InternalField<?> internalField : internalFields) {
+      //all internal fields are stored as int4
+      Integer internalValue = (Integer) internalField.getValue(docPartRow);
+      if (internalValue == null) {
+        buffer.writeNull();
+      } else {
+        buffer.writeInt(4);
+        buffer.writeInt(internalValue);
+      }
+    }
+    for (KvValue<?> value : docPartRow.getScalarValues()) {
+      addValueToBinaryCopy(buffer, value);
+    }
+    for (KvValue<?> value : docPartRow.getFieldValues()) {
+      addValueToBinaryCopy(buffer, value);
+    }
+  }
 
-    copyManager.copyIn(copyStatement, reader);
+  protected void addValueToBinaryCopy(BinaryCopyBuffer buffer, KvValue<?> value) {
+    if (value != null) {
+      value.accept(PostgreSqlValueToBinaryCopyConverter.INSTANCE, buffer);
+    } else {
+      buffer.writeNull();
+    }
   }
 
-  private static class StringBuilderReader extends Reader {
+  private static class PendingDocPartData {
 
-    private final StringBuilder sb;
-    private int readerIndex = 0;
+    private final DocPartData docPartData;
+    private final EncodedCopy encodedCopy;
+
+    public PendingDocPartData(DocPartData docPartData, EncodedCopy encodedCopy) {
+      this.docPartData = docPartData;
+      this.encodedCopy = encodedCopy;
+    }
+  }
 
-    public StringBuilderReader(StringBuilder sb) {
-      this.sb = sb;
+  /**
+   * The COPY of a doc part whose payload is being encoded on the encoder executor.
+   *
+   * <p>The encoder hands the payload to the sender in chunks through a bounded queue. The end of
+   * the payload is signaled with {@link #END_OF_COPY}, which is also sent when the encoder fails,
+   * so the sender never waits forever.
+   */
+  private static class EncodedCopy {
+
+    private static final byte[] END_OF_COPY = new byte[0];
+
+    private final String statement;
+    private final boolean binary;
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS);
+    private volatile boolean cancelled = false;
+    private volatile CompletableFuture<Void> encoding;
+
+    public EncodedCopy(String statement, boolean binary) {
+      this.statement = statement;
+      this.binary = binary;
     }
 
-    @Override
-    public int read(char[] cbuf, int off, int len) throws IOException {
-      if (readerIndex == sb.length()) {
-        return -1;
+    /**
+     * Called by the encoder to send the content of the given buffer, which is reset.
+     *
+     * @throws CancellationException if the sender has given up this copy
+     */
+    private void offer(BinaryCopyBuffer buffer) {
+      if (buffer.length() == 0) {
+        return;
       }
-      int newReaderIndex = Math.min(sb.length(), readerIndex + len);
-      sb.getChars(readerIndex, newReaderIndex, cbuf, off);
-      int diff = newReaderIndex - readerIndex;
-      readerIndex = newReaderIndex;
-      return diff;
+      put(Arrays.copyOf(buffer.array(), buffer.length()));
+      buffer.reset();
     }
 
-    @Override
-    public void close() {
+    private void finish() {
+      if (!cancelled) {
+        put(END_OF_COPY);
+      }
     }
 
+    private void put(byte[] chunk) {
+      try {
+        do {
+          if (cancelled) {
+            throw new CancellationException();
+          }
+        } while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException();
+      }
+    }
+
+    /**
+     * Called by the sender to get the next chunk.
+     *
+     * @return the next chunk or {@link #END_OF_COPY} if there are no more chunks
+     */
+    private byte[] take() {
+      try {
+        return chunks.take();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new SystemException(ex);
+      }
+    }
+
+    /**
+     * Called by the sender once {@link #END_OF_COPY} has been read to rethrow the error that
+     * stopped the encoder, if any.
+     */
+    private void checkEncoded() {
+      try {
+        encoding.join();
+      } catch (CompletionException ex) {
+        Throwable cause = CompletionExceptions.getFirstNonCompletionException(ex);
+        Throwables.throwIfUnchecked(cause);
+        throw new SystemException(cause);
+      }
+    }
+
+    private void cancel() {
+      cancelled = true;
+      chunks.clear();
+    }
+  }
+
+  /**
+   * Encodes the text COPY rows accumulated on a {@link StringBuilder} and sends them to an open
+   * {@link CopyIn}, reusing the same byte buffer for all the chunks of a COPY.
+   */
+  private static class CopyInTextEncoder {
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(COPY_FLUSH_THRESHOLD);
+
+    public void write(CopyIn copyIn, StringBuilder sb) throws SQLException {
+      CharBuffer charBuffer = CharBuffer.wrap(sb);
+      encoder.reset();
+      CoderResult result;
+      do {
+        result = encoder.encode(charBuffer, byteBuffer, true);
+        flush(copyIn);
+      } while (result.isOverflow());
+      while (encoder.flush(byteBuffer).isOverflow()) {
+        flush(copyIn);
+      }
+      flush(copyIn);
+    }
+
+    private void flush(CopyIn copyIn) throws SQLException {
+      if (byteBuffer.position() > 0) {
+        copyIn.writeToCopy(byteBuffer.array(), 0, byteBuffer.position());
+        byteBuffer.clear();
+      }
+    }
   }
 
   @Override
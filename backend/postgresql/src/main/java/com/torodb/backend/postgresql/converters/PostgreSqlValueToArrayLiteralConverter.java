@@ -0,0 +1,142 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import com.torodb.backend.postgresql.converters.util.SqlEscaper;
+import com.torodb.common.util.HexUtils;
+import com.torodb.common.util.TextEscaper;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.KvValueAdaptor;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Writes values as the elements of a PostgreSQL array literal, so a whole list of values can be
+ * bound as a single array parameter.
+ *
+ * <p>Only the types on {@link #SUPPORTED_TYPES} can be converted.
+ */
+public class PostgreSqlValueToArrayLiteralConverter extends KvValueAdaptor<Void, StringBuilder> {
+
+  public static final PostgreSqlValueToArrayLiteralConverter INSTANCE =
+      new PostgreSqlValueToArrayLiteralConverter();
+
+  public static final Set<FieldType> SUPPORTED_TYPES = EnumSet.of(
+      FieldType.BOOLEAN,
+      FieldType.DOUBLE,
+      FieldType.INTEGER,
+      FieldType.LONG,
+      FieldType.MONGO_OBJECT_ID,
+      FieldType.STRING);
+
+  private static final TextEscaper ESCAPER = SqlEscaper.INSTANCE;
+
+  PostgreSqlValueToArrayLiteralConverter() {}
+
+  /**
+   * Returns the array literal whose elements are the given values.
+   */
+  public String toArrayLiteral(Collection<KvValue<?>> values) {
+    StringBuilder sb = new StringBuilder(values.size() * 16 + 2);
+    sb.append('{');
+    for (KvValue<?> value : values) {
+      value.accept(this, sb);
+      sb.append(',');
+    }
+    if (values.isEmpty()) {
+      sb.append('}');
+    } else {
+      sb.setCharAt(sb.length() - 1, '}');
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public Void defaultCase(KvValue<?> value, StringBuilder arg) {
+    throw new UnsupportedOperationException("Values of type " + value.getType()
+        + " can not be written on an array literal");
+  }
+
+  @Override
+  public Void visit(KvBoolean value, StringBuilder arg) {
+    if (value.getValue()) {
+      arg.append("true");
+    } else {
+      arg.append("false");
+    }
+    return null;
+  }
+
+  @Override
+  public Void visit(KvInteger value, StringBuilder arg) {
+    arg.append(value.getValue().toString());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvLong value, StringBuilder arg) {
+    arg.append(value.getValue().toString());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDouble value, StringBuilder arg) {
+    arg.append(value.getValue().toString());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvString value, StringBuilder arg) {
+    appendQuoted(arg, ESCAPER.escape(value.getValue()));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoObjectId value, StringBuilder arg) {
+    //the backslash of the bytea hex format must be escaped inside the array literal
+    arg.append("\"\\\\x");
+
+    HexUtils.bytes2Hex(value.getArrayValue(), arg);
+
+    arg.append('"');
+    return null;
+  }
+
+  private void appendQuoted(StringBuilder arg, String text) {
+    arg.append('"');
+    for (int index = 0; index < text.length(); index++) {
+      char character = text.charAt(index);
+      if (character == '"' || character == '\\') {
+        arg.append('\\');
+      }
+      arg.append(character);
+    }
+    arg.append('"');
+  }
+
+}
@@ -0,0 +1,316 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import com.torodb.backend.postgresql.converters.jooq.MongoDbPointerValueConverter;
+import com.torodb.backend.postgresql.converters.jooq.MongoJavascriptWithScopeValueConverter;
+import com.torodb.backend.postgresql.converters.jooq.MongoRegexValueConverter;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.backend.postgresql.converters.util.SqlEscaper;
+import com.torodb.common.util.TextEscaper;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDeprecated;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoDbPointer;
+import com.torodb.kvdocument.values.KvMongoJavascript;
+import com.torodb.kvdocument.values.KvMongoJavascriptWithScope;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValueVisitor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Writes {@link com.torodb.kvdocument.values.KvValue KvValues} as fields of a PostgreSQL binary
+ * COPY stream.
+ *
+ * <p>Each visit writes the field length followed by the value encoded with the <em>send</em>
+ * format of the column type that {@link com.torodb.backend.postgresql.PostgreSqlDataTypeProvider}
+ * associates with the value type.
+ */
+public class PostgreSqlValueToBinaryCopyConverter implements
+    KvValueVisitor<Void, BinaryCopyBuffer> {
+
+  public static final PostgreSqlValueToBinaryCopyConverter INSTANCE =
+      new PostgreSqlValueToBinaryCopyConverter();
+
+  private static final TextEscaper ESCAPER = SqlEscaper.INSTANCE;
+
+  private static final int BOOL_OID = 16;
+  private static final int INT4_OID = 23;
+  private static final int NUMERIC_OID = 1700;
+
+  private static final byte JSONB_VERSION = 1;
+
+  /**
+   * Days between 1970-01-01 and 2000-01-01, the PostgreSQL epoch.
+   */
+  private static final long POSTGRES_EPOCH_DAYS = 10957L;
+  private static final long POSTGRES_EPOCH_MILLIS = POSTGRES_EPOCH_DAYS * 24 * 60 * 60 * 1000;
+
+  private static final short NUMERIC_POSITIVE = 0x0000;
+  private static final short NUMERIC_NEGATIVE = 0x4000;
+  private static final BigInteger NBASE = BigInteger.valueOf(10000);
+
+  PostgreSqlValueToBinaryCopyConverter() {}
+
+  @Override
+  public Void visit(KvBoolean value, BinaryCopyBuffer arg) {
+    writeBoolean(value.getValue(), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvNull value, BinaryCopyBuffer arg) {
+    writeBoolean(true, arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvArray value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  @Override
+  public Void visit(KvInteger value, BinaryCopyBuffer arg) {
+    arg.writeInt(4);
+    arg.writeInt(value.intValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvLong value, BinaryCopyBuffer arg) {
+    arg.writeInt(8);
+    arg.writeLong(value.longValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDouble value, BinaryCopyBuffer arg) {
+    arg.writeInt(8);
+    arg.writeLong(Double.doubleToLongBits(value.doubleValue()));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvString value, BinaryCopyBuffer arg) {
+    writeText(value.getValue(), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoObjectId value, BinaryCopyBuffer arg) {
+    byte[] bytes = value.getArrayValue();
+    arg.writeInt(bytes.length);
+    arg.writeBytes(bytes);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvBinary value, BinaryCopyBuffer arg) {
+    byte[] bytes = value.getByteSource().read();
+    arg.writeInt(bytes.length);
+    arg.writeBytes(bytes);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvInstant value, BinaryCopyBuffer arg) {
+    arg.writeInt(8);
+    arg.writeLong((value.getMillisFromUnix() - POSTGRES_EPOCH_MILLIS) * 1000);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDate value, BinaryCopyBuffer arg) {
+    arg.writeInt(4);
+    arg.writeInt((int) (value.getValue().toEpochDay() - POSTGRES_EPOCH_DAYS));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvTime value, BinaryCopyBuffer arg) {
+    arg.writeInt(8);
+    arg.writeLong(value.getValue().toNanoOfDay() / 1000);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoTimestamp value, BinaryCopyBuffer arg) {
+    int lengthPosition = arg.startLength();
+    arg.writeInt(2);
+    arg.writeInt(INT4_OID);
+    arg.writeInt(4);
+    arg.writeInt(value.getSecondsSinceEpoch());
+    arg.writeInt(INT4_OID);
+    arg.writeInt(4);
+    arg.writeInt(value.getOrdinal());
+    arg.endLength(lengthPosition);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDocument value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  @Override
+  public Void visit(KvDecimal128 value, BinaryCopyBuffer arg) {
+    int lengthPosition = arg.startLength();
+    arg.writeInt(4);
+    arg.writeInt(NUMERIC_OID);
+    int numericLengthPosition = arg.startLength();
+    writeNumeric(value.getBigDecimal(), arg);
+    arg.endLength(numericLengthPosition);
+    writeCompositeBoolean(value.isInfinite() && !value.isNaN(), arg);
+    writeCompositeBoolean(value.isNaN(), arg);
+    writeCompositeBoolean(value.isNegativeZero(), arg);
+    arg.endLength(lengthPosition);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoJavascript value, BinaryCopyBuffer arg) {
+    writeText(value.getValue(), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoJavascriptWithScope value, BinaryCopyBuffer arg) {
+    writeJsonb(MongoJavascriptWithScopeValueConverter.CONVERTER.to(value), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMinKey value, BinaryCopyBuffer arg) {
+    writeBoolean(false, arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMaxKey value, BinaryCopyBuffer arg) {
+    writeBoolean(true, arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvUndefined value, BinaryCopyBuffer arg) {
+    writeBoolean(true, arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoRegex value, BinaryCopyBuffer arg) {
+    writeJsonb(MongoRegexValueConverter.CONVERTER.to(value), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoDbPointer value, BinaryCopyBuffer arg) {
+    writeJsonb(MongoDbPointerValueConverter.CONVERTER.to(value), arg);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDeprecated value, BinaryCopyBuffer arg) {
+    writeText(value.toString(), arg);
+    return null;
+  }
+
+  private void writeBoolean(boolean value, BinaryCopyBuffer arg) {
+    arg.writeInt(1);
+    arg.writeByte(value ? 1 : 0);
+  }
+
+  private void writeCompositeBoolean(boolean value, BinaryCopyBuffer arg) {
+    arg.writeInt(BOOL_OID);
+    writeBoolean(value, arg);
+  }
+
+  private void writeText(String value, BinaryCopyBuffer arg) {
+    int lengthPosition = arg.startLength();
+    arg.writeUtf8(ESCAPER.escape(value));
+    arg.endLength(lengthPosition);
+  }
+
+  private void writeJsonb(String value, BinaryCopyBuffer arg) {
+    int lengthPosition = arg.startLength();
+    arg.writeByte(JSONB_VERSION);
+    arg.writeUtf8(ESCAPER.escape(value));
+    arg.endLength(lengthPosition);
+  }
+
+  /**
+   * Writes the given value using the <em>numeric_send</em> format: number of base 10000 digits,
+   * weight of the first digit, sign, display scale and the digits themselves.
+   */
+  private void writeNumeric(BigDecimal value, BinaryCopyBuffer arg) {
+    int scale = value.scale();
+    BigInteger unscaled = value.unscaledValue().abs();
+    int displayScale = Math.max(0, scale);
+
+    if (scale < 0) {
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(-scale));
+      scale = 0;
+    } else if (scale % 4 != 0) {
+      int padding = 4 - scale % 4;
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(padding));
+      scale += padding;
+    }
+
+    short[] digits = new short[unscaled.bitLength() / 13 + 1];
+    int ndigits = 0;
+    while (unscaled.signum() != 0) {
+      BigInteger[] divRem = unscaled.divideAndRemainder(NBASE);
+      digits[ndigits++] = divRem[1].shortValue();
+      unscaled = divRem[0];
+    }
+
+    int firstDigit = 0;
+    while (firstDigit < ndigits && digits[firstDigit] == 0) {
+      firstDigit++;
+    }
+
+    int weight = ndigits - 1 - scale / 4;
+    arg.writeShort(ndigits - firstDigit);
+    arg.writeShort(ndigits == firstDigit ? 0 : weight);
+    arg.writeShort(value.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE);
+    arg.writeShort(displayScale);
+    for (int i = ndigits - 1; i >= firstDigit; i--) {
+      arg.writeShort(digits[i]);
+    }
+  }
+
+}
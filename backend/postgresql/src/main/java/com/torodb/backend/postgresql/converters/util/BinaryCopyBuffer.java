@@ -0,0 +1,157 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable, reusable byte buffer that writes values using the network byte order expected by
+ * the PostgreSQL binary COPY format.
+ */
+public class BinaryCopyBuffer {
+
+  private static final byte[] HEADER = new byte[]{
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0
+  };
+  private static final short TRAILER = -1;
+  private static final int NULL_LENGTH = -1;
+
+  private byte[] buffer;
+  private int position;
+
+  public BinaryCopyBuffer(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+    this.position = 0;
+  }
+
+  public int length() {
+    return position;
+  }
+
+  public void reset() {
+    position = 0;
+  }
+
+  public byte[] array() {
+    return buffer;
+  }
+
+  public void writeTo(OutputStream os) throws IOException {
+    os.write(buffer, 0, position);
+  }
+
+  /**
+   * Writes the signature, the flags field and the (empty) header extension area.
+   */
+  public void writeHeader() {
+    writeBytes(HEADER);
+    writeInt(0);
+    writeInt(0);
+  }
+
+  public void writeTrailer() {
+    writeShort(TRAILER);
+  }
+
+  public void writeTupleStart(int fieldCount) {
+    writeShort(fieldCount);
+  }
+
+  public void writeNull() {
+    writeInt(NULL_LENGTH);
+  }
+
+  /**
+   * Reserves space for a field length that will be known once its content has been written.
+   *
+   * @return the position that must be given to {@link #endLength(int)}
+   */
+  public int startLength() {
+    int lengthPosition = position;
+    writeInt(0);
+    return lengthPosition;
+  }
+
+  /**
+   * Writes on the reserved position the number of bytes written since
+   * {@link #startLength()} was called.
+   */
+  public void endLength(int lengthPosition) {
+    int length = position - lengthPosition - 4;
+    putInt(lengthPosition, length);
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  public void writeShort(int value) {
+    ensureCapacity(2);
+    buffer[position++] = (byte) (value >>> 8);
+    buffer[position++] = (byte) value;
+  }
+
+  public void writeInt(int value) {
+    ensureCapacity(4);
+    putInt(position, value);
+    position += 4;
+  }
+
+  public void writeLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  public void writeBytes(byte[] value) {
+    writeBytes(value, 0, value.length);
+  }
+
+  public void writeBytes(byte[] value, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(value, offset, buffer, position, length);
+    position += length;
+  }
+
+  /**
+   * Writes the UTF-8 representation of the given string, without any length prefix.
+   */
+  public void writeUtf8(String value) {
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void putInt(int index, int value) {
+    buffer[index] = (byte) (value >>> 24);
+    buffer[index + 1] = (byte) (value >>> 16);
+    buffer[index + 2] = (byte) (value >>> 8);
+    buffer[index + 3] = (byte) value;
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = position + extra;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+public class PostgreSqlValueToArrayLiteralConverterTest {
+
+  private static final PostgreSqlValueToArrayLiteralConverter converter =
+      PostgreSqlValueToArrayLiteralConverter.INSTANCE;
+
+  @Test
+  public void emptyArray() {
+    assertEquals("{}", converter.toArrayLiteral(ImmutableList.of()));
+  }
+
+  @Test
+  public void numbersAndBooleans() {
+    assertEquals("{1,-2,3,4.5,true,false}", converter.toArrayLiteral(
+        ImmutableList.<KvValue<?>>of(KvInteger.of(1), KvInteger.of(-2), KvLong.of(3),
+            KvDouble.of(4.5), KvBoolean.TRUE, KvBoolean.FALSE)));
+  }
+
+  @Test
+  public void stringsAreQuotedAndEscaped() {
+    assertEquals("{\"simple\",\"with, comma\",\"with \\\"quotes\\\"\",\"with \\\\ backslash\"}",
+        converter.toArrayLiteral(ImmutableList.<KvValue<?>>of(
+            new StringKvString("simple"),
+            new StringKvString("with, comma"),
+            new StringKvString("with \"quotes\""),
+            new StringKvString("with \\ backslash"))));
+  }
+
+  @Test
+  public void mongoObjectIdsAreWrittenAsHexBytea() {
+    byte[] bytes = new byte[] {0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd,
+        (byte) 0xef, 0x01, 0x23, 0x45, 0x67};
+    assertEquals("{\"\\\\x0123456789ABCDEF01234567\"}", converter.toArrayLiteral(
+        ImmutableList.<KvValue<?>>of(new ByteArrayKvMongoObjectId(bytes))));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void unsupportedType() {
+    converter.toArrayLiteral(ImmutableList.<KvValue<?>>of(KvNull.getInstance()));
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql.converters;
+
+import static org.junit.Assert.assertEquals;
+
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.common.util.HexUtils;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+public class PostgreSqlValueToBinaryCopyConverterTest {
+
+  private static final PostgreSqlValueToBinaryCopyConverter visitor =
+      PostgreSqlValueToBinaryCopyConverter.INSTANCE;
+  private BinaryCopyBuffer buffer;
+
+  @Before
+  public void setUp() {
+    buffer = new BinaryCopyBuffer(4);
+  }
+
+  @Test
+  public void testBoolean() {
+    assertEncoded("0000000101", KvBoolean.TRUE);
+    assertEncoded("0000000100", KvBoolean.FALSE);
+    assertEncoded("0000000101", KvNull.getInstance());
+  }
+
+  @Test
+  public void testNumbers() {
+    assertEncoded("00000004FFFFFFFE", KvInteger.of(-2));
+    assertEncoded("000000080000000100000000", KvLong.of(1L << 32));
+    assertEncoded("000000083FF0000000000000", KvDouble.of(1));
+  }
+
+  @Test
+  public void testString() {
+    assertEncoded("00000004C3B16162", new StringKvString("\u00f1ab"));
+    assertEncoded("00000003013061", new StringKvString("\u0000a"));
+  }
+
+  @Test
+  public void testObjectId() {
+    assertEncoded("0000000C0102030405060708090A0B0C", new ByteArrayKvMongoObjectId(
+        new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 0xa, 0xb, 0xc}));
+  }
+
+  @Test
+  public void testTemporal() {
+    assertEncoded("0000000800000000000F4240",
+        new InstantKvInstant(Instant.parse("2000-01-01T00:00:01Z")));
+    assertEncoded("00000004FFFFFFFF", new LocalDateKvDate(LocalDate.of(1999, 12, 31)));
+    assertEncoded("0000000800000000000F4240", new LocalTimeKvTime(LocalTime.of(0, 0, 1)));
+  }
+
+  @Test
+  public void testMongoTimestamp() {
+    assertEncoded("0000001C"
+        + "00000002"
+        + "00000017" + "00000004" + "00000010"
+        + "00000017" + "00000004" + "00000003",
+        new DefaultKvMongoTimestamp(16, 3));
+  }
+
+  @Test
+  public void testDecimal128() {
+    assertEncoded("00000033"
+        + "00000004"
+        + "000006A4" + "0000000C" + "0002" + "0000" + "0000" + "0001" + "000C" + "1388"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00",
+        KvDecimal128.of(new BigDecimal("12.5")));
+    assertEncoded("0000002F"
+        + "00000004"
+        + "000006A4" + "00000008" + "0000" + "0000" + "0000" + "0000"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00",
+        KvDecimal128.of(BigDecimal.ZERO));
+    assertEncoded("00000031"
+        + "00000004"
+        + "000006A4" + "0000000A" + "0001" + "0005" + "4000" + "0000" + "000A"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00"
+        + "00000010" + "00000001" + "00",
+        KvDecimal128.of(new BigDecimal("-1000000000000000000000")));
+  }
+
+  private void assertEncoded(String expectedHex, KvValue<?> value) {
+    buffer.reset();
+    value.accept(visitor, buffer);
+    assertEquals(expectedHex, HexUtils.bytes2Hex(
+        Arrays.copyOf(buffer.array(), buffer.length())));
+  }
+
+}
@@ -18,16 +18,40 @@
 
 package com.torodb.backend.tests.common;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import com.google.common.io.ByteSource;
+import com.torodb.backend.ReadInterface;
 import com.torodb.backend.converters.jooq.DataTypeForKv;
+import com.torodb.core.TableRef;
+import com.torodb.core.backend.DocPartFilter;
+import com.torodb.core.backend.DocPartUpdate;
+import com.torodb.core.backend.RootDocPartUpdates;
+import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.D2RTranslator;
 import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.language.AttributeFilter.Operator;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
 import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.core.transaction.metainf.WrapperMutableMetaCollection;
 import com.torodb.kvdocument.values.KvBinary;
@@ -45,29 +69,42 @@ import com.torodb.kvdocument.values.KvMongoJavascript;
 import com.torodb.kvdocument.values.KvMongoJavascriptWithScope;
 import com.torodb.kvdocument.values.KvMongoRegex;
 import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvString;
 import com.torodb.kvdocument.values.KvUndefined;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
 import com.torodb.kvdocument.values.heap.ByteSourceKvBinary;
 import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
 import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.ListKvArray;
 import com.torodb.kvdocument.values.heap.LocalDateKvDate;
 import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
 import com.torodb.kvdocument.values.heap.LongKvInstant;
 import com.torodb.kvdocument.values.heap.MapKvDocument;
 import com.torodb.kvdocument.values.heap.StringKvString;
+import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public abstract class AbstractDataIntegrationSuite extends AbstractBackendIntegrationSuite {
 
@@ -114,6 +151,387 @@ public abstract class AbstractDataIntegrationSuite extends AbstractBackendIntegr
     });
   }
   
+  @Test
+  public void shouldFilterNumbersOfAnyTypeAndArrayElements() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createSchema(dslContext);
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MutableMetaCollection metaCollection = new WrapperMutableMetaCollection(
+          new ImmutableMetaCollection
+            .Builder(COLLECTION_NAME, COLLECTION_NAME)
+            .build());
+      D2RTranslator d2rTranslator = context
+          .getD2RTranslatorFactory().createTranslator(metaDatabase, metaCollection);
+      d2rTranslator.translate(createNamedDoc("integer", KvInteger.of(1)));
+      d2rTranslator.translate(createNamedDoc("double", KvDouble.of(2.5)));
+      d2rTranslator.translate(createNamedDoc("array", new ListKvArray(ImmutableList.of(
+          KvInteger.of(3), KvDouble.of(7.5)))));
+      d2rTranslator.translate(createNamedDoc("string", new StringKvString("x")));
+      d2rTranslator.translate(new KvDocument.Builder()
+          .putValue("name", new StringKvString("missing"))
+          .build());
+      createDocPartTables(dslContext, metaCollection);
+      for (DocPartData docPartData : d2rTranslator.getCollectionDataAccumulator()) {
+        context.getSqlInterface().getWriteInterface()
+            .insertDocPartData(dslContext, DATABASE_SCHEMA_NAME, docPartData);
+      }
+
+      /* Then */
+      assertEquals(ImmutableSet.of("double", "array"), findNames(dslContext, metaDatabase,
+          metaCollection, createNumericFilter(metaCollection, Operator.GT, KvInteger.of(2))));
+      assertEquals(ImmutableSet.of("integer"), findNames(dslContext, metaDatabase,
+          metaCollection, createNumericFilter(metaCollection, Operator.LTE, KvDouble.of(1))));
+      assertEquals(ImmutableSet.of("integer", "array"), findNames(dslContext, metaDatabase,
+          metaCollection, createNumericFilter(metaCollection, Operator.IN, KvLong.of(1),
+              KvDouble.of(7.5))));
+      assertEquals(ImmutableSet.of("integer", "double", "string", "missing"),
+          findNames(dslContext, metaDatabase, metaCollection,
+              createNumericFilter(metaCollection, Operator.NE, KvDouble.of(3))));
+    });
+  }
+
+  @Test
+  public void shouldEvaluateMissingAttributesAsNull() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createSchema(dslContext);
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MutableMetaCollection metaCollection = new WrapperMutableMetaCollection(
+          new ImmutableMetaCollection
+            .Builder(COLLECTION_NAME, COLLECTION_NAME)
+            .build());
+      D2RTranslator d2rTranslator = context
+          .getD2RTranslatorFactory().createTranslator(metaDatabase, metaCollection);
+      d2rTranslator.translate(createNamedDoc("null", KvNull.getInstance()));
+      d2rTranslator.translate(createNamedDoc("integer", KvInteger.of(1)));
+      d2rTranslator.translate(new KvDocument.Builder()
+          .putValue("name", new StringKvString("missing"))
+          .build());
+      createDocPartTables(dslContext, metaCollection);
+      for (DocPartData docPartData : d2rTranslator.getCollectionDataAccumulator()) {
+        context.getSqlInterface().getWriteInterface()
+            .insertDocPartData(dslContext, DATABASE_SCHEMA_NAME, docPartData);
+      }
+
+      /* Then */
+      assertEquals(ImmutableSet.of("null", "missing"), findNames(dslContext, metaDatabase,
+          metaCollection, createNullableFilter(metaCollection, Operator.EQ,
+              KvNull.getInstance())));
+      assertEquals(ImmutableSet.of("null", "integer", "missing"), findNames(dslContext,
+          metaDatabase, metaCollection, createNullableFilter(metaCollection, Operator.IN,
+              KvNull.getInstance(), KvInteger.of(1))));
+      assertEquals(ImmutableSet.of("integer"), findNames(dslContext, metaDatabase,
+          metaCollection, createNullableFilter(metaCollection, Operator.NE,
+              KvNull.getInstance())));
+      assertEquals(ImmutableSet.of(), findNames(dslContext, metaDatabase, metaCollection,
+          createNullableFilter(metaCollection, Operator.NIN, KvNull.getInstance(),
+              KvInteger.of(1))));
+    });
+  }
+
+  @Test
+  public void shouldCompareStringsByCodePoint() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createSchema(dslContext);
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MutableMetaCollection metaCollection = new WrapperMutableMetaCollection(
+          new ImmutableMetaCollection
+            .Builder(COLLECTION_NAME, COLLECTION_NAME)
+            .build());
+      D2RTranslator d2rTranslator = context
+          .getD2RTranslatorFactory().createTranslator(metaDatabase, metaCollection);
+      d2rTranslator.translate(createNamedDoc("upper", new StringKvString("B")));
+      d2rTranslator.translate(createNamedDoc("lower", new StringKvString("a")));
+      createDocPartTables(dslContext, metaCollection);
+      for (DocPartData docPartData : d2rTranslator.getCollectionDataAccumulator()) {
+        context.getSqlInterface().getWriteInterface()
+            .insertDocPartData(dslContext, DATABASE_SCHEMA_NAME, docPartData);
+      }
+      MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(
+          context.getTableRefFactory().createRoot());
+      MetaField stringField = rootDocPart.getMetaFieldByNameAndType(FIELD_NAME,
+          FieldType.STRING);
+
+      /* Then */
+      assertEquals(ImmutableSet.of("upper"), findNames(dslContext, metaDatabase,
+          metaCollection, ImmutableList.of(new DocPartFilter(rootDocPart, Operator.LT,
+              ImmutableListMultimap.<MetaField, KvValue<?>>of(stringField,
+                  new StringKvString("a"))))));
+      assertEquals(ImmutableSet.of("lower"), findNames(dslContext, metaDatabase,
+          metaCollection, ImmutableList.of(new DocPartFilter(rootDocPart, Operator.GT,
+              ImmutableListMultimap.<MetaField, KvValue<?>>of(stringField,
+                  new StringKvString("B"))))));
+    });
+  }
+
+  @Test
+  public void shouldUpdateRootDocPartRowsInPlace() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MetaCollection metaCollection = createCollection(dslContext, metaDatabase,
+          createNamedDoc("same type", KvInteger.of(1)),
+          createNamedDoc("other type", KvInteger.of(3)),
+          createNamedDoc("unset", KvInteger.of(4)),
+          createNamedDoc("incremented", KvInteger.of(5)),
+          createNamedDoc("string", new StringKvString("x")),
+          createNamedDoc("double", KvDouble.of(2.5)));
+      MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(
+          context.getTableRefFactory().createRoot());
+      Map<String, ToroDocument> oldDocs = readNamedDocs(dslContext, metaDatabase,
+          metaCollection);
+
+      /* When */
+      List<DocPartUpdate> updates = RootDocPartUpdates.calculate(rootDocPart,
+          ImmutableList.of(oldDocs.get("same type"), oldDocs.get("other type"),
+              oldDocs.get("unset"), oldDocs.get("incremented")),
+          ImmutableList.of(createNamedDoc("same type", KvInteger.of(2)),
+              createNamedDoc("other type", new StringKvString("y")),
+              new KvDocument.Builder()
+                  .putValue("name", new StringKvString("unset"))
+                  .build(),
+              createNamedDoc("incremented", KvDouble.of(5.5))));
+      assertNotNull("Scalar changes should be done in place", updates);
+      for (DocPartUpdate update : updates) {
+        context.getSqlInterface().getWriteInterface()
+            .updateRootDocPartRows(dslContext, DATABASE_SCHEMA_NAME, update);
+      }
+
+      /* Then */
+      Map<String, ToroDocument> newDocs = readNamedDocs(dslContext, metaDatabase,
+          metaCollection);
+      assertEquals(KvInteger.of(2), newDocs.get("same type").getRoot().get(FIELD_NAME));
+      assertEquals(new StringKvString("y"), newDocs.get("other type").getRoot().get(FIELD_NAME));
+      assertNull(newDocs.get("unset").getRoot().get(FIELD_NAME));
+      assertEquals(KvDouble.of(5.5), newDocs.get("incremented").getRoot().get(FIELD_NAME));
+      assertEquals(new StringKvString("x"), newDocs.get("string").getRoot().get(FIELD_NAME));
+      //the columns of the old types must not keep the old values
+      assertEquals(ImmutableSet.of(), findNames(dslContext, metaDatabase, metaCollection,
+          ImmutableList.of(new DocPartFilter(rootDocPart, Operator.IN,
+              ImmutableListMultimap.<MetaField, KvValue<?>>of(
+                  rootDocPart.getMetaFieldByNameAndType(FIELD_NAME, FieldType.INTEGER),
+                  KvInteger.of(3),
+                  rootDocPart.getMetaFieldByNameAndType(FIELD_NAME, FieldType.INTEGER),
+                  KvInteger.of(4),
+                  rootDocPart.getMetaFieldByNameAndType(FIELD_NAME, FieldType.INTEGER),
+                  KvInteger.of(5))))));
+    });
+  }
+
+  @Test
+  public void shouldNotUpdateInPlaceDocumentsArraysOrNewColumns() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MetaCollection metaCollection = createCollection(dslContext, metaDatabase,
+          createNamedDoc("integer", KvInteger.of(1)),
+          createNamedDoc("array", new ListKvArray(ImmutableList.of(KvInteger.of(1)))));
+      MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(
+          context.getTableRefFactory().createRoot());
+      Map<String, ToroDocument> oldDocs = readNamedDocs(dslContext, metaDatabase,
+          metaCollection);
+      ToroDocument integerDoc = oldDocs.get("integer");
+
+      /* Then */
+      assertNull(RootDocPartUpdates.calculate(rootDocPart, ImmutableList.of(integerDoc),
+          ImmutableList.of(createNamedDoc("integer", new ListKvArray(ImmutableList.of(
+              KvInteger.of(1)))))));
+      assertNull(RootDocPartUpdates.calculate(rootDocPart, ImmutableList.of(integerDoc),
+          ImmutableList.of(createNamedDoc("integer", new KvDocument.Builder()
+              .putValue("subfield", 1)
+              .build()))));
+      assertNull(RootDocPartUpdates.calculate(rootDocPart, ImmutableList.of(integerDoc),
+          ImmutableList.of(createNamedDoc("integer", new StringKvString("new column")))));
+      assertNull(RootDocPartUpdates.calculate(rootDocPart, ImmutableList.of(integerDoc),
+          ImmutableList.of(new KvDocument.Builder()
+              .putValue("name", new StringKvString("integer"))
+              .putValue(FIELD_NAME, 1)
+              .putValue("new_field", 1)
+              .build())));
+      assertNull(RootDocPartUpdates.calculate(rootDocPart, ImmutableList.of(integerDoc,
+          oldDocs.get("array")), ImmutableList.of(createNamedDoc("integer", KvInteger.of(2)),
+              createNamedDoc("array", KvInteger.of(1)))));
+    });
+  }
+
+  @Test
+  public void shouldRaiseUniqueIndexViolationOnInPlaceUpdate() throws Exception {
+    context.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder(DATABASE_NAME, DATABASE_SCHEMA_NAME)
+          .build();
+      MetaCollection metaCollection = createCollection(dslContext, metaDatabase,
+          createNamedDoc("first", new StringKvString("x")),
+          createNamedDoc("second", new StringKvString("z")));
+      MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(
+          context.getTableRefFactory().createRoot());
+      context.getSqlInterface().getStructureInterface()
+          .createIndex(dslContext, ROOT_INDEX_NAME, DATABASE_SCHEMA_NAME,
+              rootDocPart.getIdentifier(), ImmutableList.of(new Tuple3<String, Boolean, FieldType>(
+                  rootDocPart.getMetaFieldByNameAndType(FIELD_NAME, FieldType.STRING)
+                      .getIdentifier(), true, FieldType.STRING)),
+              true);
+      Map<String, ToroDocument> oldDocs = readNamedDocs(dslContext, metaDatabase,
+          metaCollection);
+      List<DocPartUpdate> updates = RootDocPartUpdates.calculate(rootDocPart,
+          ImmutableList.of(oldDocs.get("second")),
+          ImmutableList.of(createNamedDoc("second", new StringKvString("x"))));
+      assertNotNull("Scalar changes should be done in place", updates);
+
+      /* Then */
+      try {
+        context.getSqlInterface().getWriteInterface()
+            .updateRootDocPartRows(dslContext, DATABASE_SCHEMA_NAME, updates.get(0));
+        fail("The update should violate the unique index");
+      } catch (UniqueIndexViolationException ex) {
+        //expected
+      }
+    });
+  }
+
+  /**
+   * Creates the test collection with the given documents.
+   */
+  private MetaCollection createCollection(DSLContext dslContext, MetaDatabase metaDatabase,
+      KvDocument... docs) throws UserException {
+    createSchema(dslContext);
+    MutableMetaCollection metaCollection = new WrapperMutableMetaCollection(
+        new ImmutableMetaCollection
+          .Builder(COLLECTION_NAME, COLLECTION_NAME)
+          .build());
+    D2RTranslator d2rTranslator = context
+        .getD2RTranslatorFactory().createTranslator(metaDatabase, metaCollection);
+    for (KvDocument doc : docs) {
+      d2rTranslator.translate(doc);
+    }
+    createDocPartTables(dslContext, metaCollection);
+    for (DocPartData docPartData : d2rTranslator.getCollectionDataAccumulator()) {
+      context.getSqlInterface().getWriteInterface()
+          .insertDocPartData(dslContext, DATABASE_SCHEMA_NAME, docPartData);
+    }
+    return metaCollection;
+  }
+
+  private Map<String, ToroDocument> readNamedDocs(DSLContext dslContext,
+      MetaDatabase metaDatabase, MetaCollection metaCollection) throws SQLException {
+    ReadInterface readInterface = context.getSqlInterface().getReadInterface();
+    List<Integer> dids;
+    try (Cursor<Integer> didCursor = readInterface.getAllCollectionDids(dslContext,
+        metaDatabase, metaCollection)) {
+      dids = didCursor.getRemaining();
+    }
+    return context.getR2DTranslator().translate(readInterface.getCollectionResultSets(
+        dslContext, metaDatabase, metaCollection, dids).iterator()).stream()
+        .collect(Collectors.toMap(doc -> ((KvString) doc.getRoot().get("name")).getValue(),
+            doc -> doc));
+  }
+
+  private KvDocument createNamedDoc(String name, KvValue<?> value) {
+    return new KvDocument.Builder()
+        .putValue("name", new StringKvString(name))
+        .putValue(FIELD_NAME, value)
+        .build();
+  }
+
+  private void createDocPartTables(DSLContext dslContext, MetaCollection metaCollection) {
+    List<MetaDocPart> docParts = metaCollection.streamContainedMetaDocParts()
+        .sorted(Comparator.comparingInt(docPart -> docPart.getTableRef().getDepth()))
+        .collect(Collectors.<MetaDocPart>toList());
+    for (MetaDocPart docPart : docParts) {
+      TableRef tableRef = docPart.getTableRef();
+      if (tableRef.isRoot()) {
+        context.getSqlInterface().getStructureInterface().createRootDocPartTable(dslContext,
+            DATABASE_SCHEMA_NAME, docPart.getIdentifier(), tableRef);
+      } else {
+        context.getSqlInterface().getStructureInterface().createDocPartTable(dslContext,
+            DATABASE_SCHEMA_NAME, docPart.getIdentifier(), tableRef,
+            metaCollection.getMetaDocPartByTableRef(tableRef.getParent().get()).getIdentifier());
+      }
+      docPart.streamFields().forEach(field -> addColumn(dslContext, docPart,
+          field.getIdentifier(), field.getType()));
+      docPart.streamScalars().forEach(scalar -> addColumn(dslContext, docPart,
+          scalar.getIdentifier(), scalar.getType()));
+    }
+  }
+
+  private void addColumn(DSLContext dslContext, MetaDocPart docPart, String columnName,
+      FieldType fieldType) {
+    context.getSqlInterface().getStructureInterface().addColumnToDocPartTable(dslContext,
+        DATABASE_SCHEMA_NAME, docPart.getIdentifier(), columnName,
+        context.getSqlInterface().getDataTypeProvider().getDataType(fieldType));
+  }
+
+  /**
+   * Creates a filter on the test field that compares the given values with its integer and double
+   * fields and with the integer and double elements of its arrays.
+   */
+  private List<DocPartFilter> createNumericFilter(MetaCollection metaCollection,
+      Operator operator, KvValue<?>... values) {
+    TableRef rootRef = context.getTableRefFactory().createRoot();
+    MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(rootRef);
+    MetaDocPart elementsDocPart = metaCollection.getMetaDocPartByTableRef(
+        context.getTableRefFactory().createChild(rootRef, FIELD_NAME));
+    Multimap<MetaField, KvValue<?>> fieldValues = ArrayListMultimap.create();
+    Multimap<MetaScalar, KvValue<?>> elementValues = ArrayListMultimap.create();
+    for (FieldType fieldType : EnumSet.of(FieldType.INTEGER, FieldType.DOUBLE)) {
+      fieldValues.putAll(rootDocPart.getMetaFieldByNameAndType(FIELD_NAME, fieldType),
+          Arrays.asList(values));
+      elementValues.putAll(elementsDocPart.getScalar(fieldType), Arrays.asList(values));
+    }
+    return ImmutableList.of(new DocPartFilter(rootDocPart, operator, fieldValues,
+        elementsDocPart, elementValues));
+  }
+
+  /**
+   * Creates a filter on the test field of the root doc part that compares each value with the
+   * field of its type and evaluates documents that do not contain the field as null.
+   */
+  private List<DocPartFilter> createNullableFilter(MetaCollection metaCollection,
+      Operator operator, KvValue<?>... values) {
+    MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(
+        context.getTableRefFactory().createRoot());
+    Multimap<MetaField, KvValue<?>> fieldValues = ArrayListMultimap.create();
+    for (KvValue<?> value : values) {
+      fieldValues.put(rootDocPart.getMetaFieldByNameAndType(FIELD_NAME,
+          FieldType.from(value.getType())), value);
+    }
+    return ImmutableList.of(new DocPartFilter(rootDocPart, operator, fieldValues, null,
+        ImmutableListMultimap.of(), true, rootDocPart.streamMetaFieldByName(FIELD_NAME)
+            .collect(Collectors.toList())));
+  }
+
+  private Set<String> findNames(DSLContext dslContext, MetaDatabase metaDatabase,
+      MetaCollection metaCollection, List<DocPartFilter> filters) throws SQLException {
+    ReadInterface readInterface = context.getSqlInterface().getReadInterface();
+    List<Integer> dids;
+    try (Cursor<Integer> didCursor = readInterface.getCollectionDidsWithFilter(dslContext,
+        metaDatabase, metaCollection, filters)) {
+      dids = didCursor.getRemaining();
+    }
+    assertEquals(dids.size(), readInterface.countWithFilter(dslContext, metaDatabase,
+        metaCollection, filters));
+    if (dids.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return context.getR2DTranslator().translate(readInterface.getCollectionResultSets(
+        dslContext, metaDatabase, metaCollection, dids).iterator()).stream()
+        .map(doc -> ((KvString) doc.getRoot().get("name")).getValue())
+        .collect(Collectors.toSet());
+  }
+
   public static List<Tuple2<String, KvValue<?>>> values() {
     return ImmutableList.<Tuple2<String,KvValue<?>>>of(
           new Tuple2<>("TrueBoolean", KvBoolean.TRUE),
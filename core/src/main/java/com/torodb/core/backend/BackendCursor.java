@@ -20,6 +20,7 @@ package com.torodb.core.backend;
 
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.MetaCollection;
 
 /**
  *
@@ -35,6 +36,16 @@ public interface BackendCursor {
    */
   public Cursor<DocPartResult> asDocPartResultCursor();
 
+  /**
+   * Like {@link #asDocPartResultCursor()}, but only the doc parts and fields contained on the
+   * given collection are read.
+   *
+   * @param projection a copy of the iterated collection that only contains some of its doc parts
+   *                   and fields. The parent doc parts of each contained doc part must be
+   *                   contained too.
+   */
+  public Cursor<DocPartResult> asDocPartResultCursor(MetaCollection projection);
+
   public Cursor<Integer> asDidCursor();
 
 }
@@ -25,9 +25,11 @@ import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.kvdocument.values.KvValue;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -82,6 +84,68 @@ public interface DmlTransaction extends AutoCloseable {
       MetaCollection col, MetaDocPart docPart,
       Multimap<MetaField, KvValue<?>> valuesMultimap);
 
+  /**
+   * Return a cursor that iterates over all documents that fulfill all the given filters.
+   *
+   * <p>The filtering is done by the backend, which evaluates all filters on a single query.
+   *
+   * @param db
+   * @param col
+   * @param filters the doc part filters that must be fulfilled. It must not be empty.
+   * @return
+   */
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col,
+      List<DocPartFilter> filters);
+
+  /**
+   * Return a cursor that iterates over the documents that fulfill all the given filters, sorted
+   * by the given sorts.
+   *
+   * <p>Documents that are equal on all sorts are returned in the order of their dids. The first
+   * {@code skip} documents are discarded and at most {@code limit} documents are returned.
+   *
+   * @param db
+   * @param col
+   * @param filters the doc part filters that must be fulfilled. It may be empty.
+   * @param sorts   the root doc part sorts, in order of precedence. It may be empty.
+   * @param skip    the number of documents to discard
+   * @param limit   the max number of documents to return or 0 if there is no limit
+   * @return
+   */
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col,
+      List<DocPartFilter> filters, List<DocPartSort> sorts, long skip, long limit);
+
+  /**
+   * Returns the number of documents that fulfill all the given filters.
+   *
+   * @param db
+   * @param col
+   * @param filters the doc part filters that must be fulfilled. It may be empty.
+   * @return
+   */
+  public long countByFilter(MetaDatabase db, MetaCollection col, List<DocPartFilter> filters);
+
+  /**
+   * Return a cursor that iterates over the distinct non null values that the given field has on
+   * the documents that fulfill all the given filters.
+   *
+   * @param db
+   * @param col
+   * @param docPart the doc part that contains the field
+   * @param field
+   * @param filters the doc part filters that must be fulfilled. It may be empty.
+   * @return
+   */
+  public Cursor<KvValue<?>> findDistinct(MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, MetaField field, List<DocPartFilter> filters);
+
+  /**
+   * Like {@link #findDistinct(MetaDatabase, MetaCollection, MetaDocPart, MetaField, List)}, but
+   * the values are the ones of a scalar of the doc part, which are the values of an array.
+   */
+  public Cursor<KvValue<?>> findDistinct(MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, MetaScalar scalar, List<DocPartFilter> filters);
+
   /**
    * Reads the metadata value stored with the given key.
    *
@@ -0,0 +1,157 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.backend;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+import com.torodb.core.language.AttributeFilter;
+import com.torodb.core.language.AttributeFilter.Operator;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An {@link AttributeFilter} translated to the doc part that stores the referenced attribute.
+ *
+ * <p>Each entry of the values multimap restricts the values of the entry metafield. A row of the
+ * doc part fulfills the positive version of the filter if it fulfills the restriction of at least
+ * one entry and a document fulfills the filter if at least one of its rows do it. When the
+ * attribute is an array, its scalar elements are stored on the elements doc part and each entry
+ * of the element values multimap restricts the values of the entry scalar in the same way. A
+ * document fulfills a {@link Operator#isNegated() negated} filter if none of its rows, on either
+ * doc part, fulfill the positive version.
+ *
+ * <p>When the attribute filter {@link AttributeFilter#matchesNull() matches null}, documents that
+ * do not contain the attribute fulfill the positive version too. A document does not contain the
+ * attribute if none of the {@link #getAttributeFields() attribute fields} is set on its rows.
+ */
+@Immutable
+public class DocPartFilter {
+
+  @Nonnull
+  private final MetaDocPart docPart;
+  @Nonnull
+  private final Operator operator;
+  @Nonnull
+  private final ImmutableListMultimap<MetaField, KvValue<?>> values;
+  @Nullable
+  private final MetaDocPart elementsDocPart;
+  @Nonnull
+  private final ImmutableListMultimap<MetaScalar, KvValue<?>> elementValues;
+  private final boolean missingAsNull;
+  @Nonnull
+  private final ImmutableList<MetaField> attributeFields;
+
+  public DocPartFilter(@Nonnull MetaDocPart docPart, @Nonnull Operator operator,
+      @Nonnull Multimap<MetaField, KvValue<?>> values) {
+    this(docPart, operator, values, null, ImmutableListMultimap.of());
+  }
+
+  public DocPartFilter(@Nonnull MetaDocPart docPart, @Nonnull Operator operator,
+      @Nonnull Multimap<MetaField, KvValue<?>> values, @Nullable MetaDocPart elementsDocPart,
+      @Nonnull Multimap<MetaScalar, KvValue<?>> elementValues) {
+    this(docPart, operator, values, elementsDocPart, elementValues, false, ImmutableList.of());
+  }
+
+  public DocPartFilter(@Nonnull MetaDocPart docPart, @Nonnull Operator operator,
+      @Nonnull Multimap<MetaField, KvValue<?>> values, @Nullable MetaDocPart elementsDocPart,
+      @Nonnull Multimap<MetaScalar, KvValue<?>> elementValues, boolean missingAsNull,
+      @Nonnull Collection<? extends MetaField> attributeFields) {
+    Preconditions.checkArgument(elementsDocPart != null || elementValues.isEmpty(),
+        "Element values require an elements doc part");
+    Preconditions.checkArgument(missingAsNull != attributeFields.isEmpty(),
+        "Attribute fields are required when, and only when, missing attributes are null");
+    Preconditions.checkArgument(missingAsNull || !values.isEmpty() || !elementValues.isEmpty(),
+        "At least one value is required");
+    this.docPart = docPart;
+    this.operator = operator;
+    this.values = ImmutableListMultimap.copyOf(values);
+    this.elementsDocPart = elementsDocPart;
+    this.elementValues = ImmutableListMultimap.copyOf(elementValues);
+    this.missingAsNull = missingAsNull;
+    this.attributeFields = ImmutableList.copyOf(attributeFields);
+  }
+
+  @Nonnull
+  public MetaDocPart getDocPart() {
+    return docPart;
+  }
+
+  @Nonnull
+  public Operator getOperator() {
+    return operator;
+  }
+
+  @Nonnull
+  public ImmutableListMultimap<MetaField, KvValue<?>> getValues() {
+    return values;
+  }
+
+  /**
+   * Returns the doc part that stores the elements of the attribute when it is an array or null
+   * if the filter does not restrict them.
+   */
+  @Nullable
+  public MetaDocPart getElementsDocPart() {
+    return elementsDocPart;
+  }
+
+  @Nonnull
+  public ImmutableListMultimap<MetaScalar, KvValue<?>> getElementValues() {
+    return elementValues;
+  }
+
+  /**
+   * Returns true if documents that do not contain the attribute must be evaluated as if it were
+   * null.
+   */
+  public boolean isMissingAsNull() {
+    return missingAsNull;
+  }
+
+  /**
+   * Returns the fields of the doc part, of any type, that store the attribute. It is empty unless
+   * {@link #isMissingAsNull() missing attributes are null}.
+   */
+  @Nonnull
+  public ImmutableList<MetaField> getAttributeFields() {
+    return attributeFields;
+  }
+
+  @Override
+  public String toString() {
+    String result = docPart.getTableRef() + " " + operator + " " + values;
+    if (!elementValues.isEmpty()) {
+      result += " or " + elementsDocPart.getTableRef() + " " + operator + " " + elementValues;
+    }
+    if (missingAsNull) {
+      result += " or missing " + attributeFields;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.Sort.SortKey;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A {@link SortKey} translated to the fields of the doc part that stores the referenced
+ * attribute.
+ *
+ * <p>The fields are grouped on brackets of types whose values can be compared between them,
+ * listed in the order their values must be sorted. A row is sorted by the first bracket that
+ * has a non null field, and the rows without values on any field are sorted as the lowest ones.
+ * Each row must have a value on at most one field.
+ */
+@Immutable
+public class DocPartSort {
+
+  @Nonnull
+  private final MetaDocPart docPart;
+  @Nonnull
+  private final List<List<MetaField>> brackets;
+  @Nonnull
+  private final FieldIndexOrdering ordering;
+
+  public DocPartSort(@Nonnull MetaDocPart docPart, @Nonnull List<List<MetaField>> brackets,
+      @Nonnull FieldIndexOrdering ordering) {
+    Preconditions.checkArgument(brackets.stream().noneMatch(List::isEmpty),
+        "Sort brackets cannot be empty");
+    this.docPart = docPart;
+    this.brackets = brackets.stream()
+        .map(ImmutableList::copyOf)
+        .collect(ImmutableList.toImmutableList());
+    this.ordering = ordering;
+  }
+
+  @Nonnull
+  public MetaDocPart getDocPart() {
+    return docPart;
+  }
+
+  @Nonnull
+  public List<List<MetaField>> getBrackets() {
+    return brackets;
+  }
+
+  @Nonnull
+  public FieldIndexOrdering getOrdering() {
+    return ordering;
+  }
+
+  @Override
+  public String toString() {
+    return docPart.getTableRef() + " " + brackets + " " + ordering;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.backend;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The new values of some fields of some rows of a root doc part, which are identified by their
+ * did.
+ *
+ * <p>All rows set the same fields. A null value means that the field is not present on the row
+ * anymore.
+ */
+@Immutable
+public class DocPartUpdate {
+
+  @Nonnull
+  private final MetaDocPart docPart;
+  @Nonnull
+  private final ImmutableList<MetaField> fields;
+  @Nonnull
+  private final ImmutableList<Row> rows;
+
+  private DocPartUpdate(MetaDocPart docPart, ImmutableList<MetaField> fields,
+      ImmutableList<Row> rows) {
+    this.docPart = docPart;
+    this.fields = fields;
+    this.rows = rows;
+  }
+
+  @Nonnull
+  public MetaDocPart getDocPart() {
+    return docPart;
+  }
+
+  @Nonnull
+  public ImmutableList<MetaField> getFields() {
+    return fields;
+  }
+
+  @Nonnull
+  public ImmutableList<Row> getRows() {
+    return rows;
+  }
+
+  @Override
+  public String toString() {
+    return docPart.getTableRef() + " set " + fields + " on " + rows.size() + " rows";
+  }
+
+  @Immutable
+  public static class Row {
+
+    private final int did;
+    private final List<KvValue<?>> values;
+
+    private Row(int did, List<KvValue<?>> values) {
+      this.did = did;
+      this.values = values;
+    }
+
+    public int getDid() {
+      return did;
+    }
+
+    /**
+     * Returns the new values of the row, on the same order as {@link DocPartUpdate#getFields()}.
+     */
+    public List<KvValue<?>> getValues() {
+      return values;
+    }
+  }
+
+  public static class Builder {
+
+    private final MetaDocPart docPart;
+    private final ImmutableList<MetaField> fields;
+    private final ImmutableList.Builder<Row> rows = ImmutableList.builder();
+
+    public Builder(@Nonnull MetaDocPart docPart, @Nonnull List<? extends MetaField> fields) {
+      Preconditions.checkArgument(docPart.getTableRef().isRoot(),
+          "Only rows of root doc parts can be updated, but %s was used", docPart);
+      Preconditions.checkArgument(!fields.isEmpty(), "At least one field must be updated");
+      this.docPart = docPart;
+      this.fields = ImmutableList.copyOf(fields);
+    }
+
+    /**
+     * Adds a row to update.
+     *
+     * @param did    the did of the row
+     * @param values the new values of the fields, where null values mean that the field is not
+     *               present on the row anymore
+     */
+    public Builder addRow(int did, @Nonnull List<? extends KvValue<?>> values) {
+      Preconditions.checkArgument(values.size() == fields.size(), "Expected %s values, but %s "
+          + "were given", fields.size(), values.size());
+      rows.add(new Row(did, Collections.unmodifiableList(new ArrayList<>(values))));
+      return this;
+    }
+
+    public DocPartUpdate build() {
+      return new DocPartUpdate(docPart, fields, rows.build());
+    }
+  }
+}
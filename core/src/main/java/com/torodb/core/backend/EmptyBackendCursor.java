@@ -21,6 +21,7 @@ package com.torodb.core.backend;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.MetaCollection;
 
 /**
  *
@@ -35,6 +36,12 @@ public class EmptyBackendCursor implements BackendCursor {
     return (Cursor<DocPartResult>) emptyCursor;
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  public Cursor<DocPartResult> asDocPartResultCursor(MetaCollection projection) {
+    return (Cursor<DocPartResult>) emptyCursor;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public Cursor<Integer> asDidCursor() {
@@ -0,0 +1,128 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.backend;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Calculates the {@link DocPartUpdate updates} that transform some documents into new versions of
+ * them by only modifying the rows of the root doc part.
+ *
+ * <p>Only top level scalar values can be changed this way. Documents and arrays are stored on
+ * other doc parts and values of a type that has no field on the root doc part require a new
+ * column, so changes that involve them must be done by replacing the whole document.
+ */
+public class RootDocPartUpdates {
+
+  private RootDocPartUpdates() {
+  }
+
+  /**
+   * Returns the updates that transform each old document into the new document at the same
+   * position, grouping the rows that set the same fields, or null if any of the changes cannot be
+   * done by only modifying the root doc part rows.
+   */
+  @Nullable
+  public static List<DocPartUpdate> calculate(MetaDocPart rootDocPart,
+      List<ToroDocument> oldDocs, List<KvDocument> newDocs) {
+    Preconditions.checkArgument(oldDocs.size() == newDocs.size(), "There are %s old documents "
+        + "but %s new documents", oldDocs.size(), newDocs.size());
+
+    Map<List<MetaField>, DocPartUpdate.Builder> updates = new HashMap<>();
+    for (int i = 0; i < oldDocs.size(); i++) {
+      ToroDocument oldDoc = oldDocs.get(i);
+      Map<MetaField, KvValue<?>> newValues = calculateNewValues(rootDocPart, oldDoc.getRoot(),
+          newDocs.get(i));
+      if (newValues == null) {
+        return null;
+      }
+      if (newValues.isEmpty()) {
+        continue;
+      }
+      List<MetaField> fields = new ArrayList<>(newValues.keySet());
+      fields.sort(Comparator.comparing(MetaField::getIdentifier));
+      List<KvValue<?>> values = new ArrayList<>(fields.size());
+      for (MetaField field : fields) {
+        values.add(newValues.get(field));
+      }
+      updates.computeIfAbsent(fields, key -> new DocPartUpdate.Builder(rootDocPart, key))
+          .addRow(oldDoc.getId(), values);
+    }
+    return updates.values().stream()
+        .map(DocPartUpdate.Builder::build)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the values that have to be set on the root doc part row to transform the old document
+   * into the new one, where null values mean that the field is not present anymore, or null if the
+   * change cannot be done by only modifying the root doc part row.
+   */
+  @Nullable
+  private static Map<MetaField, KvValue<?>> calculateNewValues(MetaDocPart rootDocPart,
+      KvDocument oldDoc, KvDocument newDoc) {
+    Set<String> keys = new HashSet<>();
+    Iterables.addAll(keys, oldDoc.getKeys());
+    Iterables.addAll(keys, newDoc.getKeys());
+
+    Map<MetaField, KvValue<?>> newValues = new HashMap<>();
+    for (String key : keys) {
+      KvValue<?> oldValue = oldDoc.get(key);
+      KvValue<?> newValue = newDoc.get(key);
+      if (oldValue != null && newValue != null && oldValue.getType().equals(newValue.getType())
+          && oldValue.equals(newValue)) {
+        continue;
+      }
+      //documents and arrays are stored on other doc parts
+      if (!isInPlaceUpdatable(oldValue) || !isInPlaceUpdatable(newValue)) {
+        return null;
+      }
+      FieldType newType = newValue == null ? null : FieldType.from(newValue.getType());
+      if (newType != null && rootDocPart.getMetaFieldByNameAndType(key, newType) == null) {
+        return null;
+      }
+      rootDocPart.streamMetaFieldByName(key)
+          .filter(field -> field.getType() != FieldType.CHILD)
+          .forEach(field -> newValues.put(field, field.getType() == newType ? newValue : null));
+    }
+    return newValues;
+  }
+
+  private static boolean isInPlaceUpdatable(@Nullable KvValue<?> value) {
+    return value == null || FieldType.from(value.getType()) != FieldType.CHILD;
+  }
+}
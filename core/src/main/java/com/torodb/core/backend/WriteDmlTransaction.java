@@ -18,6 +18,8 @@
 
 package com.torodb.core.backend;
 
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
@@ -53,8 +55,63 @@ public interface WriteDmlTransaction extends DmlTransaction {
   public void insert(MetaDatabase db, MetaCollection col, DocPartData data) 
       throws RollbackException, UserException;
 
+  /**
+   * Inserts all the doc parts of the given collection data.
+   *
+   * <p>Doc parts are inserted following the order of {@link CollectionData#orderedDocPartData()},
+   * but implementations are free to overlap the work needed to insert different doc parts.
+   *
+   * @param db   the database that contains the given collection
+   * @param col  the collection that contains the given data
+   * @param data the rows to be inserted
+   * @throws UserException if there is a bussiness problem with the operation to be inserted (like a
+   *                       unique index violation)
+   */
+  public void insert(MetaDatabase db, MetaCollection col, CollectionData data)
+      throws RollbackException, UserException;
+
+  /**
+   * Sets the given values on the rows of a root doc part without deleting and inserting them again.
+   *
+   * <p>All the fields of the update must exist on its doc part and the doc part must be contained
+   * by the given collection.
+   *
+   * @param db     the database that contains the given collection
+   * @param col    the collection that contains the rows to update
+   * @param update the new values of the rows
+   * @throws UserException if there is a bussiness problem with the operation (like a unique index
+   *                       violation)
+   */
+  public void update(MetaDatabase db, MetaCollection col, DocPartUpdate update)
+      throws RollbackException, UserException;
+
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids);
 
+  /**
+   * Deletes the documents whose dids are returned by the given cursor.
+   *
+   * <p>Dids are read and deleted on batches, so the cursor is never fully loaded in memory.
+   *
+   * @param db        the database that contains the given collection
+   * @param col       the collection that contains the documents to delete
+   * @param didCursor the dids of the documents to delete
+   * @return the number of dids read from the cursor
+   */
+  public long deleteDids(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor);
+
+  /**
+   * Deletes all the documents of the given collection.
+   *
+   * <p>Unlike {@link #deleteDids(MetaDatabase, MetaCollection, Cursor)}, dids are not read, so
+   * backends can use their fastest way to empty the collection tables without leaving this
+   * transaction.
+   *
+   * @param db  the database that contains the given collection
+   * @param col the collection whose documents will be deleted
+   * @return the number of deleted documents
+   */
+  public long deleteAll(MetaDatabase db, MetaCollection col);
+
   /**
    * Stores the given key value association.
    *
@@ -0,0 +1,163 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A cursor that translates doc part results to documents one document at a time.
+ *
+ * <p>The doc part results must be sorted from the deepest doc part to the root one and the rows of
+ * each of them must be ordered by did. Each time a document is requested, the rows of its did are
+ * read from each doc part result and translated with the given {@link R2DTranslator}, so only the
+ * rows of the current document are kept in memory.
+ *
+ * <p>The first row of the next document read on each doc part result is kept until the next
+ * document is translated. As it is not consumed until then, rows that read their values lazily
+ * from the underlying result set are still valid.
+ */
+public class IncrementalR2DCursor implements Cursor<ToroDocument> {
+
+  private final R2DTranslator r2dTranslator;
+  private final List<DocPartResult> docPartResults;
+  private final List<DidBoundedDocPartResult> boundedResults;
+  private final DidBoundedDocPartResult rootResult;
+  private boolean closed = false;
+
+  public IncrementalR2DCursor(@Nonnull R2DTranslator r2dTranslator,
+      @Nonnull List<DocPartResult> docPartResults) {
+    this.r2dTranslator = r2dTranslator;
+    this.docPartResults = docPartResults;
+    this.boundedResults = new ArrayList<>(docPartResults.size());
+    for (DocPartResult docPartResult : docPartResults) {
+      boundedResults.add(new DidBoundedDocPartResult(docPartResult));
+    }
+    if (boundedResults.isEmpty()) {
+      rootResult = null;
+    } else {
+      rootResult = boundedResults.get(boundedResults.size() - 1);
+      Preconditions.checkArgument(rootResult.getMetaDocPart().getTableRef().isRoot(),
+          "The last doc part result must be the root one");
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    Preconditions.checkState(!closed, "The cursor is closed");
+    return rootResult != null && rootResult.hasPendingRow();
+  }
+
+  @Override
+  public ToroDocument next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int did = rootResult.getPendingDid();
+    for (DidBoundedDocPartResult boundedResult : boundedResults) {
+      boundedResult.setDid(did);
+    }
+
+    List<ToroDocument> translated = r2dTranslator.translate(
+        Collections.<DocPartResult>unmodifiableList(boundedResults).iterator());
+    if (translated.size() != 1) {
+      throw new IllegalStateException("Expected one document with did " + did + " but "
+          + translated.size() + " were translated");
+    }
+    return translated.get(0);
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      docPartResults.forEach(DocPartResult::close);
+    }
+  }
+
+  private static class DidBoundedDocPartResult implements DocPartResult {
+
+    private final DocPartResult delegate;
+    private DocPartResultRow pendingRow;
+    private int did;
+
+    public DidBoundedDocPartResult(DocPartResult delegate) {
+      this.delegate = delegate;
+    }
+
+    private boolean hasPendingRow() {
+      if (pendingRow == null && delegate.hasNext()) {
+        pendingRow = delegate.next();
+      }
+      return pendingRow != null;
+    }
+
+    private int getPendingDid() {
+      if (!hasPendingRow()) {
+        throw new NoSuchElementException();
+      }
+      return pendingRow.getDid();
+    }
+
+    private void setDid(int did) {
+      this.did = did;
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      return delegate.getMetaDocPart();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!hasPendingRow()) {
+        return false;
+      }
+      int pendingDid = pendingRow.getDid();
+      if (pendingDid < did) {
+        throw new IllegalStateException("The rows of doc part "
+            + delegate.getMetaDocPart().getTableRef() + " are not ordered by did");
+      }
+      return pendingDid == did;
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      DocPartResultRow row = pendingRow;
+      pendingRow = null;
+      return row;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
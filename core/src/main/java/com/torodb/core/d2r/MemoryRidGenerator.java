@@ -67,6 +67,12 @@ public class MemoryRidGenerator implements ReservedIdGenerator {
       return rid.getAndIncrement();
     }
 
+    @Override
+    public int reserveRids(TableRef tableRef, int count) {
+      AtomicInteger rid = map.computeIfAbsent(tableRef, tr -> new AtomicInteger(0));
+      return rid.getAndAdd(count);
+    }
+
     @Override
     public void setNextRid(TableRef tableRef, int nextRid) {
       AtomicInteger rid = map.computeIfAbsent(tableRef, tr -> new AtomicInteger(0));
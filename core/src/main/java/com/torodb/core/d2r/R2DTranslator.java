@@ -18,6 +18,7 @@
 
 package com.torodb.core.d2r;
 
+import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 
 import java.util.Iterator;
@@ -40,4 +41,21 @@ public interface R2DTranslator {
   @Nonnull
   public List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt);
 
+  /**
+   * Translates from relational model to the document model the given doc part results, one
+   * document at a time.
+   *
+   * <p>Doc part results must be sorted from the deepest doc part to the root one and the rows of
+   * each doc part result must be ordered by did. The returned cursor closes the given doc part
+   * results when it is closed.
+   *
+   * @param docPartResults
+   * @return a cursor that translates each document when it is requested.
+   * @see IncrementalR2DCursor
+   */
+  @Nonnull
+  public default Cursor<ToroDocument> translateIncrementally(List<DocPartResult> docPartResults) {
+    return new IncrementalR2DCursor(this, docPartResults);
+  }
+
 }
@@ -40,6 +40,18 @@ public interface ReservedIdGenerator {
 
     int nextRid(TableRef tableRef);
 
+    /**
+     * Reserves a block of contiguous rids on the given doc part.
+     *
+     * <p>The whole block is consumed even if the caller ends up using only some of them, so unused
+     * rids are just gaps on the doc part table.
+     *
+     * @param tableRef the doc part whose rids are reserved
+     * @param count    the number of rids to reserve, which must be greater than zero
+     * @return the first rid of the block. The following {@code count - 1} rids are reserved too.
+     */
+    int reserveRids(TableRef tableRef, int count);
+
     void setNextRid(TableRef tableRef, int nextRid);
 
   }
@@ -43,8 +43,14 @@ public class CollectionMetaInfo {
         metaCollection.getName());
   }
 
-  public int getNextRowId(TableRef tableRef) {
-    return docPartRidGenerator.nextRid(tableRef);
+  /**
+   * Reserves {@code count} contiguous row ids on the given doc part.
+   *
+   * @return the first reserved row id
+   * @see DocPartRidGenerator#reserveRids(TableRef, int)
+   */
+  public int reserveRowIds(TableRef tableRef, int count) {
+    return docPartRidGenerator.reserveRids(tableRef, count);
   }
 
   public MutableMetaDocPart findMetaDocPart(TableRef tableRef) {
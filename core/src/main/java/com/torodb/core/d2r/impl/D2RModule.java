@@ -29,6 +29,16 @@ import com.torodb.core.d2r.R2DTranslator;
  */
 public class D2RModule extends PrivateModule {
 
+  private final R2DTranslatorType r2dTranslatorType;
+
+  public D2RModule() {
+    this(R2DTranslatorType.DEFAULT);
+  }
+
+  public D2RModule(R2DTranslatorType r2dTranslatorType) {
+    this.r2dTranslatorType = r2dTranslatorType;
+  }
+
   @Override
   protected void configure() {
     install(new FactoryModuleBuilder()
@@ -37,9 +47,33 @@ public class D2RModule extends PrivateModule {
     );
     expose(D2RTranslatorFactory.class);
 
-    bind(R2DTranslator.class)
-        .to(R2DTranslatorImpl.class);
+    switch (r2dTranslatorType) {
+      case PRIMITIVE:
+        bind(R2DTranslator.class)
+            .to(PrimitiveR2DTranslatorImpl.class);
+        break;
+      case DEFAULT:
+      default:
+        bind(R2DTranslator.class)
+            .to(R2DTranslatorImpl.class);
+        break;
+    }
     expose(R2DTranslator.class);
   }
 
+  /**
+   * The {@link R2DTranslator} implementations that can be bound by this module.
+   */
+  public static enum R2DTranslatorType {
+    /**
+     * Binds {@link R2DTranslatorImpl}.
+     */
+    DEFAULT,
+    /**
+     * Binds {@link PrimitiveR2DTranslatorImpl}, which uses primitive int keyed structures to
+     * reduce the allocations done per row.
+     */
+    PRIMITIVE
+  }
+
 }
@@ -0,0 +1,153 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r.impl;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A minimal open addressing hash map whose keys are primitive ints.
+ *
+ * <p>Keys are never boxed and the backing arrays are kept when the map is {@link #clear() cleared},
+ * so a map can be reused without allocating. Null values are not supported, as a null value is
+ * used to mark an empty slot. Entries cannot be removed, only the whole map can be cleared.
+ */
+final class IntObjectOpenHashMap<V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  IntObjectOpenHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  IntObjectOpenHashMap(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int slot = hash(key) & mask;
+    Object value;
+    while ((value = values[slot]) != null) {
+      if (keys[slot] == key) {
+        return (V) value;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Associates the given value with the given key.
+   *
+   * @return the previous value associated with the key or null if there was none
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V put(int key, @Nonnull V value) {
+    assert value != null : "null values are not supported";
+    int slot = hash(key) & mask;
+    Object oldValue;
+    while ((oldValue = values[slot]) != null) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return (V) oldValue;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    if (size * 2 > values.length) {
+      rehash(values.length << 1);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<? super V> consumer) {
+    if (size == 0) {
+      return;
+    }
+    for (Object value : values) {
+      if (value != null) {
+        consumer.accept((V) value);
+      }
+    }
+  }
+
+  /**
+   * Removes all entries but keeps the allocated capacity.
+   */
+  public void clear() {
+    if (size != 0) {
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  private void rehash(int newCapacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(newCapacity);
+    for (int i = 0; i < oldValues.length; i++) {
+      Object value = oldValues[i];
+      if (value != null) {
+        int slot = hash(oldKeys[i]) & mask;
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = value;
+      }
+    }
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,343 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.d2r.InternalFields;
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link R2DTranslator} that produces the same documents than {@link R2DTranslatorImpl} but
+ * reduces the allocations done per row.
+ *
+ * <p>Rows are indexed by their primitive pid on {@link IntObjectOpenHashMap int keyed maps}
+ * instead of boxed integers on Guava tables, and the cells and arrays used to accumulate the
+ * values of each parent row are pooled and reused once a depth level has been consumed.
+ */
+public class PrimitiveR2DTranslatorImpl implements R2DTranslator {
+
+  @Override
+  public List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt) {
+    return new Translation().translate(docPartResultIt);
+  }
+
+  /**
+   * The state of a single translation. It is not shared between calls, so the translator can be
+   * used concurrently.
+   */
+  private static final class Translation {
+
+    private final ArrayDeque<IntObjectOpenHashMap<DocPartCell>> rowPool = new ArrayDeque<>();
+    private final ArrayDeque<DocPartCell> cellPool = new ArrayDeque<>();
+    private final ArrayDeque<ValueList> valueListPool = new ArrayDeque<>();
+
+    private List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt) {
+      ImmutableList.Builder<ToroDocument> readedDocuments = ImmutableList.builder();
+
+      Level currentLevel = new Level();
+      Level childLevel = new Level();
+
+      int previousDepth = -1;
+
+      while (docPartResultIt.hasNext()) {
+        DocPartResult docPartResult = docPartResultIt.next();
+        TableRef tableRef = docPartResult.getMetaDocPart().getTableRef();
+
+        if (previousDepth != -1 && previousDepth != tableRef.getDepth()) {
+          Level previousChildLevel = childLevel;
+          childLevel = currentLevel;
+          currentLevel = previousChildLevel;
+
+          if (!tableRef.isRoot()) {
+            currentLevel.clear();
+          }
+        }
+        previousDepth = tableRef.getDepth();
+
+        IntObjectOpenHashMap<DocPartCell> childRow = childLevel.getRow(tableRef);
+        IntObjectOpenHashMap<DocPartCell> currentRow;
+
+        if (tableRef.isRoot()) {
+          currentRow = null;
+        } else {
+          currentRow = currentLevel.getOrCreateRow(tableRef.getParent().get());
+        }
+
+        readResult(docPartResult, tableRef, currentRow, childRow, readedDocuments);
+      }
+
+      return readedDocuments.build();
+    }
+
+    private void readResult(DocPartResult docPartResult, TableRef tableRef,
+        IntObjectOpenHashMap<DocPartCell> currentRow,
+        IntObjectOpenHashMap<DocPartCell> childRow,
+        ImmutableList.Builder<ToroDocument> readedDocuments) {
+      MetaDocPart metaDocPart = docPartResult.getMetaDocPart();
+      //TODO: ensure MetaField order using ResultSet meta data
+      MetaScalar[] metaScalars = metaDocPart.streamScalars().toArray(MetaScalar[]::new);
+      MetaField[] metaFields = metaDocPart.streamFields().toArray(MetaField[]::new);
+      String docPartCellName = getDocPartCellName(tableRef);
+      boolean isRoot = tableRef.isRoot();
+
+      while (docPartResult.hasNext()) {
+        DocPartResultRow row = docPartResult.next();
+
+        int rid = row.getRid();
+        int pid = row.getPid();
+        Integer boxedSeq = row.getSeq();
+        int seq = boxedSeq == null ? -1 : boxedSeq;
+
+        DocPartCell childCell = childRow == null ? null : childRow.get(rid);
+
+        boolean wasScalar = false;
+        int fieldIndex = 0;
+        for (int i = 0; i < metaScalars.length && !wasScalar; i++) {
+          assert boxedSeq != null : "found scalar value outside of an array";
+
+          FieldType type = metaScalars[i].getType();
+          KvValue<?> value = row.getUserValue(fieldIndex, type);
+          fieldIndex++;
+
+          if (value != null) {
+            if (type == FieldType.CHILD) {
+              value = getChildValue(value, docPartCellName, childCell);
+            }
+            addValueToRow(currentRow, docPartCellName, pid, seq, value);
+            wasScalar = true;
+          }
+        }
+
+        if (wasScalar) {
+          continue;
+        }
+
+        KvDocument.Builder documentBuilder = new KvDocument.Builder();
+        for (MetaField metaField : metaFields) {
+          FieldType type = metaField.getType();
+          KvValue<?> value = row.getUserValue(fieldIndex, type);
+          fieldIndex++;
+          if (value != null) {
+            if (type == FieldType.CHILD) {
+              value = getChildValue(value, metaField.getName(), childCell);
+            }
+            documentBuilder.putValue(metaField.getName(), value);
+          }
+        }
+
+        if (isRoot) {
+          readedDocuments.add(new ToroDocument(row.getDid(), documentBuilder.build()));
+        } else {
+          addValueToRow(currentRow, docPartCellName, pid, seq, documentBuilder.build());
+        }
+      }
+    }
+
+    private KvValue<?> getChildValue(KvValue<?> value, String key, DocPartCell childCell) {
+      KvBoolean child = (KvBoolean) value;
+      ValueList elements = childCell == null ? null : childCell.get(key);
+      if (child.getValue() == InternalFields.CHILD_ARRAY_VALUE) {
+        if (elements == null) {
+          return new ListKvArray(ImmutableList.of());
+        }
+        return new ListKvArray(elements.toList());
+      } else {
+        if (elements == null) {
+          throw new IllegalStateException("The subdocument " + key + " was not found");
+        }
+        return elements.get(0);
+      }
+    }
+
+    /**
+     * Adds a value to the cell of the parent row. A negative seq means that the value is not an
+     * element of an array and replaces the previous value of the cell.
+     */
+    private void addValueToRow(IntObjectOpenHashMap<DocPartCell> row, String name, int pid,
+        int seq, KvValue<?> value) {
+      DocPartCell cell = row.get(pid);
+      if (cell == null) {
+        cell = borrowCell();
+        row.put(pid, cell);
+      }
+      ValueList elements = cell.get(name);
+      if (elements == null) {
+        elements = borrowValueList();
+        cell.put(name, elements);
+      }
+      if (seq < 0) {
+        elements.clear();
+        elements.set(0, value);
+      } else {
+        elements.set(seq, value);
+      }
+    }
+
+    private String getDocPartCellName(TableRef tableRef) {
+      while (tableRef.isInArray()) {
+        tableRef = tableRef.getParent().get();
+      }
+      return tableRef.getName();
+    }
+
+    private IntObjectOpenHashMap<DocPartCell> borrowRow() {
+      IntObjectOpenHashMap<DocPartCell> row = rowPool.poll();
+      return row != null ? row : new IntObjectOpenHashMap<>();
+    }
+
+    private DocPartCell borrowCell() {
+      DocPartCell cell = cellPool.poll();
+      return cell != null ? cell : new DocPartCell();
+    }
+
+    private ValueList borrowValueList() {
+      ValueList valueList = valueListPool.poll();
+      return valueList != null ? valueList : new ValueList();
+    }
+
+    private void releaseCell(DocPartCell cell) {
+      for (int i = 0; i < cell.size; i++) {
+        ValueList valueList = cell.valueLists[i];
+        valueList.clear();
+        valueListPool.add(valueList);
+      }
+      cell.clear();
+      cellPool.add(cell);
+    }
+
+    /**
+     * The cells of the parent rows that are being filled by the doc parts of the same depth.
+     */
+    private final class Level {
+
+      private final Map<TableRef, IntObjectOpenHashMap<DocPartCell>> rows = new HashMap<>();
+
+      private IntObjectOpenHashMap<DocPartCell> getRow(TableRef tableRef) {
+        return rows.get(tableRef);
+      }
+
+      private IntObjectOpenHashMap<DocPartCell> getOrCreateRow(TableRef tableRef) {
+        IntObjectOpenHashMap<DocPartCell> row = rows.get(tableRef);
+        if (row == null) {
+          row = borrowRow();
+          rows.put(tableRef, row);
+        }
+        return row;
+      }
+
+      private void clear() {
+        for (IntObjectOpenHashMap<DocPartCell> row : rows.values()) {
+          row.forEachValue(Translation.this::releaseCell);
+          row.clear();
+          rowPool.add(row);
+        }
+        rows.clear();
+      }
+    }
+  }
+
+  /**
+   * The values of a parent row, grouped by the name of the child doc part they come from.
+   *
+   * <p>A row usually has very few children, so names are looked up linearly.
+   */
+  private static final class DocPartCell {
+
+    private String[] names = new String[2];
+    private ValueList[] valueLists = new ValueList[2];
+    private int size;
+
+    private ValueList get(String name) {
+      for (int i = 0; i < size; i++) {
+        String candidate = names[i];
+        if (candidate == name || candidate.equals(name)) {
+          return valueLists[i];
+        }
+      }
+      return null;
+    }
+
+    private void put(String name, ValueList valueList) {
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+        valueLists = Arrays.copyOf(valueLists, size * 2);
+      }
+      names[size] = name;
+      valueLists[size] = valueList;
+      size++;
+    }
+
+    private void clear() {
+      Arrays.fill(names, 0, size, null);
+      Arrays.fill(valueLists, 0, size, null);
+      size = 0;
+    }
+  }
+
+  /**
+   * A growable array of values indexed by seq. Gaps are filled with nulls.
+   */
+  private static final class ValueList {
+
+    private KvValue<?>[] values = new KvValue<?>[4];
+    private int size;
+
+    private KvValue<?> get(int index) {
+      return values[index];
+    }
+
+    private void set(int index, KvValue<?> value) {
+      if (index >= values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length * 2, index + 1));
+      }
+      values[index] = value;
+      if (index >= size) {
+        size = index + 1;
+      }
+    }
+
+    private List<KvValue<?>> toList() {
+      return Arrays.asList(Arrays.copyOf(values, size));
+    }
+
+    private void clear() {
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+    }
+  }
+}
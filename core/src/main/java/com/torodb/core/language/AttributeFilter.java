@@ -0,0 +1,194 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.language;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.KvValueComparator;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A restriction on the value of a single attribute of a document.
+ *
+ * <p>Comparisons follow the type bracketing used by MongoDB: values are compared with the
+ * {@link KvValueComparator} and a range operator only matches values of the same bracket as the
+ * given value, so numbers of any type are compared between them by their numeric value. When the
+ * attribute is an array, the positive version of the filter is fulfilled if any of its elements
+ * fulfills it. Documents that do not contain the attribute are evaluated as if it were null, so
+ * they fulfill {@code {a: null}} but not {@code {a: {$ne: null}}}.
+ */
+@Immutable
+public class AttributeFilter {
+
+  @Nonnull
+  private final AttributeReference attRef;
+  @Nonnull
+  private final Operator operator;
+  @Nonnull
+  private final List<KvValue<?>> values;
+
+  public AttributeFilter(@Nonnull AttributeReference attRef, @Nonnull Operator operator,
+      @Nonnull Collection<? extends KvValue<?>> values) {
+    Preconditions.checkArgument(operator.isMultiValued() || values.size() == 1,
+        "Operator %s requires exactly one value", operator);
+    this.attRef = attRef;
+    this.operator = operator;
+    this.values = ImmutableList.copyOf(values);
+  }
+
+  @Nonnull
+  public AttributeReference getAttributeReference() {
+    return attRef;
+  }
+
+  @Nonnull
+  public Operator getOperator() {
+    return operator;
+  }
+
+  /**
+   * Returns the values this filter compares with. Only {@link Operator#isMultiValued() multivalued}
+   * operators can have zero or more than one value.
+   */
+  @Nonnull
+  public List<KvValue<?>> getValues() {
+    return values;
+  }
+
+  /**
+   * Returns true if the positive version of this filter is fulfilled by null, which is also the
+   * case of documents that do not contain the attribute.
+   */
+  public boolean matchesNull() {
+    return testPositive(KvNull.getInstance());
+  }
+
+  /**
+   * Evaluates this filter on a document, following arrays as
+   * {@link AttributeRefKvDocResolver#resolveAll(AttributeReference, KvDocument)} does.
+   */
+  public boolean test(KvDocument doc) {
+    List<KvValue<?>> attValues = AttributeRefKvDocResolver.resolveAll(attRef, doc);
+    boolean positive;
+    if (attValues.isEmpty() && !AttributeRefKvDocResolver.resolve(attRef, doc).isPresent()) {
+      positive = matchesNull();
+    } else {
+      positive = attValues.stream().anyMatch(this::testPositive);
+    }
+    return positive != operator.isNegated();
+  }
+
+  /**
+   * Evaluates this filter on the value the referenced attribute has on a document.
+   *
+   * @param attValue the value of the attribute or an empty optional if the document does not
+   *                 contain it
+   */
+  public boolean test(Optional<KvValue<?>> attValue) {
+    if (!attValue.isPresent()) {
+      return matchesNull() != operator.isNegated();
+    }
+    KvValue<?> value = attValue.get();
+    boolean positive = false;
+    if (value instanceof KvArray) {
+      for (KvValue<?> element : (KvArray) value) {
+        if (testPositive(element)) {
+          positive = true;
+          break;
+        }
+      }
+    } else {
+      positive = testPositive(value);
+    }
+    return positive != operator.isNegated();
+  }
+
+  /**
+   * Evaluates the positive version of this filter on a single value.
+   */
+  private boolean testPositive(KvValue<?> value) {
+    if (!operator.isRange()) {
+      return values.stream()
+          .anyMatch(filterValue -> KvValueComparator.INSTANCE.compare(value, filterValue) == 0);
+    }
+    KvValue<?> bound = values.get(0);
+    if (!KvValueComparator.INSTANCE.isSameBracket(value, bound)) {
+      return false;
+    }
+    int comparison = KvValueComparator.INSTANCE.compare(value, bound);
+    switch (operator) {
+      case GT:
+        return comparison > 0;
+      case GTE:
+        return comparison >= 0;
+      case LT:
+        return comparison < 0;
+      case LTE:
+        return comparison <= 0;
+      default:
+        throw new AssertionError("Unexpected range operator " + operator);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return attRef + " " + operator + " " + values;
+  }
+
+  public static enum Operator {
+    EQ,
+    NE,
+    GT,
+    GTE,
+    LT,
+    LTE,
+    IN,
+    NIN;
+
+    /**
+     * Returns true if a document fulfills the filter when none of its values fulfills the
+     * equivalent positive filter.
+     */
+    public boolean isNegated() {
+      return this == NE || this == NIN;
+    }
+
+    /**
+     * Returns true if this operator compares the order of the values instead of their equality.
+     */
+    public boolean isRange() {
+      return this == GT || this == GTE || this == LT || this == LTE;
+    }
+
+    public boolean isMultiValued() {
+      return this == IN || this == NIN;
+    }
+  }
+}
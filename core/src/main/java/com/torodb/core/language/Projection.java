@@ -0,0 +1,207 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Selects the attributes of a document that are returned to the client.
+ *
+ * <p>An inclusive projection only returns the referenced attributes, while an exclusive one
+ * returns all attributes except the referenced ones. When an attribute is selected, all its
+ * nested attributes are selected too. Attributes are referenced by name, so a reference to an
+ * attribute whose value is an array is applied to each document contained on the array.
+ */
+@Immutable
+public class Projection {
+
+  public static final Projection ALL = new Projection(false, Collections.emptyList());
+
+  private final boolean inclusive;
+  @Nonnull
+  private final List<AttributeReference> attRefs;
+
+  private Projection(boolean inclusive, @Nonnull Collection<AttributeReference> attRefs) {
+    for (AttributeReference attRef : attRefs) {
+      Preconditions.checkArgument(!attRef.getKeys().isEmpty(),
+          "Projections cannot contain empty references");
+      Preconditions.checkArgument(attRef.getKeys().stream().allMatch(ObjectKey.class::isInstance),
+          "Projections can only contain object keys, but %s was found", attRef);
+    }
+    this.inclusive = inclusive;
+    this.attRefs = ImmutableList.copyOf(attRefs);
+  }
+
+  /**
+   * Creates a projection that only selects the given attributes.
+   */
+  public static Projection include(@Nonnull Collection<AttributeReference> attRefs) {
+    return new Projection(true, attRefs);
+  }
+
+  /**
+   * Creates a projection that selects all attributes except the given ones.
+   */
+  public static Projection exclude(@Nonnull Collection<AttributeReference> attRefs) {
+    return new Projection(false, attRefs);
+  }
+
+  public boolean isInclusive() {
+    return inclusive;
+  }
+
+  @Nonnull
+  public List<AttributeReference> getAttributeReferences() {
+    return attRefs;
+  }
+
+  /**
+   * Returns true if this projection selects all attributes.
+   */
+  public boolean isAll() {
+    return !inclusive && attRefs.isEmpty();
+  }
+
+  /**
+   * Returns how the attribute on the given path and its nested attributes are selected by this
+   * projection.
+   *
+   * @param path the names of the attributes that must be followed from the root of the document
+   *             to reach the attribute
+   */
+  @Nonnull
+  public Coverage getCoverage(@Nonnull List<String> path) {
+    boolean partial = false;
+    for (AttributeReference attRef : attRefs) {
+      List<Key<?>> keys = attRef.getKeys();
+      int commonSize = Math.min(keys.size(), path.size());
+      boolean common = true;
+      for (int i = 0; i < commonSize && common; i++) {
+        common = keys.get(i).getKeyValue().equals(path.get(i));
+      }
+      if (common) {
+        if (keys.size() <= path.size()) {
+          return inclusive ? Coverage.FULL : Coverage.NONE;
+        }
+        partial = true;
+      }
+    }
+    if (partial) {
+      return Coverage.PARTIAL;
+    }
+    return inclusive ? Coverage.NONE : Coverage.FULL;
+  }
+
+  /**
+   * Returns the attributes of the given document that are selected by this projection.
+   */
+  @Nonnull
+  public KvDocument apply(@Nonnull KvDocument doc) {
+    if (isAll()) {
+      return doc;
+    }
+    return applyToDocument(doc, new ArrayList<>());
+  }
+
+  private KvDocument applyToDocument(KvDocument doc, List<String> path) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      path.add(entry.getKey());
+      switch (getCoverage(path)) {
+        case FULL:
+          builder.putValue(entry.getKey(), entry.getValue());
+          break;
+        case PARTIAL: {
+          KvValue<?> value = applyToValue(entry.getValue(), path);
+          if (value != null) {
+            builder.putValue(entry.getKey(), value);
+          }
+          break;
+        }
+        case NONE:
+        default:
+          break;
+      }
+      path.remove(path.size() - 1);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Applies this projection to a value whose nested attributes are partially selected.
+   *
+   * @return the projected value or null if it must be removed
+   */
+  private KvValue<?> applyToValue(KvValue<?> value, List<String> path) {
+    if (value instanceof KvDocument) {
+      return applyToDocument((KvDocument) value, path);
+    }
+    if (value instanceof KvArray) {
+      List<KvValue<?>> elements = new ArrayList<>();
+      for (KvValue<?> element : (KvArray) value) {
+        KvValue<?> projectedElement = applyToValue(element, path);
+        if (projectedElement != null) {
+          elements.add(projectedElement);
+        }
+      }
+      return new ListKvArray(elements);
+    }
+    // scalars do not contain the attributes selected by inclusive projections
+    return inclusive ? null : value;
+  }
+
+  @Override
+  public String toString() {
+    if (isAll()) {
+      return "all";
+    }
+    return (inclusive ? "include " : "exclude ") + Joiner.on(", ").join(attRefs);
+  }
+
+  public enum Coverage {
+    /**
+     * The attribute and all its nested attributes are selected.
+     */
+    FULL,
+    /**
+     * Only some of the nested attributes of the attribute are selected.
+     */
+    PARTIAL,
+    /**
+     * Neither the attribute nor its nested attributes are selected.
+     */
+    NONE;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.language;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.torodb.core.language.AttributeFilter.Operator;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A conjunction of {@link AttributeFilter attribute filters}. A document fulfills the query filter
+ * if it fulfills all its attribute filters.
+ */
+@Immutable
+public class QueryFilter {
+
+  public static final QueryFilter EMPTY_FILTER = new QueryFilter(Collections.emptyList());
+
+  @Nonnull
+  private final List<AttributeFilter> attributeFilters;
+
+  public QueryFilter(@Nonnull List<AttributeFilter> attributeFilters) {
+    this.attributeFilters = ImmutableList.copyOf(attributeFilters);
+  }
+
+  @Nonnull
+  public List<AttributeFilter> getAttributeFilters() {
+    return attributeFilters;
+  }
+
+  /**
+   * Returns true if this filter is fulfilled by all documents.
+   */
+  public boolean isEmpty() {
+    return attributeFilters.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return Joiner.on(" AND ").join(attributeFilters);
+  }
+
+  public static class Builder {
+
+    private final List<AttributeFilter> attributeFilters;
+
+    public Builder() {
+      attributeFilters = Lists.newArrayList();
+    }
+
+    public Builder add(AttributeReference attRef, Operator operator, KvValue<?> value) {
+      attributeFilters.add(new AttributeFilter(attRef, operator, ImmutableList.of(value)));
+      return this;
+    }
+
+    public Builder add(AttributeReference attRef, Operator operator,
+        Collection<? extends KvValue<?>> values) {
+      attributeFilters.add(new AttributeFilter(attRef, operator, values));
+      return this;
+    }
+
+    public QueryFilter build() {
+      return new QueryFilter(attributeFilters);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.KvValueComparator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The order in which the documents returned to the client are sorted.
+ *
+ * <p>Documents are compared by the first key of the sort, then by the second one and so on.
+ * When the value referenced by a key is an array or is contained on an array, the document is
+ * sorted by the lowest of those values on ascending keys and by the highest on descending ones.
+ */
+@Immutable
+public class Sort {
+
+  public static final Sort NONE = new Sort(Collections.emptyList());
+
+  @Nonnull
+  private final List<SortKey> sortKeys;
+
+  private Sort(@Nonnull List<SortKey> sortKeys) {
+    this.sortKeys = ImmutableList.copyOf(sortKeys);
+  }
+
+  public static Sort of(@Nonnull List<SortKey> sortKeys) {
+    if (sortKeys.isEmpty()) {
+      return NONE;
+    }
+    return new Sort(sortKeys);
+  }
+
+  @Nonnull
+  public List<SortKey> getSortKeys() {
+    return sortKeys;
+  }
+
+  public boolean isEmpty() {
+    return sortKeys.isEmpty();
+  }
+
+  /**
+   * Returns a comparator that orders documents as this sort specifies.
+   */
+  public Comparator<KvDocument> getComparator() {
+    return (doc1, doc2) -> {
+      for (SortKey sortKey : sortKeys) {
+        int diff = KvValueComparator.INSTANCE.compare(
+            sortKey.getSortValue(doc1), sortKey.getSortValue(doc2));
+        if (diff != 0) {
+          return sortKey.getOrdering().isAscending() ? diff : -diff;
+        }
+      }
+      return 0;
+    };
+  }
+
+  @Override
+  public String toString() {
+    return sortKeys.toString();
+  }
+
+  @Immutable
+  public static class SortKey {
+
+    @Nonnull
+    private final AttributeReference attRef;
+    @Nonnull
+    private final FieldIndexOrdering ordering;
+
+    public SortKey(@Nonnull AttributeReference attRef, @Nonnull FieldIndexOrdering ordering) {
+      Preconditions.checkArgument(!attRef.getKeys().isEmpty(),
+          "Sorts cannot contain empty references");
+      Preconditions.checkArgument(attRef.getKeys().stream().allMatch(ObjectKey.class::isInstance),
+          "Sorts can only contain object keys, but %s was found", attRef);
+      this.attRef = attRef;
+      this.ordering = ordering;
+    }
+
+    @Nonnull
+    public AttributeReference getAttributeReference() {
+      return attRef;
+    }
+
+    @Nonnull
+    public FieldIndexOrdering getOrdering() {
+      return ordering;
+    }
+
+    /**
+     * Returns the value used to sort the given document by this key or null if the document
+     * does not contain the referenced attribute.
+     */
+    @Nullable
+    KvValue<?> getSortValue(KvDocument doc) {
+      KvValue<?> result = null;
+      for (KvValue<?> candidate : AttributeRefKvDocResolver.resolveAll(attRef, doc)) {
+        if (result == null) {
+          result = candidate;
+        } else {
+          int diff = KvValueComparator.INSTANCE.compare(candidate, result);
+          if (ordering.isAscending() ? diff < 0 : diff > 0) {
+            result = candidate;
+          }
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return attRef + ":" + ordering;
+    }
+  }
+}
@@ -34,6 +34,15 @@ import java.util.Map;
 
 public class TableMetadata {
 
+  /**
+   * The maximum number of row ids reserved at once.
+   *
+   * <p>Blocks start with a single row id and double each time the previous one is exhausted, so a
+   * translator that only sees a few rows wastes almost nothing while big batches need only a
+   * logarithmic number of reservations. Unused row ids are just gaps on the table.
+   */
+  private static final int MAX_RID_BLOCK_SIZE = 1024;
+
   private final CollectionMetaInfo collectionMetaInfo;
   private final TableRef tableRef;
   private final MutableMetaDocPart metaDocPart;
@@ -44,6 +53,10 @@ public class TableMetadata {
   private final List<MetaField> orderedFields;
   private final List<MetaScalar> orderedScalars;
 
+  private int nextRid;
+  private int ridBlockEnd;
+  private int ridBlockSize;
+
   public TableMetadata(CollectionMetaInfo collectionMetaInfo, TableRef tableRef) {
     this.collectionMetaInfo = collectionMetaInfo;
     this.tableRef = tableRef;
@@ -67,7 +80,12 @@ public class TableMetadata {
   }
 
   protected int getNextRowId() {
-    return collectionMetaInfo.getNextRowId(tableRef);
+    if (nextRid == ridBlockEnd) {
+      ridBlockSize = Math.min(Math.max(ridBlockSize * 2, 1), MAX_RID_BLOCK_SIZE);
+      nextRid = collectionMetaInfo.reserveRowIds(tableRef, ridBlockSize);
+      ridBlockEnd = nextRid + ridBlockSize;
+    }
+    return nextRid++;
   }
 
   protected int findFieldPosition(String key, FieldType type) {
@@ -26,6 +26,7 @@ import com.torodb.kvdocument.values.KvArray;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,6 +43,53 @@ public class AttributeRefKvDocResolver {
     return resolve(keys, in, 0);
   }
 
+  /**
+   * Returns all values referenced by the given attribute reference, following arrays as MongoDB
+   * does when it sorts documents or looks for distinct values.
+   *
+   * <p>When an object key is found on an array, it is resolved on each document of the array.
+   * When the referenced value is an array, its elements are returned instead of it.
+   */
+  public static List<KvValue<?>> resolveAll(AttributeReference attRef, KvDocument in) {
+    List<KvValue<?>> result = new ArrayList<>();
+    resolveAll(attRef.getKeys(), in, 0, result);
+    return result;
+  }
+
+  private static void resolveAll(List<Key<?>> keyList, KvValue<?> in, int pos,
+      List<KvValue<?>> result) {
+    if (pos == keyList.size()) {
+      if (in instanceof KvArray) {
+        for (KvValue<?> child : (KvArray) in) {
+          result.add(child);
+        }
+      } else {
+        result.add(in);
+      }
+      return;
+    }
+    Key<?> key = keyList.get(pos);
+    if (in instanceof KvDocument && key instanceof ObjectKey) {
+      KvValue<?> child = ((KvDocument) in).get(((ObjectKey) key).getKey());
+      if (child != null) {
+        resolveAll(keyList, child, pos + 1, result);
+      }
+    } else if (in instanceof KvArray) {
+      if (key instanceof ArrayKey) {
+        int index = ((ArrayKey) key).getIndex();
+        if (index >= 0 && index < ((KvArray) in).size()) {
+          resolveAll(keyList, ((KvArray) in).get(index), pos + 1, result);
+        }
+      } else {
+        for (KvValue<?> child : (KvArray) in) {
+          if (child instanceof KvDocument) {
+            resolveAll(keyList, child, pos, result);
+          }
+        }
+      }
+    }
+  }
+
   private static Optional<KvValue<?>> resolve(List<Key<?>> keyList, KvDocument in, int pos) {
     Key<?> key = keyList.get(pos);
     if (!(key instanceof ObjectKey)) {
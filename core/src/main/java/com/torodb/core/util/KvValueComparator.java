@@ -0,0 +1,283 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.util;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDeprecated;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Compares values with the order MongoDB uses to sort them.
+ *
+ * <p>Values of different types are ordered by the bracket of their type: null, numbers, strings,
+ * documents, arrays, binaries, object ids, booleans, dates, timestamps and regular expressions,
+ * between min and max keys. Numbers of different types are compared by their numeric value.
+ * Dates and times that do not come from MongoDB are sorted after MongoDB dates. Missing values
+ * are represented by null and are equal to null values.
+ */
+public class KvValueComparator implements Comparator<KvValue<?>> {
+
+  public static final KvValueComparator INSTANCE = new KvValueComparator();
+
+  private static final Comparator<byte[]> BYTES_COMPARATOR =
+      UnsignedBytes.lexicographicalComparator();
+
+  private KvValueComparator() {
+  }
+
+  @Override
+  public int compare(KvValue<?> value1, KvValue<?> value2) {
+    int bracketDiff = Integer.compare(getBracket(value1), getBracket(value2));
+    if (bracketDiff != 0) {
+      return bracketDiff;
+    }
+    if (value1 == null || value2 == null) {
+      return 0;
+    }
+    if (value1 instanceof KvNumeric || value1 instanceof KvDecimal128) {
+      return compareNumbers(value1, value2);
+    }
+    if (value1 instanceof KvString) {
+      return ((KvString) value1).getValue().compareTo(((KvString) value2).getValue());
+    }
+    if (value1 instanceof KvDeprecated) {
+      return value1.toString().compareTo(value2.toString());
+    }
+    if (value1 instanceof KvDocument) {
+      return compareDocuments((KvDocument) value1, (KvDocument) value2);
+    }
+    if (value1 instanceof KvArray) {
+      return compareArrays((KvArray) value1, (KvArray) value2);
+    }
+    if (value1 instanceof KvBinary) {
+      KvBinary binary1 = (KvBinary) value1;
+      KvBinary binary2 = (KvBinary) value2;
+      int diff = Long.compare(binary1.size(), binary2.size());
+      if (diff == 0) {
+        diff = Byte.compare(binary1.getCategory(), binary2.getCategory());
+      }
+      if (diff == 0) {
+        diff = BYTES_COMPARATOR.compare(binary1.getByteSource().read(),
+            binary2.getByteSource().read());
+      }
+      return diff;
+    }
+    if (value1 instanceof KvMongoObjectId) {
+      return BYTES_COMPARATOR.compare(((KvMongoObjectId) value1).getArrayValue(),
+          ((KvMongoObjectId) value2).getArrayValue());
+    }
+    if (value1 instanceof KvBoolean) {
+      return Boolean.compare(((KvBoolean) value1).getPrimitiveValue(),
+          ((KvBoolean) value2).getPrimitiveValue());
+    }
+    if (value1 instanceof KvInstant) {
+      return ((KvInstant) value1).getValue().compareTo(((KvInstant) value2).getValue());
+    }
+    if (value1 instanceof KvDate) {
+      return ((KvDate) value1).getValue().compareTo(((KvDate) value2).getValue());
+    }
+    if (value1 instanceof KvTime) {
+      return ((KvTime) value1).getValue().compareTo(((KvTime) value2).getValue());
+    }
+    if (value1 instanceof KvMongoTimestamp) {
+      KvMongoTimestamp timestamp1 = (KvMongoTimestamp) value1;
+      KvMongoTimestamp timestamp2 = (KvMongoTimestamp) value2;
+      int diff = Integer.compareUnsigned(timestamp1.getSecondsSinceEpoch(),
+          timestamp2.getSecondsSinceEpoch());
+      if (diff == 0) {
+        diff = Integer.compareUnsigned(timestamp1.getOrdinal(), timestamp2.getOrdinal());
+      }
+      return diff;
+    }
+    if (value1 instanceof KvMinKey || value1 instanceof KvMaxKey) {
+      return 0;
+    }
+    return value1.toString().compareTo(value2.toString());
+  }
+
+  /**
+   * Returns true if the given values belong to the same bracket, so they are compared by their
+   * value instead of by their type. All numbers are on the same bracket.
+   */
+  public boolean isSameBracket(KvValue<?> value1, KvValue<?> value2) {
+    return getBracket(value1) == getBracket(value2);
+  }
+
+  private int getBracket(KvValue<?> value) {
+    if (value instanceof KvMinKey) {
+      return 0;
+    }
+    if (value == null || value instanceof KvNull || value instanceof KvUndefined) {
+      return 1;
+    }
+    if (value instanceof KvNumeric || value instanceof KvDecimal128) {
+      return 2;
+    }
+    if (value instanceof KvString) {
+      return 3;
+    }
+    if (value instanceof KvDeprecated) {
+      return 4;
+    }
+    if (value instanceof KvDocument) {
+      return 5;
+    }
+    if (value instanceof KvArray) {
+      return 6;
+    }
+    if (value instanceof KvBinary) {
+      return 7;
+    }
+    if (value instanceof KvMongoObjectId) {
+      return 8;
+    }
+    if (value instanceof KvBoolean) {
+      return 9;
+    }
+    if (value instanceof KvInstant) {
+      return 10;
+    }
+    if (value instanceof KvDate) {
+      return 11;
+    }
+    if (value instanceof KvTime) {
+      return 12;
+    }
+    if (value instanceof KvMongoTimestamp) {
+      return 13;
+    }
+    if (value instanceof KvMongoRegex) {
+      return 14;
+    }
+    if (value instanceof KvMaxKey) {
+      return 16;
+    }
+    return 15;
+  }
+
+  private int compareNumbers(KvValue<?> value1, KvValue<?> value2) {
+    if (value1 instanceof KvDecimal128 || value2 instanceof KvDecimal128) {
+      BigDecimal decimal1 = toBigDecimal(value1);
+      BigDecimal decimal2 = toBigDecimal(value2);
+      if (decimal1 != null && decimal2 != null) {
+        return decimal1.compareTo(decimal2);
+      }
+      return compareDoubles(toDouble(value1), toDouble(value2));
+    }
+    if (value1 instanceof KvDouble || value2 instanceof KvDouble) {
+      return compareDoubles(((KvNumeric<?>) value1).doubleValue(),
+          ((KvNumeric<?>) value2).doubleValue());
+    }
+    return Long.compare(((KvNumeric<?>) value1).longValue(), ((KvNumeric<?>) value2).longValue());
+  }
+
+  /**
+   * Compares two doubles, considering NaN lower than any other number as MongoDB does.
+   */
+  private int compareDoubles(double double1, double double2) {
+    if (Double.isNaN(double1) || Double.isNaN(double2)) {
+      return Boolean.compare(!Double.isNaN(double1), !Double.isNaN(double2));
+    }
+    return Double.compare(double1, double2);
+  }
+
+  /**
+   * Returns the exact value of a number or null if it is not finite.
+   */
+  private BigDecimal toBigDecimal(KvValue<?> value) {
+    if (value instanceof KvDecimal128) {
+      KvDecimal128 decimal = (KvDecimal128) value;
+      return decimal.isNaN() || decimal.isInfinite() ? null : decimal.getBigDecimal();
+    }
+    if (value instanceof KvDouble) {
+      double doubleValue = ((KvDouble) value).doubleValue();
+      return Double.isNaN(doubleValue) || Double.isInfinite(doubleValue) ? null
+          : new BigDecimal(doubleValue);
+    }
+    return BigDecimal.valueOf(((KvNumeric<?>) value).longValue());
+  }
+
+  private double toDouble(KvValue<?> value) {
+    if (value instanceof KvDecimal128) {
+      KvDecimal128 decimal = (KvDecimal128) value;
+      if (decimal.isNaN()) {
+        return Double.NaN;
+      }
+      if (decimal.isInfinite()) {
+        return decimal.getHigh() < 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+      }
+      return decimal.getBigDecimal().doubleValue();
+    }
+    return ((KvNumeric<?>) value).doubleValue();
+  }
+
+  private int compareDocuments(KvDocument doc1, KvDocument doc2) {
+    Iterator<DocEntry<?>> it1 = doc1.iterator();
+    Iterator<DocEntry<?>> it2 = doc2.iterator();
+    while (it1.hasNext() && it2.hasNext()) {
+      DocEntry<?> entry1 = it1.next();
+      DocEntry<?> entry2 = it2.next();
+      int diff = Integer.compare(getBracket(entry1.getValue()), getBracket(entry2.getValue()));
+      if (diff == 0) {
+        diff = entry1.getKey().compareTo(entry2.getKey());
+      }
+      if (diff == 0) {
+        diff = compare(entry1.getValue(), entry2.getValue());
+      }
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return Boolean.compare(it1.hasNext(), it2.hasNext());
+  }
+
+  private int compareArrays(KvArray array1, KvArray array2) {
+    Iterator<KvValue<?>> it1 = array1.iterator();
+    Iterator<KvValue<?>> it2 = array2.iterator();
+    while (it1.hasNext() && it2.hasNext()) {
+      int diff = compare(it1.next(), it2.next());
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return Boolean.compare(it1.hasNext(), it2.hasNext());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.d2r.impl.DocPartResultsGenerator;
+import com.torodb.core.d2r.impl.R2DTranslatorImpl;
+import com.torodb.core.document.ToroDocument;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class IncrementalR2DCursorTest {
+
+  private final R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+
+  @Test
+  public void translatesLikeTranslate() {
+    DocPartResultsGenerator generator = new DocPartResultsGenerator(50, 5, 2);
+
+    List<ToroDocument> expected = r2dTranslator.translate(generator.generate().iterator());
+
+    try (Cursor<ToroDocument> cursor = r2dTranslator.translateIncrementally(
+        generator.generate())) {
+      List<ToroDocument> actual = Lists.newArrayList(cursor.getNextBatch(7));
+      actual.addAll(cursor.getRemaining());
+
+      assertEquals(expected, actual);
+      assertFalse(cursor.hasNext());
+    }
+  }
+
+  @Test
+  public void documentsWithoutChildren() {
+    DocPartResultsGenerator generator = new DocPartResultsGenerator(10, 0, 0);
+
+    List<ToroDocument> expected = r2dTranslator.translate(generator.generate().iterator());
+
+    try (Cursor<ToroDocument> cursor = r2dTranslator.translateIncrementally(
+        generator.generate())) {
+      assertEquals(expected, cursor.getRemaining());
+    }
+  }
+
+  @Test
+  public void emptyResults() {
+    try (Cursor<ToroDocument> cursor = r2dTranslator.translateIncrementally(
+        Collections.emptyList())) {
+      assertFalse(cursor.hasNext());
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r.impl;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+
+import java.util.List;
+
+/**
+ * Generates the doc part results of a collection whose documents look like:
+ *
+ * <pre>
+ * { "name" : "name-N", "numbers" : [0, 1, ...], "address" : { "street" : "street-N",
+ *   "tags" : ["tag-0", "tag-1", ...] } }
+ * </pre>
+ *
+ * The same results can be generated as many times as needed.
+ */
+public class DocPartResultsGenerator {
+
+  private final MetaDocPartBuilder rootBuilder;
+  private final MetaDocPartBuilder numbersBuilder;
+  private final MetaDocPartBuilder addressBuilder;
+  private final MetaDocPartBuilder tagsBuilder;
+
+  public DocPartResultsGenerator(int documents, int numbersPerDocument, int tagsPerDocument) {
+    TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+    TableRef rootRef = tableRefFactory.createRoot();
+    TableRef numbersRef = tableRefFactory.createChild(rootRef, "numbers");
+    TableRef addressRef = tableRefFactory.createChild(rootRef, "address");
+    TableRef tagsRef = tableRefFactory.createChild(addressRef, "tags");
+
+    rootBuilder = new MetaDocPartBuilder(rootRef);
+    rootBuilder.addMetaField("name", "name_s", FieldType.STRING);
+    rootBuilder.addMetaField("numbers", "numbers_e", FieldType.CHILD);
+    rootBuilder.addMetaField("address", "address_e", FieldType.CHILD);
+
+    numbersBuilder = new MetaDocPartBuilder(numbersRef);
+    numbersBuilder.addMetaScalar("v_i", FieldType.INTEGER);
+
+    addressBuilder = new MetaDocPartBuilder(addressRef);
+    addressBuilder.addMetaField("street", "street_s", FieldType.STRING);
+    addressBuilder.addMetaField("tags", "tags_e", FieldType.CHILD);
+
+    tagsBuilder = new MetaDocPartBuilder(tagsRef);
+    tagsBuilder.addMetaScalar("v_s", FieldType.STRING);
+
+    int numbersRid = 0;
+    int addressRid = 0;
+    int tagsRid = 0;
+    for (int did = 0; did < documents; did++) {
+      rootBuilder.addRow(did, null, did, null, "name-" + did, true, false);
+      for (int seq = 0; seq < numbersPerDocument; seq++) {
+        numbersBuilder.addRow(did, did, numbersRid++, seq, seq);
+      }
+      int rid = addressRid++;
+      addressBuilder.addRow(did, did, rid, null, "street-" + did, true);
+      for (int seq = 0; seq < tagsPerDocument; seq++) {
+        tagsBuilder.addRow(did, rid, tagsRid++, seq, "tag-" + seq);
+      }
+    }
+  }
+
+  /**
+   * Returns new doc part results, ordered from the deepest doc part to the root one.
+   */
+  public List<DocPartResult> generate() {
+    return Lists.newArrayList(
+        tagsBuilder.getResultSet(),
+        numbersBuilder.getResultSet(),
+        addressBuilder.getResultSet(),
+        rootBuilder.getResultSet());
+  }
+}
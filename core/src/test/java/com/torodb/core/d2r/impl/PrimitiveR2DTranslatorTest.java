@@ -0,0 +1,48 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PrimitiveR2DTranslatorTest extends R2DTranslatorTest {
+
+  @Override
+  protected R2DTranslator createR2DTranslator() {
+    return new PrimitiveR2DTranslatorImpl();
+  }
+
+  @Test
+  public void translatesLikeDefaultTranslator() {
+    DocPartResultsGenerator generator = new DocPartResultsGenerator(200, 7, 3);
+
+    List<ToroDocument> expected = new R2DTranslatorImpl().translate(
+        generator.generate().iterator());
+    List<ToroDocument> actual = createR2DTranslator().translate(
+        generator.generate().iterator());
+
+    assertEquals(200, actual.size());
+    assertEquals(expected, actual);
+  }
+}
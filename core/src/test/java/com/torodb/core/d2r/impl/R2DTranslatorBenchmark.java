@@ -0,0 +1,94 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.d2r.impl;
+
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link R2DTranslatorImpl} and {@link PrimitiveR2DTranslatorImpl}.
+ *
+ * <p>It is not executed as part of the test suite. Run it with its main method and add
+ * {@code -prof gc} to the JMH options to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class R2DTranslatorBenchmark {
+
+  @Param({"10", "1000"})
+  public int documents;
+
+  @Param({"1", "20"})
+  public int arraySize;
+
+  private DocPartResultsGenerator generator;
+  private List<DocPartResult> docPartResults;
+  private final R2DTranslator defaultTranslator = new R2DTranslatorImpl();
+  private final R2DTranslator primitiveTranslator = new PrimitiveR2DTranslatorImpl();
+
+  @Setup(Level.Trial)
+  public void createGenerator() {
+    generator = new DocPartResultsGenerator(documents, arraySize, arraySize);
+  }
+
+  @Setup(Level.Invocation)
+  public void generateResults() {
+    docPartResults = generator.generate();
+  }
+
+  @Benchmark
+  public List<ToroDocument> defaultTranslator() {
+    return defaultTranslator.translate(docPartResults.iterator());
+  }
+
+  @Benchmark
+  public List<ToroDocument> primitiveTranslator() {
+    return primitiveTranslator.translate(docPartResults.iterator());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(R2DTranslatorBenchmark.class.getSimpleName())
+        .build()
+    ).run();
+  }
+}
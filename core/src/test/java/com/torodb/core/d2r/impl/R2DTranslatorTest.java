@@ -47,6 +47,10 @@ public class R2DTranslatorTest {
   private static final boolean IsArray = true;
   private static final boolean IsDocument = false;
 
+  protected R2DTranslator createR2DTranslator() {
+    return new R2DTranslatorImpl();
+  }
+
   /*
    * Document: { "name" : "jero" }
    */
@@ -59,7 +63,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -80,7 +84,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -101,7 +105,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -123,7 +127,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -145,7 +149,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     ToroDocument[] readedDocuments = r2dTranslator.translate(lst.iterator()).toArray(
         new ToroDocument[0]);
     assertEquals(2, readedDocuments.length);
@@ -183,7 +187,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Lists.newArrayList(secondLevel, root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -220,7 +224,7 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Lists.newArrayList(secondLevel, root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -283,7 +287,7 @@ public class R2DTranslatorTest {
         secondLevel,
         root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -337,7 +341,7 @@ public class R2DTranslatorTest {
         secondLevel,
         root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
+    R2DTranslator r2dTranslator = createR2DTranslator();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -0,0 +1,191 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeFilter.Operator;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class AttributeFilterTest {
+
+  private static final AttributeReference ATT_REF = new AttributeReference.Builder()
+      .addObjectKey("a")
+      .addObjectKey("b")
+      .build();
+
+  @Test
+  public void equalityTest() {
+    AttributeFilter filter = createFilter(Operator.EQ, KvInteger.of(1));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(1))));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(2))));
+    Assert.assertFalse(filter.test(Optional.empty()));
+  }
+
+  @Test
+  public void negatedTest() {
+    AttributeFilter filter = createFilter(Operator.NIN, KvInteger.of(1), KvInteger.of(2));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(2))));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(3))));
+    Assert.assertTrue(filter.test(Optional.empty()));
+  }
+
+  @Test
+  public void rangeTest() {
+    AttributeFilter filter = createFilter(Operator.GT, KvInteger.of(5));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(6))));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(5))));
+    Assert.assertFalse(filter.test(Optional.empty()));
+
+    filter = createFilter(Operator.LTE, new StringKvString("m"));
+    Assert.assertTrue(filter.test(Optional.of(new StringKvString("a"))));
+    Assert.assertTrue(filter.test(Optional.of(new StringKvString("m"))));
+    Assert.assertFalse(filter.test(Optional.of(new StringKvString("z"))));
+  }
+
+  @Test
+  public void rangeOnOtherTypeTest() {
+    AttributeFilter filter = createFilter(Operator.LT, KvInteger.of(5));
+    Assert.assertFalse(filter.test(Optional.of(new StringKvString("1"))));
+    Assert.assertFalse(filter.test(Optional.of(KvBoolean.FALSE)));
+  }
+
+  @Test
+  public void mixedNumericTypesTest() {
+    AttributeFilter filter = createFilter(Operator.LT, KvInteger.of(5));
+    Assert.assertTrue(filter.test(Optional.of(KvLong.of(1))));
+    Assert.assertTrue(filter.test(Optional.of(KvDouble.of(4.5))));
+    Assert.assertFalse(filter.test(Optional.of(KvDouble.of(5.5))));
+
+    filter = createFilter(Operator.GTE, KvDouble.of(2.5));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(3))));
+    Assert.assertFalse(filter.test(Optional.of(KvLong.of(2))));
+
+    filter = createFilter(Operator.EQ, KvInteger.of(1));
+    Assert.assertTrue(filter.test(Optional.of(KvDouble.of(1.0))));
+    Assert.assertTrue(filter.test(Optional.of(KvLong.of(1))));
+
+    filter = createFilter(Operator.NIN, KvDouble.of(2.0));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(2))));
+    Assert.assertTrue(filter.test(Optional.of(KvDouble.of(2.5))));
+  }
+
+  @Test
+  public void arrayTest() {
+    KvArray array = new ListKvArray(ImmutableList.of(KvInteger.of(1), KvDouble.of(7.5)));
+
+    Assert.assertTrue(createFilter(Operator.GT, KvInteger.of(7)).test(Optional.of(array)));
+    Assert.assertFalse(createFilter(Operator.GT, KvInteger.of(8)).test(Optional.of(array)));
+    Assert.assertTrue(createFilter(Operator.IN, KvLong.of(1), KvLong.of(2))
+        .test(Optional.of(array)));
+    Assert.assertFalse(createFilter(Operator.NE, KvInteger.of(1)).test(Optional.of(array)));
+    Assert.assertTrue(createFilter(Operator.NE, KvInteger.of(2)).test(Optional.of(array)));
+  }
+
+  @Test
+  public void documentTest() {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("a", new ListKvArray(ImmutableList.of(
+            new KvDocument.Builder()
+                .putValue("b", 3)
+                .build(),
+            new KvDocument.Builder()
+                .putValue("b", new ListKvArray(ImmutableList.of(
+                    KvDouble.of(4.5), new StringKvString("x"))))
+                .build())))
+        .build();
+
+    Assert.assertTrue(createFilter(Operator.GT, KvLong.of(4)).test(doc));
+    Assert.assertTrue(createFilter(Operator.EQ, new StringKvString("x")).test(doc));
+    Assert.assertFalse(createFilter(Operator.LT, KvInteger.of(3)).test(doc));
+    Assert.assertFalse(createFilter(Operator.NIN, KvDouble.of(3.0)).test(doc));
+    Assert.assertTrue(createFilter(Operator.NE, KvInteger.of(5)).test(doc));
+    Assert.assertTrue(createFilter(Operator.NE, KvInteger.of(5))
+        .test(new KvDocument.Builder().build()));
+  }
+
+  @Test
+  public void nullTest() {
+    AttributeFilter filter = createFilter(Operator.EQ, KvNull.getInstance());
+    Assert.assertTrue(filter.test(Optional.of(KvNull.getInstance())));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(1))));
+    Assert.assertTrue(filter.test(Optional.empty()));
+
+    filter = createFilter(Operator.IN, KvInteger.of(1), KvNull.getInstance());
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(1))));
+    Assert.assertTrue(filter.test(Optional.empty()));
+
+    filter = createFilter(Operator.NE, KvNull.getInstance());
+    Assert.assertFalse(filter.test(Optional.of(KvNull.getInstance())));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(1))));
+    Assert.assertFalse(filter.test(Optional.empty()));
+
+    filter = createFilter(Operator.NIN, KvNull.getInstance(), KvInteger.of(1));
+    Assert.assertFalse(filter.test(Optional.of(KvInteger.of(1))));
+    Assert.assertTrue(filter.test(Optional.of(KvInteger.of(2))));
+    Assert.assertFalse(filter.test(Optional.empty()));
+  }
+
+  @Test
+  public void nullOnMissingAttributeTest() {
+    KvDocument empty = new KvDocument.Builder().build();
+    KvDocument withoutB = new KvDocument.Builder()
+        .putValue("a", new ListKvArray(ImmutableList.of(
+            new KvDocument.Builder()
+                .putValue("c", 1)
+                .build())))
+        .build();
+    KvDocument withNull = new KvDocument.Builder()
+        .putValue("a", new KvDocument.Builder()
+            .putValue("b", KvNull.getInstance())
+            .build())
+        .build();
+
+    for (KvDocument doc : ImmutableList.of(empty, withoutB, withNull)) {
+      Assert.assertTrue(createFilter(Operator.EQ, KvNull.getInstance()).test(doc));
+      Assert.assertTrue(createFilter(Operator.IN, KvNull.getInstance()).test(doc));
+      Assert.assertFalse(createFilter(Operator.NE, KvNull.getInstance()).test(doc));
+      Assert.assertFalse(createFilter(Operator.NIN, KvNull.getInstance(), KvInteger.of(1))
+          .test(doc));
+    }
+    Assert.assertFalse(createFilter(Operator.EQ, KvInteger.of(1)).test(empty));
+    Assert.assertTrue(createFilter(Operator.NE, KvInteger.of(1)).test(empty));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void singleValuedOperatorWithSeveralValuesTest() {
+    createFilter(Operator.GTE, KvInteger.of(1), KvInteger.of(2));
+  }
+
+  private AttributeFilter createFilter(Operator operator, KvValue<?>... values) {
+    return new AttributeFilter(ATT_REF, operator, ImmutableList.copyOf(values));
+  }
+}
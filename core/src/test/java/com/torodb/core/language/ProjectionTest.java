@@ -0,0 +1,113 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.Projection.Coverage;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProjectionTest {
+
+  private static final KvDocument DOC = new KvDocument.Builder()
+      .putValue("_id", 1)
+      .putValue("a", new KvDocument.Builder()
+          .putValue("b", 2)
+          .putValue("c", 3)
+          .build())
+      .putValue("d", new ListKvArray(ImmutableList.of(
+          KvInteger.of(4),
+          new KvDocument.Builder()
+              .putValue("e", 5)
+              .putValue("f", 6)
+              .build())))
+      .putValue("g", 7)
+      .build();
+
+  @Test
+  public void coverageTest() {
+    Projection projection = Projection.include(ImmutableList.of(createAttRef("a", "b")));
+    Assert.assertEquals(Coverage.PARTIAL, projection.getCoverage(ImmutableList.of()));
+    Assert.assertEquals(Coverage.PARTIAL, projection.getCoverage(ImmutableList.of("a")));
+    Assert.assertEquals(Coverage.FULL, projection.getCoverage(ImmutableList.of("a", "b")));
+    Assert.assertEquals(Coverage.FULL, projection.getCoverage(ImmutableList.of("a", "b", "c")));
+    Assert.assertEquals(Coverage.NONE, projection.getCoverage(ImmutableList.of("a", "c")));
+    Assert.assertEquals(Coverage.NONE, projection.getCoverage(ImmutableList.of("g")));
+
+    projection = Projection.exclude(ImmutableList.of(createAttRef("a", "b")));
+    Assert.assertEquals(Coverage.PARTIAL, projection.getCoverage(ImmutableList.of("a")));
+    Assert.assertEquals(Coverage.NONE, projection.getCoverage(ImmutableList.of("a", "b")));
+    Assert.assertEquals(Coverage.FULL, projection.getCoverage(ImmutableList.of("a", "c")));
+    Assert.assertEquals(Coverage.FULL, projection.getCoverage(ImmutableList.of("g")));
+
+    Assert.assertEquals(Coverage.FULL, Projection.ALL.getCoverage(ImmutableList.of("g")));
+  }
+
+  @Test
+  public void includeTest() {
+    Projection projection = Projection.include(ImmutableList.of(
+        createAttRef("_id"), createAttRef("a", "b"), createAttRef("d", "e"),
+        createAttRef("g", "h")));
+    KvDocument expected = new KvDocument.Builder()
+        .putValue("_id", 1)
+        .putValue("a", new KvDocument.Builder()
+            .putValue("b", 2)
+            .build())
+        .putValue("d", new ListKvArray(ImmutableList.of(
+            new KvDocument.Builder()
+                .putValue("e", 5)
+                .build())))
+        .build();
+    Assert.assertEquals(expected, projection.apply(DOC));
+  }
+
+  @Test
+  public void excludeTest() {
+    Projection projection = Projection.exclude(ImmutableList.of(
+        createAttRef("a"), createAttRef("d", "e"), createAttRef("g", "h")));
+    KvDocument expected = new KvDocument.Builder()
+        .putValue("_id", 1)
+        .putValue("d", new ListKvArray(ImmutableList.of(
+            KvInteger.of(4),
+            new KvDocument.Builder()
+                .putValue("f", 6)
+                .build())))
+        .putValue("g", 7)
+        .build();
+    Assert.assertEquals(expected, projection.apply(DOC));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void arrayKeyTest() {
+    Projection.include(ImmutableList.of(new AttributeReference.Builder()
+        .addObjectKey("a")
+        .addArrayKey(0)
+        .build()));
+  }
+
+  private static AttributeReference createAttRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.Sort.SortKey;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.util.KvValueComparator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SortTest {
+
+  private static final KvDocument MISSING = new KvDocument.Builder()
+      .putValue("_id", 1)
+      .build();
+  private static final KvDocument NULL = new KvDocument.Builder()
+      .putValue("_id", 2)
+      .putValue("a", KvNull.getInstance())
+      .build();
+  private static final KvDocument NUMBER = new KvDocument.Builder()
+      .putValue("_id", 3)
+      .putValue("a", 2.5)
+      .build();
+  private static final KvDocument STRING = new KvDocument.Builder()
+      .putValue("_id", 4)
+      .putValue("a", new StringKvString("b"))
+      .build();
+  private static final KvDocument ARRAY = new KvDocument.Builder()
+      .putValue("_id", 5)
+      .putValue("a", new ListKvArray(ImmutableList.of(KvInteger.of(1), KvInteger.of(7))))
+      .build();
+
+  @Test
+  public void numbersTest() {
+    Assert.assertEquals(0, KvValueComparator.INSTANCE.compare(KvInteger.of(3), KvLong.of(3)));
+    Assert.assertEquals(0, KvValueComparator.INSTANCE.compare(KvInteger.of(3), KvDouble.of(3)));
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(KvLong.of(4), KvDouble.of(3.5)) > 0);
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(KvDouble.of(Double.NaN),
+        KvInteger.of(Integer.MIN_VALUE)) < 0);
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(KvLong.of(Long.MAX_VALUE),
+        KvLong.of(Long.MAX_VALUE - 1)) > 0);
+  }
+
+  @Test
+  public void typeOrderTest() {
+    Assert.assertEquals(0, KvValueComparator.INSTANCE.compare(null, KvNull.getInstance()));
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(KvNull.getInstance(),
+        KvInteger.of(Integer.MIN_VALUE)) < 0);
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(KvInteger.of(Integer.MAX_VALUE),
+        new StringKvString("")) < 0);
+    Assert.assertTrue(KvValueComparator.INSTANCE.compare(new StringKvString("z"),
+        MISSING) < 0);
+  }
+
+  @Test
+  public void ascendingTest() {
+    Sort sort = Sort.of(ImmutableList.of(new SortKey(createAttRef("a"), FieldIndexOrdering.ASC)));
+    Assert.assertEquals(ImmutableList.of(NULL, MISSING, ARRAY, NUMBER, STRING),
+        sort(sort, STRING, ARRAY, NULL, NUMBER, MISSING));
+  }
+
+  @Test
+  public void descendingTest() {
+    Sort sort = Sort.of(ImmutableList.of(new SortKey(createAttRef("a"), FieldIndexOrdering.DESC)));
+    Assert.assertEquals(ImmutableList.of(STRING, ARRAY, NUMBER, MISSING, NULL),
+        sort(sort, MISSING, NUMBER, ARRAY, STRING, NULL));
+  }
+
+  @Test
+  public void nestedTest() {
+    KvDocument doc1 = new KvDocument.Builder()
+        .putValue("_id", 1)
+        .putValue("a", new ListKvArray(ImmutableList.of(
+            new KvDocument.Builder().putValue("b", 5).build(),
+            new KvDocument.Builder().putValue("b", 1).build())))
+        .build();
+    KvDocument doc2 = new KvDocument.Builder()
+        .putValue("_id", 2)
+        .putValue("a", new KvDocument.Builder().putValue("b", 3).build())
+        .build();
+    Sort sort = Sort.of(ImmutableList.of(
+        new SortKey(createAttRef("a", "b"), FieldIndexOrdering.ASC)));
+    Assert.assertEquals(ImmutableList.of(doc1, doc2), sort(sort, doc2, doc1));
+
+    sort = Sort.of(ImmutableList.of(
+        new SortKey(createAttRef("a", "b"), FieldIndexOrdering.DESC)));
+    Assert.assertEquals(ImmutableList.of(doc1, doc2), sort(sort, doc2, doc1));
+  }
+
+  private static List<KvDocument> sort(Sort sort, KvDocument... docs) {
+    List<KvDocument> result = new ArrayList<>();
+    Collections.addAll(result, docs);
+    result.sort(sort.getComparator());
+    return result;
+  }
+
+  private static AttributeReference createAttRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.util;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AttributeRefKvDocResolverTest {
+
+  private static final KvDocument DOC = new KvDocument.Builder()
+      .putValue("a", new ListKvArray(ImmutableList.of(
+          new KvDocument.Builder()
+              .putValue("b", 1)
+              .build(),
+          KvInteger.of(2),
+          new KvDocument.Builder()
+              .putValue("b", new ListKvArray(ImmutableList.of(KvInteger.of(3), KvInteger.of(4))))
+              .build())))
+      .putValue("c", new KvDocument.Builder()
+          .putValue("d", 5)
+          .build())
+      .build();
+
+  @Test
+  public void resolveAllTraversesArraysTest() {
+    Assert.assertEquals(
+        ImmutableList.of(KvInteger.of(1), KvInteger.of(3), KvInteger.of(4)),
+        AttributeRefKvDocResolver.resolveAll(createAttRef("a", "b"), DOC));
+  }
+
+  @Test
+  public void resolveAllUnwindsArraysTest() {
+    Assert.assertEquals(3, AttributeRefKvDocResolver.resolveAll(createAttRef("a"), DOC).size());
+    Assert.assertEquals(ImmutableList.of(KvInteger.of(5)),
+        AttributeRefKvDocResolver.resolveAll(createAttRef("c", "d"), DOC));
+    Assert.assertEquals(ImmutableList.of(),
+        AttributeRefKvDocResolver.resolveAll(createAttRef("c", "e"), DOC));
+  }
+
+  private static AttributeReference createAttRef(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+}
@@ -24,6 +24,7 @@ import com.torodb.mongodb.commands.impl.ConnectionCmdImpl;
 import com.torodb.mongodb.commands.impl.GeneralTransactionCmdImpl;
 import com.torodb.mongodb.commands.impl.SchemaCmdsImpl;
 import com.torodb.mongodb.commands.impl.WriteTransactionCmdImpl;
+import com.torodb.mongodb.core.CursorRegistry;
 
 /**
  *
@@ -35,6 +36,9 @@ public class CommandImplementionsModule extends AbstractModule {
     bind(CommandClassifier.class)
         .in(Singleton.class);
 
+    bind(CursorRegistry.class)
+        .in(Singleton.class);
+
     bind(ConnectionCmdImpl.class)
         .in(Singleton.class);
 
@@ -24,6 +24,7 @@ import com.torodb.core.logging.LoggerFactory;
 import com.torodb.mongodb.commands.CmdImplMapSupplier;
 import com.torodb.mongodb.commands.CommandClassifier;
 import com.torodb.mongodb.commands.RequiredTransaction;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.MongodServerConfig;
 import com.torodb.mongodb.core.MongodTransaction;
@@ -101,12 +102,14 @@ public class CommandClassifierImpl implements CommandClassifier {
    * Creates a default {@link CommandClassifier}.
    */
   public static CommandClassifierImpl createDefault(LoggerFactory loggerFactory, Clock clock,
-      BuildProperties buildProp, MongodServerConfig mongodServerConfig) {
+      BuildProperties buildProp, MongodServerConfig mongodServerConfig,
+      CursorRegistry cursorRegistry) {
     return new CommandClassifierImpl(
         new SchemaCmdsImpl(loggerFactory),
         new WriteTransactionCmdImpl(loggerFactory),
-        new GeneralTransactionCmdImpl(loggerFactory),
-        new ConnectionCmdImpl(loggerFactory, clock, buildProp, mongodServerConfig),
+        new GeneralTransactionCmdImpl(loggerFactory, cursorRegistry),
+        new ConnectionCmdImpl(loggerFactory, clock, buildProp, mongodServerConfig,
+            cursorRegistry),
         loggerFactory.apply(CommandClassifierImpl.class)
     );
   }
@@ -28,13 +28,18 @@ import com.torodb.mongodb.commands.impl.diagnostic.BuildInfoImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.GetLogImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.PingImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.ServerStatusImplementation;
+import com.torodb.mongodb.commands.impl.general.GetMoreImplementation;
+import com.torodb.mongodb.commands.impl.general.KillCursorsImplementation;
 import com.torodb.mongodb.commands.impl.replication.IsMasterImplementation;
 import com.torodb.mongodb.commands.signatures.authentication.GetNonceCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.BuildInfoCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.GetLogCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.PingCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.ServerStatusCommand;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand;
 import com.torodb.mongodb.commands.signatures.repl.IsMasterCommand;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.MongodServerConfig;
 import com.torodb.mongowp.commands.Command;
@@ -54,7 +59,7 @@ public class ConnectionCmdImpl implements CmdImplMapSupplier<MongodServer> {
 
   @Inject
   ConnectionCmdImpl(LoggerFactory loggerFactory, Clock clock, BuildProperties buildProp,
-      MongodServerConfig mongodServerConfig) {
+      MongodServerConfig mongodServerConfig, CursorRegistry cursorRegistry) {
     map = ImmutableMap.<Command<?, ?>, CommandImplementation<?, ?, ? super MongodServer>>builder()
         .put(GetNonceCommand.INSTANCE, new GetNonceImplementation(loggerFactory))
         .put(BuildInfoCommand.INSTANCE, new BuildInfoImplementation(buildProp))
@@ -64,6 +69,8 @@ public class ConnectionCmdImpl implements CmdImplMapSupplier<MongodServer> {
         .put(PingCommand.INSTANCE, new PingImplementation())
         .put(IsMasterCommand.INSTANCE, new IsMasterImplementation(
             clock, mongodServerConfig))
+        .put(GetMoreCommand.INSTANCE, new GetMoreImplementation(cursorRegistry))
+        .put(KillCursorsCommand.INSTANCE, new KillCursorsImplementation(cursorRegistry))
         .build();
   }
 
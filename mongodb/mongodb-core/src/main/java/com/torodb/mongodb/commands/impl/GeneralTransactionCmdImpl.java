@@ -24,15 +24,18 @@ import com.torodb.mongodb.commands.CmdImplMapSupplier;
 import com.torodb.mongodb.commands.impl.admin.ListCollectionsImplementation;
 import com.torodb.mongodb.commands.impl.admin.ListIndexesImplementation;
 import com.torodb.mongodb.commands.impl.aggregation.CountImplementation;
+import com.torodb.mongodb.commands.impl.aggregation.DistinctImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.CollStatsImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.ListDatabasesImplementation;
 import com.torodb.mongodb.commands.impl.general.FindImplementation;
 import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand;
 import com.torodb.mongodb.commands.signatures.admin.ListIndexesCommand;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.CollStatsCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.ListDatabasesCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.CommandImplementation;
@@ -51,14 +54,15 @@ public class GeneralTransactionCmdImpl implements CmdImplMapSupplier<MongodTrans
   private final ImmutableMap<Command<?, ?>, CommandImplementation<?, ?, ? super MongodTransaction>> map;
 
   @Inject
-  GeneralTransactionCmdImpl(LoggerFactory loggerFactory) {
+  GeneralTransactionCmdImpl(LoggerFactory loggerFactory, CursorRegistry cursorRegistry) {
     map = ImmutableMap.<Command<?, ?>, CommandImplementation<?, ?, ? super MongodTransaction>>builder()
         .put(ListCollectionsCommand.INSTANCE, new ListCollectionsImplementation(loggerFactory))
         .put(ListIndexesCommand.INSTANCE, new ListIndexesImplementation())
         .put(CountCommand.INSTANCE, new CountImplementation())
+        .put(DistinctCommand.INSTANCE, new DistinctImplementation())
         .put(CollStatsCommand.INSTANCE, new CollStatsImplementation(loggerFactory))
         .put(ListDatabasesCommand.INSTANCE, new ListDatabasesImplementation())
-        .put(FindCommand.INSTANCE, new FindImplementation(loggerFactory))
+        .put(FindCommand.INSTANCE, new FindImplementation(loggerFactory, cursorRegistry))
         .build();
   }
 
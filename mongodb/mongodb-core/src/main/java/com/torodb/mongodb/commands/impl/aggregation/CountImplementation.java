@@ -18,12 +18,15 @@
 
 package com.torodb.mongodb.commands.impl.aggregation;
 
+import com.torodb.core.language.QueryFilter;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
+import com.torodb.mongodb.commands.impl.general.AttrRefHelper;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.CommandFailed;
 
 import javax.inject.Singleton;
 
@@ -36,10 +39,26 @@ public class CountImplementation implements ReadTorodbCommandImpl<CountArgument,
   @Override
   public Status<Long> apply(Request req, Command<? super CountArgument, ? super Long> command,
       CountArgument arg, MongodTransaction context) {
-    return Status.ok(
-        context.getDocTransaction()
-            .countAll(req.getDatabase(), arg.getCollection())
-    );
+    long count;
+    if (arg.getQuery() == null || arg.getQuery().isEmpty()) {
+      count = context.getDocTransaction()
+          .countAll(req.getDatabase(), arg.getCollection());
+    } else {
+      QueryFilter filter;
+      try {
+        filter = AttrRefHelper.calculateFilter(arg.getQuery());
+      } catch (CommandFailed ex) {
+        return Status.from(ex);
+      }
+      count = context.getDocTransaction()
+          .countByFilter(req.getDatabase(), arg.getCollection(), filter);
+    }
+
+    count = Math.max(count - arg.getSkip(), 0);
+    if (arg.getLimit() > 0) {
+      count = Math.min(count, arg.getLimit());
+    }
+    return Status.ok(count);
   }
 
 }
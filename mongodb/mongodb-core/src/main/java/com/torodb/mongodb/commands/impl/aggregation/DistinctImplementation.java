@@ -0,0 +1,68 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.aggregation;
+
+import com.google.common.base.Splitter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
+import com.torodb.mongodb.commands.impl.general.AttrRefHelper;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctResult;
+import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.commands.Command;
+import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.mongowp.utils.BsonArrayBuilder;
+
+import javax.inject.Singleton;
+
+/**
+ * Finds the distinct values of a key, which are looked for by the storage engine.
+ */
+@Singleton
+public class DistinctImplementation implements
+    ReadTorodbCommandImpl<DistinctArgument, DistinctResult> {
+
+  @Override
+  public Status<DistinctResult> apply(Request req,
+      Command<? super DistinctArgument, ? super DistinctResult> command, DistinctArgument arg,
+      MongodTransaction context) {
+    QueryFilter filter;
+    try {
+      filter = AttrRefHelper.calculateFilter(arg.getQuery());
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    }
+
+    AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+    for (String subKey : Splitter.on('.').split(arg.getKey())) {
+      refBuilder.addObjectKey(subKey);
+    }
+
+    BsonArrayBuilder values = new BsonArrayBuilder();
+    context.getDocTransaction()
+        .findDistinct(req.getDatabase(), arg.getCollection(), refBuilder.build(), filter)
+        .forEach(value -> values.add(MongoWpConverter.translate(value)));
+    return Status.ok(new DistinctResult(values.build()));
+  }
+
+}
@@ -19,7 +19,14 @@
 package com.torodb.mongodb.commands.impl.general;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.torodb.core.language.AttributeFilter.Operator;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
+import com.torodb.core.language.Sort.SortKey;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongowp.bson.BsonDocument;
@@ -27,8 +34,25 @@ import com.torodb.mongowp.bson.BsonDocument.Entry;
 import com.torodb.mongowp.bson.BsonValue;
 import com.torodb.mongowp.exceptions.CommandFailed;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class AttrRefHelper {
 
+  private static final ImmutableMap<String, Operator> OPERATORS =
+      ImmutableMap.<String, Operator>builder()
+          .put("$eq", Operator.EQ)
+          .put("$ne", Operator.NE)
+          .put("$gt", Operator.GT)
+          .put("$gte", Operator.GTE)
+          .put("$lt", Operator.LT)
+          .put("$lte", Operator.LTE)
+          .put("$in", Operator.IN)
+          .put("$nin", Operator.NIN)
+          .build();
+  private static final String ID_KEY = "_id";
+
   public static KvValue<?> calculateValueAndAttRef(BsonDocument doc,
       AttributeReference.Builder refBuilder) throws CommandFailed {
     if (doc.size() != 1) {
@@ -51,4 +75,183 @@ public class AttrRefHelper {
     }
   }
 
+  /**
+   * Translates a find filter to a {@link QueryFilter}.
+   *
+   * <p>The supported filters are conjunctions (implicit or by {@code $and}) of equalities and of
+   * {@code $eq}, {@code $ne}, {@code $gt}, {@code $gte}, {@code $lt}, {@code $lte}, {@code $in}
+   * and {@code $nin} operators on scalar values. Embedded documents are interpreted as a path to
+   * a nested attribute.
+   */
+  public static QueryFilter calculateFilter(BsonDocument filter) throws CommandFailed {
+    QueryFilter.Builder filterBuilder = new QueryFilter.Builder();
+    addFilter(filter, AttributeReference.EMPTY_REFERENCE, filterBuilder);
+    return filterBuilder.build();
+  }
+
+  private static void addFilter(BsonDocument doc, AttributeReference parentRef,
+      QueryFilter.Builder filterBuilder) throws CommandFailed {
+    for (Entry<?> entry : doc) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      if (key.equals("$and") && parentRef.getKeys().isEmpty()) {
+        if (!value.isArray()) {
+          throw new CommandFailed("find", "$and needs an array");
+        }
+        for (BsonValue<?> condition : value.asArray().asList()) {
+          if (!condition.isDocument()) {
+            throw new CommandFailed("find", "$and entries need to be full objects");
+          }
+          addFilter(condition.asDocument(), parentRef, filterBuilder);
+        }
+        continue;
+      }
+      if (key.startsWith("$")) {
+        throw new CommandFailed("find", "Operator " + key + " is not supported right now");
+      }
+
+      AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+      for (String subKey : Splitter.on('.').split(key)) {
+        refBuilder.addObjectKey(subKey);
+      }
+      AttributeReference attRef = parentRef.append(refBuilder.build());
+
+      if (value.isArray()) {
+        throw new CommandFailed("find", "Filters with arrays are not supported right now");
+      }
+      if (value.isDocument()) {
+        BsonDocument subDoc = value.asDocument();
+        if (subDoc.size() > 0 && subDoc.getFirstEntry().getKey().startsWith("$")) {
+          addOperators(subDoc, attRef, filterBuilder);
+        } else {
+          addFilter(subDoc, attRef, filterBuilder);
+        }
+      } else {
+        filterBuilder.add(attRef, Operator.EQ, MongoWpConverter.translate(value));
+      }
+    }
+  }
+
+  private static void addOperators(BsonDocument operators, AttributeReference attRef,
+      QueryFilter.Builder filterBuilder) throws CommandFailed {
+    for (Entry<?> entry : operators) {
+      Operator operator = OPERATORS.get(entry.getKey());
+      if (operator == null) {
+        throw new CommandFailed("find", "Operator " + entry.getKey()
+            + " is not supported right now");
+      }
+      BsonValue<?> value = entry.getValue();
+      if (operator.isMultiValued()) {
+        if (!value.isArray()) {
+          throw new CommandFailed("find", entry.getKey() + " needs an array");
+        }
+        List<KvValue<?>> values = new ArrayList<>();
+        for (BsonValue<?> element : value.asArray().asList()) {
+          values.add(translateScalar(element));
+        }
+        filterBuilder.add(attRef, operator, values);
+      } else {
+        filterBuilder.add(attRef, operator, translateScalar(value));
+      }
+    }
+  }
+
+  /**
+   * Translates a find projection to a {@link Projection}.
+   *
+   * <p>Only inclusions and exclusions of attributes are supported. As on MongoDB, {@code _id} is
+   * included unless it is explicitly excluded and it is the only attribute that can be excluded
+   * on an inclusive projection.
+   */
+  public static Projection calculateProjection(BsonDocument projection) throws CommandFailed {
+    List<AttributeReference> included = new ArrayList<>();
+    List<AttributeReference> excluded = new ArrayList<>();
+    boolean excludeId = false;
+    for (Entry<?> entry : projection) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      if (key.startsWith("$") || key.contains(".$")) {
+        throw new CommandFailed("find", "Positional projections are not supported right now");
+      }
+      boolean include;
+      if (value.isBoolean()) {
+        include = value.asBoolean().getPrimitiveValue();
+      } else if (value.isNumber()) {
+        include = value.asNumber().doubleValue() != 0;
+      } else {
+        throw new CommandFailed("find", "Projection operators are not supported right now");
+      }
+
+      AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+      for (String subKey : Splitter.on('.').split(key)) {
+        refBuilder.addObjectKey(subKey);
+      }
+      AttributeReference attRef = refBuilder.build();
+      if (key.equals(ID_KEY)) {
+        excludeId = !include;
+      }
+      if (include) {
+        included.add(attRef);
+      } else {
+        excluded.add(attRef);
+      }
+    }
+
+    AttributeReference idRef = new AttributeReference.Builder()
+        .addObjectKey(ID_KEY)
+        .build();
+    if (included.isEmpty()) {
+      return excluded.isEmpty() ? Projection.ALL : Projection.exclude(excluded);
+    }
+    if (!excluded.isEmpty() && included.equals(Collections.singletonList(idRef))) {
+      // _id is included by default, so it can be explicitly included on exclusive projections
+      return Projection.exclude(excluded);
+    }
+    if (excluded.size() > (excludeId ? 1 : 0)) {
+      throw new CommandFailed("find", "Projection cannot have a mix of inclusion and exclusion");
+    }
+    if (!excludeId && !included.contains(idRef)) {
+      included.add(idRef);
+    }
+    return Projection.include(included);
+  }
+
+  /**
+   * Translates a find sort specification to a {@link Sort}.
+   *
+   * <p>Each key must be sorted in ascending ({@code 1}) or descending ({@code -1}) order. Sorts by
+   * metadata, like text scores, are not supported.
+   */
+  public static Sort calculateSort(BsonDocument sort) throws CommandFailed {
+    List<SortKey> sortKeys = new ArrayList<>(sort.size());
+    for (Entry<?> entry : sort) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      if (key.startsWith("$") || !value.isNumber()) {
+        throw new CommandFailed("find", "Sorts by metadata are not supported right now");
+      }
+      double direction = value.asNumber().doubleValue();
+      if (direction != 1 && direction != -1) {
+        throw new CommandFailed("find", "Invalid sort direction " + value + " for key " + key
+            + ". It must be 1 or -1");
+      }
+
+      AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+      for (String subKey : Splitter.on('.').split(key)) {
+        refBuilder.addObjectKey(subKey);
+      }
+      sortKeys.add(new SortKey(refBuilder.build(),
+          direction > 0 ? FieldIndexOrdering.ASC : FieldIndexOrdering.DESC));
+    }
+    return Sort.of(sortKeys);
+  }
+
+  private static KvValue<?> translateScalar(BsonValue<?> value) throws CommandFailed {
+    if (value.isArray() || value.isDocument()) {
+      throw new CommandFailed("find", "Filters with arrays or documents as values are not "
+          + "supported right now");
+    }
+    return MongoWpConverter.translate(value);
+  }
+
 }
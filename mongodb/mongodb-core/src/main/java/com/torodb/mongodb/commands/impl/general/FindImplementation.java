@@ -19,16 +19,17 @@
 package com.torodb.mongodb.commands.impl.general;
 
 import com.torodb.core.cursors.Cursor;
-import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.kvdocument.conversion.mongowp.ToBsonDocumentTranslator;
 import com.torodb.kvdocument.values.KvDocument;
-import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
 import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
@@ -40,6 +41,7 @@ import com.torodb.torod.DocTransaction;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalLong;
 
 import javax.inject.Inject;
@@ -49,10 +51,12 @@ import javax.inject.Singleton;
 public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, FindResult> {
 
   private final Logger logger;
+  private final CursorRegistry cursorRegistry;
 
   @Inject
-  public FindImplementation(LoggerFactory loggerFactory) {
+  public FindImplementation(LoggerFactory loggerFactory, CursorRegistry cursorRegistry) {
     this.logger = loggerFactory.apply(this.getClass());
+    this.cursorRegistry = cursorRegistry;
   }
 
   @Override
@@ -62,29 +66,24 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
     logFindCommand(arg);
 
     BsonDocument filter = arg.getFilter();
+    BsonDocument projection = arg.getProjection();
+    BsonDocument sort = arg.getSort();
 
     Cursor<BsonDocument> cursor;
 
-    switch (filter.size()) {
-      case 0: {
-        cursor = context.getDocTransaction().findAll(req.getDatabase(), arg.getCollection())
-            .asDocCursor()
-            .transform(t -> t.getRoot())
+    if (filter.size() == 0 && projection.size() == 0 && sort.size() == 0 && arg.getSkip() == 0
+        && arg.getLimit() == 0) {
+      cursor = context.getDocTransaction().findAll(req.getDatabase(), arg.getCollection())
+          .asDocCursor()
+          .transform(t -> t.getRoot())
+          .transform(ToBsonDocumentTranslator.getInstance());
+    } else {
+      try {
+        cursor = getByFilterCursor(context.getDocTransaction(), req.getDatabase(), arg
+            .getCollection(), filter, projection, sort, arg.getSkip(), arg.getLimit())
             .transform(ToBsonDocumentTranslator.getInstance());
-        break;
-      }
-      case 1: {
-        try {
-          cursor = getByAttributeCursor(context.getDocTransaction(), req.getDatabase(), arg
-              .getCollection(), filter)
-              .transform(ToBsonDocumentTranslator.getInstance());
-        } catch (CommandFailed ex) {
-          return Status.from(ex);
-        }
-        break;
-      }
-      default: {
-        return Status.from(ErrorCode.COMMAND_FAILED, "The given query is not supported right now");
+      } catch (CommandFailed ex) {
+        return Status.from(ex);
       }
     }
 
@@ -96,6 +95,20 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
     OptionalLong batchSize = arg.getEffectiveBatchSize();
     List<BsonDocument> batch = cursor.getNextBatch(batchSize.isPresent() ? (int) batchSize
         .getAsLong() : 101);
+    if (arg.isWantMore() && cursor.hasNext()) {
+      Optional<AutoCloseable> retainedTransaction = context.retain();
+      if (retainedTransaction.isPresent()) {
+        OptionalLong cursorId = cursorRegistry.register(req.getDatabase(), arg.getCollection(),
+            cursor, retainedTransaction.get(), batch.size(),
+            batchSize.isPresent() ? (int) batchSize.getAsLong() : 0);
+        if (!cursorId.isPresent()) {
+          return Status.from(ErrorCode.COMMAND_FAILED, "The result does not fit on a single "
+              + "batch and there are too many open cursors");
+        }
+        return Status.ok(new FindResult(CursorResult.createCursor(req.getDatabase(), arg
+            .getCollection(), cursorId.getAsLong(), batch.iterator())));
+      }
+    }
     cursor.close();
 
     return Status.ok(new FindResult(CursorResult.createSingleBatchCursor(req.getDatabase(), arg
@@ -103,19 +116,23 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
 
   }
 
-  private Cursor<KvDocument> getByAttributeCursor(DocTransaction transaction, String db,
-      String col, BsonDocument filter) throws CommandFailed {
+  private Cursor<KvDocument> getByFilterCursor(DocTransaction transaction, String db,
+      String col, BsonDocument filter, BsonDocument projection, BsonDocument sort, long skip,
+      long limit) throws CommandFailed {
 
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(filter, refBuilder);
+    QueryFilter queryFilter = AttrRefHelper.calculateFilter(filter);
+    Projection docProjection = AttrRefHelper.calculateProjection(projection);
+    Sort docSort = AttrRefHelper.calculateSort(sort);
 
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue)
+    return transaction.findByFilter(db, col, queryFilter, docProjection, docSort, skip, limit)
         .asDocCursor()
         .transform(t -> t.getRoot());
   }
 
   private void logFindCommand(FindArgument arg) {
-    logger.trace("Find into {} filter {}", arg.getCollection(), arg.getFilter());
+    logger.trace("Find into {} filter {} projection {} sort {} skip {} limit {}",
+        arg.getCollection(), arg.getFilter(), arg.getProjection(), arg.getSort(), arg.getSkip(),
+        arg.getLimit());
   }
 
 }
@@ -109,24 +109,14 @@ public class UpdateImplementation
             } else {
               candidatesbatchStream = Stream.of(ImmutableList.of(candidatesCursor.next()));
             }
-            Stream<KvDocument> updatedCandidates = candidatesbatchStream
-                .map(candidates -> {
-                  updateStatus.increaseCandidates(candidates.size());
-                  context.getDocTransaction().delete(req.getDatabase(), arg.getCollection(),
-                      candidates);
-                  return candidates;
-                })
-                .flatMap(l -> l.stream())
-                .map(candidate -> {
-                  try {
-                    updateStatus.increaseUpdated();
-                    return update(updateAction, candidate);
-                  } catch (UserException userException) {
-                    throw new UserWrappedException(userException);
-                  }
-                });
-            context.getDocTransaction().insert(req.getDatabase(), arg.getCollection(),
-                updatedCandidates);
+            candidatesbatchStream.forEach(candidates -> {
+              try {
+                updateBatch(context.getDocTransaction(), req.getDatabase(), arg.getCollection(),
+                    updateAction, candidates, updateStatus);
+              } catch (UserException userException) {
+                throw new UserWrappedException(userException);
+              }
+            });
           } catch (UserWrappedException userWrappedException) {
             throw userWrappedException.getCause();
           }
@@ -190,6 +180,27 @@ public class UpdateImplementation
     }
   }
 
+  /**
+   * Applies the update action to a batch of candidates.
+   *
+   * <p>The backend is asked to modify the stored rows in place and only if that is not possible
+   * the candidates are deleted and their updated versions inserted.
+   */
+  private void updateBatch(WriteDocTransaction transaction, String db, String col,
+      UpdateAction updateAction, List<ToroDocument> candidates, UpdateStatus updateStatus)
+      throws UserException {
+    updateStatus.increaseCandidates(candidates.size());
+    List<KvDocument> updatedCandidates = new ArrayList<>(candidates.size());
+    for (ToroDocument candidate : candidates) {
+      updatedCandidates.add(update(updateAction, candidate));
+      updateStatus.increaseUpdated();
+    }
+    if (!transaction.updateInPlace(db, col, candidates, updatedCandidates)) {
+      transaction.delete(db, col, candidates);
+      transaction.insert(db, col, updatedCandidates);
+    }
+  }
+
   protected KvDocument update(UpdateAction updateAction, ToroDocument candidate) throws
       UpdateException {
     UpdatedToroDocumentBuilder builder =
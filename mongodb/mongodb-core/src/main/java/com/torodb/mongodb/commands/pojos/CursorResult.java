@@ -64,6 +64,15 @@ public abstract class CursorResult<E> {
     return new DefaultCursorResult<>(db, col, 0, stream.iterator());
   }
 
+  /**
+   * Creates a cursor result whose elements that follow the first batch can be read with getMore
+   * using the given cursor id.
+   */
+  public static <E> CursorResult<E> createCursor(String db, String col, long cursorId,
+      Iterator<E> firstBatch) {
+    return new DefaultCursorResult<>(db, col, cursorId, firstBatch);
+  }
+
   public static <E> CursorResult<E> unmarshall(BsonDocument doc,
       Function<BsonValue<?>, E> transformation)
       throws BadValueException, TypesMismatchException, NoSuchKeyException {
@@ -65,7 +65,7 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
   @Override
   public BsonDocument marshallArg(CountArgument request) {
-    throw new UnsupportedOperationException("Not supported yet."); //TODO
+    return request.marshall();
   }
 
   @Override
@@ -148,6 +148,22 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
     private static final DocField QUERY_FIELD = new DocField("query");
     private static final String HINT_FIELD_NAME = "hint";
 
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(COUNT_FIELD, collection)
+          .append(QUERY_FIELD, query);
+      if (limit != 0) {
+        builder.append(LIMIT_FIELD, limit);
+      }
+      if (skip != 0) {
+        builder.append(SKIP_FIELD, skip);
+      }
+      if (hint != null) {
+        builder.appendUnsafe(HINT_FIELD_NAME, DefaultBsonValues.newString(hint));
+      }
+      return builder.build();
+    }
+
     public static CountArgument unmarshall(BsonDocument doc) throws TypesMismatchException,
         BadValueException, NoSuchKeyException {
       long skip = BsonReaderTool.getLong(doc, SKIP_FIELD, 0);
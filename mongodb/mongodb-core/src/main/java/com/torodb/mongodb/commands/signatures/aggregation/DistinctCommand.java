@@ -0,0 +1,167 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.signatures.aggregation;
+
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctResult;
+import com.torodb.mongowp.bson.BsonArray;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.DocField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Finds the distinct values of a key on the documents of a collection that fulfill a query.
+ */
+public class DistinctCommand extends AbstractNotAliasableCommand<DistinctArgument,
+    DistinctResult> {
+
+  public static final DistinctCommand INSTANCE = new DistinctCommand();
+
+  private DistinctCommand() {
+    super("distinct");
+  }
+
+  @Override
+  public Class<? extends DistinctArgument> getArgClass() {
+    return DistinctArgument.class;
+  }
+
+  @Override
+  public DistinctArgument unmarshallArg(BsonDocument requestDoc)
+      throws TypesMismatchException, NoSuchKeyException, BadValueException {
+    return DistinctArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(DistinctArgument request) {
+    throw new UnsupportedOperationException("Not supported yet."); //TODO
+  }
+
+  @Override
+  public Class<? extends DistinctResult> getResultClass() {
+    return DistinctResult.class;
+  }
+
+  @Override
+  public BsonDocument marshallResult(DistinctResult reply) {
+    return reply.marshall();
+  }
+
+  @Override
+  public DistinctResult unmarshallResult(BsonDocument resultDoc) throws TypesMismatchException,
+      NoSuchKeyException {
+    return DistinctResult.unmarshall(resultDoc);
+  }
+
+  public static class DistinctArgument {
+
+    private static final StringField DISTINCT_FIELD = new StringField("distinct");
+    private static final StringField KEY_FIELD = new StringField("key");
+    private static final DocField QUERY_FIELD = new DocField("query");
+
+    private final String collection;
+    private final String key;
+    private final BsonDocument query;
+
+    public DistinctArgument(@Nonnull String collection, @Nonnull String key,
+        @Nonnull BsonDocument query) {
+      this.collection = collection;
+      this.key = key;
+      this.query = query;
+    }
+
+    public String getCollection() {
+      return collection;
+    }
+
+    /**
+     * The key whose distinct values are returned, which can be a path with dots.
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * A query that selects the documents whose values are returned.
+     */
+    @Nonnull
+    public BsonDocument getQuery() {
+      return query;
+    }
+
+    public static DistinctArgument unmarshall(BsonDocument doc) throws TypesMismatchException,
+        BadValueException, NoSuchKeyException {
+      String collection = BsonReaderTool.getString(doc, DISTINCT_FIELD);
+      String key = BsonReaderTool.getString(doc, KEY_FIELD);
+      if (key.isEmpty()) {
+        throw new BadValueException("The key of the distinct command cannot be empty");
+      }
+
+      BsonDocument query;
+      try {
+        query = BsonReaderTool.getDocument(doc, QUERY_FIELD);
+      } catch (NoSuchKeyException ex) {
+        query = DefaultBsonValues.EMPTY_DOC;
+      } catch (TypesMismatchException ex) {
+        //Some drivers send a null query when no query is specified
+        query = DefaultBsonValues.EMPTY_DOC;
+      }
+
+      return new DistinctArgument(collection, key, query);
+    }
+  }
+
+  public static class DistinctResult {
+
+    private static final ArrayField VALUES_FIELD = new ArrayField("values");
+
+    private final BsonArray values;
+
+    public DistinctResult(@Nonnull BsonArray values) {
+      this.values = values;
+    }
+
+    @Nonnull
+    public BsonArray getValues() {
+      return values;
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(VALUES_FIELD, values)
+          .build();
+    }
+
+    private static DistinctResult unmarshall(BsonDocument resultDoc)
+        throws TypesMismatchException, NoSuchKeyException {
+      return new DistinctResult(BsonReaderTool.getArray(resultDoc, VALUES_FIELD));
+    }
+  }
+
+}
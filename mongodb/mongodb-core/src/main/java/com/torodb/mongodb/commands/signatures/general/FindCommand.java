@@ -37,6 +37,7 @@ import com.torodb.mongowp.exceptions.NoSuchKeyException;
 import com.torodb.mongowp.exceptions.TypesMismatchException;
 import com.torodb.mongowp.fields.DocField;
 import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.OptionalLong;
@@ -382,7 +383,7 @@ public class FindCommand extends AbstractNotAliasableCommand<FindArgument, FindR
           }
           case SINGLE_BATCH_FIELD_NAME: {
             checkFieldType(entry, BsonType.BOOLEAN);
-            builder.setWantMore(value.asBoolean().getPrimitiveValue());
+            builder.setWantMore(!value.asBoolean().getPrimitiveValue());
             continue;
           }
           case COMMENT_FIELD_NAME: {
@@ -925,6 +926,8 @@ public class FindCommand extends AbstractNotAliasableCommand<FindArgument, FindR
 
   public static class FindResult {
 
+    private static final DocField CURSOR_FIELD = new DocField("cursor");
+
     private final CursorResult<BsonDocument> cursor;
 
     public FindResult(CursorResult<BsonDocument> cursor) {
@@ -938,11 +941,15 @@ public class FindCommand extends AbstractNotAliasableCommand<FindArgument, FindR
     private static FindResult unmarshall(BsonDocument resultDoc) throws BadValueException,
         TypesMismatchException, NoSuchKeyException {
 
-      return new FindResult(CursorResult.unmarshall(resultDoc, DOWN_CAST));
+      BsonDocument cursorDoc = BsonReaderTool.getDocument(resultDoc, CURSOR_FIELD);
+
+      return new FindResult(CursorResult.unmarshall(cursorDoc, DOWN_CAST));
     }
 
     private BsonDocument marshall() {
-      return cursor.marshall(IDENTITY);
+      return new BsonDocumentBuilder()
+          .append(CURSOR_FIELD, cursor.marshall(IDENTITY))
+          .build();
     }
 
   }
@@ -25,8 +25,12 @@ import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
 import com.torodb.mongodb.commands.signatures.general.GetLastErrorCommand.GetLastErrorArgument;
 import com.torodb.mongodb.commands.signatures.general.GetLastErrorCommand.GetLastErrorReply;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreArgument;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreResult;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsArgument;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsResult;
 import com.torodb.mongodb.commands.signatures.general.UpdateCommand.UpdateArgument;
 import com.torodb.mongodb.commands.signatures.general.UpdateCommand.UpdateResult;
 import com.torodb.mongowp.commands.Command;
@@ -45,6 +49,8 @@ public class GeneralCommands implements Iterable<Command> {
       DeleteCommand.INSTANCE,
       InsertCommand.INSTANCE,
       GetLastErrorCommand.INSTANCE,
+      GetMoreCommand.INSTANCE,
+      KillCursorsCommand.INSTANCE,
       UpdateCommand.INSTANCE
   );
 
@@ -67,6 +73,10 @@ public class GeneralCommands implements Iterable<Command> {
 
     public abstract CommandImplementation<UpdateArgument, UpdateResult, ? super ContextT> getUpdateImplementation();
 
+    public abstract CommandImplementation<GetMoreArgument, GetMoreResult, ? super ContextT> getGetMoreImplementation();
+
+    public abstract CommandImplementation<KillCursorsArgument, KillCursorsResult, ? super ContextT> getKillCursorsImplementation();
+
     private Map<Command<?, ?>, CommandImplementation<?, ?, ? super ContextT>> createMap() {
       return ImmutableMap.<Command<?, ?>, CommandImplementation<?, ?, ? super ContextT>>builder()
           .put(DeleteCommand.INSTANCE, getDeleteImplementation())
@@ -74,6 +84,8 @@ public class GeneralCommands implements Iterable<Command> {
           .put(InsertCommand.INSTANCE, getInsertImplementation())
           .put(GetLastErrorCommand.INSTANCE, getGetLastErrrorImplementation())
           .put(UpdateCommand.INSTANCE, getUpdateImplementation())
+          .put(GetMoreCommand.INSTANCE, getGetMoreImplementation())
+          .put(KillCursorsCommand.INSTANCE, getKillCursorsImplementation())
           .build();
     }
 
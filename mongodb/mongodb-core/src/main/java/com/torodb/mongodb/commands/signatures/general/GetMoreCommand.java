@@ -0,0 +1,228 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.signatures.general;
+
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreArgument;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreResult;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.MarshalException;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.DocField;
+import com.torodb.mongowp.fields.LongField;
+import com.torodb.mongowp.fields.NumberField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonArrayBuilder;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Reads the next batch of a cursor opened by a previous command.
+ */
+public class GetMoreCommand extends AbstractNotAliasableCommand<GetMoreArgument, GetMoreResult> {
+
+  private static final String COMMAND_NAME = "getMore";
+  public static final GetMoreCommand INSTANCE = new GetMoreCommand();
+
+  private GetMoreCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public boolean isSlaveOk() {
+    return true;
+  }
+
+  @Override
+  public boolean shouldAffectCommandCounter() {
+    return false;
+  }
+
+  @Override
+  public Class<? extends GetMoreArgument> getArgClass() {
+    return GetMoreArgument.class;
+  }
+
+  @Override
+  public GetMoreArgument unmarshallArg(BsonDocument requestDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException {
+    return GetMoreArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(GetMoreArgument request) throws MarshalException {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends GetMoreResult> getResultClass() {
+    return GetMoreResult.class;
+  }
+
+  @Override
+  public GetMoreResult unmarshallResult(BsonDocument resultDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException {
+    return GetMoreResult.unmarshall(resultDoc);
+  }
+
+  @Override
+  public BsonDocument marshallResult(GetMoreResult result) throws MarshalException {
+    return result.marshall();
+  }
+
+  @Immutable
+  public static class GetMoreArgument {
+
+    private static final LongField CURSOR_ID_FIELD = new LongField(COMMAND_NAME);
+    private static final StringField COLLECTION_FIELD = new StringField("collection");
+    private static final NumberField<?> BATCH_SIZE_FIELD = new NumberField<>("batchSize");
+
+    private final long cursorId;
+    private final String collection;
+    private final int batchSize;
+
+    public GetMoreArgument(long cursorId, String collection, @Nonnegative int batchSize) {
+      this.cursorId = cursorId;
+      this.collection = collection;
+      this.batchSize = batchSize;
+    }
+
+    public long getCursorId() {
+      return cursorId;
+    }
+
+    public String getCollection() {
+      return collection;
+    }
+
+    /**
+     * Returns the maximum number of documents to return or 0 to use the batch size of the cursor.
+     */
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    private static GetMoreArgument unmarshall(BsonDocument requestDoc) throws BadValueException,
+        TypesMismatchException, NoSuchKeyException {
+      long cursorId = BsonReaderTool.getLong(requestDoc, CURSOR_ID_FIELD);
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+      long batchSize = BsonReaderTool.getNumeric(requestDoc, BATCH_SIZE_FIELD,
+          DefaultBsonValues.INT32_ZERO).longValue();
+      if (batchSize < 0 || batchSize > Integer.MAX_VALUE) {
+        throw new BadValueException("Batch size for getMore must be positive, but received: "
+            + batchSize);
+      }
+      return new GetMoreArgument(cursorId, collection, (int) batchSize);
+    }
+
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(CURSOR_ID_FIELD, cursorId)
+          .append(COLLECTION_FIELD, collection);
+      if (batchSize > 0) {
+        builder.appendNumber(BATCH_SIZE_FIELD, batchSize);
+      }
+      return builder.build();
+    }
+  }
+
+  @Immutable
+  public static class GetMoreResult {
+
+    private static final DocField CURSOR_FIELD = new DocField("cursor");
+    private static final LongField ID_FIELD = new LongField("id");
+    private static final StringField NAMESPACE_FIELD = new StringField("ns");
+    private static final ArrayField NEXT_BATCH_FIELD = new ArrayField("nextBatch");
+
+    private final long cursorId;
+    private final String namespace;
+    private final List<BsonDocument> nextBatch;
+
+    /**
+     * @param cursorId  the id of the cursor or 0 if it has been closed after this batch
+     * @param namespace the namespace iterated by the cursor
+     * @param nextBatch the documents read
+     */
+    public GetMoreResult(long cursorId, String namespace, List<BsonDocument> nextBatch) {
+      this.cursorId = cursorId;
+      this.namespace = namespace;
+      this.nextBatch = nextBatch;
+    }
+
+    public long getCursorId() {
+      return cursorId;
+    }
+
+    public String getNamespace() {
+      return namespace;
+    }
+
+    public List<BsonDocument> getNextBatch() {
+      return nextBatch;
+    }
+
+    private static GetMoreResult unmarshall(BsonDocument resultDoc) throws BadValueException,
+        TypesMismatchException, NoSuchKeyException {
+      BsonDocument cursorDoc = BsonReaderTool.getDocument(resultDoc, CURSOR_FIELD);
+
+      List<BsonDocument> nextBatch = new ArrayList<>();
+      for (BsonValue<?> element : BsonReaderTool.getArray(cursorDoc, NEXT_BATCH_FIELD)) {
+        if (!element.isDocument()) {
+          throw new BadValueException("The argument " + NEXT_BATCH_FIELD.getFieldName()
+              + " should only contain documents, but a " + element.getType() + " was found");
+        }
+        nextBatch.add(element.asDocument());
+      }
+
+      return new GetMoreResult(
+          BsonReaderTool.getLong(cursorDoc, ID_FIELD),
+          BsonReaderTool.getString(cursorDoc, NAMESPACE_FIELD),
+          nextBatch
+      );
+    }
+
+    private BsonDocument marshall() {
+      BsonArrayBuilder array = new BsonArrayBuilder();
+      for (BsonDocument doc : nextBatch) {
+        array.add(doc);
+      }
+
+      BsonDocument cursorDoc = new BsonDocumentBuilder()
+          .append(ID_FIELD, cursorId)
+          .append(NAMESPACE_FIELD, namespace)
+          .append(NEXT_BATCH_FIELD, array.build())
+          .build();
+      return new BsonDocumentBuilder()
+          .append(CURSOR_FIELD, cursorDoc)
+          .build();
+    }
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.signatures.general;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsArgument;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsResult;
+import com.torodb.mongowp.bson.BsonArray;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.MarshalException;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonArrayBuilder;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Closes cursors opened by previous commands.
+ */
+public class KillCursorsCommand
+    extends AbstractNotAliasableCommand<KillCursorsArgument, KillCursorsResult> {
+
+  private static final String COMMAND_NAME = "killCursors";
+  public static final KillCursorsCommand INSTANCE = new KillCursorsCommand();
+
+  private KillCursorsCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public boolean isSlaveOk() {
+    return true;
+  }
+
+  @Override
+  public Class<? extends KillCursorsArgument> getArgClass() {
+    return KillCursorsArgument.class;
+  }
+
+  @Override
+  public KillCursorsArgument unmarshallArg(BsonDocument requestDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException {
+    return KillCursorsArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(KillCursorsArgument request) throws MarshalException {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends KillCursorsResult> getResultClass() {
+    return KillCursorsResult.class;
+  }
+
+  @Override
+  public KillCursorsResult unmarshallResult(BsonDocument resultDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException {
+    return KillCursorsResult.unmarshall(resultDoc);
+  }
+
+  @Override
+  public BsonDocument marshallResult(KillCursorsResult result) throws MarshalException {
+    return result.marshall();
+  }
+
+  private static ImmutableList<Long> unmarshallCursorIds(BsonDocument doc, ArrayField field)
+      throws BadValueException, TypesMismatchException, NoSuchKeyException {
+    BsonArray array = BsonReaderTool.getArray(doc, field);
+    ImmutableList.Builder<Long> cursorIds = ImmutableList.builder();
+    for (BsonValue<?> element : array) {
+      if (!element.isNumber()) {
+        throw new BadValueException("Field '" + field.getFieldName() + "' must be of type "
+            + "array of cursor ids, but a " + element.getType() + " was found");
+      }
+      cursorIds.add(element.asNumber().longValue());
+    }
+    return cursorIds.build();
+  }
+
+  private static BsonArray marshallCursorIds(List<Long> cursorIds) {
+    BsonArrayBuilder array = new BsonArrayBuilder();
+    for (long cursorId : cursorIds) {
+      array.add(DefaultBsonValues.newLong(cursorId));
+    }
+    return array.build();
+  }
+
+  @Immutable
+  public static class KillCursorsArgument {
+
+    private static final StringField COLLECTION_FIELD = new StringField(COMMAND_NAME);
+    private static final ArrayField CURSORS_FIELD = new ArrayField("cursors");
+
+    private final String collection;
+    private final ImmutableList<Long> cursorIds;
+
+    public KillCursorsArgument(String collection, List<Long> cursorIds) {
+      this.collection = collection;
+      this.cursorIds = ImmutableList.copyOf(cursorIds);
+    }
+
+    public String getCollection() {
+      return collection;
+    }
+
+    public ImmutableList<Long> getCursorIds() {
+      return cursorIds;
+    }
+
+    private static KillCursorsArgument unmarshall(BsonDocument requestDoc)
+        throws BadValueException, TypesMismatchException, NoSuchKeyException {
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+      ImmutableList<Long> cursorIds = unmarshallCursorIds(requestDoc, CURSORS_FIELD);
+      if (cursorIds.isEmpty()) {
+        throw new BadValueException("Must specify at least one cursor id in: "
+            + CURSORS_FIELD.getFieldName());
+      }
+      return new KillCursorsArgument(collection, cursorIds);
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(COLLECTION_FIELD, collection)
+          .append(CURSORS_FIELD, marshallCursorIds(cursorIds))
+          .build();
+    }
+  }
+
+  @Immutable
+  public static class KillCursorsResult {
+
+    private static final ArrayField CURSORS_KILLED_FIELD = new ArrayField("cursorsKilled");
+    private static final ArrayField CURSORS_NOT_FOUND_FIELD = new ArrayField("cursorsNotFound");
+    private static final ArrayField CURSORS_ALIVE_FIELD = new ArrayField("cursorsAlive");
+    private static final ArrayField CURSORS_UNKNOWN_FIELD = new ArrayField("cursorsUnknown");
+
+    private final ImmutableList<Long> cursorsKilled;
+    private final ImmutableList<Long> cursorsNotFound;
+
+    public KillCursorsResult(List<Long> cursorsKilled, List<Long> cursorsNotFound) {
+      this.cursorsKilled = ImmutableList.copyOf(cursorsKilled);
+      this.cursorsNotFound = ImmutableList.copyOf(cursorsNotFound);
+    }
+
+    public ImmutableList<Long> getCursorsKilled() {
+      return cursorsKilled;
+    }
+
+    public ImmutableList<Long> getCursorsNotFound() {
+      return cursorsNotFound;
+    }
+
+    private static KillCursorsResult unmarshall(BsonDocument resultDoc)
+        throws BadValueException, TypesMismatchException, NoSuchKeyException {
+      return new KillCursorsResult(
+          unmarshallCursorIds(resultDoc, CURSORS_KILLED_FIELD),
+          unmarshallCursorIds(resultDoc, CURSORS_NOT_FOUND_FIELD)
+      );
+    }
+
+    private BsonDocument marshall() {
+      // cursors are killed as soon as they are found, so none of them can be alive or unknown
+      return new BsonDocumentBuilder()
+          .append(CURSORS_KILLED_FIELD, marshallCursorIds(cursorsKilled))
+          .append(CURSORS_NOT_FOUND_FIELD, marshallCursorIds(cursorsNotFound))
+          .append(CURSORS_ALIVE_FIELD, marshallCursorIds(ImmutableList.of()))
+          .append(CURSORS_UNKNOWN_FIELD, marshallCursorIds(ImmutableList.of()))
+          .build();
+    }
+  }
+
+}
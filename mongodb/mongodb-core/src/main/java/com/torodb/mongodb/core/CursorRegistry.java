@@ -0,0 +1,334 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.core;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.logging.LoggerFactory;
+import com.torodb.mongowp.bson.BsonDocument;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * Keeps the cursors whose documents do not fit on the first batch open across requests, so
+ * clients can read them with getMore.
+ *
+ * <p>Each registered cursor keeps the backend cursor of its query open on a read transaction
+ * dedicated to it, which is closed when the cursor is exhausted, killed or has been idle for
+ * longer than the idle timeout. As each open cursor keeps a backend connection and the locks of
+ * its transaction, the number of open cursors is limited. Live cursors are never evicted to make
+ * room for new ones: once the limit is reached and there are no expired cursors, new
+ * registrations are rejected. Cursors whose timeout has expired are closed the next time the
+ * registry is used or {@link #cleanUp()} is called.
+ */
+@ThreadSafe
+public class CursorRegistry {
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  /**
+   * The default number of cursors that can be open at the same time. It is lower than the default
+   * number of connections reserved for reads.
+   */
+  public static final int DEFAULT_MAX_OPEN_CURSORS = 5;
+  /**
+   * The number of documents returned by a getMore that does not specify it.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 101;
+
+  private final Logger logger;
+  private final int maxOpenCursors;
+  private final AtomicInteger openCursors = new AtomicInteger();
+  private final Cache<Long, OpenCursor> cursors;
+
+  @Inject
+  public CursorRegistry(LoggerFactory loggerFactory) {
+    this(loggerFactory, DEFAULT_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS,
+        DEFAULT_MAX_OPEN_CURSORS, Ticker.systemTicker());
+  }
+
+  public CursorRegistry(LoggerFactory loggerFactory, long idleTimeout, TimeUnit idleTimeoutUnit,
+      int maxOpenCursors, Ticker ticker) {
+    this.logger = loggerFactory.apply(this.getClass());
+    this.maxOpenCursors = maxOpenCursors;
+    this.cursors = CacheBuilder.newBuilder()
+        .expireAfterAccess(idleTimeout, idleTimeoutUnit)
+        .ticker(ticker)
+        .removalListener(this::onRemoval)
+        .build();
+  }
+
+  /**
+   * Registers a cursor and takes the ownership of the transaction it depends on.
+   *
+   * <p>If the limit of open cursors has been reached, the cursor and the transaction are closed
+   * and the cursor is not registered.
+   *
+   * @param database    the database of the namespace the cursor iterates
+   * @param collection  the collection of the namespace the cursor iterates
+   * @param cursor      the cursor, positioned after the documents already returned
+   * @param transaction the transaction that must be closed once the cursor is closed
+   * @param returned    the number of documents already returned
+   * @param batchSize   the number of documents returned by each getMore that does not specify
+   *                    it or 0 to use the default batch size
+   * @return the id of the cursor, which is never 0, or an empty optional if the cursor has been
+   *         rejected
+   */
+  public OptionalLong register(String database, String collection, Cursor<BsonDocument> cursor,
+      AutoCloseable transaction, int returned, int batchSize) {
+    OpenCursor openCursor = new OpenCursor(database, collection, cursor, transaction, returned,
+        batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE);
+    if (!reserve()) {
+      logger.debug("Rejecting a cursor on {}.{} because there are already {} open cursors",
+          database, collection, maxOpenCursors);
+      closeResources(0, openCursor);
+      return OptionalLong.empty();
+    }
+    while (true) {
+      long cursorId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+      if (cursors.asMap().putIfAbsent(cursorId, openCursor) == null) {
+        logger.trace("Registered cursor {} on {}.{}", cursorId, database, collection);
+        return OptionalLong.of(cursorId);
+      }
+    }
+  }
+
+  /**
+   * Reads the next batch of a cursor.
+   *
+   * <p>While the batch is read the cursor is not visible to other requests. It is closed if it is
+   * exhausted or the read fails.
+   *
+   * @param cursorId       the id of the cursor
+   * @param numberToReturn the maximum number of documents to return, 0 to use the batch size of
+   *                       the cursor or a negative number to return at most its absolute value
+   *                       and close the cursor
+   * @return the batch or an empty optional if there is no open cursor with the given id
+   */
+  public Optional<CursorBatch> getMore(long cursorId, int numberToReturn) {
+    return getMore(null, null, cursorId, numberToReturn);
+  }
+
+  /**
+   * Like {@link #getMore(long, int)}, but only reads the cursor if it iterates the given
+   * namespace.
+   *
+   * @return the batch or an empty optional if there is no open cursor with the given id on the
+   *         given namespace
+   */
+  public Optional<CursorBatch> getMore(@Nullable String database, @Nullable String collection,
+      long cursorId, int numberToReturn) {
+    OpenCursor openCursor = cursors.asMap().remove(cursorId);
+    if (openCursor == null) {
+      return Optional.empty();
+    }
+    if (database != null && !openCursor.iterates(database, collection)) {
+      cursors.put(cursorId, openCursor);
+      return Optional.empty();
+    }
+    boolean keepOpen = false;
+    try {
+      int batchSize = numberToReturn == 0 ? openCursor.batchSize : Math.abs(numberToReturn);
+      int startingFrom = openCursor.returned;
+      List<BsonDocument> batch = openCursor.cursor.getNextBatch(batchSize);
+      openCursor.returned += batch.size();
+
+      keepOpen = numberToReturn >= 0 && openCursor.cursor.hasNext();
+      if (keepOpen) {
+        cursors.put(cursorId, openCursor);
+      }
+      return Optional.of(new CursorBatch(keepOpen ? cursorId : 0, startingFrom, batch));
+    } finally {
+      if (!keepOpen) {
+        close(cursorId, openCursor);
+      }
+    }
+  }
+
+  /**
+   * Closes the cursor with the given id.
+   *
+   * @return true if there was an open cursor with the given id
+   */
+  public boolean kill(long cursorId) {
+    OpenCursor openCursor = cursors.asMap().remove(cursorId);
+    if (openCursor == null) {
+      return false;
+    }
+    close(cursorId, openCursor);
+    return true;
+  }
+
+  /**
+   * Like {@link #kill(long)}, but only closes the cursor if it iterates the given namespace.
+   *
+   * @return true if there was an open cursor with the given id on the given namespace
+   */
+  public boolean kill(String database, String collection, long cursorId) {
+    OpenCursor openCursor = cursors.getIfPresent(cursorId);
+    if (openCursor == null || !openCursor.iterates(database, collection)
+        || !cursors.asMap().remove(cursorId, openCursor)) {
+      return false;
+    }
+    close(cursorId, openCursor);
+    return true;
+  }
+
+  /**
+   * Closes the cursors whose idle timeout has expired.
+   */
+  public void cleanUp() {
+    cursors.cleanUp();
+  }
+
+  /**
+   * Closes all open cursors.
+   */
+  public void closeAll() {
+    for (Long cursorId : cursors.asMap().keySet()) {
+      kill(cursorId);
+    }
+  }
+
+  public long getOpenCursors() {
+    return openCursors.get();
+  }
+
+  private boolean reserve() {
+    if (tryReserve()) {
+      return true;
+    }
+    // expired cursors are only closed when the cache is used, so they may still hold their slots
+    cursors.cleanUp();
+    return tryReserve();
+  }
+
+  private boolean tryReserve() {
+    while (true) {
+      int current = openCursors.get();
+      if (current >= maxOpenCursors) {
+        return false;
+      }
+      if (openCursors.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void onRemoval(RemovalNotification<Long, OpenCursor> notification) {
+    // getMore and kill remove their cursors explicitly and close them by themselves
+    if (notification.getCause() == RemovalCause.EXPLICIT) {
+      return;
+    }
+    logger.debug("Closing cursor {} because it has been {}", notification.getKey(),
+        notification.getCause());
+    close(notification.getKey(), notification.getValue());
+  }
+
+  private void close(long cursorId, OpenCursor openCursor) {
+    logger.trace("Closing cursor {} on {}.{}", cursorId, openCursor.database,
+        openCursor.collection);
+    openCursors.decrementAndGet();
+    closeResources(cursorId, openCursor);
+  }
+
+  private void closeResources(long cursorId, OpenCursor openCursor) {
+    try {
+      openCursor.cursor.close();
+    } catch (RuntimeException ex) {
+      logger.warn("Error while closing cursor " + cursorId, ex);
+    }
+    try {
+      openCursor.transaction.close();
+    } catch (Exception ex) {
+      logger.warn("Error while closing the transaction of cursor " + cursorId, ex);
+    }
+  }
+
+  private static class OpenCursor {
+
+    private final String database;
+    private final String collection;
+    private final Cursor<BsonDocument> cursor;
+    private final AutoCloseable transaction;
+    private final int batchSize;
+    private int returned;
+
+    public OpenCursor(String database, String collection, Cursor<BsonDocument> cursor,
+        AutoCloseable transaction, int returned, int batchSize) {
+      this.database = database;
+      this.collection = collection;
+      this.cursor = cursor;
+      this.transaction = transaction;
+      this.returned = returned;
+      this.batchSize = batchSize;
+    }
+
+    private boolean iterates(String database, String collection) {
+      return this.database.equals(database) && this.collection.equals(collection);
+    }
+  }
+
+  /**
+   * A batch of documents read from a registered cursor.
+   */
+  public static class CursorBatch {
+
+    private final long cursorId;
+    private final int startingFrom;
+    private final List<BsonDocument> documents;
+
+    public CursorBatch(long cursorId, int startingFrom, List<BsonDocument> documents) {
+      this.cursorId = cursorId;
+      this.startingFrom = startingFrom;
+      this.documents = documents;
+    }
+
+    /**
+     * Returns the id of the cursor or 0 if it has been closed after this batch.
+     */
+    public long getCursorId() {
+      return cursorId;
+    }
+
+    /**
+     * Returns the position of the first document of this batch on the cursor.
+     */
+    public int getStartingFrom() {
+      return startingFrom;
+    }
+
+    public List<BsonDocument> getDocuments() {
+      return documents;
+    }
+  }
+}
@@ -35,6 +35,7 @@ public class MongoDbCoreBundle extends AbstractBundle<MongoDbCoreExtInt> {
   private final MongodServer mongodServer;
   private final CommandLibrary commandLibrary;
   private final CommandClassifier commandClassifier;
+  private final CursorRegistry cursorRegistry;
 
   public MongoDbCoreBundle(MongoDbCoreConfig bundleConfig) {
     super(bundleConfig);
@@ -42,6 +43,7 @@ public class MongoDbCoreBundle extends AbstractBundle<MongoDbCoreExtInt> {
     this.torodBundle = bundleConfig.getTorodBundle();
     this.commandLibrary = bundleConfig.getCommandsLibrary();
     this.commandClassifier = bundleConfig.getCommandClassifier();
+    this.cursorRegistry = bundleConfig.getCursorRegistry();
 
     Injector injector = bundleConfig.getEssentialInjector().createChildInjector(
         new MongodCoreEssentialOverrideModule(
@@ -62,6 +64,7 @@ public class MongoDbCoreBundle extends AbstractBundle<MongoDbCoreExtInt> {
 
   @Override
   protected void preDependenciesShutDown() throws Exception {
+    cursorRegistry.closeAll();
     mongodServer.stopAsync();
     mongodServer.awaitTerminated();
   }
@@ -73,7 +76,8 @@ public class MongoDbCoreBundle extends AbstractBundle<MongoDbCoreExtInt> {
 
   @Override
   public MongoDbCoreExtInt getExternalInterface() {
-    return new MongoDbCoreExtInt(mongodServer, commandLibrary, commandClassifier);
+    return new MongoDbCoreExtInt(mongodServer, commandLibrary, commandClassifier,
+        cursorRegistry);
   }
 
   
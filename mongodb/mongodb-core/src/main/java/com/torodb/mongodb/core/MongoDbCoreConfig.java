@@ -43,16 +43,19 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
   private final TorodBundle torodBundle;
   private final CommandLibrary commandsLibrary;
   private final CommandClassifier commandClassifier;
+  private final CursorRegistry cursorRegistry;
   private final Optional<ToroMetricRegistry> metricRegistry;
   private final LoggerFactory loggerFactory;
 
   public MongoDbCoreConfig(TorodBundle torodBundle, CommandLibrary commandsLibrary,
-      CommandClassifier commandClassifier, Optional<ToroMetricRegistry> metricRegistry,
-      LoggerFactory loggerFactory, Injector essentialInjector, Supervisor supervisor) {
+      CommandClassifier commandClassifier, CursorRegistry cursorRegistry,
+      Optional<ToroMetricRegistry> metricRegistry, LoggerFactory loggerFactory,
+      Injector essentialInjector, Supervisor supervisor) {
     super(essentialInjector, supervisor);
     this.torodBundle = torodBundle;
     this.commandsLibrary = commandsLibrary;
     this.commandClassifier = commandClassifier;
+    this.cursorRegistry = cursorRegistry;
     this.metricRegistry = metricRegistry;
     this.loggerFactory = loggerFactory;
   }
@@ -87,13 +90,15 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
     Clock clock = bundleConfig.getEssentialInjector()
         .getInstance(Clock.class);
     BuildProperties buildProp = new DefaultBuildProperties();
+    CursorRegistry cursorRegistry = new CursorRegistry(lf);
     CommandClassifier commandClassifier = CommandClassifierImpl.createDefault(lf, clock, buildProp,
-        mongodServerConfig);
+        mongodServerConfig, cursorRegistry);
     
     return new MongoDbCoreConfig(
         torodBundle,
         TorodbCommandsLibraryFactory.get(buildProp, commandClassifier),
         commandClassifier,
+        cursorRegistry,
         metricRegistry,
         lf,
         bundleConfig.getEssentialInjector(),
@@ -113,6 +118,10 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
     return commandClassifier;
   }
 
+  public CursorRegistry getCursorRegistry() {
+    return cursorRegistry;
+  }
+
   public Optional<ToroMetricRegistry> getMetricRegistry() {
     return metricRegistry;
   }
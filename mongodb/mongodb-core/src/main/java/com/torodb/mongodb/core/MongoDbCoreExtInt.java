@@ -29,12 +29,14 @@ public class MongoDbCoreExtInt {
   private final MongodServer mongodServer;
   private final CommandLibrary commandLibrary;
   private final CommandClassifier commandClassifier;
+  private final CursorRegistry cursorRegistry;
 
   public MongoDbCoreExtInt(MongodServer mongodServer, CommandLibrary commandLibrary,
-      CommandClassifier commandClassifier) {
+      CommandClassifier commandClassifier, CursorRegistry cursorRegistry) {
     this.mongodServer = mongodServer;
     this.commandLibrary = commandLibrary;
     this.commandClassifier = commandClassifier;
+    this.cursorRegistry = cursorRegistry;
   }
 
   public MongodServer getMongodServer() {
@@ -48,4 +50,8 @@ public class MongoDbCoreExtInt {
   public CommandClassifier getCommandClassifier() {
     return commandClassifier;
   }
+
+  public CursorRegistry getCursorRegistry() {
+    return cursorRegistry;
+  }
 }
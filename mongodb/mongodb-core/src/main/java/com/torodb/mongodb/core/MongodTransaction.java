@@ -24,6 +24,8 @@ import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.torod.DocTransaction;
 
+import java.util.Optional;
+
 /**
  *
  */
@@ -41,4 +43,19 @@ public interface MongodTransaction extends AutoCloseable {
 
   public boolean isClosed();
 
+  /**
+   * Keeps this transaction open after it is {@link #close() closed}, until the returned handle is
+   * closed.
+   *
+   * <p>It is used to read the results of a command after the request that executed it has
+   * finished. Only read transactions can be retained, so the default implementation returns an
+   * empty optional.
+   *
+   * @return the handle that closes this transaction once this transaction is also closed or an
+   *         empty optional if this transaction cannot be retained
+   */
+  public default Optional<AutoCloseable> retain() {
+    return Optional.empty();
+  }
+
 }
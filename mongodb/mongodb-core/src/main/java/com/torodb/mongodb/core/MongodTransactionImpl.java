@@ -18,12 +18,14 @@
 
 package com.torodb.mongodb.core;
 
+import com.google.common.base.Preconditions;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 abstract class MongodTransactionImpl implements MongodTransaction {
@@ -31,6 +33,7 @@ abstract class MongodTransactionImpl implements MongodTransaction {
   private final Logger logger;
 
   private boolean closed = false;
+  private int retainers = 0;
 
   MongodTransactionImpl(Function<Class<?>, Logger> loggerFactory) {
     this.logger = loggerFactory.apply(this.getClass());
@@ -52,18 +55,41 @@ abstract class MongodTransactionImpl implements MongodTransaction {
   }
 
   @Override
-  public void close() {
+  public synchronized void close() {
     if (!closed) {
       closed = true;
-      getDocTransaction().close();
+      if (retainers == 0) {
+        getDocTransaction().close();
+      }
     }
   }
 
   @Override
-  public boolean isClosed() {
+  public synchronized boolean isClosed() {
     return closed;
   }
 
+  /**
+   * Implements {@link #retain()} for the subclasses that support it.
+   */
+  protected synchronized AutoCloseable doRetain() {
+    Preconditions.checkState(!closed, "The transaction is already closed");
+    retainers++;
+    AtomicBoolean released = new AtomicBoolean(false);
+    return () -> {
+      if (released.compareAndSet(false, true)) {
+        release();
+      }
+    };
+  }
+
+  private synchronized void release() {
+    retainers--;
+    if (closed && retainers == 0) {
+      getDocTransaction().close();
+    }
+  }
+
   @Override
   protected void finalize() throws Throwable {
     if (!closed) {
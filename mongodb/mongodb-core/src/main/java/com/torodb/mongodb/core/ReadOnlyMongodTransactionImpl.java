@@ -26,6 +26,7 @@ import com.torodb.mongowp.commands.Request;
 import com.torodb.torod.DocTransaction;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Optional;
 import java.util.function.Function;
 
 class ReadOnlyMongodTransactionImpl extends MongodTransactionImpl implements
@@ -46,6 +47,11 @@ class ReadOnlyMongodTransactionImpl extends MongodTransactionImpl implements
     return docTransaction;
   }
 
+  @Override
+  public Optional<AutoCloseable> retain() {
+    return Optional.of(doRetain());
+  }
+
   @Override
   protected <A, R> Status<R> executeProtected(Request req,
       Command<? super A, ? super R> command, A arg) {
@@ -28,6 +28,7 @@ import com.torodb.mongowp.exceptions.MongoException;
 import com.torodb.mongowp.exceptions.NotMasterException;
 
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
@@ -59,6 +60,8 @@ public interface DbCloner extends Service {
     private final Supplier<Boolean> writePermissionSupplier;
     private final Predicate<String> collectionFilter;
     private final IndexFilter indexFilter;
+    private final Predicate<String> clonedCollectionFilter;
+    private final Consumer<String> collectionClonedListener;
 
     public CloneOptions(
         boolean cloneData,
@@ -70,6 +73,23 @@ public interface DbCloner extends Service {
         Supplier<Boolean> writePermissionSupplier,
         Predicate<String> collectionFilter,
         IndexFilter indexFilter) {
+      this(cloneData, cloneIndexes, slaveOk, snapshot, dbToClone, collsToIgnore,
+          writePermissionSupplier, collectionFilter, indexFilter, colName -> false,
+          colName -> { });
+    }
+
+    public CloneOptions(
+        boolean cloneData,
+        boolean cloneIndexes,
+        boolean slaveOk,
+        boolean snapshot,
+        String dbToClone,
+        Set<String> collsToIgnore,
+        Supplier<Boolean> writePermissionSupplier,
+        Predicate<String> collectionFilter,
+        IndexFilter indexFilter,
+        Predicate<String> clonedCollectionFilter,
+        Consumer<String> collectionClonedListener) {
       this.cloneData = cloneData;
       this.cloneIndexes = cloneIndexes;
       this.slaveOk = slaveOk;
@@ -79,6 +99,8 @@ public interface DbCloner extends Service {
       this.writePermissionSupplier = writePermissionSupplier;
       this.collectionFilter = collectionFilter;
       this.indexFilter = indexFilter;
+      this.clonedCollectionFilter = clonedCollectionFilter;
+      this.collectionClonedListener = collectionClonedListener;
     }
 
     /**
@@ -144,6 +166,25 @@ public interface DbCloner extends Service {
     public IndexFilter getIndexFilter() {
       return indexFilter;
     }
+
+    /**
+     * Returns a predicate that indicates which collections already have their data cloned, like
+     * when a previous cloning was interrupted. Only the indexes of these collections are cloned.
+     *
+     * @return a predicate that is evaluated to true iff the data of the collection with the given
+     *         name has already been cloned
+     */
+    public Predicate<String> getClonedCollectionFilter() {
+      return clonedCollectionFilter;
+    }
+
+    /**
+     * @return a listener that is notified with the name of each collection whose data has been
+     *         completely cloned
+     */
+    public Consumer<String> getCollectionClonedListener() {
+      return collectionClonedListener;
+    }
   }
 
   public static class CloningException extends ToroRuntimeException {
@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.utils.cloner;
 
+import akka.Done;
 import akka.NotUsed;
 import akka.japi.Pair;
 import akka.japi.tuple.Tuple3;
@@ -31,7 +32,6 @@ import akka.stream.UniformFanOutShape;
 import akka.stream.javadsl.Balance;
 import akka.stream.javadsl.Flow;
 import akka.stream.javadsl.GraphDSL;
-import akka.stream.javadsl.Keep;
 import akka.stream.javadsl.Merge;
 import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
@@ -66,6 +66,8 @@ import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateI
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesResult;
 import com.torodb.mongodb.commands.signatures.admin.DropCollectionCommand;
 import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand.ListCollectionsResult.Entry;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
@@ -76,37 +78,52 @@ import com.torodb.mongodb.utils.DbCloner;
 import com.torodb.mongodb.utils.ListCollectionsRequester;
 import com.torodb.mongodb.utils.ListIndexesRequester;
 import com.torodb.mongodb.utils.NamespaceUtil;
+import com.torodb.mongodb.utils.cloner.DbClonerMetrics.CollectionMetrics;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.WriteConcern;
 import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonType;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
 import com.torodb.mongowp.client.core.MongoClient;
 import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.client.core.MongoConnection.RemoteCommandResponse;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.commands.impl.CollectionCommandArgument;
 import com.torodb.mongowp.commands.pojos.MongoCursor;
+import com.torodb.mongowp.commands.pojos.MongoCursor.Batch;
 import com.torodb.mongowp.exceptions.MongoException;
 import com.torodb.mongowp.exceptions.NotMasterException;
 import com.torodb.mongowp.messages.request.QueryMessage.QueryOption;
 import com.torodb.mongowp.messages.request.QueryMessage.QueryOptions;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
 import com.torodb.torod.SchemaOperationExecutor;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Clock;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
 /**
  * This class is used to clone databases using a client, so remote and local databases can be
  * cloned.
@@ -126,11 +143,30 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   private static final FieldIndexOrderingConverterVisitor fieldIndexOrderingConverterVisitor =
       new FieldIndexOrderingConverterVisitor();
   
+  /**
+   * Collections with less documents than this are not split into ranges.
+   */
+  private static final long MIN_DOCS_PER_RANGE = 100_000;
+  private static final String ID_KEY = "_id";
+  private static final BsonDocument ID_ASC_SORT = DefaultBsonValues.newDocument(
+      ID_KEY, DefaultBsonValues.newInt(1));
+  private static final BsonDocument ID_DESC_SORT = DefaultBsonValues.newDocument(
+      ID_KEY, DefaultBsonValues.newInt(-1));
+  private static final BsonDocument ID_PROJECTION = ID_ASC_SORT;
+  private static final EnumSet<BsonType> NUMERIC_TYPES = EnumSet.of(
+      BsonType.INT32, BsonType.INT64, BsonType.DOUBLE);
+
   private final Logger logger;
   /**
-   * The number of parallel task that can be used to clone each collection.
+   * The number of parallel task that can be used to insert the documents read from the remote
+   * server. They are shared between the ranges that are being cloned at the same time.
    */
   private final int maxParallelInsertTasks;
+  /**
+   * The number of collection ranges that can be cloned at the same time, each one with its own
+   * remote cursor. The insert tasks and the cursor buffer are split between them.
+   */
+  private final int maxParallelCloneTasks;
   /**
    * The size of the buffer where documents are stored before being balanced between the insert
    * phases.
@@ -139,11 +175,13 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   private final CommitHeuristic commitHeuristic;
   private final Clock clock;
   private final Retrier retrier;
+  private final DbClonerMetrics metrics;
 
   public AkkaDbCloner(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      int maxParallelInsertTasks, int cursorBatchBufferSize,
-      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, LoggerFactory loggerFactory) {
+      int maxParallelInsertTasks, int maxParallelCloneTasks, int cursorBatchBufferSize,
+      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, DbClonerMetrics metrics,
+      LoggerFactory loggerFactory) {
     super(threadFactory,
         () -> concurrentToolsFactory.createExecutorService("db-cloner", false),
         "akka-db-cloner"
@@ -153,12 +191,16 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     this.maxParallelInsertTasks = maxParallelInsertTasks;
     Preconditions.checkArgument(maxParallelInsertTasks >= 1, "The number of parallel insert "
         + "tasks level must be higher than 0, but " + maxParallelInsertTasks + " was used");
+    this.maxParallelCloneTasks = maxParallelCloneTasks;
+    Preconditions.checkArgument(maxParallelCloneTasks >= 1, "The number of parallel clone "
+        + "tasks must be higher than 0, but " + maxParallelCloneTasks + " was used");
     this.cursorBatchBufferSize = cursorBatchBufferSize;
     Preconditions.checkArgument(cursorBatchBufferSize >= 1, "cursorBatchBufferSize must be "
         + "higher than 0, but " + cursorBatchBufferSize + " was used");
     this.commitHeuristic = commitHeuristic;
     this.clock = clock;
     this.retrier = retrier;
+    this.metrics = metrics;
   }
 
   @Override
@@ -204,16 +246,20 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
       return;
     }
 
-    prepareCollections(collsToClone, localServer, dstDb);
+    List<Entry> collsToCloneData = getCollsToCloneData(collsToClone, dstDb, opts);
+
+    prepareCollections(collsToCloneData, localServer, dstDb);
 
     enableImportMode(localServer, dstDb);
     
-    try (MongoConnection remoteConnection = remoteClient.openConnection()) {
+    try {
       if (opts.isCloneData()) {
-        cloneData(collsToClone, remoteConnection, dstDb, localServer, opts);
+        cloneData(collsToCloneData, remoteClient, dstDb, localServer, opts);
       }
       if (opts.isCloneIndexes()) {
-        cloneIndexes(collsToClone, remoteConnection, dstDb, localServer, opts);
+        try (MongoConnection remoteConnection = remoteClient.openConnection()) {
+          cloneIndexes(collsToClone, remoteConnection, dstDb, localServer, opts);
+        }
       }
     } finally {
       disableImportMode(localServer, dstDb);
@@ -235,28 +281,53 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     }
   }
 
-  private void cloneData(List<Entry> collsToClone, MongoConnection remoteConnection, String dstDb,
+  /**
+   * Clones the data of the given collections.
+   *
+   * <p>Each collection is split into {@code _id} ranges (see
+   * {@link #splitCollection(MongoConnection, CollectionCloning, CloneOptions)}) and the ranges of
+   * all collections are cloned concurrently, each one with its own connection and cursor, but never
+   * more than {@link #maxParallelCloneTasks} at the same time.
+   */
+  private void cloneData(List<Entry> collsToClone, MongoClient remoteClient, String dstDb,
       MongodServer localServer, CloneOptions opts) throws MongoException {
 
     String fromDb = opts.getDbToClone();
     Materializer materializer = ActorMaterializer.create(getActorSystem());
-    
-    for (Entry entry : collsToClone) {
-      logger.info("Cloning collection data {}.{} into {}.{}",
-          fromDb, entry.getCollectionName(), dstDb,
-          entry.getCollectionName());
 
-      try {
-        cloneCollection(localServer, remoteConnection, dstDb,
-            opts, materializer, entry);
-      } catch (CompletionException completionException) {
-        Throwable cause = completionException.getCause();
-        if (cause instanceof RollbackException) {
-          throw (RollbackException) cause;
-        }
+    List<CloneRange> ranges = new ArrayList<>();
+    try (MongoConnection remoteConnection = remoteClient.openConnection()) {
+      for (Entry entry : collsToClone) {
+        CollectionCloning collCloning = new CollectionCloning(dstDb, entry.getCollectionName(),
+            metrics.getCollectionMetrics(dstDb, entry.getCollectionName()),
+            opts.getCollectionClonedListener());
+        List<CloneRange> collRanges = splitCollection(remoteConnection, collCloning, opts);
+        collCloning.setPendingRanges(collRanges.size());
+
+        logger.info("Cloning collection data {}.{} into {}.{} using {} ranges",
+            fromDb, entry.getCollectionName(), dstDb, entry.getCollectionName(),
+            collRanges.size());
+        ranges.addAll(collRanges);
+      }
+    }
 
-        throw completionException;
+    try {
+      Source.from(ranges)
+          .mapAsyncUnordered(maxParallelCloneTasks, range ->
+              cloneRange(localServer, remoteClient, dstDb, opts, materializer, range))
+          .runWith(Sink.ignore(), materializer)
+          .toCompletableFuture()
+          .join();
+    } catch (CompletionException completionException) {
+      Throwable cause = completionException.getCause();
+      if (cause instanceof RollbackException) {
+        throw (RollbackException) cause;
+      }
+      if (cause instanceof CloningException) {
+        throw (CloningException) cause;
       }
+
+      throw completionException;
     }
   }
 
@@ -283,34 +354,150 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     }
   }
 
-  private void cloneCollection(MongodServer localServer,
-      MongoConnection remoteConnection, String toDb, CloneOptions opts,
-      Materializer materializer, Entry collToClone) throws MongoException {
+  /**
+   * Splits the given collection into ranges of {@code _id} that can be cloned concurrently.
+   *
+   * <p>The bounds are the {@code _id} found at evenly spaced positions of the {@code _id} order.
+   * Range queries only match values of the same type as their bounds, so collections whose
+   * smallest and biggest {@code _id} have different types are not split.
+   */
+  private List<CloneRange> splitCollection(MongoConnection remoteConnection,
+      CollectionCloning collCloning, CloneOptions opts) throws MongoException {
+    String collName = collCloning.getCollection();
+    long count = countRemoteDocs(remoteConnection, collName, opts);
+    collCloning.getMetrics().getExpectedDocs().setValue(count);
+
+    long rangesCount = Math.min(maxParallelCloneTasks, count / MIN_DOCS_PER_RANGE);
+    if (rangesCount <= 1) {
+      return Collections.singletonList(new CloneRange(collCloning, null, null));
+    }
+
+    BsonValue<?> minId = findId(remoteConnection, collName, opts, 0, true);
+    BsonValue<?> maxId = findId(remoteConnection, collName, opts, 0, false);
+    if (minId == null || maxId == null || !haveComparableTypes(minId, maxId)) {
+      return Collections.singletonList(new CloneRange(collCloning, null, null));
+    }
+
+    List<BsonValue<?>> bounds = new ArrayList<>();
+    long docsPerRange = count / rangesCount;
+    for (long i = 1; i < rangesCount; i++) {
+      long position = i * docsPerRange;
+      if (position > Integer.MAX_VALUE) {
+        break;
+      }
+      BsonValue<?> bound = findId(remoteConnection, collName, opts, (int) position, true);
+      if (bound == null || !haveComparableTypes(minId, bound)) {
+        break;
+      }
+      if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(bound)) {
+        bounds.add(bound);
+      }
+    }
+
+    List<CloneRange> ranges = new ArrayList<>(bounds.size() + 1);
+    BsonValue<?> lowerBound = null;
+    for (BsonValue<?> bound : bounds) {
+      ranges.add(new CloneRange(collCloning, lowerBound, bound));
+      lowerBound = bound;
+    }
+    ranges.add(new CloneRange(collCloning, lowerBound, null));
+    return ranges;
+  }
+
+  private boolean haveComparableTypes(BsonValue<?> value1, BsonValue<?> value2) {
+    return value1.getType() == value2.getType()
+        || NUMERIC_TYPES.contains(value1.getType()) && NUMERIC_TYPES.contains(value2.getType());
+  }
 
-    String collName = collToClone.getCollectionName();
+  private long countRemoteDocs(MongoConnection remoteConnection, String collection,
+      CloneOptions opts) throws MongoException {
+    RemoteCommandResponse<Long> reply = remoteConnection.execute(
+        CountCommand.INSTANCE,
+        opts.getDbToClone(),
+        opts.isSlaveOk(),
+        new CountArgument(collection, DefaultBsonValues.EMPTY_DOC, null, 0, 0)
+    );
+    if (!reply.isOk()) {
+      throw reply.asMongoException();
+    }
+    return reply.getCommandReply().get();
+  }
+
+  /**
+   * Returns the {@code _id} of the document that is on the given position when the collection is
+   * sorted by {@code _id} or null if there is no such document.
+   */
+  @Nullable
+  private BsonValue<?> findId(MongoConnection remoteConnection, String collection,
+      CloneOptions opts, int position, boolean ascending) throws MongoException {
+    MongoCursor<BsonDocument> cursor = remoteConnection.query(
+        opts.getDbToClone(),
+        collection,
+        DefaultBsonValues.EMPTY_DOC,
+        position,
+        1,
+        new QueryOptions(getQueryFlags(opts)),
+        ascending ? ID_ASC_SORT : ID_DESC_SORT,
+        ID_PROJECTION
+    );
+    try {
+      Batch<BsonDocument> batch = cursor.fetchBatch();
+      try {
+        if (!batch.hasNext()) {
+          return null;
+        }
+        return batch.next().get(ID_KEY);
+      } finally {
+        batch.close();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
 
-    MongoCursor<BsonDocument> cursor = openCursor(remoteConnection, collName, opts);
+  private CompletionStage<Done> cloneRange(MongodServer localServer, MongoClient remoteClient,
+      String toDb, CloneOptions opts, Materializer materializer, CloneRange range) {
+    CollectionCloning collCloning = range.getCollectionCloning();
+    String collName = collCloning.getCollection();
+
+    MongoConnection remoteConnection = null;
+    MongoCursor<BsonDocument> cursor;
+    try {
+      remoteConnection = remoteClient.openConnection();
+      cursor = openCursor(remoteConnection, collName, range.getQuery(), opts);
+    } catch (MongoException | RuntimeException ex) {
+      if (remoteConnection != null) {
+        remoteConnection.close();
+      }
+      CompletableFuture<Done> result = new CompletableFuture<>();
+      result.completeExceptionally(
+          new CloningException("Error while cloning " + toDb + "." + collName, ex));
+      return result;
+    }
+    MongoConnection rangeConnection = remoteConnection;
 
     CollectionIterator iterator = new CollectionIterator(cursor, retrier);
 
     Source<BsonDocument, NotUsed> source = Source.fromIterator(() -> iterator)
-        .buffer(cursorBatchBufferSize, OverflowStrategy.backpressure())
+        .buffer(Math.max(1, cursorBatchBufferSize / maxParallelCloneTasks),
+            OverflowStrategy.backpressure())
         .async();
 
+    int insertTasks = Math.max(1, maxParallelInsertTasks / maxParallelCloneTasks);
     Flow<BsonDocument, Pair<Integer, Integer>, NotUsed> inserterFlow;
-    if (maxParallelInsertTasks == 1) {
+    if (insertTasks == 1) {
       inserterFlow = createCloneDocsWorker(localServer, toDb, collName);
     } else {
       Graph<FlowShape<BsonDocument, Pair<Integer, Integer>>, NotUsed> graph = GraphDSL.create(
           builder -> {
             UniformFanOutShape<BsonDocument, BsonDocument> balance = builder.add(
-                Balance.create(maxParallelInsertTasks, false)
+                Balance.create(insertTasks, false)
             );
             UniformFanInShape<Pair<Integer, Integer>, Pair<Integer, Integer>> merge = builder.add(
-                Merge.create(maxParallelInsertTasks, false)
+                Merge.create(insertTasks, false)
             );
 
-            for (int i = 0; i < maxParallelInsertTasks; i++) {
+            for (int i = 0; i < insertTasks; i++) {
               builder.from(balance.out(i))
                   .via(builder.add(
                       createCloneDocsWorker(localServer, toDb, collName).async())
@@ -321,50 +508,37 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
           });
       inserterFlow = Flow.fromGraph(graph);
     }
-    try {
-      source.via(inserterFlow)
-          .fold(new Tuple3<>(0, 0, clock.instant()), (acum, batch) ->
-              postInsertFold(toDb, collName, acum, batch))
-          .toMat(
-              Sink.foreach(tuple -> logCollectionCloning(
-                  toDb, collName, tuple.t1(), tuple.t2())),
-              Keep.right())
-          .run(materializer)
-          .toCompletableFuture()
-          .join();
-    } catch (CompletionException ex) {
-      Throwable cause = ex.getCause();
-      if (cause != null) {
-        throw new CloningException("Error while cloning " + toDb + "." + collName, cause);
-      }
-      throw ex;
-    }
-  }
 
-  private Tuple3<Integer, Integer, Instant> postInsertFold(String toDb,
-      String toCol, Tuple3<Integer, Integer, Instant> acum,
-      Pair<Integer, Integer> newBatch) {
-    Instant lastLogInstant = acum.t3();
-
-    long now = clock.millis();
-    long millisSinceLastLog = now - lastLogInstant.toEpochMilli();
-    if (shouldLogCollectionCloning(millisSinceLastLog)) {
-      logCollectionCloning(toDb, toCol, acum.t1(), acum.t2());
-      lastLogInstant = Instant.ofEpochMilli(now);
-    }
-    return new Tuple3<>(
-        acum.t1() + newBatch.first(),
-        acum.t2() + newBatch.second(),
-        lastLogInstant
-    );
+    metrics.getActiveRanges().inc();
+    return source.via(inserterFlow)
+        .runForeach(batch -> collCloning.onBatchInserted(batch.first(), batch.second()),
+            materializer)
+        .handle((done, throwable) -> {
+          metrics.getActiveRanges().dec();
+          cursor.close();
+          rangeConnection.close();
+          if (throwable != null) {
+            Throwable cause = throwable instanceof CompletionException
+                ? throwable.getCause() : throwable;
+            if (cause instanceof RollbackException) {
+              throw (RollbackException) cause;
+            }
+            if (cause instanceof CloningException) {
+              throw (CloningException) cause;
+            }
+            throw new CloningException("Error while cloning " + toDb + "." + collName, cause);
+          }
+          collCloning.onRangeFinished();
+          return done;
+        });
   }
 
   private boolean shouldLogCollectionCloning(long millisSinceLog) {
     return millisSinceLog > 10000;
   }
 
-  private void logCollectionCloning(String toDb, String toCol, int insertedDocs,
-      int requestedDocs) {
+  private void logCollectionCloning(String toDb, String toCol, long insertedDocs,
+      long requestedDocs) {
     if (insertedDocs != requestedDocs) {
       throw new AssertionError("Detected an inconsistency between inserted documents ( "
           + insertedDocs + ") andrequested documents to insert (" + requestedDocs + ")");
@@ -433,16 +607,14 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   }
 
   private MongoCursor<BsonDocument> openCursor(MongoConnection remoteConnection, String collection,
-      CloneOptions opts) throws MongoException {
+      @Nullable BsonDocument query, CloneOptions opts) throws MongoException {
     //TODO: enable exhaust?
-    EnumSet<QueryOption> queryFlags = EnumSet.of(QueryOption.NO_CURSOR_TIMEOUT);
-    if (opts.isSlaveOk()) {
-      queryFlags.add(QueryOption.SLAVE_OK);
-    }
+    EnumSet<QueryOption> queryFlags = getQueryFlags(opts);
+    queryFlags.add(QueryOption.NO_CURSOR_TIMEOUT);
     return remoteConnection.query(
         opts.getDbToClone(),
         collection,
-        null,
+        query,
         0,
         0,
         new QueryOptions(queryFlags),
@@ -451,6 +623,14 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     );
   }
 
+  private EnumSet<QueryOption> getQueryFlags(CloneOptions opts) {
+    EnumSet<QueryOption> queryFlags = EnumSet.noneOf(QueryOption.class);
+    if (opts.isSlaveOk()) {
+      queryFlags.add(QueryOption.SLAVE_OK);
+    }
+    return queryFlags;
+  }
+
   private List<Entry> getCollsToClone(CursorResult<Entry> listCollections, String fromDb,
       CloneOptions opts) {
     List<Entry> collsToClone = new ArrayList<>();
@@ -486,6 +666,24 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     return collsToClone;
   }
 
+  /**
+   * Returns the collections whose data must be cloned, which are the ones whose data has not been
+   * cloned yet.
+   */
+  private List<Entry> getCollsToCloneData(List<Entry> collsToClone, String dstDb,
+      CloneOptions opts) {
+    List<Entry> collsToCloneData = new ArrayList<>(collsToClone.size());
+    for (Entry entry : collsToClone) {
+      if (opts.getClonedCollectionFilter().test(entry.getCollectionName())) {
+        logger.info("Not cloning data of {}.{} because it has already been cloned", dstDb,
+            entry.getCollectionName());
+        continue;
+      }
+      collsToCloneData.add(entry);
+    }
+    return collsToCloneData;
+  }
+
   private void prepareCollections(List<Entry> collsToClone, MongodServer localServer,
       String dstDb) {
     try (MongodSchemaExecutor schemaEx = localServer.openSchemaExecutor()) {
@@ -693,6 +891,109 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     );
   }
 
+  /**
+   * The progress of the cloning of a collection, whose ranges can be cloned concurrently.
+   */
+  @ThreadSafe
+  private class CollectionCloning {
+
+    private final String database;
+    private final String collection;
+    private final CollectionMetrics metrics;
+    private final Consumer<String> clonedListener;
+    private final AtomicInteger pendingRanges = new AtomicInteger();
+    private final AtomicLong insertedDocs = new AtomicLong();
+    private final AtomicLong requestedDocs = new AtomicLong();
+    private final AtomicLong lastLogMillis;
+
+    CollectionCloning(String database, String collection, CollectionMetrics metrics,
+        Consumer<String> clonedListener) {
+      this.database = database;
+      this.collection = collection;
+      this.metrics = metrics;
+      this.clonedListener = clonedListener;
+      this.lastLogMillis = new AtomicLong(clock.millis());
+    }
+
+    String getCollection() {
+      return collection;
+    }
+
+    CollectionMetrics getMetrics() {
+      return metrics;
+    }
+
+    void setPendingRanges(int ranges) {
+      pendingRanges.set(ranges);
+      metrics.getPendingRanges().setValue(ranges);
+    }
+
+    void onBatchInserted(int inserted, int requested) {
+      long totalInserted = insertedDocs.addAndGet(inserted);
+      requestedDocs.addAndGet(requested);
+      metrics.getClonedDocs().mark(inserted);
+
+      long now = clock.millis();
+      long lastLog = lastLogMillis.get();
+      if (shouldLogCollectionCloning(now - lastLog)
+          && lastLogMillis.compareAndSet(lastLog, now)) {
+        logger.info("{} documents have been cloned to {}.{}", totalInserted, database,
+            collection);
+      }
+    }
+
+    void onRangeFinished() {
+      int remaining = pendingRanges.decrementAndGet();
+      metrics.getPendingRanges().setValue(remaining);
+      if (remaining == 0) {
+        logCollectionCloning(database, collection, insertedDocs.get(), requestedDocs.get());
+        clonedListener.accept(collection);
+      }
+    }
+  }
+
+  /**
+   * A range of {@code _id} of a collection, whose bounds are null when the range is not bounded.
+   */
+  private static class CloneRange {
+
+    private final CollectionCloning collectionCloning;
+    @Nullable
+    private final BsonValue<?> lowerBound;
+    @Nullable
+    private final BsonValue<?> upperBound;
+
+    CloneRange(CollectionCloning collectionCloning, @Nullable BsonValue<?> lowerBound,
+        @Nullable BsonValue<?> upperBound) {
+      this.collectionCloning = collectionCloning;
+      this.lowerBound = lowerBound;
+      this.upperBound = upperBound;
+    }
+
+    CollectionCloning getCollectionCloning() {
+      return collectionCloning;
+    }
+
+    /**
+     * Returns the query that selects the documents of this range or null if all documents of the
+     * collection are selected.
+     */
+    @Nullable
+    BsonDocument getQuery() {
+      if (lowerBound == null && upperBound == null) {
+        return null;
+      }
+      BsonDocumentBuilder condition = new BsonDocumentBuilder();
+      if (lowerBound != null) {
+        condition.appendUnsafe("$gte", lowerBound);
+      }
+      if (upperBound != null) {
+        condition.appendUnsafe("$lt", upperBound);
+      }
+      return DefaultBsonValues.newDocument(ID_KEY, condition.build());
+    }
+  }
+
   private static class CollectionIterator implements Iterator<BsonDocument> {
 
     private final MongoCursor<BsonDocument> cursor;
@@ -0,0 +1,84 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.utils.cloner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.torodb.core.metrics.SettableGauge;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+@ThreadSafe
+public class DbClonerMetrics {
+
+  private final ToroMetricRegistry registry;
+  private final Counter activeRanges;
+
+  @Inject
+  public DbClonerMetrics(ToroMetricRegistry parentRegistry) {
+    this.registry = parentRegistry.createSubRegistry("DbCloner");
+
+    activeRanges = registry.counter("activeRanges");
+  }
+
+  /**
+   * The number of collection ranges that are being cloned right now.
+   */
+  public Counter getActiveRanges() {
+    return activeRanges;
+  }
+
+  public CollectionMetrics getCollectionMetrics(String db, String collection) {
+    return new CollectionMetrics(registry.createSubRegistry("collection", db + "." + collection));
+  }
+
+  @ThreadSafe
+  public static class CollectionMetrics {
+
+    private final SettableGauge<Long> expectedDocs;
+    private final Meter clonedDocs;
+    private final SettableGauge<Integer> pendingRanges;
+
+    private CollectionMetrics(ToroMetricRegistry registry) {
+      expectedDocs = registry.gauge("expectedDocs");
+      clonedDocs = registry.meter("clonedDocs");
+      pendingRanges = registry.gauge("pendingRanges");
+    }
+
+    /**
+     * The number of documents the remote collection had when its cloning started.
+     */
+    public SettableGauge<Long> getExpectedDocs() {
+      return expectedDocs;
+    }
+
+    public Meter getClonedDocs() {
+      return clonedDocs;
+    }
+
+    /**
+     * The number of ranges of the collection that have not been completely cloned yet.
+     */
+    public SettableGauge<Integer> getPendingRanges() {
+      return pendingRanges;
+    }
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.mongodb.core.CursorRegistry.CursorBatch;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CursorRegistryTest {
+
+  private static final long IDLE_TIMEOUT_MILLIS = 1000;
+  private static final int MAX_OPEN_CURSORS = 3;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private CursorRegistry registry;
+
+  @Before
+  public void setUp() {
+    Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    };
+    registry = new CursorRegistry(DefaultLoggerFactory.getInstance(), IDLE_TIMEOUT_MILLIS,
+        TimeUnit.MILLISECONDS, MAX_OPEN_CURSORS, ticker);
+  }
+
+  @Test
+  public void testGetMoreUntilExhausted() {
+    ListCursor cursor = new ListCursor(20, 2);
+    Transaction transaction = new Transaction();
+    long cursorId = registry.register("db", "col", cursor, transaction, 2, 2).getAsLong();
+    assertNotEquals(0, cursorId);
+
+    CursorBatch batch = registry.getMore(cursorId, 0).get();
+    assertEquals(cursorId, batch.getCursorId());
+    assertEquals(2, batch.getStartingFrom());
+    assertEquals(cursor.docs.subList(2, 4), batch.getDocuments());
+
+    batch = registry.getMore(cursorId, 3).get();
+    assertEquals(cursorId, batch.getCursorId());
+    assertEquals(4, batch.getStartingFrom());
+    assertEquals(cursor.docs.subList(4, 7), batch.getDocuments());
+    assertFalse(transaction.closed);
+
+    batch = registry.getMore(cursorId, 100).get();
+    assertEquals(0, batch.getCursorId());
+    assertEquals(7, batch.getStartingFrom());
+    assertEquals(cursor.docs.subList(7, 20), batch.getDocuments());
+
+    assertTrue(cursor.closed);
+    assertTrue(transaction.closed);
+    assertFalse(registry.getMore(cursorId, 0).isPresent());
+    assertEquals(0, registry.getOpenCursors());
+  }
+
+  @Test
+  public void testNegativeNumberToReturnClosesTheCursor() {
+    ListCursor cursor = new ListCursor(5, 0);
+    Transaction transaction = new Transaction();
+    long cursorId = registry.register("db", "col", cursor, transaction, 0, 0).getAsLong();
+
+    CursorBatch batch = registry.getMore(cursorId, -1).get();
+    assertEquals(0, batch.getCursorId());
+    assertEquals(1, batch.getDocuments().size());
+    assertTrue(transaction.closed);
+    assertFalse(registry.getMore(cursorId, 0).isPresent());
+  }
+
+  @Test
+  public void testGetMoreOnOtherNamespace() {
+    ListCursor cursor = new ListCursor(5, 0);
+    long cursorId = registry.register("db", "col", cursor, new Transaction(), 0, 1).getAsLong();
+
+    assertFalse(registry.getMore("db", "other", cursorId, 0).isPresent());
+    assertFalse(registry.kill("other", "col", cursorId));
+
+    CursorBatch batch = registry.getMore("db", "col", cursorId, 0).get();
+    assertEquals(cursor.docs.subList(0, 1), batch.getDocuments());
+    assertTrue(registry.kill("db", "col", cursorId));
+  }
+
+  @Test
+  public void testKill() {
+    ListCursor cursor = new ListCursor(5, 0);
+    Transaction transaction = new Transaction();
+    long cursorId = registry.register("db", "col", cursor, transaction, 0, 0).getAsLong();
+
+    assertTrue(registry.kill(cursorId));
+    assertTrue(cursor.closed);
+    assertTrue(transaction.closed);
+    assertFalse(registry.kill(cursorId));
+    assertFalse(registry.getMore(cursorId, 0).isPresent());
+  }
+
+  @Test
+  public void testIdleCursorsAreClosed() {
+    Transaction idleTransaction = new Transaction();
+    long idleId = registry.register("db", "col", new ListCursor(10, 0), idleTransaction, 0, 1)
+        .getAsLong();
+    long usedId = registry.register("db", "col", new ListCursor(10, 0), new Transaction(), 0, 1)
+        .getAsLong();
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS / 2));
+    assertTrue(registry.getMore(usedId, 0).isPresent());
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS / 2 + 1));
+    registry.cleanUp();
+
+    assertEquals(1, registry.getOpenCursors());
+    assertTrue(idleTransaction.closed);
+    assertFalse(registry.getMore(idleId, 0).isPresent());
+    assertTrue(registry.getMore(usedId, 0).isPresent());
+  }
+
+  @Test
+  public void testRegistrationsOverTheLimitAreRejected() {
+    List<Long> cursorIds = new ArrayList<>();
+    for (int i = 0; i < MAX_OPEN_CURSORS; i++) {
+      cursorIds.add(registry.register("db", "col", new ListCursor(10, 0), new Transaction(), 0, 1)
+          .getAsLong());
+    }
+
+    ListCursor rejectedCursor = new ListCursor(10, 0);
+    Transaction rejectedTransaction = new Transaction();
+    OptionalLong rejectedId = registry.register("db", "col", rejectedCursor,
+        rejectedTransaction, 0, 1);
+    assertFalse(rejectedId.isPresent());
+    assertTrue(rejectedCursor.closed);
+    assertTrue(rejectedTransaction.closed);
+
+    assertEquals(MAX_OPEN_CURSORS, registry.getOpenCursors());
+    for (long cursorId : cursorIds) {
+      assertTrue("Live cursors must not be evicted", registry.getMore(cursorId, 0).isPresent());
+    }
+
+    assertTrue(registry.kill(cursorIds.get(0)));
+    assertTrue(registry.register("db", "col", new ListCursor(10, 0), new Transaction(), 0, 1)
+        .isPresent());
+  }
+
+  @Test
+  public void testExpiredCursorsReleaseTheirSlots() {
+    for (int i = 0; i < MAX_OPEN_CURSORS; i++) {
+      registry.register("db", "col", new ListCursor(10, 0), new Transaction(), 0, 1);
+    }
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS + 1));
+
+    assertTrue(registry.register("db", "col", new ListCursor(10, 0), new Transaction(), 0, 1)
+        .isPresent());
+    assertEquals(1, registry.getOpenCursors());
+  }
+
+  @Test
+  public void testCloseAll() {
+    List<Transaction> transactions = new ArrayList<>();
+    for (int i = 0; i < MAX_OPEN_CURSORS; i++) {
+      Transaction transaction = new Transaction();
+      transactions.add(transaction);
+      registry.register("db", "col", new ListCursor(10, 0), transaction, 0, 1);
+    }
+
+    registry.closeAll();
+
+    assertEquals(0, registry.getOpenCursors());
+    for (Transaction transaction : transactions) {
+      assertTrue(transaction.closed);
+    }
+  }
+
+  private static class ListCursor implements Cursor<BsonDocument> {
+
+    private final List<BsonDocument> docs;
+    private int position;
+    private boolean closed;
+
+    public ListCursor(int size, int position) {
+      docs = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        docs.add(DefaultBsonValues.newDocument("i", DefaultBsonValues.newInt(i)));
+      }
+      this.position = position;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return position < docs.size();
+    }
+
+    @Override
+    public BsonDocument next() {
+      return docs.get(position++);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static class Transaction implements AutoCloseable {
+
+    private boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -118,6 +118,7 @@ public class MongoDbBsonTypesTest {
     torodBundle.startAsync();
     torodBundle.awaitRunning();
 
+    CursorRegistry cursorRegistry = new CursorRegistry(DefaultLoggerFactory.getInstance());
     MongoDbCoreConfig config = new MongoDbCoreConfig(
         torodBundle,
         new NameBasedCommandLibrary("test", ImmutableMap.of()),
@@ -125,8 +126,10 @@ public class MongoDbBsonTypesTest {
             DefaultLoggerFactory.getInstance(),
             Clock.systemUTC(),
             new DefaultBuildProperties(),
-            new MongodServerConfig(HostAndPort.fromParts("localhost", 8095))
+            new MongodServerConfig(HostAndPort.fromParts("localhost", 8095)),
+            cursorRegistry
         ),
+        cursorRegistry,
         Optional.of(new DisabledMetricRegistry()),
         DefaultLoggerFactory.getInstance(),
         essentialInjector,
@@ -0,0 +1,212 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl;
+
+import com.torodb.common.util.Empty;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.logging.LoggerFactory;
+import com.torodb.core.retrier.Retrier;
+import com.torodb.core.retrier.Retrier.Hint;
+import com.torodb.core.retrier.RetrierAbortException;
+import com.torodb.core.retrier.RetrierGiveUpException;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongodb.core.WriteMongodTransaction;
+import com.torodb.mongodb.repl.OplogManager.OplogManagerPersistException;
+import com.torodb.mongowp.OpTime;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * Stores the progress of the initial sync on the backend metainfo, so an interrupted initial sync
+ * can be resumed instead of cloning everything again.
+ *
+ * <p>A checkpoint contains the optime of the last remote operation when the cloning started. Once
+ * the data of a collection or a whole database has been cloned, it is marked as cloned on the
+ * current checkpoint. Marks that belong to older checkpoints are ignored, so they do not need to be
+ * deleted.
+ */
+@ThreadSafe
+public class InitialSyncCheckpointManager {
+
+  private static final MetaInfoKey CHECKPOINT_KEY = () -> "repl.initialSync.checkpoint";
+  private static final String CLONED_KEY_PREFIX = "repl.initialSync.cloned.";
+  private static final String NO_CHECKPOINT = "none";
+
+  private final Logger logger;
+  private final MongodServer server;
+  private final Retrier retrier;
+
+  @Inject
+  public InitialSyncCheckpointManager(LoggerFactory lf, MongodServer server, Retrier retrier) {
+    this.logger = lf.apply(this.getClass());
+    this.server = server;
+    this.retrier = retrier;
+  }
+
+  /**
+   * Returns the checkpoint of the last initial sync that did not finish, if there is one.
+   */
+  public Optional<Checkpoint> loadCheckpoint() throws OplogManagerPersistException {
+    return readMetaInfo(CHECKPOINT_KEY)
+        .filter(value -> !value.equals(NO_CHECKPOINT))
+        .map(Checkpoint::fromMetaInfoValue);
+  }
+
+  /**
+   * Creates a new checkpoint, which replaces the previous one.
+   *
+   * @param hash   the hash of the last remote operation when the cloning started
+   * @param opTime the optime of the last remote operation when the cloning started
+   */
+  public Checkpoint createCheckpoint(long hash, OpTime opTime)
+      throws OplogManagerPersistException {
+    Checkpoint checkpoint = new Checkpoint(hash, opTime, UUID.randomUUID().toString());
+    writeMetaInfo(CHECKPOINT_KEY, checkpoint.toMetaInfoValue());
+    logger.debug("Created initial sync checkpoint at {}", opTime);
+    return checkpoint;
+  }
+
+  /**
+   * Removes the current checkpoint, so the next initial sync starts from the scratch.
+   */
+  public void clearCheckpoint() throws OplogManagerPersistException {
+    writeMetaInfo(CHECKPOINT_KEY, NO_CHECKPOINT);
+  }
+
+  public boolean isCloned(Checkpoint checkpoint, String database)
+      throws OplogManagerPersistException {
+    return isMarked(checkpoint, CLONED_KEY_PREFIX + database);
+  }
+
+  public boolean isCloned(Checkpoint checkpoint, String database, String collection)
+      throws OplogManagerPersistException {
+    return isMarked(checkpoint, CLONED_KEY_PREFIX + database + '.' + collection);
+  }
+
+  /**
+   * Marks the given database as completely cloned (data and indexes) on the given checkpoint.
+   */
+  public void markCloned(Checkpoint checkpoint, String database)
+      throws OplogManagerPersistException {
+    writeMetaInfo(() -> CLONED_KEY_PREFIX + database, checkpoint.getSyncId());
+  }
+
+  /**
+   * Marks the data of the given collection as completely cloned on the given checkpoint.
+   */
+  public void markCloned(Checkpoint checkpoint, String database, String collection)
+      throws OplogManagerPersistException {
+    writeMetaInfo(() -> CLONED_KEY_PREFIX + database + '.' + collection,
+        checkpoint.getSyncId());
+  }
+
+  private boolean isMarked(Checkpoint checkpoint, String keyName)
+      throws OplogManagerPersistException {
+    return readMetaInfo(() -> keyName)
+        .filter(value -> value.equals(checkpoint.getSyncId()))
+        .isPresent();
+  }
+
+  private Optional<String> readMetaInfo(MetaInfoKey key) throws OplogManagerPersistException {
+    try {
+      return retrier.retry(() -> {
+        try (MongodTransaction transaction = server.openReadTransaction()) {
+          return transaction.getDocTransaction()
+              .readMetaInfo(key)
+              .map(KvValue::toString);
+        }
+      }, Hint.INFREQUENT_ROLLBACK);
+    } catch (RetrierGiveUpException ex) {
+      throw new OplogManagerPersistException(ex);
+    }
+  }
+
+  private void writeMetaInfo(MetaInfoKey key, String value)
+      throws OplogManagerPersistException {
+    try {
+      retrier.retry(() -> {
+        try (WriteMongodTransaction transaction = server.openWriteTransaction()) {
+          transaction.getDocTransaction().writeMetaInfo(key, new StringKvString(value));
+          transaction.commit();
+          return Empty.getInstance();
+        } catch (UserException ex) {
+          throw new RetrierAbortException(ex);
+        }
+      }, Hint.INFREQUENT_ROLLBACK);
+    } catch (RetrierGiveUpException ex) {
+      throw new OplogManagerPersistException(ex);
+    }
+  }
+
+  public static class Checkpoint {
+
+    private final long hash;
+    private final OpTime opTime;
+    private final String syncId;
+
+    private Checkpoint(long hash, OpTime opTime, String syncId) {
+      this.hash = hash;
+      this.opTime = opTime;
+      this.syncId = syncId;
+    }
+
+    public long getHash() {
+      return hash;
+    }
+
+    /**
+     * Returns the optime of the last remote operation when the cloning started, which is the
+     * optime from which the remote oplog must be applied once the cloning finishes.
+     */
+    public OpTime getOpTime() {
+      return opTime;
+    }
+
+    String getSyncId() {
+      return syncId;
+    }
+
+    private String toMetaInfoValue() {
+      return OplogManager.toMetaInfoValue(hash, opTime) + OplogManager.META_INFO_SEPARATOR
+          + syncId;
+    }
+
+    private static Checkpoint fromMetaInfoValue(String value) {
+      String[] tokens = value.split(OplogManager.META_INFO_SEPARATOR);
+      if (tokens.length != 4) {
+        throw new IllegalStateException("Unexpected initial sync checkpoint '" + value + "'");
+      }
+      return new Checkpoint(
+          Long.parseLong(tokens[0]),
+          OplogManager.toOpTime(Long.parseLong(tokens[1]), Long.parseLong(tokens[2])),
+          tokens[3]
+      );
+    }
+  }
+
+}
@@ -18,12 +18,10 @@
 
 package com.torodb.mongodb.repl;
 
-import static com.torodb.mongowp.bson.utils.DefaultBsonValues.EMPTY_DOC;
-import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newLong;
-
 import com.google.common.base.Preconditions;
 import com.torodb.common.util.Empty;
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.retrier.Retrier;
@@ -31,20 +29,15 @@ import com.torodb.core.retrier.Retrier.Hint;
 import com.torodb.core.retrier.RetrierAbortException;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.services.IdleTorodbService;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
 import com.torodb.mongodb.annotations.Locked;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteArgument;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteStatement;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongodb.core.WriteMongodTransaction;
-import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.OpTime;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.bson.BsonDateTime;
@@ -54,12 +47,12 @@ import com.torodb.mongowp.bson.utils.TimestampToDateTime;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import com.torodb.mongowp.exceptions.MongoException;
-import com.torodb.mongowp.utils.BsonDocumentBuilder;
 import com.torodb.mongowp.utils.BsonReaderTool;
 import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -73,10 +66,11 @@ import javax.inject.Inject;
 @ThreadSafe
 public class OplogManager extends IdleTorodbService {
 
-  private static final String KEY = "lastAppliedOplogEntry";
-  private static final BsonDocument DOC_QUERY = EMPTY_DOC;
-  private static final String OPLOG_DB = "torodb";
-  private static final String OPLOG_COL = "oplog.replication";
+  private static final MetaInfoKey LAST_APPLIED_KEY = () -> "repl.lastAppliedOplogEntry";
+  static final String META_INFO_SEPARATOR = ":";
+  private static final String LEGACY_KEY = "lastAppliedOplogEntry";
+  private static final String LEGACY_OPLOG_DB = "torodb";
+  private static final String LEGACY_OPLOG_COL = "oplog.replication";
 
   private final Logger logger;
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
@@ -135,40 +129,10 @@ public class OplogManager extends IdleTorodbService {
     try {
       retrier.retry(() -> {
         try (WriteMongodTransaction transaction = server.openWriteTransaction()) {
-          Status<Long> deleteResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              DeleteCommand.INSTANCE,
-              new DeleteArgument.Builder(OPLOG_COL)
-                  .addStatement(new DeleteStatement(DOC_QUERY, false))
-                  .build()
-          );
-          if (!deleteResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(deleteResult));
-          }
-          //TODO: This should be stored as timestamp once TORODB-189 is resolved
-          long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
-
-          Status<InsertResult> insertResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              InsertCommand.INSTANCE,
-              new InsertArgument.Builder(OPLOG_COL)
-                  .addDocument(
-                      new BsonDocumentBuilder()
-                          .appendUnsafe(KEY, new BsonDocumentBuilder()
-                              .appendUnsafe("hash", newLong(hash))
-                              .appendUnsafe("optime_i", DefaultBsonValues.newLong(optimeAsLong))
-                              .appendUnsafe("optime_t", newLong(opTime.getTerm()))
-                              .build()
-                          ).build()
-                  ).build()
+          transaction.getDocTransaction().writeMetaInfo(
+              LAST_APPLIED_KEY,
+              new StringKvString(toMetaInfoValue(hash, opTime))
           );
-          if (insertResult.isOk() && insertResult.getResult().getN() != 1) {
-            throw new RetrierAbortException(new MongoException(ErrorCode.OPERATION_FAILED,
-                "More than one element inserted"));
-          }
-          if (!insertResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(insertResult));
-          }
           transaction.commit();
           return Empty.getInstance();
         } catch (UserException ex) {
@@ -185,35 +149,12 @@ public class OplogManager extends IdleTorodbService {
     try {
       retrier.retry(() -> {
         try (MongodTransaction transaction = server.openReadTransaction()) {
-          Status<FindResult> status = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              FindCommand.INSTANCE,
-              new FindArgument.Builder()
-                  .setCollection(OPLOG_COL)
-                  .setSlaveOk(true)
-                  .build()
-          );
-          if (!status.isOk()) {
-            throw new RetrierAbortException(new MongoException(status));
-          }
-
-          Iterator<BsonDocument> batch = status.getResult().getCursor().getFirstBatch();
-          if (!batch.hasNext()) {
-            lastAppliedHash = 0;
-            lastAppliedOpTime = OpTime.EPOCH;
+          Optional<KvValue<?>> storedValue = transaction.getDocTransaction()
+              .readMetaInfo(LAST_APPLIED_KEY);
+          if (storedValue.isPresent()) {
+            fromMetaInfoValue(storedValue.get().toString());
           } else {
-            BsonDocument doc = batch.next();
-
-            BsonDocument subDoc = BsonReaderTool.getDocument(doc, KEY);
-            lastAppliedHash = BsonReaderTool.getLong(subDoc, "hash");
-
-            long optimeAsLong = BsonReaderTool.getLong(subDoc, "optime_i");
-            BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
-
-            lastAppliedOpTime = new OpTime(
-                TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
-                BsonReaderTool.getLong(subDoc, "optime_t")
-            );
+            loadLegacyState(transaction);
           }
           notifyLastAppliedOpTimeChange();
           return Empty.getInstance();
@@ -224,6 +165,64 @@ public class OplogManager extends IdleTorodbService {
     }
   }
 
+  static String toMetaInfoValue(long hash, OpTime opTime) {
+    //TODO: This should be stored as timestamp once TORODB-189 is resolved
+    long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
+    return hash + META_INFO_SEPARATOR + optimeAsLong + META_INFO_SEPARATOR + opTime.getTerm();
+  }
+
+  private void fromMetaInfoValue(String value) {
+    String[] tokens = value.split(META_INFO_SEPARATOR);
+    if (tokens.length != 3) {
+      throw new RetrierAbortException("Unexpected last applied oplog entry '" + value + "'");
+    }
+    lastAppliedHash = Long.parseLong(tokens[0]);
+    lastAppliedOpTime = toOpTime(Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
+  }
+
+  static OpTime toOpTime(long optimeAsLong, long term) {
+    BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
+
+    return new OpTime(
+        TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
+        term
+    );
+  }
+
+  /**
+   * Reads the state stored by previous versions, which used a document on a collection instead of
+   * the backend metainfo.
+   */
+  private void loadLegacyState(MongodTransaction transaction) {
+    Status<FindResult> status = transaction.execute(
+        new Request(LEGACY_OPLOG_DB, null, true, null),
+        FindCommand.INSTANCE,
+        new FindArgument.Builder()
+            .setCollection(LEGACY_OPLOG_COL)
+            .setSlaveOk(true)
+            .setWantMore(false)
+            .build()
+    );
+    if (!status.isOk()) {
+      throw new RetrierAbortException(new MongoException(status));
+    }
+
+    Iterator<BsonDocument> batch = status.getResult().getCursor().getFirstBatch();
+    if (!batch.hasNext()) {
+      lastAppliedHash = 0;
+      lastAppliedOpTime = OpTime.EPOCH;
+    } else {
+      BsonDocument doc = batch.next();
+
+      BsonDocument subDoc = BsonReaderTool.getDocument(doc, LEGACY_KEY);
+      lastAppliedHash = BsonReaderTool.getLong(subDoc, "hash");
+      lastAppliedOpTime = toOpTime(
+          BsonReaderTool.getLong(subDoc, "optime_i"),
+          BsonReaderTool.getLong(subDoc, "optime_t")
+      );
+    }
+  }
+
   public static class OplogManagerPersistException extends Exception {
 
     private static final long serialVersionUID = -2352073393613989057L;
@@ -35,6 +35,7 @@ import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.filters.IndexFilter;
 import com.torodb.mongodb.filters.NamespaceFilter;
 import com.torodb.mongodb.language.Namespace;
+import com.torodb.mongodb.repl.InitialSyncCheckpointManager.Checkpoint;
 import com.torodb.mongodb.repl.OplogManager.OplogManagerPersistException;
 import com.torodb.mongodb.repl.OplogManager.ReadOplogTransaction;
 import com.torodb.mongodb.repl.OplogManager.WriteOplogTransaction;
@@ -67,12 +68,14 @@ import com.torodb.torod.SchemaOperationExecutor;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 
@@ -82,6 +85,7 @@ public class RecoveryService extends RunnableTorodbService {
   private final Logger logger;
   private final Callback callback;
   private final OplogManager oplogManager;
+  private final InitialSyncCheckpointManager checkpointManager;
   private final SyncSourceProvider syncSourceProvider;
   private final OplogReaderProvider oplogReaderProvider;
   private final DbCloner cloner;
@@ -96,6 +100,7 @@ public class RecoveryService extends RunnableTorodbService {
       @TorodbRunnableService ThreadFactory threadFactory,
       @Assisted Callback callback,
       OplogManager oplogManager,
+      InitialSyncCheckpointManager checkpointManager,
       SyncSourceProvider syncSourceProvider,
       OplogReaderProvider oplogReaderProvider,
       @MongoDbRepl DbCloner cloner,
@@ -109,6 +114,7 @@ public class RecoveryService extends RunnableTorodbService {
     this.logger = lf.apply(this.getClass());
     this.callback = callback;
     this.oplogManager = oplogManager;
+    this.checkpointManager = checkpointManager;
     this.syncSourceProvider = syncSourceProvider;
     this.oplogReaderProvider = oplogReaderProvider;
     this.cloner = cloner;
@@ -167,15 +173,16 @@ public class RecoveryService extends RunnableTorodbService {
     /*
      * 1. store that data is inconsistent
      * 2. decide a sync source
-     * 3. lastRemoteOptime1 = get the last optime of the sync source
-     * 4. clone all databases except local
+     * 3. lastRemoteOptime1 = get the last optime of the sync source or the one stored on the
+     *    checkpoint of a previous initial sync that can be resumed
+     * 4. clone all databases except local (and the ones already cloned on the checkpoint)
      * 5. lastRemoteOptime2 = get the last optime of the sync source
      * 6. apply remote oplog from lastRemoteOptime1 to lastRemoteOptime2
      * 7. lastRemoteOptime3 = get the last optime of the sync source
      * 8. apply remote oplog from lastRemoteOptime2 to lastRemoteOptime3
      * 9. rebuild indexes
      * 10. store lastRemoteOptime3 as the last applied operation optime
-     * 11. store that data is consistent
+     * 11. remove the checkpoint and store that data is consistent
      * 12. change replication state to SECONDARY
      */
 
@@ -205,29 +212,37 @@ public class RecoveryService extends RunnableTorodbService {
 
       try (OplogReader reader = oplogReaderProvider.newReader(remoteConnection)) {
 
-        OplogOperation lastClonedOp = reader.getLastOp();
-        final OpTime lastRemoteOptime1 = lastClonedOp.getOpTime();
+        Checkpoint checkpoint = loadResumableCheckpoint(reader).orElse(null);
 
         try (WriteOplogTransaction oplogTransaction = oplogManager.createWriteTransaction()) {
           logger.info("Remote database cloning started");
           oplogTransaction.truncate();
-          logger.info("Local databases dropping started");
-          Status<?> status = dropDatabases();
-          if (!status.isOk()) {
-            throw new TryAgainException("Error while trying to drop collections: "
-                + status);
+          if (checkpoint == null) {
+            logger.info("Local databases dropping started");
+            Status<?> status = dropDatabases();
+            if (!status.isOk()) {
+              throw new TryAgainException("Error while trying to drop collections: "
+                  + status);
+            }
+            logger.info("Local databases dropping finished");
+
+            OplogOperation lastClonedOp = reader.getLastOp();
+            checkpoint = checkpointManager.createCheckpoint(
+                lastClonedOp.getHash(), lastClonedOp.getOpTime());
+          } else {
+            logger.info("Resuming the initial sync interrupted at {}", checkpoint.getOpTime());
           }
-          logger.info("Local databases dropping finished");
           if (!isRunning()) {
             logger.warn("Recovery stopped before it can finish");
             return false;
           }
           logger.info("Remote database cloning started");
-          cloneDatabases(remoteClient);
+          cloneDatabases(remoteClient, checkpoint);
           logger.info("Remote database cloning finished");
 
-          oplogTransaction.forceNewValue(lastClonedOp.getHash(), lastClonedOp.getOpTime());
+          oplogTransaction.forceNewValue(checkpoint.getHash(), checkpoint.getOpTime());
         }
+        final OpTime lastRemoteOptime1 = checkpoint.getOpTime();
 
         if (!isRunning()) {
           logger.warn("Recovery stopped before it can finish");
@@ -262,6 +277,8 @@ public class RecoveryService extends RunnableTorodbService {
           logger.warn("Recovery stopped before it can finish");
           return false;
         }
+
+        checkpointManager.clearCheckpoint();
       } catch (OplogStartMissingException ex) {
         throw new TryAgainException(ex);
       } catch (OplogOperationUnsupported ex) {
@@ -299,13 +316,37 @@ public class RecoveryService extends RunnableTorodbService {
     return Status.ok();
   }
 
-  private void cloneDatabases(@Nonnull MongoClient remoteClient) throws CloningException,
-      MongoException, UserException {
+  /**
+   * Returns the checkpoint of a previous initial sync if it can be resumed, which is only possible
+   * if the remote oplog still contains the operation from which the oplog must be applied.
+   */
+  private Optional<Checkpoint> loadResumableCheckpoint(OplogReader reader)
+      throws OplogManagerPersistException, OplogStartMissingException, OplogOperationUnsupported,
+      MongoException {
+    Optional<Checkpoint> checkpoint = checkpointManager.loadCheckpoint();
+    if (!checkpoint.isPresent()) {
+      return checkpoint;
+    }
+    OpTime firstRemoteOpTime = reader.getFirstOp().getOpTime();
+    if (firstRemoteOpTime.compareTo(checkpoint.get().getOpTime()) > 0) {
+      logger.info("The initial sync interrupted at {} cannot be resumed, as the remote oplog "
+          + "starts at {}", checkpoint.get().getOpTime(), firstRemoteOpTime);
+      return Optional.empty();
+    }
+    return checkpoint;
+  }
+
+  private void cloneDatabases(@Nonnull MongoClient remoteClient, Checkpoint checkpoint)
+      throws CloningException, MongoException, UserException {
 
     streamRemoteDatabases(remoteClient)
         .map(ListDatabasesReply.DatabaseEntry::getName)
         .filter(this::isReplicable)
-        .forEach(databaseName -> cloneDatabase(databaseName, remoteClient));
+        .filter(databaseName -> !isCloned(checkpoint, databaseName, null))
+        .forEach(databaseName -> {
+          cloneDatabase(databaseName, remoteClient, checkpoint);
+          markCloned(checkpoint, databaseName, null);
+        });
   }
 
   private Stream<ListDatabasesReply.DatabaseEntry> streamRemoteDatabases(MongoClient remoteClient)
@@ -327,7 +368,8 @@ public class RecoveryService extends RunnableTorodbService {
     }
   }
 
-  private void cloneDatabase(String databaseName, MongoClient remoteClient) {
+  private void cloneDatabase(String databaseName, MongoClient remoteClient,
+      Checkpoint checkpoint) {
     MyWritePermissionSupplier writePermissionSupplier =
         new MyWritePermissionSupplier(databaseName);
 
@@ -340,7 +382,9 @@ public class RecoveryService extends RunnableTorodbService {
         Collections.<String>emptySet(),
         writePermissionSupplier,
         (colName) -> namespaceFilter.filter(new Namespace(databaseName, colName)),
-        indexFilter
+        indexFilter,
+        (colName) -> isCloned(checkpoint, databaseName, colName),
+        (colName) -> markCloned(checkpoint, databaseName, colName)
     );
 
     try {
@@ -350,6 +394,35 @@ public class RecoveryService extends RunnableTorodbService {
     }
   }
 
+  /**
+   * Returns true iff the given database (if the collection is null) or the data of the given
+   * collection has been cloned on the given checkpoint.
+   */
+  private boolean isCloned(Checkpoint checkpoint, String databaseName,
+      @Nullable String collectionName) {
+    try {
+      if (collectionName == null) {
+        return checkpointManager.isCloned(checkpoint, databaseName);
+      }
+      return checkpointManager.isCloned(checkpoint, databaseName, collectionName);
+    } catch (OplogManagerPersistException ex) {
+      throw new CloningException("Impossible to read the initial sync checkpoint", ex);
+    }
+  }
+
+  private void markCloned(Checkpoint checkpoint, String databaseName,
+      @Nullable String collectionName) {
+    try {
+      if (collectionName == null) {
+        checkpointManager.markCloned(checkpoint, databaseName);
+      } else {
+        checkpointManager.markCloned(checkpoint, databaseName, collectionName);
+      }
+    } catch (OplogManagerPersistException ex) {
+      throw new CloningException("Impossible to store the initial sync checkpoint", ex);
+    }
+  }
+
   /**
    * Applies all the oplog operations stored on the remote server whose optime is higher than
    * <em>from</em> but lower or equal than <em>to</em>.
@@ -19,6 +19,7 @@
 package com.torodb.mongodb.repl;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.torodb.core.metrics.SettableGauge;
@@ -37,6 +38,7 @@ public class ReplMetrics {
   private final ImmutableMap<MemberState, Counter> memberStateCounters;
   private final SettableGauge<String> lastOpTimeFetched;
   private final SettableGauge<String> lastOpTimeApplied;
+  private final Histogram replicationLag;
 
   @Inject
   public ReplMetrics(ToroMetricRegistry parentRegistry) {
@@ -55,6 +57,7 @@ public class ReplMetrics {
     memberStateCounters = Maps.immutableEnumMap(memberStateCountersBuilder.build());
     lastOpTimeFetched = registry.gauge("lastOpTimeFetched");
     lastOpTimeApplied = registry.gauge("lastOpTimeApplied");
+    replicationLag = registry.histogram("replicationLagMillis");
   }
 
   public SettableGauge<String> getMemberState() {
@@ -72,4 +75,12 @@ public class ReplMetrics {
   public SettableGauge<String> getLastOpTimeApplied() {
     return lastOpTimeApplied;
   }
+
+  /**
+   * Returns the histogram that tracks, in milliseconds, the distance between the moment a batch of
+   * remote oplog operations is fetched and the optime of its last operation.
+   */
+  public Histogram getReplicationLag() {
+    return replicationLag;
+  }
 }
@@ -55,6 +55,13 @@ public class OplogApplierServiceModule extends PrivateModule {
         .implement(ContinuousOplogFetcher.class, ContinuousOplogFetcher.class)
         .build(ContinuousOplogFetcher.ContinuousOplogFetcherFactory.class)
     );
+
+    bind(Integer.class)
+        .annotatedWith(OplogFetchBatchSize.class)
+        .toInstance(1000);
+    bind(Long.class)
+        .annotatedWith(OplogFetchMaxAwaitTime.class)
+        .toInstance(1000L);
   }
 
 }
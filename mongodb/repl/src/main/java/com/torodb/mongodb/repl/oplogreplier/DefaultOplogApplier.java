@@ -78,6 +78,13 @@ import javax.inject.Inject;
 
 public class DefaultOplogApplier implements OplogApplier {
 
+  /**
+   * The maximum number of batches that are applied at the same time. Operations on the same
+   * namespace are always applied in order, but operations on different namespaces of consecutive
+   * batches can be applied concurrently.
+   */
+  private static final int MAX_PIPELINED_BATCHES = 4;
+
   private final Logger logger;
   private final BatchLimits batchLimits;
   private final AnalyzedOplogBatchExecutor batchExecutor;
@@ -135,12 +142,17 @@ public class DefaultOplogApplier implements OplogApplier {
             .via(createBatcherFlow(applierContext))
             .viaMat(KillSwitches.single(), Keep.right())
             .async()
-            .map(
+            //elements are emitted in order once they and all the previous ones have been applied,
+            //so the last applied op is never stored before all the previous ops are applied
+            .mapAsync(
+                MAX_PIPELINED_BATCHES,
                 analyzedElem -> {
-                  for (AnalyzedOplogBatch analyzedOplogBatch : analyzedElem.analyzedBatch) {
-                    batchExecutor.apply(analyzedOplogBatch, applierContext);
-                  }
-                  return analyzedElem;
+                  CompletableFuture<?>[] analyzedFutures = analyzedElem.analyzedBatch.stream()
+                      .map(analyzedOplogBatch ->
+                          batchExecutor.applyAsync(analyzedOplogBatch, applierContext))
+                      .toArray(CompletableFuture[]::new);
+                  return CompletableFuture.allOf(analyzedFutures)
+                      .thenApply(ignored -> analyzedElem);
                 })
             .map(this::metricExecution)
             .toMat(
@@ -151,9 +163,9 @@ public class DefaultOplogApplier implements OplogApplier {
     UniqueKillSwitch killSwitch = pair.first();
 
     CompletableFuture<Empty> whenComplete =
-        pair.second()
+        waitUntilIdle(pair.second()
             .toCompletableFuture()
-            .thenApply(done -> Empty.getInstance())
+            .thenApply(done -> Empty.getInstance()))
             .whenComplete(
                 (done, t) -> {
                   fetcher.close();
@@ -186,6 +198,24 @@ public class DefaultOplogApplier implements OplogApplier {
     return new DefaultApplyingJob(killSwitch, whenComplete);
   }
 
+  /**
+   * Returns a future that is completed as the given one, but not before the batches that are still
+   * being applied by the {@link AnalyzedOplogBatchExecutor} finish, so no operation is applied once
+   * the applying job is finished.
+   */
+  private CompletableFuture<Empty> waitUntilIdle(CompletableFuture<Empty> streamFinished) {
+    CompletableFuture<Empty> result = new CompletableFuture<>();
+    streamFinished.whenComplete((done, t) ->
+        batchExecutor.whenIdle().whenComplete((idle, idleThrowable) -> {
+          if (t != null) {
+            result.completeExceptionally(t);
+          } else {
+            result.complete(done);
+          }
+        }));
+    return result;
+  }
+
   private Flow<OplogBatch, OplogBatch, NotUsed> createOffheapBuffer(
       OffHeapBufferConfig offHeapConfig) {
     return OffHeapBufferUtils.createOffheapBuffer(offHeapConfig);
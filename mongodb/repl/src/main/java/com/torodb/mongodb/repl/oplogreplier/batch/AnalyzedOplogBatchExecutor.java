@@ -21,6 +21,7 @@ package com.torodb.mongodb.repl.oplogreplier.batch;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.Service;
+import com.torodb.common.util.Empty;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.core.retrier.RetrierAbortException;
@@ -32,6 +33,7 @@ import com.torodb.mongowp.commands.oplog.DbCmdOplogOperation;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -54,6 +56,38 @@ public interface AnalyzedOplogBatchExecutor extends Service,
     return batch.accept(this, replContext);
   }
 
+  /**
+   * Applies the given batch, maybe asynchronously.
+   *
+   * <p>The result is the same as if batches given to this method were applied one after the other,
+   * but implementations may start a batch before the previous ones have been applied as long as
+   * the operations on each namespace are applied in order and commands are applied once all
+   * previous batches have been applied.
+   *
+   * <p>The default implementation applies the batch on the caller thread.
+   *
+   * @return a future that is completed with the last operation of the batch once the batch has
+   *         been applied. Previous batches may not be applied yet when it completes.
+   */
+  public default CompletableFuture<OplogOperation> applyAsync(AnalyzedOplogBatch batch,
+      ApplierContext replContext) {
+    try {
+      return CompletableFuture.completedFuture(apply(batch, replContext));
+    } catch (RetrierGiveUpException | RuntimeException ex) {
+      CompletableFuture<OplogOperation> result = new CompletableFuture<>();
+      result.completeExceptionally(ex);
+      return result;
+    }
+  }
+
+  /**
+   * Returns a future that is completed once all batches given to
+   * {@link #applyAsync(AnalyzedOplogBatch, ApplierContext)} have been applied or have failed.
+   */
+  public default CompletableFuture<Empty> whenIdle() {
+    return CompletableFuture.completedFuture(Empty.getInstance());
+  }
+
   public static class AnalyzedOplogBatchExecutorMetrics {
 
     private final ConcurrentMap<String, Timer> singleOpTimers = new ConcurrentHashMap<>();
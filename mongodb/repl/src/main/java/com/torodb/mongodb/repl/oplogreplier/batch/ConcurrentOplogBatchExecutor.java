@@ -20,6 +20,7 @@ package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Supplier;
 import com.torodb.common.util.Empty;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
@@ -28,28 +29,53 @@ import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.core.retrier.Retrier;
+import com.torodb.core.retrier.Retrier.Hint;
+import com.torodb.core.retrier.RetrierAbortException;
+import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.OplogOperationApplier;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 
 public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecutor {
 
   private final StreamExecutor streamExecutor;
+  private final ExecutorService pipelineExecutor;
   private final ConcurrentOplogBatchExecutorMetrics concurrentMetrics;
   private final SubBatchHeuristic subBatchHeuristic;
+  private final Retrier retrier;
+  /**
+   * The future of the last job submitted by {@link #applyAsync(AnalyzedOplogBatch, ApplierContext)}
+   * on each namespace since the last barrier.
+   */
+  @GuardedBy("pipelineLock")
+  private final Map<String, CompletableFuture<?>> namespaceTails = new HashMap<>();
+  /**
+   * The future of the last command submitted by
+   * {@link #applyAsync(AnalyzedOplogBatch, ApplierContext)}. Jobs submitted later do not start until
+   * it is completed.
+   */
+  @GuardedBy("pipelineLock")
+  private CompletableFuture<?> barrier = CompletableFuture.completedFuture(null);
+  private final Object pipelineLock = new Object();
 
   @Inject
   public ConcurrentOplogBatchExecutor(OplogOperationApplier oplogOperationApplier,
@@ -59,8 +85,11 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     super(concurrentMetrics, oplogOperationApplier, server, retrier, namespaceJobExecutor);
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
         lf.apply(this.getClass()), "concurrent-oplog-batch-executor", true);
+    this.pipelineExecutor = concurrentToolsFactory.createExecutorService(
+        "pipelined-oplog-batch-executor", true);
     this.concurrentMetrics = concurrentMetrics;
     this.subBatchHeuristic = subBatchHeuristic;
+    this.retrier = retrier;
   }
 
   @Override
@@ -75,6 +104,9 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
   protected void doStop() {
     streamExecutor.stopAsync();
     streamExecutor.awaitTerminated();
+    if (pipelineExecutor != null) {
+      pipelineExecutor.shutdown();
+    }
 
     super.doStop();
   }
@@ -104,6 +136,121 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     }
   }
 
+  /**
+   * Applies the given batch without waiting for the previous ones.
+   *
+   * <p>Namespace jobs of a {@link CudAnalyzedOplogBatch} only wait for the jobs of previous batches
+   * on the same namespace, so a slow collection does not stall the others. Commands are barriers:
+   * they wait for all previous batches and all later batches wait for them.
+   */
+  @Override
+  public CompletableFuture<OplogOperation> applyAsync(AnalyzedOplogBatch batch,
+      ApplierContext replContext) {
+    assert isRunning() : "The service is on state " + state() + " instead of RUNNING";
+    if (batch instanceof CudAnalyzedOplogBatch) {
+      return applyAsync((CudAnalyzedOplogBatch) batch, replContext);
+    }
+    synchronized (pipelineLock) {
+      CompletableFuture<OplogOperation> result = allPending()
+          .thenApplyAsync(ignored -> {
+            try {
+              return apply(batch, replContext);
+            } catch (RetrierGiveUpException ex) {
+              throw new CompletionException(ex);
+            }
+          }, pipelineExecutor);
+      namespaceTails.clear();
+      barrier = result;
+      return result;
+    }
+  }
+
+  private CompletableFuture<OplogOperation> applyAsync(CudAnalyzedOplogBatch cudBatch,
+      ApplierContext context) {
+    concurrentMetrics.getCudBatchSize().update(cudBatch.getOriginalBatch().size());
+    Timer.Context timerContext = concurrentMetrics.getCudBatchTimer().time();
+
+    Map<String, List<NamespaceJob>> jobsByNamespace = cudBatch.streamNamespaceJobs()
+        .flatMap(this::split)
+        .collect(Collectors.groupingBy(
+            job -> job.getDatabase() + '.' + job.getCollection()));
+    int subBatches = jobsByNamespace.values().stream().mapToInt(List::size).sum();
+    concurrentMetrics.getSubBatchSizeMeter().mark(subBatches);
+    concurrentMetrics.getSubBatchSizeHistogram().update(subBatches);
+
+    List<CompletableFuture<?>> batchFutures = new ArrayList<>(jobsByNamespace.size());
+    synchronized (pipelineLock) {
+      namespaceTails.values().removeIf(future -> future.isDone()
+          && !future.isCompletedExceptionally());
+      for (Map.Entry<String, List<NamespaceJob>> entry : jobsByNamespace.entrySet()) {
+        CompletableFuture<?> previous = namespaceTails.getOrDefault(entry.getKey(), barrier);
+        CompletableFuture<?>[] jobFutures = entry.getValue().stream()
+            .map(job -> previous.thenRunAsync(() -> executeWithRetries(job, context),
+                pipelineExecutor))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> namespaceFuture = CompletableFuture.allOf(jobFutures);
+        namespaceTails.put(entry.getKey(), namespaceFuture);
+        batchFutures.add(namespaceFuture);
+      }
+      if (batchFutures.isEmpty()) {
+        batchFutures.add(barrier);
+      }
+    }
+
+    List<OplogOperation> originalBatch = cudBatch.getOriginalBatch();
+    OplogOperation lastOp = originalBatch.get(originalBatch.size() - 1);
+    return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0]))
+        .whenComplete((ignored, t) -> timerContext.stop())
+        .thenApply(ignored -> lastOp);
+  }
+
+  @Override
+  public CompletableFuture<Empty> whenIdle() {
+    CompletableFuture<?> pending;
+    synchronized (pipelineLock) {
+      pending = allPending();
+    }
+    return pending.handle((ignored, t) -> Empty.getInstance());
+  }
+
+  @GuardedBy("pipelineLock")
+  private CompletableFuture<?> allPending() {
+    List<CompletableFuture<?>> pending = new ArrayList<>(namespaceTails.size() + 1);
+    pending.add(barrier);
+    pending.addAll(namespaceTails.values());
+    return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+  }
+
+  /**
+   * Executes the given job and, if it is rolled back, reapplies it as
+   * {@link #visit(CudAnalyzedOplogBatch, ApplierContext)} does with whole batches.
+   */
+  private void executeWithRetries(NamespaceJob job, ApplierContext context) {
+    try {
+      try {
+        execute(job, context);
+      } catch (UserException | NamespaceJobExecutionException ex) {
+        throw new RetrierGiveUpException("Unexpected exception while replying", ex);
+      } catch (RollbackException ex) {
+        ApplierContext retryingReplingContext = new ApplierContext.Builder()
+            .setReapplying(true)
+            .setUpdatesAsUpserts(true)
+            .build();
+        retrier.retry(() -> {
+          try {
+            execute(job, retryingReplingContext);
+            return Empty.getInstance();
+          } catch (UserException | NamespaceJobExecutionException ex2) {
+            throw new RetrierAbortException("Unexpected user exception while applying "
+                + "the job " + job, ex2);
+          }
+        }, Hint.CRITICAL, Hint.TIME_SENSIBLE);
+      }
+    } catch (RetrierGiveUpException ex) {
+      throw new CompletionException(ex);
+    }
+  }
+
   private Callable<Empty> toCallable(NamespaceJob namespaceJob, ApplierContext context) {
     return () -> {
       execute(namespaceJob, context);
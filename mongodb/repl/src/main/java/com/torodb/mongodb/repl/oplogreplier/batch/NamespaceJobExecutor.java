@@ -35,8 +35,12 @@ import com.torodb.mongodb.utils.DefaultIdUtils;
 import com.torodb.mongowp.Status;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -60,14 +64,18 @@ public class NamespaceJobExecutor {
       UniqueIndexViolationException {
 
     int attempts = 1;
-    while (attempts <= MAX_ATTEMPTS) {
-      attempts++;
+    while (true) {
       try (WriteMongodTransaction trans = server.openWriteTransaction()) {
         apply(job, trans, optimisticDeleteAndCreate);
         trans.commit();
-        break;
-      } catch (RollbackException ignore) {
-        //just retry in case the transaction rolled because it was needed to change the schema
+        return;
+      } catch (RollbackException ex) {
+        //retry in case the transaction rolled because it was needed to change the schema, but
+        //let the caller retry the job if it keeps rolling back, as it has not been applied
+        if (attempts >= MAX_ATTEMPTS) {
+          throw ex;
+        }
+        attempts++;
       } catch (TimeoutException ex) {
         throw new RollbackException(ex);
       }
@@ -87,8 +95,9 @@ public class NamespaceJobExecutor {
     }
     if (errors.isEmpty()) {
       Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, trans, fetchDids);
-      deleteDocs(job, trans, fetchDids);
-      insertDocs(job, trans, fetchDocs);
+      Set<AnalyzedOp> updatedInPlace = updateInPlace(job, trans, fetchDocs);
+      deleteDocs(job, trans, fetchDids, updatedInPlace);
+      insertDocs(job, trans, fetchDocs, updatedInPlace);
     }
   }
 
@@ -163,14 +172,48 @@ public class NamespaceJobExecutor {
         );
   }
 
+  /**
+   * Tries to apply the ops that modify a fetched document by updating the stored rows in place.
+   *
+   * @return the ops that have been applied in place, which must not be deleted and inserted again
+   */
+  private Set<AnalyzedOp> updateInPlace(NamespaceJob job, WriteMongodTransaction transaction,
+      Map<AnalyzedOp, ToroDocument> fetchDocs) throws UserException {
+    if (fetchDocs.isEmpty()) {
+      return Collections.emptySet();
+    }
+    List<AnalyzedOp> ops = new ArrayList<>();
+    List<ToroDocument> candidates = new ArrayList<>();
+    List<KvDocument> updatedDocs = new ArrayList<>();
+    for (AnalyzedOp op : job.getJobs()) {
+      ToroDocument fetched = fetchDocs.get(op);
+      if (fetched == null || !op.deletes()) {
+        continue;
+      }
+      KvDocument updated = op.calculateDocToInsert(o -> fetched.getRoot());
+      if (updated == null) {
+        continue;
+      }
+      ops.add(op);
+      candidates.add(fetched);
+      updatedDocs.add(updated);
+    }
+    if (ops.isEmpty() || !transaction.getDocTransaction().updateInPlace(job.getDatabase(),
+        job.getCollection(), candidates, updatedDocs)) {
+      return Collections.emptySet();
+    }
+    return new HashSet<>(ops);
+  }
+
   private void deleteDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, Integer> fetchDids) {
+      Map<AnalyzedOp, Integer> fetchDids, Set<AnalyzedOp> updatedInPlace) {
     if (fetchDids.isEmpty()) {
       return;
     }
 
     Stream<Integer> didsToDelete = job.getJobs().stream()
         .filter(AnalyzedOp::deletes)
+        .filter(op -> !updatedInPlace.contains(op))
         .map(op -> fetchDids.get(op))
         .filter(did -> did != null);
 
@@ -179,7 +222,8 @@ public class NamespaceJobExecutor {
   }
 
   private void insertDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, ToroDocument> fetchDocs) throws UserException {
+      Map<AnalyzedOp, ToroDocument> fetchDocs, Set<AnalyzedOp> updatedInPlace)
+      throws UserException {
     Function<AnalyzedOp, KvDocument> getFetchDocFun = op -> {
       ToroDocument fetchToroDoc = fetchDocs.get(op);
       if (fetchToroDoc == null) {
@@ -189,6 +233,7 @@ public class NamespaceJobExecutor {
       }
     };
     Stream<KvDocument> docsToInsert = job.getJobs().stream()
+        .filter(op -> !updatedInPlace.contains(op))
         .map(op -> op.calculateDocToInsert(getFetchDocFun))
         .filter(doc -> doc != null);
 
@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.net.HostAndPort;
 import com.google.inject.assistedinject.Assisted;
 import com.mongodb.MongoServerException;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.retrier.Retrier;
 import com.torodb.core.retrier.Retrier.Hint;
@@ -32,6 +33,8 @@ import com.torodb.mongodb.repl.OplogReader;
 import com.torodb.mongodb.repl.OplogReaderProvider;
 import com.torodb.mongodb.repl.ReplMetrics;
 import com.torodb.mongodb.repl.SyncSourceProvider;
+import com.torodb.mongodb.repl.guice.OplogFetchBatchSize;
+import com.torodb.mongodb.repl.guice.OplogFetchMaxAwaitTime;
 import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.NormalOplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.NotReadyForMoreOplogBatch;
@@ -50,12 +53,25 @@ import com.torodb.mongowp.exceptions.OplogStartMissingException;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.inject.Inject;
 
+/**
+ * An {@link OplogFetcher} that tails the remote oplog using a tailable, await data cursor.
+ *
+ * <p>Instead of polling the sync source, each call to {@link #fetch()} waits up to
+ * {@link OplogFetchMaxAwaitTime} milliseconds for the next batch. Once a batch is returned, the
+ * following one is requested on a background thread, so the network round trip overlaps with the
+ * application of the returned batch.
+ */
 @NotThreadSafe
 public class ContinuousOplogFetcher implements OplogFetcher {
 
@@ -66,18 +82,28 @@ public class ContinuousOplogFetcher implements OplogFetcher {
   private final Retrier retrier;
   private final FetcherState state;
   private final ReplMetrics metrics;
+  private final int batchSize;
+  private final long maxAwaitTimeMillis;
+  private final ExecutorService prefetchExecutor;
 
   @Inject
   public ContinuousOplogFetcher(OplogReaderProvider readerProvider,
       SyncSourceProvider syncSourceProvider,
       Retrier retrier, @Assisted long lastFetchedHash, @Assisted OpTime lastFetchedOptime,
-      ReplMetrics metrics, LoggerFactory lf) {
+      ReplMetrics metrics, LoggerFactory lf, ConcurrentToolsFactory concurrentToolsFactory,
+      @OplogFetchBatchSize int batchSize, @OplogFetchMaxAwaitTime long maxAwaitTimeMillis) {
+    Preconditions.checkArgument(batchSize > 0, "The batch size must be positive");
+    Preconditions.checkArgument(maxAwaitTimeMillis >= 0, "The max await time cannot be negative");
     this.logger = lf.apply(this.getClass());
     this.readerProvider = readerProvider;
     this.syncSourceProvider = syncSourceProvider;
     this.retrier = retrier;
     this.state = new FetcherState(lastFetchedHash, lastFetchedOptime);
     this.metrics = metrics;
+    this.batchSize = batchSize;
+    this.maxAwaitTimeMillis = maxAwaitTimeMillis;
+    this.prefetchExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "oplog-prefetcher", 1);
   }
 
   public static interface ContinuousOplogFetcherFactory {
@@ -101,14 +127,10 @@ public class ContinuousOplogFetcher implements OplogFetcher {
           state.prepareToFetch();
 
           MongoCursor<OplogOperation> cursor = state.getLastUsedMongoCursor();
-          Batch<OplogOperation> batch = cursor.tryFetchBatch();
+          Batch<OplogOperation> batch = state.awaitBatch(cursor);
 
           if (batch == null || !batch.hasNext()) {
-            Thread.sleep(1000);
-            batch = cursor.tryFetchBatch();
-            if (batch == null || !batch.hasNext()) {
-              return NotReadyForMoreOplogBatch.getInstance();
-            }
+            return NotReadyForMoreOplogBatch.getInstance();
           }
           List<OplogOperation> fetchedOps = null;
           long fetchTime = 0;
@@ -138,6 +160,7 @@ public class ContinuousOplogFetcher implements OplogFetcher {
               assert fetchedOps != null;
               assert fetchTime != 0;
               state.updateState(fetchedOps, fetchTime);
+              state.prefetch(cursor);
             }
           }
         } catch (RestartFetchException ex) {
@@ -181,6 +204,7 @@ public class ContinuousOplogFetcher implements OplogFetcher {
   @Override
   public void close() {
     state.close();
+    prefetchExecutor.shutdownNow();
   }
 
   /**
@@ -239,6 +263,13 @@ public class ContinuousOplogFetcher implements OplogFetcher {
     private OpTime lastFetchedOpTime;
     private OplogReader oplogReader;
     private MongoCursor<OplogOperation> cursor;
+    /**
+     * The batch that is being fetched on background from {@link #pendingCursor}.
+     */
+    @Nullable
+    private Future<Batch<OplogOperation>> pendingBatch;
+    @Nullable
+    private MongoCursor<OplogOperation> pendingCursor;
 
     private FetcherState(long lastFetchedHash, OpTime lastFetchedOpTime) {
       this.lastFetchedHash = lastFetchedHash;
@@ -316,7 +347,9 @@ public class ContinuousOplogFetcher implements OplogFetcher {
       //to the reader that can be read from outside
       if (cursor == null || cursor.isClosed()) {
         try {
+          discardPrefetch();
           cursor = getLastUsedOplogReader().queryGte(lastFetchedOpTime);
+          cursor.setMaxBatchSize(batchSize);
 
           OplogOperation firstCursorOp;
           if (cursor.hasNext()) {
@@ -337,8 +370,70 @@ public class ContinuousOplogFetcher implements OplogFetcher {
       return closed;
     }
 
+    /**
+     * Starts fetching the next batch of the given cursor on background.
+     *
+     * <p>The cursor must not be used by the caller until the batch is consumed with
+     * {@link #awaitBatch(MongoCursor)} or discarded with {@link #discardPrefetch()}.
+     */
+    private void prefetch(MongoCursor<OplogOperation> cursor) {
+      Preconditions.checkState(pendingBatch == null, "There is another batch being prefetched");
+      pendingCursor = cursor;
+      pendingBatch = prefetchExecutor.submit(() -> cursor.fetchBatch());
+    }
+
+    /**
+     * Waits up to {@link #maxAwaitTimeMillis} for the next batch of the given cursor.
+     *
+     * @return the next batch or null if it was not received on time. In the last case the batch is
+     *         still fetched on background and it will be returned by the next call.
+     */
+    @Nullable
+    private Batch<OplogOperation> awaitBatch(MongoCursor<OplogOperation> cursor)
+        throws MongoException, DeadCursorException, RollbackException, InterruptedException {
+      if (pendingBatch == null || pendingCursor != cursor) {
+        discardPrefetch();
+        prefetch(cursor);
+      }
+      assert pendingBatch != null;
+      try {
+        Batch<OplogOperation> batch = pendingBatch.get(maxAwaitTimeMillis, TimeUnit.MILLISECONDS);
+        pendingBatch = null;
+        pendingCursor = null;
+        return batch;
+      } catch (TimeoutException ex) {
+        return null;
+      } catch (ExecutionException ex) {
+        pendingBatch = null;
+        pendingCursor = null;
+        Throwable cause = ex.getCause();
+        if (cause instanceof MongoException) {
+          throw (MongoException) cause;
+        }
+        if (cause instanceof DeadCursorException) {
+          throw (DeadCursorException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RollbackException(cause);
+      }
+    }
+
+    private void discardPrefetch() {
+      if (pendingBatch != null) {
+        pendingBatch.cancel(true);
+        pendingBatch = null;
+        pendingCursor = null;
+      }
+    }
+
     @Override
     public void close() {
+      discardPrefetch();
       if (cursor != null) {
         cursor.close();
       }
@@ -346,6 +441,7 @@ public class ContinuousOplogFetcher implements OplogFetcher {
     }
 
     private void discardReader() {
+      discardPrefetch();
       if (cursor != null) {
         cursor.close();
         cursor = null;
@@ -368,6 +464,8 @@ public class ContinuousOplogFetcher implements OplogFetcher {
       lastFetchedOpTime = lastOp.getOpTime();
 
       metrics.getLastOpTimeFetched().setValue(state.lastFetchedOpTime.toString());
+      metrics.getReplicationLag().update(Math.max(0,
+          System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(lastFetchedOpTime.getSecs())));
     }
 
   }
@@ -18,10 +18,14 @@
 
 package com.torodb.mongodb.repl.sharding.isolation;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.DocTransaction;
@@ -31,6 +35,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public abstract class TransDecorator<D extends DocTransaction>
@@ -76,6 +81,17 @@ public abstract class TransDecorator<D extends DocTransaction>
     return decorated.countAll(dbName, colName);
   }
 
+  @Override
+  public long countByFilter(String dbName, String colName, QueryFilter filter) {
+    return decorated.countByFilter(dbName, colName, filter);
+  }
+
+  @Override
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    return decorated.findDistinct(dbName, colName, attRef, filter);
+  }
+
   @Override
   public long getCollectionSize(String dbName, String colName) {
     return decorated.getCollectionSize(dbName, colName);
@@ -97,6 +113,12 @@ public abstract class TransDecorator<D extends DocTransaction>
     return decorated.findByAttRef(dbName, colName, attRef, value);
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit) {
+    return decorated.findByFilter(dbName, colName, filter, projection, sort, skip, limit);
+  }
+
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
@@ -137,6 +159,11 @@ public abstract class TransDecorator<D extends DocTransaction>
     return decorated.getIndexInfo(dbName, colName, idxName);
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return decorated.readMetaInfo(key);
+  }
+
   @Override
   public void close() {
     decorated.close();
@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.repl.sharding.isolation;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -65,12 +66,23 @@ public abstract class WriteTransDecorator extends TransDecorator<WriteDocTransac
     return getDecorated().deleteAll(dbName, colName);
   }
 
+  @Override
+  public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+      List<KvDocument> updatedDocs) throws RollbackException, UserException {
+    return getDecorated().updateInPlace(dbName, colName, candidates, updatedDocs);
+  }
+
   @Override
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
     return getDecorated().deleteByAttRef(dbName, colName, attRef, value);
   }
 
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return getDecorated().writeMetaInfo(key, newValue);
+  }
+
   @Override
   public void commit() throws RollbackException, UserException {
     getDecorated().commit();
@@ -49,6 +49,10 @@ class Converter {
     return indexName + "_" + shardId;
   }
 
+  final String convertMetaInfoKeyName(String keyName) {
+    return keyName + "_" + shardId;
+  }
+
   final boolean isVisibleDatabase(String dbName) {
     return dbName.endsWith("_" + dbName);
   }
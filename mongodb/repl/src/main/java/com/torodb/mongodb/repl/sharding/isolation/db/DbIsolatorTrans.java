@@ -18,10 +18,14 @@
 
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.repl.sharding.isolation.TransDecorator;
 import com.torodb.torod.CollectionInfo;
@@ -32,6 +36,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -89,6 +94,13 @@ public class DbIsolatorTrans<D extends DocTransaction> extends TransDecorator<D>
     return super.findByAttRefIn(converter.convertDatabaseName(dbName), colName, attRef, values);
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit) {
+    return super.findByFilter(converter.convertDatabaseName(dbName), colName, filter,
+        projection, sort, skip, limit);
+  }
+
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
@@ -115,6 +127,23 @@ public class DbIsolatorTrans<D extends DocTransaction> extends TransDecorator<D>
     return super.countAll(converter.convertDatabaseName(dbName), colName);
   }
 
+  @Override
+  public long countByFilter(String dbName, String colName, QueryFilter filter) {
+    return super.countByFilter(converter.convertDatabaseName(dbName), colName, filter);
+  }
+
+  @Override
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    return super.findDistinct(converter.convertDatabaseName(dbName), colName, attRef, filter);
+  }
+
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    String convertedKeyName = converter.convertMetaInfoKeyName(key.getKeyName());
+    return super.readMetaInfo(() -> convertedKeyName);
+  }
+
   @Override
   public long getDatabaseSize(String dbName) {
     return super.getDatabaseSize(converter.convertDatabaseName(dbName));
@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -77,6 +78,13 @@ public class DbIsolatorWriteTrans extends DbIsolatorTrans<WriteDocTransaction>
     return getDecorated().deleteAll(getConverter().convertDatabaseName(dbName), colName);
   }
 
+  @Override
+  public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+      List<KvDocument> updatedDocs) throws RollbackException, UserException {
+    return getDecorated().updateInPlace(getConverter().convertDatabaseName(dbName), colName,
+        candidates, updatedDocs);
+  }
+
   @Override
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
@@ -84,6 +92,12 @@ public class DbIsolatorWriteTrans extends DbIsolatorTrans<WriteDocTransaction>
         attRef, value);
   }
 
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    String convertedKeyName = getConverter().convertMetaInfoKeyName(key.getKeyName());
+    return getDecorated().writeMetaInfo(() -> convertedKeyName, newValue);
+  }
+
   @Override
   public void commit() throws RollbackException, UserException {
     getDecorated().commit();
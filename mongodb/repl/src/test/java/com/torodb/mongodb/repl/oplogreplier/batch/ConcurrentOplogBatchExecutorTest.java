@@ -19,10 +19,13 @@
 package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.*;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Lists;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.concurrent.StreamExecutor;
@@ -36,7 +39,9 @@ import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.DebuggingAnalyzedOp;
 import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.ConcurrentOplogBatchExecutorMetrics;
 import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor.SubBatchHeuristic;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
 import org.apache.logging.log4j.Logger;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -45,9 +50,14 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -69,8 +79,14 @@ public class ConcurrentOplogBatchExecutorTest {
   @Mock
   private NamespaceJobExecutor namespaceJobExecutor;
   private ConcurrentOplogBatchExecutor executor;
+  private ExecutorService pipelineExecutor;
   private int idFactory;
 
+  @After
+  public void tearDown() {
+    pipelineExecutor.shutdownNow();
+  }
+
   @Before
   public void setUp() {
     idFactory = 0;
@@ -82,6 +98,11 @@ public class ConcurrentOplogBatchExecutorTest {
         any(String.class),
         any(Boolean.class))
     ).thenReturn(streamExecutor);
+    pipelineExecutor = Executors.newFixedThreadPool(4);
+    when(concurrentToolsFactory.createExecutorService(
+        any(String.class),
+        any(Boolean.class))
+    ).thenReturn(pipelineExecutor);
 
     doNothing().when(streamExecutor).awaitRunning();
 
@@ -153,6 +174,68 @@ public class ConcurrentOplogBatchExecutorTest {
     assertEquals(expectedSize, callablesCounter.get());
   }
 
+  @Test
+  public void testApplyAsyncRunsNamespacesAhead() throws Exception {
+    //GIVEN
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+    given(subBatchHeuristic.getSubBatchSize(any())).willReturn(10);
+    given(metrics.getSubBatchSizeHistogram()).willReturn(mock(Histogram.class));
+    given(metrics.getSubBatchSizeMeter()).willReturn(mock(Meter.class));
+    given(metrics.getCudBatchSize()).willReturn(mock(Histogram.class));
+    given(metrics.getCudBatchTimer()).willReturn(new Timer());
+    given(metrics.getNamespaceBatchTimer()).willReturn(new Timer());
+
+    CudAnalyzedOplogBatch firstBatch = createCudBatch(createNamespaceJob("slow"));
+    CudAnalyzedOplogBatch secondBatch = createCudBatch(createNamespaceJob("fast"),
+        createNamespaceJob("slow"));
+
+    CountDownLatch slowLatch = new CountDownLatch(1);
+    CountDownLatch fastLatch = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    willAnswer(invocation -> {
+      NamespaceJob job = invocation.getArgument(0);
+      if (job.getCollection().equals("slow") && !executed.contains("slow")) {
+        slowLatch.await();
+      }
+      executed.add(job.getCollection());
+      if (job.getCollection().equals("fast")) {
+        fastLatch.countDown();
+      }
+      return null;
+    }).given(namespaceJobExecutor).apply(any(), any(), anyBoolean());
+
+    //WHEN
+    CompletableFuture<OplogOperation> firstFuture = executor.applyAsync(firstBatch, context);
+    CompletableFuture<OplogOperation> secondFuture = executor.applyAsync(secondBatch, context);
+
+    //THEN
+    assertTrue("The fast namespace of the second batch should not wait for the first batch",
+        fastLatch.await(10, TimeUnit.SECONDS));
+    assertFalse(firstFuture.isDone());
+    assertFalse(secondFuture.isDone());
+
+    slowLatch.countDown();
+    firstFuture.get(10, TimeUnit.SECONDS);
+    secondFuture.get(10, TimeUnit.SECONDS);
+    executor.whenIdle().get(10, TimeUnit.SECONDS);
+
+    assertEquals(Lists.newArrayList("fast", "slow", "slow"), executed);
+  }
+
+  private NamespaceJob createNamespaceJob(String collection) {
+    return new NamespaceJob("db", collection, Lists.newArrayList(createAnalyzedOp(null)));
+  }
+
+  private CudAnalyzedOplogBatch createCudBatch(NamespaceJob... jobs) {
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    given(batch.streamNamespaceJobs()).willAnswer(invocation -> Stream.of(jobs));
+    given(batch.getOriginalBatch()).willReturn(Lists.newArrayList(mock(OplogOperation.class)));
+    return batch;
+  }
+
   private AnalyzedOp createAnalyzedOp(AnalyzedOp ignored) {
     int id = idFactory++;
     return new DebuggingAnalyzedOp(KvInteger.of(id));
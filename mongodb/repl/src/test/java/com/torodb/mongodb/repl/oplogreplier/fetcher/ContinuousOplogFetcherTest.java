@@ -19,8 +19,13 @@
 package com.torodb.mongodb.repl.oplogreplier.fetcher;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.net.HostAndPort;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.logging.DefaultLoggerFactory;
 import com.torodb.core.metrics.DisabledMetricRegistry;
 import com.torodb.core.retrier.Retrier;
@@ -53,6 +58,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -75,11 +81,13 @@ public class ContinuousOplogFetcherTest {
       (a, m) -> (1 + m) * a
   );
   private ReplMetrics metrics = new ReplMetrics(new DisabledMetricRegistry());
+  private ConcurrentToolsFactory concurrentToolsFactory;
   private final ContinuousOplogFetcherFactory factory = new ContinuousOplogFetcherFactory() {
     @Override
     public ContinuousOplogFetcher createFetcher(long lastFetchedHash, OpTime lastFetchedOptime) {
       return new ContinuousOplogFetcher(oplogReaderProvider, syncSourceProvider, retrier,
-          lastFetchedHash, lastFetchedOptime, metrics, DefaultLoggerFactory.getInstance());
+          lastFetchedHash, lastFetchedOptime, metrics, DefaultLoggerFactory.getInstance(),
+          concurrentToolsFactory, 1000, 100);
     }
   };
   private static final OpTimeFactory opTimeFactory = new OpTimeFactory();
@@ -88,6 +96,9 @@ public class ContinuousOplogFetcherTest {
   public void setUp() {
     MockitoAnnotations.initMocks(this);
     oplogSupplier = null;
+    concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    when(concurrentToolsFactory.createExecutorServiceWithMaxThreads(any(String.class), anyInt()))
+        .thenAnswer(invocation -> Executors.newSingleThreadExecutor());
   }
 
   @Test(expected = StopReplicationException.class)
@@ -21,16 +21,23 @@ package com.torodb.mongodb.wp;
 import com.google.common.util.concurrent.Service;
 import com.google.inject.Injector;
 import com.torodb.core.bundle.AbstractBundle;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.wp.guice.MongoDbWpModule;
 import com.torodb.mongowp.server.wp.NettyMongoServer;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class MongoDbWpBundle extends AbstractBundle<MongoDbWpExtInt> {
   private final MongoDbCoreBundle coreBundle;
   private final NettyMongoServer nettyMongoServer;
+  private final CursorRegistry cursorRegistry;
+  private final ConcurrentToolsFactory concurrentToolsFactory;
+  private ScheduledFuture<?> cursorCleaner;
 
   public MongoDbWpBundle(MongoDbWpConfig config) {
     super(config);
@@ -41,6 +48,8 @@ public class MongoDbWpBundle extends AbstractBundle<MongoDbWpExtInt> {
             config.getPort()
         ));
     this.nettyMongoServer = injector.getInstance(NettyMongoServer.class);
+    this.cursorRegistry = injector.getInstance(CursorRegistry.class);
+    this.concurrentToolsFactory = injector.getInstance(ConcurrentToolsFactory.class);
     this.coreBundle = config.getCoreBundle();
   }
 
@@ -48,12 +57,21 @@ public class MongoDbWpBundle extends AbstractBundle<MongoDbWpExtInt> {
   protected void postDependenciesStartUp() throws Exception {
     nettyMongoServer.startAsync();
     nettyMongoServer.awaitRunning();
+
+    cursorCleaner = concurrentToolsFactory
+        .createScheduledExecutorServiceWithMaxThreads("cursor-registry-cleaner", 1)
+        .scheduleWithFixedDelay(cursorRegistry::cleanUp, 1, 1, TimeUnit.MINUTES);
   }
 
   @Override
   protected void preDependenciesShutDown() throws Exception {
     nettyMongoServer.stopAsync();
     nettyMongoServer.awaitTerminated();
+
+    if (cursorCleaner != null) {
+      cursorCleaner.cancel(false);
+    }
+    cursorRegistry.closeAll();
   }
 
   @Override
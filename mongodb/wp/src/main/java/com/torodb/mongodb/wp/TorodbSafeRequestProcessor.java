@@ -28,6 +28,8 @@ import com.torodb.mongodb.commands.RequiredTransaction;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
+import com.torodb.mongodb.core.CursorRegistry;
+import com.torodb.mongodb.core.CursorRegistry.CursorBatch;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.MongodSchemaExecutor;
 import com.torodb.mongodb.core.MongodServer;
@@ -35,6 +37,8 @@ import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
 import com.torodb.mongowp.bson.utils.DefaultBsonValues;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.CommandLibrary;
@@ -53,6 +57,8 @@ import com.torodb.mongowp.messages.utils.IterableDocumentProvider;
 import io.netty.util.AttributeKey;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -62,6 +68,8 @@ import javax.inject.Inject;
 @ThreadSafe
 public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongoDbWpConnection> {
 
+  private static final String WRAPPED_QUERY_KEY = "$query";
+  private static final String ORDER_BY_KEY = "$orderby";
   private final Logger logger;
   private final MongodServer server;
   public static final AttributeKey<MongoDbWpConnection> MONGOD_CONNECTION_KEY = AttributeKey
@@ -70,17 +78,19 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongoDbW
   private final CommandLibrary commandLibrary;
   private final CommandClassifier commandClassifier;
   private final MongodMetrics mongodMetrics;
+  private final CursorRegistry cursorRegistry;
   private final AtomicInteger conIdGenerator = new AtomicInteger();
 
   @Inject
   public TorodbSafeRequestProcessor(LoggerFactory loggerFactory,MongodServer server,
       Retrier retrier, CommandLibrary commandLibrary, CommandClassifier commandClassifier,
-      MongodMetrics mongodMetrics) {
+      MongodMetrics mongodMetrics, CursorRegistry cursorRegistry) {
     this.server = server;
     this.retrier = retrier;
     this.commandLibrary = commandLibrary;
     this.commandClassifier = commandClassifier;
     this.mongodMetrics = mongodMetrics;
+    this.cursorRegistry = cursorRegistry;
     this.logger = loggerFactory.apply(this.getClass());
   }
 
@@ -157,21 +167,47 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongoDbW
       QueryRequest queryRequest) throws
       MongoException {
 
-    FindArgument findArg = new FindArgument.Builder()
+    BsonDocument query = queryRequest.getQuery() != null ? queryRequest.getQuery() :
+        DefaultBsonValues.EMPTY_DOC;
+    BsonDocument sort = DefaultBsonValues.EMPTY_DOC;
+    BsonValue<?> wrappedQuery = query.get(WRAPPED_QUERY_KEY);
+    if (wrappedQuery != null && wrappedQuery.isDocument()) {
+      // legacy drivers wrap the filter when the query has modifiers like the sort
+      BsonValue<?> orderBy = query.get(ORDER_BY_KEY);
+      if (orderBy != null && orderBy.isDocument()) {
+        sort = orderBy.asDocument();
+      }
+      query = wrappedQuery.asDocument();
+    }
+
+    FindArgument.Builder findArgBuilder = new FindArgument.Builder()
         .setCollection(queryRequest.getCollection())
-        .setFilter(queryRequest.getQuery() != null ? queryRequest.getQuery() :
+        .setFilter(query)
+        .setProj(queryRequest.getProjection() != null ? queryRequest.getProjection() :
             DefaultBsonValues.EMPTY_DOC)
-        .build();
+        .setSort(sort)
+        .setSkip(Math.max(queryRequest.getNumberToSkip(), 0));
+    int numberToReturn = queryRequest.getLimit();
+    if (numberToReturn != 0) {
+      findArgBuilder.setBatchSize(Math.abs(numberToReturn));
+      // as on MongoDB, a numberToReturn of 1 or a negative one closes the cursor
+      findArgBuilder.setWantMore(numberToReturn > 1);
+      if (numberToReturn <= 1) {
+        // so no more documents than the ones that are returned need to be read
+        findArgBuilder.setLimit(Math.abs(numberToReturn));
+      }
+    }
+    FindArgument findArg = findArgBuilder.build();
 
     Status<FindResult> status = execute(req, FindCommand.INSTANCE, findArg, connection);
 
     if (!status.isOk()) {
       throw new MongoException(status.getErrorCode(), status.getErrorMsg());
     }
-
     FindResult result = status.getResult();
     assert result != null;
 
+    // the find keeps its cursor open on the registry if it does not fit on the first batch
     return new ReplyMessage(
         EmptyBsonContext.getInstance(),
         requestId,
@@ -180,7 +216,7 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongoDbW
         false,
         false,
         result.getCursor().getCursorId(),
-        queryRequest.getNumberToSkip(),
+        0,
         IterableDocumentProvider.of(Lists.newArrayList(result.getCursor().getFirstBatch()))
     );
   }
@@ -189,14 +225,41 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongoDbW
   public ReplyMessage getMore(MongoDbWpConnection connection, Request req, int requestId,
       GetMoreMessage moreMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    Optional<CursorBatch> batch = cursorRegistry.getMore(moreMessage.getCursorId(),
+        moreMessage.getNumberToReturn());
+    if (!batch.isPresent()) {
+      return new ReplyMessage(
+          EmptyBsonContext.getInstance(),
+          requestId,
+          true,
+          false,
+          false,
+          false,
+          0,
+          0,
+          IterableDocumentProvider.of(Collections.<BsonDocument>emptyList())
+      );
+    }
+    return new ReplyMessage(
+        EmptyBsonContext.getInstance(),
+        requestId,
+        false,
+        false,
+        false,
+        false,
+        batch.get().getCursorId(),
+        batch.get().getStartingFrom(),
+        IterableDocumentProvider.of(batch.get().getDocuments())
+    );
   }
 
   @Override
   public void killCursors(MongoDbWpConnection connection, Request req,
       KillCursorsMessage killCursorsMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    for (long cursorId : killCursorsMessage.getCursorIds()) {
+      cursorRegistry.kill(cursorId);
+    }
   }
 
   @Override
@@ -25,6 +25,7 @@ import com.torodb.core.guice.EssentialToDefaultModule;
 import com.torodb.core.logging.ComponentLoggerFactory;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.mongodb.commands.CommandClassifier;
+import com.torodb.mongodb.core.CursorRegistry;
 import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.core.MongoDbCoreExtInt;
 import com.torodb.mongodb.core.MongodMetrics;
@@ -79,6 +80,7 @@ public class MongoDbWpModule extends PrivateModule {
   protected void configure() {
     expose(NettyMongoServer.class);
     expose(MongoServerConfig.class);
+    expose(CursorRegistry.class);
 
     install(new WpToDefaultModule());
 
@@ -183,6 +185,8 @@ public class MongoDbWpModule extends PrivateModule {
         .toInstance(coreExtInt.getCommandClassifier());
     bind(MongodServer.class)
         .toInstance(coreExtInt.getMongodServer());
+    bind(CursorRegistry.class)
+        .toInstance(coreExtInt.getCursorRegistry());
   }
 
   private static class WpToDefaultModule extends EssentialToDefaultModule {
@@ -33,6 +33,8 @@ public abstract class AbstractPostgres implements BackendImplementation, Backend
   private String applicationName;
   private Boolean includeForeignKeys;
   private Boolean ssl;
+  private Boolean binaryCopy;
+  private Boolean pipelinedInsert;
 
   protected AbstractPostgres(String host, Integer port, String database, String user,
       String password, String toropassFile,
@@ -128,6 +130,22 @@ public abstract class AbstractPostgres implements BackendImplementation, Backend
     this.ssl = ssl;
   }
 
+  public Boolean getBinaryCopy() {
+    return binaryCopy;
+  }
+
+  public void setBinaryCopy(Boolean binaryCopy) {
+    this.binaryCopy = binaryCopy;
+  }
+
+  public Boolean getPipelinedInsert() {
+    return pipelinedInsert;
+  }
+
+  public void setPipelinedInsert(Boolean pipelinedInsert) {
+    this.pipelinedInsert = pipelinedInsert;
+  }
+
   @Override
   public <R, A> R accept(BackendImplementationVisitor<R, A> visitor, A arg) {
     return visitor.visit(this, arg);
@@ -64,6 +64,8 @@ public class BundleFactory {
                 .setReservedReadPoolSize(connPoolConf.getReservedReadPoolSize())
                 .setUsername(value.getUser())
                 .setSslEnabled(value.getSsl())
+                .setBinaryCopyEnabled(Boolean.TRUE.equals(value.getBinaryCopy()))
+                .setPipelinedInsertEnabled(Boolean.TRUE.equals(value.getPipelinedInsert()))
                 .build();
             return new PostgreSqlBackendBundle(config);
           }
@@ -18,18 +18,32 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
+/**
+ * A transaction that reads documents and metadata from a snapshot of the server.
+ *
+ * <p>Any method that uses a namespace can throw a
+ * {@link com.torodb.core.transaction.RollbackException} if the namespace cannot be used by this
+ * transaction, for example because its schema has been modified since the transaction was opened.
+ * Read only operations have to be retried on a new transaction too, so callers are expected to
+ * execute them with a {@link com.torodb.core.retrier.Retrier}.
+ */
 public interface DocTransaction extends AutoCloseable {
 
   public boolean isClosed();
@@ -57,6 +71,24 @@ public interface DocTransaction extends AutoCloseable {
 
   public long countAll(String dbName, String colName);
 
+  /**
+   * Returns the number of documents of the collection that fulfill the given filter.
+   *
+   * <p>The documents are counted by the storage engine, so they are not read.
+   */
+  public long countByFilter(String dbName, String colName, QueryFilter filter);
+
+  /**
+   * Returns the distinct values of the given attribute on the documents of the collection that
+   * fulfill the given filter.
+   *
+   * <p>Arrays are traversed as MongoDB does, so the elements of an array are returned instead of
+   * the array itself. Numbers of different types that have the same value are considered the
+   * same value. The values are returned in ascending order.
+   */
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter);
+
   public long getCollectionSize(String dbName, String colName);
 
   public long getDocumentsSize(String dbName, String colName);
@@ -79,6 +111,42 @@ public interface DocTransaction extends AutoCloseable {
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
       String colName, AttributeReference attRef, Collection<KvValue<?>> values);
 
+  /**
+   * Returns a cursor that iterates over all documents of the collection that fulfill the given
+   * filter.
+   *
+   * <p>The filter is evaluated by the storage engine, so only the documents that fulfill it are
+   * read.
+   */
+  public default TorodCursor findByFilter(String dbName, String colName, QueryFilter filter) {
+    return findByFilter(dbName, colName, filter, Projection.ALL);
+  }
+
+  /**
+   * Like {@link #findByFilter(java.lang.String, java.lang.String,
+   * com.torodb.core.language.QueryFilter) }, but the returned documents only contain the
+   * attributes selected by the given projection.
+   *
+   * <p>The storage engine only reads the parts of the documents that can contain selected
+   * attributes.
+   */
+  public default TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection) {
+    return findByFilter(dbName, colName, filter, projection, Sort.NONE, 0, 0);
+  }
+
+  /**
+   * Like {@link #findByFilter(java.lang.String, java.lang.String,
+   * com.torodb.core.language.QueryFilter, com.torodb.core.language.Projection) }, but the
+   * returned documents are sorted by the given sort, the first {@code skip} ones are discarded
+   * and at most {@code limit} of them are returned if it is greater than 0.
+   *
+   * <p>The storage engine sorts the documents when it can do it, so only the documents that are
+   * returned are read. Documents that are equal on the sort are returned in insertion order.
+   */
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit);
+
   /**
    * Given a namespace and a cursor of dids, consumes the cursor and returns a new cursor that fetch
    * all iterated dids.
@@ -95,6 +163,14 @@ public interface DocTransaction extends AutoCloseable {
   public IndexInfo getIndexInfo(String dbName, String colName, String idxName) throws
       IndexNotFoundException;
 
+  /**
+   * Reads the value stored on the storage engine metainfo with the given key.
+   *
+   * @see WriteDocTransaction#writeMetaInfo(com.torodb.core.backend.MetaInfoKey,
+   *      com.torodb.kvdocument.values.KvValue)
+   */
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key);
+
   @Override
   public void close();
 
@@ -18,16 +18,21 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -75,6 +80,17 @@ public class DocTransactionDecorator<T extends DocTransaction> implements DocTra
     return decorated.countAll(dbName, colName);
   }
 
+  @Override
+  public long countByFilter(String dbName, String colName, QueryFilter filter) {
+    return decorated.countByFilter(dbName, colName, filter);
+  }
+
+  @Override
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    return decorated.findDistinct(dbName, colName, attRef, filter);
+  }
+
   @Override
   public long getCollectionSize(String dbName, String colName) {
     return decorated.getCollectionSize(dbName, colName);
@@ -96,6 +112,12 @@ public class DocTransactionDecorator<T extends DocTransaction> implements DocTra
     return decorated.findByAttRef(dbName, colName, attRef, value);
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit) {
+    return decorated.findByFilter(dbName, colName, filter, projection, sort, skip, limit);
+  }
+
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
@@ -136,6 +158,11 @@ public class DocTransactionDecorator<T extends DocTransaction> implements DocTra
     return decorated.getIndexInfo(dbName, colName, idxName);
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return decorated.readMetaInfo(key);
+  }
+
   @Override
   public void close() {
     decorated.close();
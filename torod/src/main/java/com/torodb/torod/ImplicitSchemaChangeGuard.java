@@ -0,0 +1,58 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The object a {@link ProtectedServer} uses to execute the schema changes it decides to do by
+ * itself, like the ones that are needed to insert documents that do not fit on the current schema.
+ *
+ * <p>These changes are not executed by a {@link SchemaOperationExecutor}, so this guard is the only
+ * way the server that decorates the protected server can exclude them with the transactions that
+ * use the same collection.
+ */
+public interface ImplicitSchemaChangeGuard {
+
+  /**
+   * A guard that executes the changes without any exclusion.
+   */
+  public static final ImplicitSchemaChangeGuard UNGUARDED = new ImplicitSchemaChangeGuard() {
+    @Override
+    public <R> CompletableFuture<R> execute(String dbName, String colName,
+        Supplier<CompletableFuture<R>> change) {
+      return change.get();
+    }
+  };
+
+  /**
+   * Executes a change on the schema of the given collection.
+   *
+   * <p>The change may be executed asynchronously, once the guard decides it is safe to modify the
+   * collection, so callers must not wait for the returned future while they keep a transaction
+   * that uses the collection open.
+   *
+   * @param change a function that starts the change and returns a future that is completed once it
+   *               finishes
+   * @return a future that is completed once the change finishes
+   */
+  public <R> CompletableFuture<R> execute(String dbName, String colName,
+      Supplier<CompletableFuture<R>> change);
+}
@@ -52,5 +52,13 @@ public interface ProtectedServer extends TorodbService {
   public DocTransaction openReadTransaction(long timeout, TimeUnit unit)
       throws TimeoutException;
 
+  /**
+   * Sets the guard this server must use to execute the schema changes it does by itself.
+   *
+   * <p>Servers that never change the schema by themselves can ignore it.
+   */
+  public default void setImplicitSchemaChangeGuard(ImplicitSchemaChangeGuard guard) {
+  }
+
 
 }
\ No newline at end of file
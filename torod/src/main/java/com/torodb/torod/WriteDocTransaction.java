@@ -18,6 +18,7 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.document.ToroDocument;
@@ -82,11 +83,38 @@ public interface WriteDocTransaction extends DocTransaction {
 
   public void delete(String dbName, String colName, Cursor<Integer> cursor);
 
+  /**
+   * Replaces the given documents with their updated versions by only setting the values of their
+   * modified attributes, without deleting and inserting them again.
+   *
+   * <p>This is only possible when all modified attributes are top level scalars on both versions
+   * of the documents and their new values fit on the current schema. Otherwise nothing is modified
+   * and false is returned, so the caller has to replace the documents on the usual way.
+   *
+   * @param dbName      the database that contains the documents
+   * @param colName     the collection that contains the documents
+   * @param candidates  the documents as they are currently stored
+   * @param updatedDocs the updated version of each candidate, on the same order
+   * @return true iff the documents have been updated
+   */
+  public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+      List<KvDocument> updatedDocs) throws RollbackException, UserException;
+
   public long deleteAll(String dbName, String colName);
 
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value);
 
+  /**
+   * Stores the given key value association on the storage engine metainfo.
+   *
+   * <p>The value is stored as part of this transaction, so it is only visible once the transaction
+   * is committed and it is discarded if the transaction is rolled back.
+   *
+   * @return the old value or null if none was stored
+   */
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue);
+
   public void commit() throws RollbackException, UserException;
 
 }
\ No newline at end of file
@@ -95,4 +95,25 @@ interface ConcurrentServerGuard {
   <S extends SchemaOperationExecutor> SchemaOperationExecutor createSchemaHandler(
       long timeout, TimeUnit unit, Supplier<S> supplier) throws TimeoutException;
 
+  /**
+   * Creates the locker a transaction has to use to lock the namespaces before it uses them.
+   *
+   * This method must be called before the decorated transaction is opened. By default transactions
+   * do not need to lock namespaces, as the exclusion is done when they are created.
+   *
+   * @param timeout the maximum time the locker should wait to lock a namespace
+   * @param unit    the unit on which the timeout is specified
+   */
+  default NamespaceLocker createTransactionLocker(long timeout, TimeUnit unit) {
+    return NamespaceLocker.NO_LOCKS;
+  }
+
+  /**
+   * Like {@link #createTransactionLocker(long, java.util.concurrent.TimeUnit) }, but creates the
+   * locker used by a {@link SchemaOperationExecutor}.
+   */
+  default NamespaceLocker createSchemaLocker(long timeout, TimeUnit unit) {
+    return NamespaceLocker.NO_LOCKS;
+  }
+
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ import com.google.inject.Exposed;
 import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.guice.EssentialToDefaultModule;
+import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.torod.ProtectedServer;
 import com.torodb.torod.TorodServer;
 
@@ -34,14 +36,19 @@ public class ConcurrentTorodModule extends PrivateModule {
   @Override
   protected void configure() {
     expose(TorodServer.class);
+
+    install(new EssentialToDefaultModule());
   }
 
   @Exposed
   @Provides
   @Singleton
   public TorodServer createConcurrentTorodServer(
-      @TorodbIdleService ThreadFactory threadFactory, ProtectedServer decorated) {
-    ConcurrentServerGuard guard = new MonitorConcurrentServerGuard(true);
+      @TorodbIdleService ThreadFactory threadFactory, ProtectedServer decorated,
+      ToroMetricRegistry metricRegistry) {
+    ConcurrentServerGuard guard = new HierarchicalConcurrentServerGuard(
+        new HierarchicalLockManager(new LockManagerMetrics(metricRegistry))
+    );
     return new ConcurrentTorodServer(threadFactory, decorated, guard);
   }
 
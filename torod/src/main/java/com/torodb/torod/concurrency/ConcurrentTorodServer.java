@@ -19,23 +19,52 @@
 package com.torodb.torod.concurrency;
 
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.exceptions.user.CollectionNotFoundException;
+import com.torodb.core.exceptions.user.IndexNotFoundException;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.core.services.IdleTorodbService;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.DefaultTimeoutHandler;
 import com.torodb.torod.DocTransaction;
 import com.torodb.torod.DocTransactionDecorator;
+import com.torodb.torod.ImplicitSchemaChangeGuard;
+import com.torodb.torod.IndexFieldInfo;
+import com.torodb.torod.IndexInfo;
 import com.torodb.torod.ProtectedServer;
 import com.torodb.torod.SchemaOperationExecutor;
 import com.torodb.torod.SchemaOperationExecutorDecorator;
 import com.torodb.torod.TorodLoggerFactory;
 import com.torodb.torod.TorodServer;
 import com.torodb.torod.WriteDocTransaction;
-import com.torodb.torod.WriteDocTransactionDecorator;
+import com.torodb.torod.cursors.TorodCursor;
+import com.torodb.torod.exception.UnexistentCollectionException;
+import com.torodb.torod.exception.UnexistentDatabaseException;
+import com.torodb.torod.exception.UnsupportedIndexException;
 import org.apache.logging.log4j.Logger;
+import org.jooq.lambda.tuple.Tuple2;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -46,10 +75,15 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
   private final ConcurrentServerGuard guard;
   private final ProtectedServer decorated;
   private static final Logger LOGGER = TorodLoggerFactory.get(ConcurrentTorodServer.class);
+  private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
   private final DefaultTimeoutHandler timeoutHandler = new DefaultTimeoutHandler(
       this,
-      Duration.ofSeconds(30)
+      DEFAULT_TIMEOUT
   );
+  /**
+   * The executor used to wait for the locks implicit schema changes need.
+   */
+  private final ExecutorService implicitSchemaChangeExecutor;
 
   @Inject
   public ConcurrentTorodServer(@TorodbIdleService ThreadFactory threadFactory,
@@ -57,6 +91,8 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     super(threadFactory);
     this.decorated = decorated;
     this.guard = guard;
+    this.implicitSchemaChangeExecutor = Executors.newCachedThreadPool(threadFactory);
+    decorated.setImplicitSchemaChangeGuard(new ManagedImplicitSchemaChangeGuard());
   }
 
   @Override
@@ -67,6 +103,9 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
 
   @Override
   protected void shutDown() throws Exception {
+    implicitSchemaChangeExecutor.shutdown();
+    implicitSchemaChangeExecutor.awaitTermination(
+        DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
     decorated.stopAsync();
     decorated.awaitTerminated();
   }
@@ -75,13 +114,15 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
   public DocTransaction openReadTransaction(long timeout, TimeUnit unit)
       throws TimeoutException {
     checkRunning();
-    DocTransaction decoratedTrans = decorated.openReadTransaction(timeout, unit);
+    NamespaceLocker locker = guard.createTransactionLocker(timeout, unit);
+    DocTransaction decoratedTrans = openOrRelease(locker,
+        () -> decorated.openReadTransaction(timeout, unit));
     boolean correct = false;
     try {
       DocTransaction result = guard.createTransaction(
           timeout,
           unit,
-          () -> new ManagedReadTransaction(decoratedTrans)
+          () -> new ManagedReadTransaction<>(decoratedTrans, locker)
       );
       correct = true;
 
@@ -89,6 +130,7 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     } finally {
       if (!correct) {
         decoratedTrans.close();
+        locker.releaseAll();
       }
     }
   }
@@ -103,13 +145,15 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
   public WriteDocTransaction openWriteTransaction(long timeout, TimeUnit unit)
       throws TimeoutException {
     checkRunning();
-    WriteDocTransaction decoratedTrans = decorated.openWriteTransaction(timeout, unit);
+    NamespaceLocker locker = guard.createTransactionLocker(timeout, unit);
+    WriteDocTransaction decoratedTrans = openOrRelease(locker,
+        () -> decorated.openWriteTransaction(timeout, unit));
     boolean correct = false;
     try {
       WriteDocTransaction result = guard.createWriteTransaction(
           timeout,
           unit,
-          () -> new ManagedWriteTransaction(decoratedTrans)
+          () -> new ManagedWriteTransaction(decoratedTrans, locker)
       );
       correct = true;
 
@@ -117,6 +161,7 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     } finally {
       if (!correct) {
         decoratedTrans.close();
+        locker.releaseAll();
       }
     }
   }
@@ -131,14 +176,15 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
   public SchemaOperationExecutor openSchemaOperationExecutor(long timeout, TimeUnit unit)
       throws TimeoutException {
     checkRunning();
-    SchemaOperationExecutor decoratedSchemaHandler =
-        decorated.openSchemaOperationExecutor(timeout, unit);
+    NamespaceLocker locker = guard.createSchemaLocker(timeout, unit);
+    SchemaOperationExecutor decoratedSchemaHandler = openOrRelease(locker,
+        () -> decorated.openSchemaOperationExecutor(timeout, unit));
     boolean correct = false;
     try {
       SchemaOperationExecutor result = guard.createSchemaHandler(
           timeout,
           unit,
-          () -> new ManagedSchemaHandler(decoratedSchemaHandler)
+          () -> new ManagedSchemaHandler(decoratedSchemaHandler, locker)
       );
       correct = true;
 
@@ -146,6 +192,7 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     } finally {
       if (!correct) {
         decoratedSchemaHandler.close();
+        locker.releaseAll();
       }
     }
   }
@@ -156,25 +203,175 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     return timeoutHandler.openSchemaOperationExecutor();
   }
 
+  /**
+   * Opens a transaction or schema handler of the decorated server, releasing the given locker if
+   * it cannot be opened.
+   */
+  private <T> T openOrRelease(NamespaceLocker locker, Opener<T> opener)
+      throws TimeoutException {
+    boolean opened = false;
+    try {
+      T result = opener.open();
+      opened = true;
+      return result;
+    } finally {
+      if (!opened) {
+        locker.releaseAll();
+      }
+    }
+  }
+
   private void checkRunning() {
     if (!isRunning()) {
       throw new IllegalStateException("This service is not running");
     }
   }
 
-  private class ManagedReadTransaction extends DocTransactionDecorator<DocTransaction> {
+  private class ManagedReadTransaction<D extends DocTransaction>
+      extends DocTransactionDecorator<D> {
 
+    private final NamespaceLocker locker;
     private boolean closed = false;
 
-    public ManagedReadTransaction(DocTransaction trans) {
+    public ManagedReadTransaction(D trans, NamespaceLocker locker) {
       super(trans);
+      this.locker = locker;
+    }
+
+    protected void lockCollection(String dbName, String colName) {
+      locker.lockCollection(dbName, colName, LockMode.SHARED);
+    }
+
+    @Override
+    public boolean existsDatabase(String dbName) {
+      locker.lockDatabase(dbName, LockMode.SHARED);
+      return super.existsDatabase(dbName);
+    }
+
+    @Override
+    public boolean existsCollection(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.existsCollection(dbName, colName);
+    }
+
+    @Override
+    public List<String> getDatabases() {
+      locker.lockServer(LockMode.SHARED);
+      return super.getDatabases();
+    }
+
+    @Override
+    public long getDatabaseSize(String dbName) {
+      locker.lockDatabase(dbName, LockMode.SHARED);
+      return super.getDatabaseSize(dbName);
+    }
+
+    @Override
+    public long countAll(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.countAll(dbName, colName);
+    }
+
+    @Override
+    public long countByFilter(String dbName, String colName, QueryFilter filter) {
+      lockCollection(dbName, colName);
+      return super.countByFilter(dbName, colName, filter);
+    }
+
+    @Override
+    public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+        AttributeReference attRef, QueryFilter filter) {
+      lockCollection(dbName, colName);
+      return super.findDistinct(dbName, colName, attRef, filter);
+    }
+
+    @Override
+    public long getCollectionSize(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.getCollectionSize(dbName, colName);
+    }
+
+    @Override
+    public long getDocumentsSize(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.getDocumentsSize(dbName, colName);
+    }
+
+    @Override
+    public TorodCursor findAll(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.findAll(dbName, colName);
+    }
+
+    @Override
+    public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
+        KvValue<?> value) {
+      lockCollection(dbName, colName);
+      return super.findByAttRef(dbName, colName, attRef, value);
+    }
+
+    @Override
+    public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+        Projection projection, Sort sort, long skip, long limit) {
+      lockCollection(dbName, colName);
+      return super.findByFilter(dbName, colName, filter, projection, sort, skip, limit);
+    }
+
+    @Override
+    public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
+        Collection<KvValue<?>> values) {
+      lockCollection(dbName, colName);
+      return super.findByAttRefIn(dbName, colName, attRef, values);
+    }
+
+    @Override
+    public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
+        String colName, AttributeReference attRef, Collection<KvValue<?>> values) {
+      lockCollection(dbName, colName);
+      return super.findByAttRefInProjection(dbName, colName, attRef, values);
+    }
+
+    @Override
+    public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor) {
+      lockCollection(dbName, colName);
+      return super.fetch(dbName, colName, didCursor);
+    }
+
+    @Override
+    public Stream<CollectionInfo> getCollectionsInfo(String dbName) {
+      locker.lockDatabase(dbName, LockMode.SHARED);
+      return super.getCollectionsInfo(dbName);
+    }
+
+    @Override
+    public CollectionInfo getCollectionInfo(String dbName, String colName) throws
+        CollectionNotFoundException {
+      lockCollection(dbName, colName);
+      return super.getCollectionInfo(dbName, colName);
+    }
+
+    @Override
+    public Stream<IndexInfo> getIndexesInfo(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return super.getIndexesInfo(dbName, colName);
+    }
+
+    @Override
+    public IndexInfo getIndexInfo(String dbName, String colName, String idxName) throws
+        IndexNotFoundException {
+      lockCollection(dbName, colName);
+      return super.getIndexInfo(dbName, colName, idxName);
     }
 
     @Override
     public synchronized void close() {
       if (!closed) {
         closed = true;
-        getDecorated().close();
+        try {
+          getDecorated().close();
+        } finally {
+          locker.releaseAll();
+        }
         guard.notifyTransactionClosed();
       }
     }
@@ -183,52 +380,169 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
     protected void finalize() throws Throwable {
       super.finalize();
       if (!closed) {
-        LOGGER.warn("Read transaction finalized without being closed");
+        LOGGER.warn("Transaction finalized without being closed");
         close();
       }
     }
   }
 
-  private class ManagedWriteTransaction extends WriteDocTransactionDecorator {
+  private class ManagedWriteTransaction extends ManagedReadTransaction<WriteDocTransaction>
+      implements WriteDocTransaction {
 
-    private boolean closed = false;
+    public ManagedWriteTransaction(WriteDocTransaction trans, NamespaceLocker locker) {
+      super(trans, locker);
+    }
 
-    public ManagedWriteTransaction(WriteDocTransaction trans) {
-      super(trans);
+    @Override
+    public void insert(String dbName, String colName, Collection<KvDocument> documents) throws
+        RollbackException, UserException {
+      lockCollection(dbName, colName);
+      getDecorated().insert(dbName, colName, documents);
     }
 
     @Override
-    public synchronized void close() {
-      if (!closed) {
-        closed = true;
-        getDecorated().close();
-        guard.notifyTransactionClosed();
-      }
+    public void delete(String dbName, String colName, List<ToroDocument> candidates) {
+      lockCollection(dbName, colName);
+      getDecorated().delete(dbName, colName, candidates);
     }
 
     @Override
-    protected void finalize() throws Throwable {
-      super.finalize();
-      if (!closed) {
-        LOGGER.warn("Write transaction finalized without being closed");
-        close();
-      }
+    public void delete(String dbName, String colName, TorodCursor cursor) {
+      lockCollection(dbName, colName);
+      getDecorated().delete(dbName, colName, cursor);
+    }
+
+    @Override
+    public void delete(String dbName, String colName, Cursor<Integer> cursor) {
+      lockCollection(dbName, colName);
+      getDecorated().delete(dbName, colName, cursor);
+    }
+
+    @Override
+    public long deleteAll(String dbName, String colName) {
+      lockCollection(dbName, colName);
+      return getDecorated().deleteAll(dbName, colName);
+    }
+
+    @Override
+    public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+        List<KvDocument> updatedDocs) throws RollbackException, UserException {
+      lockCollection(dbName, colName);
+      return getDecorated().updateInPlace(dbName, colName, candidates, updatedDocs);
     }
 
+    @Override
+    public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
+        KvValue<?> value) {
+      lockCollection(dbName, colName);
+      return getDecorated().deleteByAttRef(dbName, colName, attRef, value);
+    }
+
+    @Override
+    public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+      return getDecorated().writeMetaInfo(key, newValue);
+    }
+
+    @Override
+    public void commit() throws RollbackException, UserException {
+      getDecorated().commit();
+    }
   }
 
   private class ManagedSchemaHandler extends SchemaOperationExecutorDecorator {
+
+    private final NamespaceLocker locker;
     private boolean closed = false;
 
-    public ManagedSchemaHandler(SchemaOperationExecutor decorated) {
+    public ManagedSchemaHandler(SchemaOperationExecutor decorated, NamespaceLocker locker) {
       super(decorated);
+      this.locker = locker;
+    }
+
+    @Override
+    public boolean prepareSchema(String dbName, String colName, Collection<KvDocument> docs) {
+      locker.lockCollection(dbName, colName, LockMode.EXCLUSIVE);
+      return super.prepareSchema(dbName, colName, docs);
+    }
+
+    @Override
+    public void disableDataImportMode(String dbName) {
+      locker.lockDatabase(dbName, LockMode.EXCLUSIVE);
+      super.disableDataImportMode(dbName);
+    }
+
+    @Override
+    public void enableDataImportMode(String dbName) {
+      locker.lockDatabase(dbName, LockMode.EXCLUSIVE);
+      super.enableDataImportMode(dbName);
+    }
+
+    @Override
+    public void createCollection(String dbName, String colName) throws RollbackException {
+      locker.lockCollection(dbName, colName, LockMode.EXCLUSIVE);
+      super.createCollection(dbName, colName);
+    }
+
+    @Override
+    public void renameCollection(String fromDb, String fromCollection, String toDb,
+        String toCollection) throws RollbackException, UserException {
+      locker.lockCollections(fromDb, fromCollection, toDb, toCollection, LockMode.EXCLUSIVE);
+      super.renameCollection(fromDb, fromCollection, toDb, toCollection);
+    }
+
+    @Override
+    public void dropCollection(String db, String collection) throws RollbackException {
+      locker.lockCollection(db, collection, LockMode.EXCLUSIVE);
+      super.dropCollection(db, collection);
+    }
+
+    @Override
+    public void createDatabase(String db) throws RollbackException, UserException {
+      locker.lockDatabase(db, LockMode.EXCLUSIVE);
+      super.createDatabase(db);
+    }
+
+    @Override
+    public void dropDatabase(String db) throws RollbackException {
+      locker.lockDatabase(db, LockMode.EXCLUSIVE);
+      super.dropDatabase(db);
+    }
+
+    @Override
+    public boolean createIndex(String dbName, String colName, String indexName,
+        List<IndexFieldInfo> fields, boolean unique) throws UnexistentDatabaseException,
+        UnexistentCollectionException, UnsupportedIndexException {
+      locker.lockCollection(dbName, colName, LockMode.EXCLUSIVE);
+      return super.createIndex(dbName, colName, indexName, fields, unique);
+    }
+
+    @Override
+    public boolean dropIndex(String dbName, String colName, String indexName) {
+      locker.lockCollection(dbName, colName, LockMode.EXCLUSIVE);
+      return super.dropIndex(dbName, colName, indexName);
+    }
+
+    @Override
+    public Stream<String> streamDbNames() {
+      locker.lockServer(LockMode.SHARED);
+      return super.streamDbNames();
+    }
+
+    @Override
+    public Stream<IndexInfo> getIndexesInfo(String database, String collection) {
+      locker.lockCollection(database, collection, LockMode.SHARED);
+      return super.getIndexesInfo(database, collection);
     }
 
     @Override
     public synchronized void close() {
       if (!getDecorated().isClosed()) {
         closed = true;
-        getDecorated().close();
+        try {
+          getDecorated().close();
+        } finally {
+          locker.releaseAll();
+        }
         guard.notifySchemaHandlerClosed();
       }
     }
@@ -242,4 +556,41 @@ public class ConcurrentTorodServer extends IdleTorodbService implements TorodSer
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Executes the schema changes the decorated server does by itself (like the ones needed to
+   * insert documents that do not fit on the current schema) with the collection exclusively locked.
+   *
+   * <p>The lock is acquired on another thread because the transaction that asks for the change
+   * still holds a lock on the collection until it is rolled back. Releasing the exclusive lock
+   * marks the collection as modified, so transactions that were opened before the change are rolled
+   * back the next time they lock it.
+   */
+  private class ManagedImplicitSchemaChangeGuard implements ImplicitSchemaChangeGuard {
+
+    @Override
+    public <R> CompletableFuture<R> execute(String dbName, String colName,
+        Supplier<CompletableFuture<R>> change) {
+      NamespaceLocker locker = guard.createSchemaLocker(
+          DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      CompletableFuture<R> result;
+      try {
+        result = CompletableFuture
+            .runAsync(
+                () -> locker.lockCollection(dbName, colName, LockMode.EXCLUSIVE),
+                implicitSchemaChangeExecutor
+            )
+            .thenCompose(ignored -> change.get());
+      } catch (RejectedExecutionException ex) {
+        result = new CompletableFuture<>();
+        result.completeExceptionally(ex);
+      }
+      return result.whenComplete((ignored, ex) -> locker.releaseAll());
+    }
+  }
+
+  @FunctionalInterface
+  private static interface Opener<T> {
+    T open() throws TimeoutException;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import com.google.common.base.Preconditions;
+import com.torodb.torod.DocTransaction;
+import com.torodb.torod.SchemaOperationExecutor;
+import com.torodb.torod.WriteDocTransaction;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConcurrentServerGuard} that never blocks when transactions or schema handlers are
+ * created. Instead, the exclusion is done on the namespaces they use by the lockers created by a
+ * {@link HierarchicalLockManager}.
+ */
+class HierarchicalConcurrentServerGuard implements ConcurrentServerGuard {
+
+  private final HierarchicalLockManager lockManager;
+  private final AtomicInteger openTransactions = new AtomicInteger();
+  private final AtomicInteger openSchemas = new AtomicInteger();
+
+  public HierarchicalConcurrentServerGuard(HierarchicalLockManager lockManager) {
+    this.lockManager = lockManager;
+  }
+
+  @Override
+  public void notifyTransactionClosed() {
+    int previous = openTransactions.getAndUpdate(open -> open > 0 ? open - 1 : open);
+    Preconditions.checkState(previous > 0, "Trying to close transactions when there are "
+        + "no open transactions");
+  }
+
+  @Override
+  public void notifySchemaHandlerClosed() {
+    int previous = openSchemas.getAndUpdate(open -> open > 0 ? open - 1 : open);
+    Preconditions.checkState(previous > 0, "Trying to close a schema handler when there are "
+        + "no open schema handlers");
+  }
+
+  @Override
+  public <T extends DocTransaction> T createTransaction(
+      long timeout, TimeUnit unit, Supplier<T> supplier) {
+    T result = supplier.get();
+    openTransactions.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public <T extends WriteDocTransaction> WriteDocTransaction createWriteTransaction(
+      long timeout, TimeUnit unit, Supplier<T> supplier) {
+    return createTransaction(timeout, unit, supplier);
+  }
+
+  @Override
+  public <S extends SchemaOperationExecutor> S createSchemaHandler(
+      long timeout, TimeUnit unit, Supplier<S> supplier) {
+    S result = supplier.get();
+    openSchemas.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public NamespaceLocker createTransactionLocker(long timeout, TimeUnit unit) {
+    return lockManager.createTransactionLocker(timeout, unit);
+  }
+
+  @Override
+  public NamespaceLocker createSchemaLocker(long timeout, TimeUnit unit) {
+    return lockManager.createSchemaLocker(timeout, unit);
+  }
+
+}
@@ -0,0 +1,437 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.torod.TorodLoggerFactory;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A lock manager that protects the namespaces of the server using a hierarchy of locks (server,
+ * databases and collections) with intention modes.
+ *
+ * <p>Each transaction or schema handler uses its own {@link NamespaceLocker}, which locks
+ * namespaces on demand and keeps them locked until it is released. As transactions lock on shared
+ * mode and schema handlers on exclusive mode, transactions never block each other and schema
+ * handlers only block the transactions and schema handlers that use the same namespaces.
+ *
+ * <p>Transactions work on a metadata snapshot taken when they are opened, so a transaction that
+ * tries to use a namespace whose schema was modified after its locker was created is rolled back.
+ * Lockers must be created before the snapshot is taken.
+ *
+ * <p>The nodes of the hierarchy are created when a namespace is locked for the first time and
+ * each one counts the lockers that hold it or wait for it. Nodes that are not referenced and have
+ * no children are pruned once no open transaction is older than their last modification, as
+ * that is the only information they keep when they are not locked.
+ */
+@ThreadSafe
+class HierarchicalLockManager {
+
+  private static final Logger LOGGER = TorodLoggerFactory.get(HierarchicalLockManager.class);
+
+  private final ReentrantLock lock = new ReentrantLock(true);
+  private final Condition lockReleased = lock.newCondition();
+  @GuardedBy("lock")
+  private final Node root = new Node(null, "server");
+  @GuardedBy("lock")
+  private long version = 0;
+  /**
+   * The number of open transaction lockers created on each version.
+   */
+  @GuardedBy("lock")
+  private final TreeMap<Long, Integer> openTransactions = new TreeMap<>();
+  /**
+   * Unreferenced nodes that cannot be pruned yet because an open transaction is older than their
+   * last modification.
+   */
+  @GuardedBy("lock")
+  private final Set<Node> retainedNodes = new HashSet<>();
+  private final LockManagerMetrics metrics;
+
+  public HierarchicalLockManager(LockManagerMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Creates a locker for a transaction, whose snapshot must be taken after this method returns.
+   *
+   * @param timeout the maximum time the locker will wait to lock a namespace
+   * @param unit    the unit on which the timeout is specified
+   */
+  NamespaceLocker createTransactionLocker(long timeout, TimeUnit unit) {
+    lock.lock();
+    try {
+      openTransactions.merge(version, 1, Integer::sum);
+      return new Locker(true, version, unit.toNanos(timeout));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Creates a locker for a schema handler.
+   *
+   * @param timeout the maximum time the locker will wait to lock a namespace
+   * @param unit    the unit on which the timeout is specified
+   */
+  NamespaceLocker createSchemaLocker(long timeout, TimeUnit unit) {
+    return new Locker(false, 0, unit.toNanos(timeout));
+  }
+
+  @GuardedBy("lock")
+  private Node getNode(@Nullable String dbName, @Nullable String colName) {
+    Node node = root;
+    if (dbName != null) {
+      node = node.getOrCreateChild(dbName);
+      if (colName != null) {
+        node = node.getOrCreateChild(colName);
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Returns the number of nodes of the hierarchy, including the server one.
+   */
+  int getNodeCount() {
+    lock.lock();
+    try {
+      return root.countSubtree();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the given node and then its ancestors while they are not used.
+   */
+  @GuardedBy("lock")
+  private void prune(Node node) {
+    Long oldestTransaction = openTransactions.isEmpty() ? null : openTransactions.firstKey();
+    while (node.parent != null && node.refCount == 0 && node.children.isEmpty()) {
+      if (oldestTransaction != null && node.lastSubtreeModification > oldestTransaction) {
+        retainedNodes.add(node);
+        return;
+      }
+      retainedNodes.remove(node);
+      node.parent.children.remove(node.name, node);
+      node = node.parent;
+    }
+  }
+
+  private static class Node {
+
+    @Nullable
+    private final Node parent;
+    private final String name;
+    private final Map<Locker, LockMode> holders = new HashMap<>();
+    private final Map<String, Node> children = new HashMap<>();
+    /**
+     * The number of lockers that hold this node or are trying to acquire it.
+     */
+    private int refCount = 0;
+    private int waitingExclusive = 0;
+    /**
+     * The version on which the last exclusive lock on this node was released.
+     */
+    private long lastModification = 0;
+    /**
+     * The version on which the last exclusive lock on this node or one of its descendants was
+     * released.
+     */
+    private long lastSubtreeModification = 0;
+
+    Node(@Nullable Node parent, String name) {
+      this.parent = parent;
+      this.name = name;
+    }
+
+    Node getOrCreateChild(String childName) {
+      return children.computeIfAbsent(childName, n -> new Node(this, n));
+    }
+
+    int countSubtree() {
+      int count = 1;
+      for (Node child : children.values()) {
+        count += child.countSubtree();
+      }
+      return count;
+    }
+
+    boolean isCompatible(Locker locker, LockMode mode) {
+      for (Map.Entry<Locker, LockMode> holder : holders.entrySet()) {
+        if (holder.getKey() != locker && !mode.isCompatibleWith(holder.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return parent == null ? name : parent + "." + name;
+    }
+  }
+
+  private class Locker implements NamespaceLocker {
+
+    private final boolean transaction;
+    private final long startVersion;
+    private final long timeoutNanos;
+    @GuardedBy("lock")
+    private final Map<Node, LockMode> held = new HashMap<>();
+    @GuardedBy("lock")
+    private boolean released = false;
+
+    private Locker(boolean transaction, long startVersion, long timeoutNanos) {
+      this.transaction = transaction;
+      this.startVersion = startVersion;
+      this.timeoutNanos = timeoutNanos;
+    }
+
+    @Override
+    public void lockServer(LockMode mode) throws RollbackException {
+      lock.lock();
+      try {
+        acquire(mode, root);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void lockDatabase(String dbName, LockMode mode) throws RollbackException {
+      lock.lock();
+      try {
+        acquire(mode, getNode(dbName, null));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void lockCollection(String dbName, String colName, LockMode mode)
+        throws RollbackException {
+      lock.lock();
+      try {
+        acquire(mode, getNode(dbName, colName));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void lockCollections(String dbName1, String colName1, String dbName2, String colName2,
+        LockMode mode) throws RollbackException {
+      lock.lock();
+      try {
+        acquire(mode, getNode(dbName1, colName1), getNode(dbName2, colName2));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void releaseAll() {
+      lock.lock();
+      try {
+        if (released) {
+          return;
+        }
+        released = true;
+        boolean modified = false;
+        for (Map.Entry<Node, LockMode> entry : held.entrySet()) {
+          Node node = entry.getKey();
+          node.holders.remove(this);
+          node.refCount--;
+          if (entry.getValue() == LockMode.EXCLUSIVE) {
+            if (!modified) {
+              version++;
+              modified = true;
+            }
+            node.lastModification = version;
+            for (Node n = node; n != null; n = n.parent) {
+              n.lastSubtreeModification = version;
+            }
+          }
+        }
+        if (transaction) {
+          openTransactions.computeIfPresent(startVersion,
+              (v, count) -> count > 1 ? count - 1 : null);
+          for (Node node : new ArrayList<>(retainedNodes)) {
+            prune(node);
+          }
+        }
+        for (Node node : held.keySet()) {
+          prune(node);
+        }
+        held.clear();
+        lockReleased.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @GuardedBy("lock")
+    private void acquire(LockMode mode, Node... targets) throws RollbackException {
+      Map<Node, LockMode> requests = new LinkedHashMap<>();
+      for (Node target : targets) {
+        requests.merge(target, mode, LockMode::combine);
+        for (Node ancestor = target.parent; ancestor != null; ancestor = ancestor.parent) {
+          requests.merge(ancestor, mode.getIntentionMode(), LockMode::combine);
+        }
+      }
+      List<Node> newNodes = new ArrayList<>();
+      for (Node node : requests.keySet()) {
+        if (!held.containsKey(node)) {
+          node.refCount++;
+          newNodes.add(node);
+        }
+      }
+      boolean granted = false;
+      try {
+        Preconditions.checkState(!released, "This locker has been released");
+        requests.replaceAll((node, requested) -> requested.combine(held.get(node)));
+        waitUntilGranted(mode, targets, requests);
+        granted = true;
+      } finally {
+        if (!granted) {
+          for (Node node : newNodes) {
+            node.refCount--;
+          }
+          for (Node node : newNodes) {
+            prune(node);
+          }
+        }
+      }
+
+      for (Map.Entry<Node, LockMode> request : requests.entrySet()) {
+        request.getKey().holders.put(this, request.getValue());
+        held.put(request.getKey(), request.getValue());
+      }
+    }
+
+    @GuardedBy("lock")
+    private void waitUntilGranted(LockMode mode, Node[] targets, Map<Node, LockMode> requests)
+        throws RollbackException {
+      if (requests.entrySet().stream().allMatch(e -> e.getValue() == held.get(e.getKey()))) {
+        return;
+      }
+
+      long waitStart = 0;
+      long remaining = timeoutNanos;
+      boolean exclusive = mode == LockMode.EXCLUSIVE;
+      if (exclusive) {
+        for (Node target : targets) {
+          target.waitingExclusive++;
+        }
+      }
+      try {
+        while (true) {
+          checkStaleness(requests);
+          if (canBeGranted(requests)) {
+            break;
+          }
+          if (waitStart == 0) {
+            waitStart = System.nanoTime();
+          }
+          if (remaining <= 0) {
+            metrics.getTimeouts().mark();
+            LOGGER.debug("Timeout while trying to lock {} on {} mode", Arrays.toString(targets),
+                mode);
+            throw new RollbackException("It was not possible to lock the namespace on time");
+          }
+          try {
+            remaining = lockReleased.awaitNanos(remaining);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RollbackException("Interrupted while waiting for a lock", ex);
+          }
+        }
+      } finally {
+        if (exclusive) {
+          for (Node target : targets) {
+            target.waitingExclusive--;
+          }
+        }
+        if (waitStart != 0) {
+          long waited = System.nanoTime() - waitStart;
+          if (mode == LockMode.EXCLUSIVE || mode == LockMode.INTENTION_EXCLUSIVE) {
+            metrics.getExclusiveWaits().update(waited, TimeUnit.NANOSECONDS);
+          } else {
+            metrics.getSharedWaits().update(waited, TimeUnit.NANOSECONDS);
+          }
+        }
+      }
+    }
+
+    @GuardedBy("lock")
+    private boolean canBeGranted(Map<Node, LockMode> requests) {
+      for (Map.Entry<Node, LockMode> request : requests.entrySet()) {
+        Node node = request.getKey();
+        LockMode requested = request.getValue();
+        if (!node.isCompatible(this, requested)) {
+          return false;
+        }
+        //new shared lockers wait for queued exclusive ones, so they cannot be starved
+        if (requested != LockMode.EXCLUSIVE && node.waitingExclusive > 0
+            && !held.containsKey(node)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @GuardedBy("lock")
+    private void checkStaleness(Map<Node, LockMode> requests) throws RollbackException {
+      if (!transaction) {
+        return;
+      }
+      for (Map.Entry<Node, LockMode> request : requests.entrySet()) {
+        Node node = request.getKey();
+        long lastModification = request.getValue() == LockMode.SHARED
+            ? node.lastSubtreeModification : node.lastModification;
+        if (lastModification > startVersion) {
+          metrics.getStaleRollbacks().mark();
+          throw new RollbackException("The schema of " + node + " has been modified since the "
+              + "transaction was opened");
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+@ThreadSafe
+public class LockManagerMetrics {
+
+  private final Timer sharedWaits;
+  private final Timer exclusiveWaits;
+  private final Meter timeouts;
+  private final Meter staleRollbacks;
+
+  @Inject
+  public LockManagerMetrics(ToroMetricRegistry parentRegistry) {
+    ToroMetricRegistry registry = parentRegistry.createSubRegistry("TorodLocks");
+
+    sharedWaits = registry.timer("sharedWaits");
+    exclusiveWaits = registry.timer("exclusiveWaits");
+    timeouts = registry.meter("timeouts");
+    staleRollbacks = registry.meter("staleRollbacks");
+  }
+
+  /**
+   * The time transactions had to wait to lock a namespace, only considering the requests that
+   * could not be granted immediately.
+   */
+  public Timer getSharedWaits() {
+    return sharedWaits;
+  }
+
+  /**
+   * The time schema handlers had to wait to lock a namespace, only considering the requests that
+   * could not be granted immediately.
+   */
+  public Timer getExclusiveWaits() {
+    return exclusiveWaits;
+  }
+
+  /**
+   * The lock requests that were not granted on time.
+   */
+  public Meter getTimeouts() {
+    return timeouts;
+  }
+
+  /**
+   * The transactions rolled back because they tried to use a namespace whose schema was modified
+   * after they were opened.
+   */
+  public Meter getStaleRollbacks() {
+    return staleRollbacks;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import javax.annotation.Nullable;
+
+/**
+ * The modes on which a {@link HierarchicalLockManager} node can be locked.
+ *
+ * <p>Intention modes ({@link #INTENTION_SHARED} and {@link #INTENTION_EXCLUSIVE}) are taken on the
+ * ancestors of the node that is actually locked.
+ */
+enum LockMode {
+  INTENTION_SHARED,
+  INTENTION_EXCLUSIVE,
+  SHARED,
+  EXCLUSIVE;
+
+  /**
+   * Returns true iff a node can be locked on this mode by one locker while other locker has it
+   * locked on the given mode.
+   */
+  boolean isCompatibleWith(LockMode other) {
+    switch (this) {
+      case INTENTION_SHARED:
+        return other != EXCLUSIVE;
+      case INTENTION_EXCLUSIVE:
+        return other == INTENTION_SHARED || other == INTENTION_EXCLUSIVE;
+      case SHARED:
+        return other == INTENTION_SHARED || other == SHARED;
+      case EXCLUSIVE:
+        return false;
+      default:
+        throw new AssertionError("Unexpected lock mode " + this);
+    }
+  }
+
+  /**
+   * Returns the mode that must be taken on the ancestors of a node locked on this mode.
+   */
+  LockMode getIntentionMode() {
+    switch (this) {
+      case INTENTION_SHARED:
+      case SHARED:
+        return INTENTION_SHARED;
+      case INTENTION_EXCLUSIVE:
+      case EXCLUSIVE:
+        return INTENTION_EXCLUSIVE;
+      default:
+        throw new AssertionError("Unexpected lock mode " + this);
+    }
+  }
+
+  /**
+   * Returns the weakest mode that grants the same rights than this mode and the given one.
+   */
+  LockMode combine(@Nullable LockMode other) {
+    if (other == null || other == this || other == INTENTION_SHARED) {
+      return this;
+    }
+    if (this == INTENTION_SHARED) {
+      return other;
+    }
+    return EXCLUSIVE;
+  }
+}
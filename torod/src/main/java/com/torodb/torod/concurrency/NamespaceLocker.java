@@ -0,0 +1,95 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import com.torodb.core.transaction.RollbackException;
+
+/**
+ * The object used by a transaction or a schema handler to lock the namespaces it is going to use.
+ *
+ * <p>Locks are kept until {@link #releaseAll()} is called.
+ */
+interface NamespaceLocker {
+
+  /**
+   * A locker that doesn't lock anything, used when the exclusion is done when transactions and
+   * schema handlers are opened.
+   */
+  static final NamespaceLocker NO_LOCKS = new NamespaceLocker() {
+    @Override
+    public void lockServer(LockMode mode) {
+    }
+
+    @Override
+    public void lockDatabase(String dbName, LockMode mode) {
+    }
+
+    @Override
+    public void lockCollection(String dbName, String colName, LockMode mode) {
+    }
+
+    @Override
+    public void lockCollections(String dbName1, String colName1, String dbName2,
+        String colName2, LockMode mode) {
+    }
+
+    @Override
+    public void releaseAll() {
+    }
+  };
+
+  /**
+   * Locks the server, which contains all databases.
+   *
+   * @throws RollbackException if the lock cannot be acquired on time or if the namespace has been
+   *                           modified since the transaction that uses this locker was opened
+   */
+  void lockServer(LockMode mode) throws RollbackException;
+
+  /**
+   * Locks a database and all its collections.
+   *
+   * @throws RollbackException if the lock cannot be acquired on time or if the namespace has been
+   *                           modified since the transaction that uses this locker was opened
+   */
+  void lockDatabase(String dbName, LockMode mode) throws RollbackException;
+
+  /**
+   * Locks a collection.
+   *
+   * @throws RollbackException if the lock cannot be acquired on time or if the namespace has been
+   *                           modified since the transaction that uses this locker was opened
+   */
+  void lockCollection(String dbName, String colName, LockMode mode) throws RollbackException;
+
+  /**
+   * Locks two collections at the same time, so the locker doesn't keep one of them locked while
+   * it waits for the other.
+   *
+   * @throws RollbackException if the locks cannot be acquired on time or if the namespaces have
+   *                           been modified since the transaction that uses this locker was opened
+   */
+  void lockCollections(String dbName1, String colName1, String dbName2, String colName2,
+      LockMode mode) throws RollbackException;
+
+  /**
+   * Releases all locks held by this locker.
+   */
+  void releaseAll();
+}
@@ -19,62 +19,64 @@
 package com.torodb.torod.impl.memory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.core.language.AttributeFilter;
+import com.torodb.core.language.AttributeReference;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.IndexFieldInfo;
 import com.torodb.torod.IndexInfo;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
+ * The storage of the in memory torod engine.
  *
+ * <p>The committed data is an immutable {@link MdState} built with {@link PersistentHashMap
+ * persistent maps}. Read transactions just take the last committed state, so they never block.
+ * Write transactions are executed one at a time and each modification creates a new state that
+ * only copies the path to the modified values, so opening, rolling back or committing a write
+ * transaction does not depend on the amount of stored data.
  */
 @ThreadSafe
 class MemoryData {
 
   private static final String _ID = "_id";
-  
-  private Table<String, String, Map<Integer, KvDocument>> data = HashBasedTable.create();
-  private Set<String> dbs = new HashSet<>();
-  private Table<String, String, Map<String, IndexInfo>> indexes = HashBasedTable.create();
+  private static final AttributeReference _ID_ATT_REF = new AttributeReference.Builder()
+      .addObjectKey(_ID)
+      .build();
+
+  private volatile MdState state = MdState.EMPTY;
   private final AtomicInteger idGenerator = new AtomicInteger();
-  private ReadWriteLock lock = new ReentrantReadWriteLock(true);
+  private final Lock writeLock = new ReentrantLock(true);
 
   public MdReadTransaction openReadTransaction() {
-    lock.readLock().lock();
-    try {
-      return new MdReadTransaction(data, dbs, indexes);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return new MdReadTransaction(state);
   }
 
   @SuppressFBWarnings(value = {"UL_UNRELEASED_LOCK"})
   public MdWriteTransaction openWriteTransaction() {
-    Lock writeLock = lock.writeLock();
     writeLock.lock();
     try {
-      return new MdWriteTransaction(data, dbs, indexes, () -> idGenerator.incrementAndGet(),
+      return new MdWriteTransaction(state,
+          () -> idGenerator.incrementAndGet(),
           this::onCommit, writeLock);
     } catch (Throwable ex) {
       writeLock.unlock();
@@ -82,36 +84,121 @@ class MemoryData {
     }
   }
 
-  private void onCommit(MdTransaction trans) {
-    this.data = trans.getData();
-    this.dbs = trans.getDbs();
-    this.indexes = trans.getIndexes();
+  private void onCommit(MdState newState) {
+    this.state = newState;
   }
 
-  public static class MdTransaction implements AutoCloseable {
-
-    private boolean closed = false;
-    Table<String, String, Map<Integer, KvDocument>> data;
-    Set<String> dbs;
-    Table<String, String, Map<String, IndexInfo>> indexes;
-
-    public MdTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Set<String> dbs, Table<String, String, Map<String, IndexInfo>> indexes) {
+  /**
+   * An immutable version of the stored data.
+   */
+  @Immutable
+  static class MdState {
+
+    private static final MdState EMPTY = new MdState(PersistentHashMap.empty(),
+        PersistentHashMap.empty(), PersistentHashMap.empty());
+
+    /**
+     * Documents by database, collection and did.
+     */
+    private final PersistentHashMap<String, PersistentHashMap<String,
+        PersistentHashMap<Integer, KvDocument>>> data;
+    /**
+     * Indexes by database, collection and name.
+     */
+    private final PersistentHashMap<String, PersistentHashMap<String,
+        PersistentHashMap<String, MemoryIndex>>> indexes;
+    private final PersistentHashMap<String, KvValue<?>> metainfo;
+
+    private MdState(
+        PersistentHashMap<String, PersistentHashMap<String,
+            PersistentHashMap<Integer, KvDocument>>> data,
+        PersistentHashMap<String, PersistentHashMap<String,
+            PersistentHashMap<String, MemoryIndex>>> indexes,
+        PersistentHashMap<String, KvValue<?>> metainfo) {
       this.data = data;
-      this.dbs = dbs;
       this.indexes = indexes;
+      this.metainfo = metainfo;
+    }
+
+    @Nullable
+    PersistentHashMap<Integer, KvDocument> getCollection(String db, String col) {
+      PersistentHashMap<String, PersistentHashMap<Integer, KvDocument>> cols = data.get(db);
+      if (cols == null) {
+        return null;
+      }
+      return cols.get(col);
+    }
+
+    Stream<String> streamCollections(String db) {
+      return data.getOrDefault(db, PersistentHashMap.empty()).keys();
+    }
+
+    PersistentHashMap<String, MemoryIndex> getIndexes(String db, String col) {
+      return indexes.getOrDefault(db, PersistentHashMap.empty())
+          .getOrDefault(col, PersistentHashMap.empty());
+    }
+
+    MdState withDatabase(String db) {
+      if (data.containsKey(db)) {
+        return this;
+      }
+      return new MdState(data.plus(db, PersistentHashMap.empty()), indexes, metainfo);
+    }
+
+    MdState withoutDatabase(String db) {
+      return new MdState(data.minus(db), indexes.minus(db), metainfo);
+    }
+
+    MdState withCollection(String db, String col, PersistentHashMap<Integer, KvDocument> docs) {
+      PersistentHashMap<String, PersistentHashMap<Integer, KvDocument>> cols = data.getOrDefault(
+          db, PersistentHashMap.empty());
+      return new MdState(data.plus(db, cols.plus(col, docs)), indexes, metainfo);
+    }
+
+    MdState withoutCollection(String db, String col) {
+      PersistentHashMap<String, PersistentHashMap<Integer, KvDocument>> cols = data.get(db);
+      if (cols == null || !cols.containsKey(col)) {
+        return this;
+      }
+      return new MdState(data.plus(db, cols.minus(col)), withIndexes(indexes, db, col,
+          PersistentHashMap.empty()), metainfo);
+    }
+
+    MdState withIndexes(String db, String col, PersistentHashMap<String, MemoryIndex> colIndexes) {
+      return new MdState(data, withIndexes(indexes, db, col, colIndexes), metainfo);
+    }
+
+    private static PersistentHashMap<String, PersistentHashMap<String,
+        PersistentHashMap<String, MemoryIndex>>> withIndexes(
+        PersistentHashMap<String, PersistentHashMap<String,
+            PersistentHashMap<String, MemoryIndex>>> indexes,
+        String db, String col, PersistentHashMap<String, MemoryIndex> colIndexes) {
+      PersistentHashMap<String, PersistentHashMap<String, MemoryIndex>> dbIndexes = indexes
+          .getOrDefault(db, PersistentHashMap.empty());
+      dbIndexes = colIndexes.isEmpty() ? dbIndexes.minus(col) : dbIndexes.plus(col, colIndexes);
+      return dbIndexes.isEmpty() ? indexes.minus(db) : indexes.plus(db, dbIndexes);
+    }
+
+    MdState withoutDocuments() {
+      return new MdState(PersistentHashMap.empty(), indexes, metainfo);
     }
 
-    public Table<String, String, Map<Integer, KvDocument>> getData() {
-      return data;
+    MdState withMetainfo(String key, KvValue<?> value) {
+      return new MdState(data, indexes, metainfo.plus(key, value));
     }
+  }
+
+  public static class MdTransaction implements AutoCloseable {
+
+    private boolean closed = false;
+    MdState state;
 
-    public Set<String> getDbs() {
-      return dbs;
+    public MdTransaction(MdState state) {
+      this.state = state;
     }
 
-    public Table<String, String, Map<String, IndexInfo>> getIndexes() {
-      return indexes;
+    public Optional<KvValue<?>> readMetaInfo(String key) {
+      return Optional.ofNullable(state.metainfo.get(key));
     }
 
     public boolean isClosed() {
@@ -119,24 +206,60 @@ class MemoryData {
     }
 
     public boolean existsDatabase(String db) {
-      return data.containsRow(db);
+      return !state.data.getOrDefault(db, PersistentHashMap.empty()).isEmpty();
     }
 
     public boolean existsCollection(String db, String col) {
-      return data.contains(db, col);
+      return state.getCollection(db, col) != null;
+    }
+
+    @Nullable
+    public KvDocument getDocument(String db, String col, int did) {
+      PersistentHashMap<Integer, KvDocument> docs = state.getCollection(db, col);
+      if (docs == null) {
+        return null;
+      }
+      return docs.get(did);
     }
 
     public Stream<ToroDocument> streamCollection(String db, String col) {
-      Map<Integer, KvDocument> map = data.get(db, col);
-      if (map == null) {
+      PersistentHashMap<Integer, KvDocument> docs = state.getCollection(db, col);
+      if (docs == null) {
         return Stream.empty();
       }
-      return map.entrySet().stream()
+      return docs.entries()
           .map(this::entryToDocument);
     }
 
     public Stream<String> streamDbs() {
-      return dbs.stream();
+      return state.data.keys();
+    }
+
+    public Stream<String> streamCollections(String db) {
+      return state.streamCollections(db);
+    }
+
+    public Stream<IndexInfo> streamIndexes(String db, String col) {
+      return state.getIndexes(db, col).values()
+          .map(MemoryIndex::getInfo);
+    }
+
+    /**
+     * Returns an index that can be used to evaluate the given filter, if there is one.
+     */
+    public Optional<MemoryIndex> findIndex(String db, String col, AttributeFilter filter) {
+      return state.getIndexes(db, col).values()
+          .filter(index -> index.supports(filter))
+          .findAny();
+    }
+
+    /**
+     * Returns an index on the given attribute, if there is one.
+     */
+    public Optional<MemoryIndex> findIndex(String db, String col, AttributeReference attRef) {
+      return state.getIndexes(db, col).values()
+          .filter(index -> index.getAttributeReference().equals(attRef))
+          .findAny();
     }
 
     @Override
@@ -147,8 +270,10 @@ class MemoryData {
     }
 
     public Stream<ToroDocument> streamAllDocs() {
-      return data.values().stream().flatMap(map -> map.entrySet().stream()).map(
-          this::entryToDocument);
+      return state.data.values()
+          .flatMap(PersistentHashMap::values)
+          .flatMap(PersistentHashMap::entries)
+          .map(this::entryToDocument);
     }
 
     private ToroDocument entryToDocument(Map.Entry<Integer, KvDocument> entry) {
@@ -160,10 +285,8 @@ class MemoryData {
   @NotThreadSafe
   public static class MdReadTransaction extends MdTransaction {
 
-    public MdReadTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Set<String> dbs,
-        Table<String, String, Map<String, IndexInfo>> indexes) {
-      super(data, dbs, indexes);
+    public MdReadTransaction(MdState state) {
+      super(state);
     }
 
   }
@@ -171,102 +294,136 @@ class MemoryData {
   @NotThreadSafe
   public static class MdWriteTransaction extends MdTransaction {
 
-    Table<String, String, Map<Integer, KvDocument>> initialData;
-    Set<String> initialDbs;
+    private MdState initialState;
     private final IntSupplier idGenerator;
-    private final Consumer<MdTransaction> commitConsumer;
+    private final Consumer<MdState> commitConsumer;
     private final Lock lock;
 
     public MdWriteTransaction(
-        Table<String, String, Map<Integer, KvDocument>> data,
-        Set<String> dbs,
-        Table<String, String, Map<String, IndexInfo>> indexes,
+        MdState state,
         IntSupplier idGenerator,
-        Consumer<MdTransaction> commitConsumer,
+        Consumer<MdState> commitConsumer,
         Lock lock) {
-      super(HashBasedTable.create(data), new HashSet<>(dbs), HashBasedTable.create(indexes));
+      super(state);
       this.idGenerator = idGenerator;
       this.commitConsumer = commitConsumer;
       this.lock = lock;
-      this.initialData = data;
-      this.initialDbs = dbs;
+      this.initialState = state;
     }
 
     public void clear() {
       Preconditions.checkState(!isClosed(), "This transaction is closed");
-      data.clear();
+      state = state.withoutDocuments();
     }
 
-    Map<Integer, KvDocument> getMap(String db, String col) {
-      Map<Integer, KvDocument> map = data.get(db, col);
+    PersistentHashMap<Integer, KvDocument> getMap(String db, String col) {
+      PersistentHashMap<Integer, KvDocument> map = state.getCollection(db, col);
       if (map == null) {
-        map = new HashMap<>();
-        data.put(db, col, map);
-        dbs.add(db);
+        map = PersistentHashMap.empty();
+        state = state.withCollection(db, col, map);
       }
       return map;
     }
 
     void insert(String db, String col, Stream<KvDocument> docs)
         throws UniqueIndexViolationException {
-      Map<Integer, KvDocument> map = getMap(db, col);
+      PersistentHashMap<Integer, KvDocument> map = getMap(db, col);
+      PersistentHashMap<String, MemoryIndex> indexes = state.getIndexes(db, col);
       List<KvDocument> docList = docs.collect(Collectors.toList());
 
-      Optional<KvDocument> repeatedDoc = docList.stream()
-          .filter(doc -> {
-            KvValue<?> mongoId = doc.get(_ID);
-            if (mongoId != null) {
-              Optional<KvDocument> withSameId = map.values().stream()
-                  .filter(otherDoc -> mongoId.equals(otherDoc.get(_ID)))
-                  .findAny();
-              return withSameId.isPresent();
-            }
-            return false;
-          })
-          .findAny();
-      if (repeatedDoc.isPresent()) {
-        throw new UniqueIndexViolationException(_ID, repeatedDoc.get());
+      boolean idIndexed = indexes.values()
+          .anyMatch(index -> index.getInfo().isUnique()
+              && index.getAttributeReference().equals(_ID_ATT_REF));
+      if (!idIndexed) {
+        Optional<KvDocument> repeatedDoc = docList.stream()
+            .filter(doc -> {
+              KvValue<?> mongoId = doc.get(_ID);
+              if (mongoId != null) {
+                Optional<KvDocument> withSameId = map.values()
+                    .filter(otherDoc -> mongoId.equals(otherDoc.get(_ID)))
+                    .findAny();
+                return withSameId.isPresent();
+              }
+              return false;
+            })
+            .findAny();
+        if (repeatedDoc.isPresent()) {
+          throw new UniqueIndexViolationException(_ID, repeatedDoc.get());
+        }
       }
 
-      docList.forEach(doc -> {
+      PersistentHashMap<Integer, KvDocument> newMap = map;
+      PersistentHashMap<String, MemoryIndex> newIndexes = indexes;
+      for (KvDocument doc : docList) {
         int id = idGenerator.getAsInt();
-        map.put(id, doc);
-      });
+        newMap = newMap.plus(id, doc);
+        for (MemoryIndex index : (Iterable<MemoryIndex>) indexes.values()::iterator) {
+          String indexName = index.getInfo().getName();
+          newIndexes = newIndexes.plus(indexName, newIndexes.get(indexName).plus(id, doc));
+        }
+      }
+      state = state.withCollection(db, col, newMap)
+          .withIndexes(db, col, newIndexes);
     }
 
     long delete(String dbName, String colName, Stream<Integer> dids) {
-      Map<Integer, KvDocument> map = getMap(dbName, colName);
-      return dids.map(did -> {
-        return map.remove(did) != null;
-      })
-          .filter(b -> b)
-          .count();
+      PersistentHashMap<Integer, KvDocument> map = getMap(dbName, colName);
+      PersistentHashMap<String, MemoryIndex> indexes = state.getIndexes(dbName, colName);
+      PersistentHashMap<Integer, KvDocument> newMap = map;
+      PersistentHashMap<String, MemoryIndex> newIndexes = indexes;
+      for (Iterator<Integer> it = dids.iterator(); it.hasNext();) {
+        int did = it.next();
+        KvDocument doc = newMap.get(did);
+        if (doc != null) {
+          newMap = newMap.minus(did);
+          for (MemoryIndex index : (Iterable<MemoryIndex>) indexes.values()::iterator) {
+            String indexName = index.getInfo().getName();
+            newIndexes = newIndexes.plus(indexName, newIndexes.get(indexName).minus(did, doc));
+          }
+        }
+      }
+      state = state.withCollection(dbName, colName, newMap)
+          .withIndexes(dbName, colName, newIndexes);
+      return map.size() - newMap.size();
     }
 
     long deleteAll(String dbName, String colName) {
-      Map<Integer, KvDocument> map = data.get(dbName, colName);
+      PersistentHashMap<Integer, KvDocument> map = state.getCollection(dbName, colName);
       if (map == null) {
         return 0;
       }
-      int count = map.size();
-      map.clear();
-      return count;
+      PersistentHashMap<String, MemoryIndex> newIndexes = PersistentHashMap.empty();
+      for (MemoryIndex index : (Iterable<MemoryIndex>) state.getIndexes(dbName, colName)
+          .values()::iterator) {
+        newIndexes = newIndexes.plus(index.getInfo().getName(), index.clear());
+      }
+      state = state.withCollection(dbName, colName, PersistentHashMap.empty())
+          .withIndexes(dbName, colName, newIndexes);
+      return map.size();
     }
 
     void dropCollection(String dbName, String colName) {
-      data.remove(dbName, colName);
+      state = state.withoutCollection(dbName, colName);
     }
 
     void renameCollection(String fromDb, String fromCollection, String toDb, String toCollection) {
-      Map<Integer, KvDocument> col = data.remove(fromDb, fromCollection);
+      PersistentHashMap<Integer, KvDocument> col = state.getCollection(fromDb, fromCollection);
       if (col != null) {
-        data.put(toDb, toCollection, col);
-        dbs.add(toDb);
+        PersistentHashMap<String, MemoryIndex> indexes = state.getIndexes(fromDb, fromCollection);
+        state = state.withoutCollection(fromDb, fromCollection)
+            .withCollection(toDb, toCollection, col)
+            .withIndexes(toDb, toCollection, indexes);
       }
     }
 
+    KvValue<?> writeMetaInfo(String key, KvValue<?> newValue) {
+      KvValue<?> oldValue = state.metainfo.get(key);
+      state = state.withMetainfo(key, newValue);
+      return oldValue;
+    }
+
     void createDatabase(String dbName) {
-      dbs.add(dbName);
+      state = state.withDatabase(dbName);
     }
 
     void createCollection(String dbName, String colName) {
@@ -274,23 +431,53 @@ class MemoryData {
     }
 
     void dropDatabase(String dbName) {
-      HashSet<String> columns = new HashSet<>(data.row(dbName).keySet());
+      state = state.withoutDatabase(dbName);
+    }
+
+    /**
+     * Creates an index that contains the documents already stored on the collection.
+     *
+     * @return true iff the index was created (otherwise there was a compatible index before)
+     * @throws UniqueIndexViolationException if the index is unique and two documents have the same
+     *                                       value
+     */
+    boolean createIndex(String dbName, String colName, String indexName, IndexFieldInfo field,
+        boolean unique) throws UniqueIndexViolationException {
+      PersistentHashMap<String, MemoryIndex> indexes = state.getIndexes(dbName, colName);
+      boolean exists = indexes.values()
+          .map(MemoryIndex::getInfo)
+          .anyMatch(info -> info.getName().equals(indexName) || (info.isUnique() == unique
+              && info.getFields().size() == 1
+              && info.getFields().get(0).getAttributeReference().equals(
+                  field.getAttributeReference())
+              && info.getFields().get(0).isAscending() == field.isAscending()));
+      if (exists) {
+        return false;
+      }
+      IndexInfo info = new IndexInfo.Builder(indexName, unique)
+          .addField(field.getAttributeReference(), field.isAscending())
+          .build();
+      MemoryIndex index = MemoryIndex.create(info, getMap(dbName, colName));
+      state = state.withIndexes(dbName, colName, indexes.plus(indexName, index));
+      return true;
+    }
 
-      for (String colName : columns) {
-        data.remove(dbName, colName);
+    boolean dropIndex(String dbName, String colName, String indexName) {
+      PersistentHashMap<String, MemoryIndex> indexes = state.getIndexes(dbName, colName);
+      if (!indexes.containsKey(indexName)) {
+        return false;
       }
-      dbs.remove(dbName);
+      state = state.withIndexes(dbName, colName, indexes.minus(indexName));
+      return true;
     }
 
     void rollback() {
-      this.data = HashBasedTable.create(initialData);
-      this.dbs = new HashSet<>(initialDbs);
+      state = initialState;
     }
 
     void commit() {
-      commitConsumer.accept(this);
-      initialData = HashBasedTable.create(data);
-      initialDbs = new HashSet<>(dbs);
+      commitConsumer.accept(state);
+      initialState = state;
     }
 
     @Override
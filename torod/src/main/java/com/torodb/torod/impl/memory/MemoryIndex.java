@@ -0,0 +1,250 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.memory;
+
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.core.language.AttributeFilter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.KvValueComparator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.IndexInfo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A single field index of the in memory torod engine.
+ *
+ * <p>Documents are stored by the value their indexed attribute has, so equality lookups are hash
+ * lookups. Filters use the same values sorted by {@link KvValueComparator}, which are calculated
+ * the first time they are needed and then shared by all transactions that see this version of the
+ * index. As the comparator puts all numbers on the same bracket, filters find numbers of any type.
+ * Documents that do not contain the indexed attribute are not indexed.
+ *
+ * <p>Like {@link PersistentHashMap}, this class is immutable and modifications return a new index
+ * that shares most of its structure with the original one.
+ */
+@Immutable
+class MemoryIndex {
+
+  private static final KvValueComparator COMPARATOR = KvValueComparator.INSTANCE;
+
+  private final IndexInfo info;
+  private final AttributeReference attRef;
+  private final PersistentHashMap<KvValue<?>, PersistentHashMap<Integer, KvDocument>> entries;
+  private volatile List<KvValue<?>> sortedKeys;
+
+  private MemoryIndex(IndexInfo info,
+      PersistentHashMap<KvValue<?>, PersistentHashMap<Integer, KvDocument>> entries) {
+    this.info = info;
+    this.attRef = info.getFields().get(0).getAttributeReference();
+    this.entries = entries;
+  }
+
+  /**
+   * Creates an index that contains the given documents.
+   *
+   * @throws UniqueIndexViolationException if the index is unique and two documents have the same
+   *                                       value
+   */
+  static MemoryIndex create(IndexInfo info, PersistentHashMap<Integer, KvDocument> docs)
+      throws UniqueIndexViolationException {
+    MemoryIndex index = new MemoryIndex(info, PersistentHashMap.empty());
+    for (Map.Entry<Integer, KvDocument> doc : (Iterable<Map.Entry<Integer, KvDocument>>)
+        docs.entries()::iterator) {
+      index = index.plus(doc.getKey(), doc.getValue());
+    }
+    return index;
+  }
+
+  IndexInfo getInfo() {
+    return info;
+  }
+
+  AttributeReference getAttributeReference() {
+    return attRef;
+  }
+
+  /**
+   * Returns an index that contains the same documents as this one and the given one.
+   *
+   * @throws UniqueIndexViolationException if the index is unique and another document has the
+   *                                       same value
+   */
+  MemoryIndex plus(int did, KvDocument doc) throws UniqueIndexViolationException {
+    Optional<KvValue<?>> value = AttributeRefKvDocResolver.resolve(attRef, doc);
+    if (!value.isPresent()) {
+      return this;
+    }
+    PersistentHashMap<Integer, KvDocument> docs = entries.getOrDefault(value.get(),
+        PersistentHashMap.empty());
+    if (info.isUnique() && !docs.isEmpty() && !docs.containsKey(did)) {
+      throw new UniqueIndexViolationException(info.getName(), value.get());
+    }
+    return new MemoryIndex(info, entries.plus(value.get(), docs.plus(did, doc)));
+  }
+
+  /**
+   * Returns an index that contains the same documents as this one except the given one.
+   */
+  MemoryIndex minus(int did, KvDocument doc) {
+    Optional<KvValue<?>> value = AttributeRefKvDocResolver.resolve(attRef, doc);
+    if (!value.isPresent()) {
+      return this;
+    }
+    PersistentHashMap<Integer, KvDocument> docs = entries.get(value.get());
+    if (docs == null || !docs.containsKey(did)) {
+      return this;
+    }
+    PersistentHashMap<Integer, KvDocument> newDocs = docs.minus(did);
+    return new MemoryIndex(info, newDocs.isEmpty()
+        ? entries.minus(value.get())
+        : entries.plus(value.get(), newDocs));
+  }
+
+  /**
+   * Returns an index with the same definition as this one but without documents.
+   */
+  MemoryIndex clear() {
+    return new MemoryIndex(info, PersistentHashMap.empty());
+  }
+
+  /**
+   * Returns true if this index can be used to evaluate the given filter, which requires that it is
+   * not fulfilled by the documents that do not contain the attribute, as they are not indexed.
+   */
+  boolean supports(AttributeFilter filter) {
+    return attRef.equals(filter.getAttributeReference()) && !filter.getOperator().isNegated()
+        && !filter.matchesNull();
+  }
+
+  /**
+   * Returns the documents whose indexed attribute is equal to the given value.
+   *
+   * <p>Values of different types are never equal, so for example the integer 1 is not equal to the
+   * long 1.
+   */
+  Stream<ToroDocument> findEqual(KvValue<?> value) {
+    return toDocuments(entries.get(value));
+  }
+
+  /**
+   * Returns the documents whose indexed attribute is equal to one of the given values.
+   */
+  Stream<ToroDocument> findIn(Collection<KvValue<?>> values) {
+    return values.stream()
+        .distinct()
+        .flatMap(this::findEqual);
+  }
+
+  /**
+   * Returns the documents that fulfill the given filter, which must be
+   * {@link #supports(AttributeFilter) supported} by this index.
+   *
+   * <p>Values are compared as {@link AttributeFilter} does, so numbers of different types are
+   * compared by their numeric value and range filters only find values on the same bracket as their
+   * bound.
+   */
+  Stream<ToroDocument> find(AttributeFilter filter) {
+    assert supports(filter);
+    List<KvValue<?>> keys = getSortedKeys();
+    if (!filter.getOperator().isRange()) {
+      return filter.getValues().stream()
+          .flatMap(value -> keys.subList(
+              firstKey(keys, key -> COMPARATOR.compare(key, value) >= 0),
+              firstKey(keys, key -> COMPARATOR.compare(key, value) > 0)
+          ).stream())
+          .distinct()
+          .flatMap(this::findEqual);
+    }
+    KvValue<?> bound = filter.getValues().get(0);
+    int lowerBound = firstKey(keys, key -> COMPARATOR.compare(key, bound) >= 0);
+    int upperBound = firstKey(keys, key -> COMPARATOR.compare(key, bound) > 0);
+    int bracketStart = firstKey(keys, key -> COMPARATOR.isSameBracket(key, bound)
+        || COMPARATOR.compare(key, bound) > 0);
+    int bracketEnd = firstKey(keys, key -> !COMPARATOR.isSameBracket(key, bound)
+        && COMPARATOR.compare(key, bound) > 0);
+    List<KvValue<?>> matching;
+    switch (filter.getOperator()) {
+      case GT:
+        matching = keys.subList(upperBound, bracketEnd);
+        break;
+      case GTE:
+        matching = keys.subList(lowerBound, bracketEnd);
+        break;
+      case LT:
+        matching = keys.subList(bracketStart, lowerBound);
+        break;
+      case LTE:
+        matching = keys.subList(bracketStart, upperBound);
+        break;
+      default:
+        throw new AssertionError("Unexpected range operator " + filter.getOperator());
+    }
+    return matching.stream()
+        .flatMap(this::findEqual);
+  }
+
+  private List<KvValue<?>> getSortedKeys() {
+    List<KvValue<?>> result = sortedKeys;
+    if (result == null) {
+      result = entries.keys()
+          .sorted(COMPARATOR)
+          .collect(Collectors.toList());
+      sortedKeys = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the position of the first key that fulfills the given predicate, which must be false
+   * for a prefix of the sorted keys and true for the rest of them.
+   */
+  private static int firstKey(List<KvValue<?>> keys, Predicate<KvValue<?>> predicate) {
+    int low = 0;
+    int high = keys.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (predicate.test(keys.get(mid))) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  private static Stream<ToroDocument> toDocuments(PersistentHashMap<Integer, KvDocument> docs) {
+    if (docs == null) {
+      return Stream.empty();
+    }
+    return docs.entries()
+        .map(entry -> new ToroDocument(entry.getKey(), entry.getValue()));
+  }
+}
@@ -18,12 +18,16 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.IndexFieldInfo;
 import com.torodb.torod.IndexInfo;
 import com.torodb.torod.SchemaOperationExecutor;
+import com.torodb.torod.exception.UnexistentCollectionException;
+import com.torodb.torod.exception.UnexistentDatabaseException;
+import com.torodb.torod.exception.UnsupportedIndexException;
 import com.torodb.torod.exception.UserSchemaException;
 
 import java.util.Collection;
@@ -92,15 +96,38 @@ class MemorySchemaOperationExecutor implements SchemaOperationExecutor {
 
   @Override
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) {
-    //Indexes are ignored on this mode
-    return false;
+      List<IndexFieldInfo> fields, boolean unique) throws UnexistentDatabaseException,
+      UnexistentCollectionException, UnsupportedIndexException {
+    if (fields.size() != 1) {
+      throw new UnsupportedIndexException(dbName, colName, indexName,
+          "Only single field indexes are supported");
+    }
+    checkCollectionExists(dbName, colName);
+    try {
+      boolean created = trans.createIndex(dbName, colName, indexName, fields.get(0), unique);
+      trans.commit();
+      return created;
+    } catch (UniqueIndexViolationException ex) {
+      trans.rollback();
+      throw new UserSchemaException("Impossible to create the index", ex);
+    }
   }
 
   @Override
   public boolean dropIndex(String dbName, String colName, String indexName) {
-    //Indexes are ignored on this mode
-    return false;
+    checkCollectionExists(dbName, colName);
+    boolean dropped = trans.dropIndex(dbName, colName, indexName);
+    trans.commit();
+    return dropped;
+  }
+
+  private void checkCollectionExists(String dbName, String colName) {
+    if (!trans.existsCollection(dbName, colName)) {
+      if (trans.streamDbs().noneMatch(dbName::equals)) {
+        throw new UnexistentDatabaseException(dbName);
+      }
+      throw new UnexistentCollectionException(dbName, colName);
+    }
   }
 
   @Override
@@ -110,7 +137,7 @@ class MemorySchemaOperationExecutor implements SchemaOperationExecutor {
 
   @Override
   public Stream<IndexInfo> getIndexesInfo(String database, String collection) {
-    return Stream.empty();
+    return trans.streamIndexes(database, collection);
   }
 
   @Override
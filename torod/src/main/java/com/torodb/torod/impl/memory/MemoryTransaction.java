@@ -18,14 +18,20 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.cursors.TransformCursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
+import com.torodb.core.language.AttributeFilter;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
 import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.KvValueComparator;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
@@ -37,9 +43,11 @@ import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -79,6 +87,43 @@ abstract class MemoryTransaction implements DocTransaction {
     return getTransaction().streamCollection(dbName, colName).count();
   }
 
+  @Override
+  public long countByFilter(String dbName, String colName, QueryFilter filter) {
+    return streamByFilter(dbName, colName, filter).count();
+  }
+
+  @Override
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    Set<KvValue<?>> values = new TreeSet<>(KvValueComparator.INSTANCE);
+    streamByFilter(dbName, colName, filter)
+        .forEach(doc -> values.addAll(AttributeRefKvDocResolver.resolveAll(attRef,
+            doc.getRoot())));
+    return values.stream();
+  }
+
+  Stream<ToroDocument> streamByFilter(String dbName, String colName, QueryFilter filter) {
+    return streamCandidates(dbName, colName, filter)
+        .filter(doc -> filter.getAttributeFilters().stream()
+            .allMatch(attFilter -> attFilter.test(AttributeRefKvDocResolver.resolve(
+                attFilter.getAttributeReference(), doc.getRoot()))));
+  }
+
+  /**
+   * Returns the documents that may fulfill the given filter, using an index if there is one that
+   * can evaluate any of its attribute filters.
+   */
+  private Stream<ToroDocument> streamCandidates(String dbName, String colName,
+      QueryFilter filter) {
+    for (AttributeFilter attFilter : filter.getAttributeFilters()) {
+      Optional<MemoryIndex> index = getTransaction().findIndex(dbName, colName, attFilter);
+      if (index.isPresent()) {
+        return index.get().find(attFilter);
+      }
+    }
+    return getTransaction().streamCollection(dbName, colName);
+  }
+
   @Override
   public TorodCursor findAll(String dbName, String colName) {
     return createCursor(getTransaction().streamCollection(dbName, colName));
@@ -86,6 +131,10 @@ abstract class MemoryTransaction implements DocTransaction {
 
   Stream<ToroDocument> streamByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
+    Optional<MemoryIndex> index = getTransaction().findIndex(dbName, colName, attRef);
+    if (index.isPresent()) {
+      return index.get().findEqual(value);
+    }
     return getTransaction().streamCollection(dbName, colName)
         .filter(doc -> {
           Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
@@ -100,9 +149,33 @@ abstract class MemoryTransaction implements DocTransaction {
     return createCursor(streamByAttRef(dbName, colName, attRef, value));
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit) {
+    Stream<ToroDocument> docs = streamByFilter(dbName, colName, filter);
+    if (!sort.isEmpty()) {
+      Comparator<KvDocument> comparator = sort.getComparator();
+      docs = docs.sorted((doc1, doc2) -> comparator.compare(doc1.getRoot(), doc2.getRoot()));
+    }
+    if (skip > 0) {
+      docs = docs.skip(skip);
+    }
+    if (limit > 0) {
+      docs = docs.limit(limit);
+    }
+    return createCursor(docs
+        .map(doc -> projection.isAll() ? doc : new ToroDocument(doc.getId(),
+            projection.apply(doc.getRoot())))
+    );
+  }
+
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
+    Optional<MemoryIndex> index = getTransaction().findIndex(dbName, colName, attRef);
+    if (index.isPresent()) {
+      return createCursor(index.get().findIn(values));
+    }
     return createCursor(getTransaction().streamCollection(dbName, colName)
             .filter(doc -> {
               Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
@@ -126,9 +199,9 @@ abstract class MemoryTransaction implements DocTransaction {
 
   @Override
   public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor) {
-    Map<Integer, KvDocument> colData = getTransaction().data.get(dbName, colName);
+    MemoryData.MdTransaction trans = getTransaction();
     return createCursor(didCursor.getRemaining().stream()
-        .map(did -> new Tuple2<>(did, colData.get(did)))
+        .map(did -> new Tuple2<>(did, trans.getDocument(dbName, colName, did)))
         .filter(tuple -> tuple.v2 != null)
         .map(tuple -> new ToroDocument(tuple.v1, tuple.v2))
     );
@@ -155,14 +228,14 @@ abstract class MemoryTransaction implements DocTransaction {
 
   @Override
   public Stream<CollectionInfo> getCollectionsInfo(String dbName) {
-    return getTransaction().data.row(dbName).keySet().stream()
+    return getTransaction().streamCollections(dbName)
         .map(colName -> getCollectionInfoPrivate(colName));
   }
 
   @Override
   public CollectionInfo getCollectionInfo(String dbName, String colName) throws
       CollectionNotFoundException {
-    if (!getTransaction().data.contains(dbName, colName)) {
+    if (!getTransaction().existsCollection(dbName, colName)) {
       throw new CollectionNotFoundException(dbName, colName);
     }
     return getCollectionInfoPrivate(colName);
@@ -174,12 +247,7 @@ abstract class MemoryTransaction implements DocTransaction {
 
   @Override
   public Stream<IndexInfo> getIndexesInfo(String dbName, String colName) {
-    Map<String, IndexInfo> indexesOnTable = getTransaction().getIndexes()
-        .get(dbName, colName);
-    if (indexesOnTable == null) {
-      return Stream.empty();
-    }
-    return indexesOnTable.values().stream();
+    return getTransaction().streamIndexes(dbName, colName);
   }
 
   @Override
@@ -191,6 +259,11 @@ abstract class MemoryTransaction implements DocTransaction {
             new IndexNotFoundException(dbName, colName, idxName));
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return getTransaction().readMetaInfo(key.getKeyName());
+  }
+
   @Override
   public void close() {
     if (!closed) {
@@ -18,6 +18,7 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -29,6 +30,7 @@ import com.torodb.torod.WriteDocTransaction;
 import com.torodb.torod.impl.memory.MemoryData.MdTransaction;
 
 import java.util.Collection;
+import java.util.List;
 
 
 /**
@@ -72,6 +74,21 @@ class MemoryWriteTransaction extends MemoryTransaction implements WriteDocTransa
     trans.delete(dbName, colName, cursor.getRemaining().stream());
   }
 
+  /**
+   * Documents are stored as a whole on memory, so replacing them is as cheap as it can be and this
+   * method never updates them.
+   */
+  @Override
+  public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+      List<KvDocument> updatedDocs) {
+    return false;
+  }
+
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return trans.writeMetaInfo(key.getKeyName(), newValue);
+  }
+
   @Override
   public void rollback() {
     trans.rollback();
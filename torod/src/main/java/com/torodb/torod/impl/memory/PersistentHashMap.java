@@ -0,0 +1,380 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.memory;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable hash map implemented as a hash array mapped trie.
+ *
+ * <p>Modifications return a new map that shares all nodes with the original one except the ones
+ * on the path to the modified key, so they cost O(log<sub>32</sub> n) instead of the O(n) needed
+ * to copy a {@link java.util.HashMap}. That makes it cheap to keep several versions of the same
+ * map, which is what the transactions of the memory engine do.
+ */
+@Immutable
+final class PersistentHashMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentHashMap EMPTY = new PersistentHashMap<>(
+      new BitmapNode<>(0, new Object[0]), 0);
+
+  private final Node<K, V> root;
+  private final int size;
+
+  private PersistentHashMap(Node<K, V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> empty() {
+    return EMPTY;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Nullable
+  public V get(Object key) {
+    return root.get(hash(key), 0, key);
+  }
+
+  public V getOrDefault(Object key, V defaultValue) {
+    V value = get(key);
+    return value != null ? value : defaultValue;
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns a map that contains the same mappings as this one and maps the given key to the given
+   * value.
+   */
+  public PersistentHashMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    boolean[] added = new boolean[1];
+    Node<K, V> newRoot = root.plus(hash(key), 0, new Leaf<>(hash(key), key, value), added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map that contains the same mappings as this one except the one of the given key.
+   */
+  public PersistentHashMap<K, V> minus(Object key) {
+    Node<K, V> newRoot = root.minus(hash(key), 0, key);
+    if (newRoot == root) {
+      return this;
+    }
+    if (newRoot == null) {
+      return empty();
+    }
+    return new PersistentHashMap<>(newRoot, size - 1);
+  }
+
+  public Stream<Map.Entry<K, V>> entries() {
+    return root.entries();
+  }
+
+  public Stream<K> keys() {
+    return entries().map(Map.Entry::getKey);
+  }
+
+  public Stream<V> values() {
+    return entries().map(Map.Entry::getValue);
+  }
+
+  private static int hash(Object key) {
+    int hash = key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int index(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  private abstract static class Node<K, V> {
+
+    @Nullable
+    abstract V get(int hash, int shift, Object key);
+
+    /**
+     * Returns this node if the leaf was already contained.
+     */
+    abstract Node<K, V> plus(int hash, int shift, Leaf<K, V> leaf, boolean[] added);
+
+    /**
+     * Returns this node if the key is not contained or null if the returned node would be empty.
+     */
+    @Nullable
+    abstract Node<K, V> minus(int hash, int shift, Object key);
+
+    abstract Stream<Map.Entry<K, V>> entries();
+  }
+
+  private static final class Leaf<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int hash;
+
+    private Leaf(int hash, K key, V value) {
+      super(key, value);
+      this.hash = hash;
+    }
+  }
+
+  /**
+   * A node whose slots are either {@link Leaf leaves} or child {@link Node nodes}. Only non empty
+   * slots are stored and the bitmap is used to know which ones they are.
+   */
+  private static final class BitmapNode<K, V> extends Node<K, V> {
+
+    private final int bitmap;
+    private final Object[] slots;
+
+    private BitmapNode(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+
+    private int position(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V get(int hash, int shift, Object key) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      Object slot = slots[position(bit)];
+      if (slot instanceof Leaf) {
+        Leaf<K, V> leaf = (Leaf<K, V>) slot;
+        return key.equals(leaf.getKey()) ? leaf.getValue() : null;
+      }
+      return ((Node<K, V>) slot).get(hash, shift + BITS, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> plus(int hash, int shift, Leaf<K, V> leaf, boolean[] added) {
+      int bit = 1 << index(hash, shift);
+      int pos = position(bit);
+      if ((bitmap & bit) == 0) {
+        added[0] = true;
+        Object[] newSlots = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, newSlots, 0, pos);
+        newSlots[pos] = leaf;
+        System.arraycopy(slots, pos, newSlots, pos + 1, slots.length - pos);
+        return new BitmapNode<>(bitmap | bit, newSlots);
+      }
+      Object slot = slots[pos];
+      Object newSlot;
+      if (slot instanceof Leaf) {
+        Leaf<K, V> oldLeaf = (Leaf<K, V>) slot;
+        if (leaf.getKey().equals(oldLeaf.getKey())) {
+          if (leaf.getValue() == oldLeaf.getValue()) {
+            return this;
+          }
+          newSlot = leaf;
+        } else {
+          added[0] = true;
+          newSlot = merge(shift + BITS, oldLeaf, leaf);
+        }
+      } else {
+        Node<K, V> child = (Node<K, V>) slot;
+        newSlot = child.plus(hash, shift + BITS, leaf, added);
+        if (newSlot == child) {
+          return this;
+        }
+      }
+      return new BitmapNode<>(bitmap, replace(pos, newSlot));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> minus(int hash, int shift, Object key) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int pos = position(bit);
+      Object slot = slots[pos];
+      if (slot instanceof Leaf) {
+        if (!key.equals(((Leaf<K, V>) slot).getKey())) {
+          return this;
+        }
+        return remove(pos, bit);
+      }
+      Node<K, V> child = (Node<K, V>) slot;
+      Node<K, V> newChild = child.minus(hash, shift + BITS, key);
+      if (newChild == child) {
+        return this;
+      }
+      if (newChild == null) {
+        return remove(pos, bit);
+      }
+      return new BitmapNode<>(bitmap, replace(pos, newChild));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Stream<Map.Entry<K, V>> entries() {
+      return Arrays.stream(slots)
+          .flatMap(slot -> slot instanceof Leaf
+              ? Stream.of((Leaf<K, V>) slot)
+              : ((Node<K, V>) slot).entries());
+    }
+
+    private Object[] replace(int pos, Object newSlot) {
+      Object[] newSlots = slots.clone();
+      newSlots[pos] = newSlot;
+      return newSlots;
+    }
+
+    @Nullable
+    private Node<K, V> remove(int pos, int bit) {
+      if (slots.length == 1) {
+        return null;
+      }
+      Object[] newSlots = new Object[slots.length - 1];
+      System.arraycopy(slots, 0, newSlots, 0, pos);
+      System.arraycopy(slots, pos + 1, newSlots, pos, slots.length - pos - 1);
+      return new BitmapNode<>(bitmap & ~bit, newSlots);
+    }
+
+    private static <K, V> Node<K, V> merge(int shift, Leaf<K, V> leaf1, Leaf<K, V> leaf2) {
+      if (leaf1.hash == leaf2.hash) {
+        return new CollisionNode<>(leaf1.hash, new Leaf<?, ?>[]{leaf1, leaf2});
+      }
+      int index1 = index(leaf1.hash, shift);
+      int index2 = index(leaf2.hash, shift);
+      if (index1 == index2) {
+        return new BitmapNode<>(1 << index1, new Object[]{merge(shift + BITS, leaf1, leaf2)});
+      }
+      Object[] slots = index1 < index2
+          ? new Object[]{leaf1, leaf2}
+          : new Object[]{leaf2, leaf1};
+      return new BitmapNode<>((1 << index1) | (1 << index2), slots);
+    }
+  }
+
+  /**
+   * A node that contains the leaves whose keys have the same hash.
+   */
+  private static final class CollisionNode<K, V> extends Node<K, V> {
+
+    private final int hash;
+    private final Leaf<?, ?>[] leaves;
+
+    private CollisionNode(int hash, Leaf<?, ?>[] leaves) {
+      this.hash = hash;
+      this.leaves = leaves;
+    }
+
+    private int find(Object key) {
+      for (int i = 0; i < leaves.length; i++) {
+        if (key.equals(leaves[i].getKey())) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V get(int hash, int shift, Object key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int pos = find(key);
+      return pos < 0 ? null : (V) leaves[pos].getValue();
+    }
+
+    @Override
+    Node<K, V> plus(int hash, int shift, Leaf<K, V> leaf, boolean[] added) {
+      if (hash != this.hash) {
+        return new BitmapNode<K, V>(1 << index(this.hash, shift), new Object[]{this})
+            .plus(hash, shift, leaf, added);
+      }
+      int pos = find(leaf.getKey());
+      Leaf<?, ?>[] newLeaves;
+      if (pos < 0) {
+        added[0] = true;
+        newLeaves = Arrays.copyOf(leaves, leaves.length + 1);
+        newLeaves[leaves.length] = leaf;
+      } else {
+        if (leaves[pos].getValue() == leaf.getValue()) {
+          return this;
+        }
+        newLeaves = leaves.clone();
+        newLeaves[pos] = leaf;
+      }
+      return new CollisionNode<>(hash, newLeaves);
+    }
+
+    @Override
+    Node<K, V> minus(int hash, int shift, Object key) {
+      if (hash != this.hash) {
+        return this;
+      }
+      int pos = find(key);
+      if (pos < 0) {
+        return this;
+      }
+      if (leaves.length == 1) {
+        return null;
+      }
+      Leaf<?, ?>[] newLeaves = new Leaf<?, ?>[leaves.length - 1];
+      System.arraycopy(leaves, 0, newLeaves, 0, pos);
+      System.arraycopy(leaves, pos + 1, newLeaves, pos, leaves.length - pos - 1);
+      return new CollisionNode<>(hash, newLeaves);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Stream<Map.Entry<K, V>> entries() {
+      return Arrays.stream(leaves)
+          .map(leaf -> (Map.Entry<K, V>) leaf);
+    }
+  }
+}
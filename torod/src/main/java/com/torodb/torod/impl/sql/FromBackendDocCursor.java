@@ -25,15 +25,16 @@ import com.torodb.core.d2r.R2DTranslator;
 import com.torodb.core.document.ToroDocument;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
 /**
+ * A {@link Cursor} that reads documents from a cursor of doc part results.
  *
+ * <p>Dids are fetched in batches, but documents are translated one at a time as they are
+ * requested, so only the rows of the document that is being translated are kept in memory.
  */
 public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
@@ -41,6 +42,7 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
   private final R2DTranslator r2dTranslator;
   private final Cursor<DocPartResult> docPartCursor;
+  private Cursor<ToroDocument> currentBatch;
 
   public FromBackendDocCursor(
       @Nonnull R2DTranslator r2dTranslator,
@@ -51,7 +53,15 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
   @Override
   public boolean hasNext() {
-    return docPartCursor.hasNext();
+    while (currentBatch == null || !currentBatch.hasNext()) {
+      closeCurrentBatch();
+      if (!docPartCursor.hasNext()) {
+        return false;
+      }
+      List<DocPartResult> nextDpBatch = docPartCursor.getNextBatch(BATCH_SIZE);
+      currentBatch = r2dTranslator.translateIncrementally(nextDpBatch);
+    }
+    return true;
   }
 
   @Override
@@ -59,20 +69,7 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
     if (!hasNext()) {
       throw new NoSuchElementException();
     }
-    return getNextBatch(1).get(0);
-  }
-
-  @Override
-  public List<ToroDocument> getRemaining() {
-    List<ToroDocument> allDocuments = new ArrayList<>();
-
-    List<ToroDocument> readedDocuments;
-    while (docPartCursor.hasNext()) {
-      readedDocuments = getNextBatch(BATCH_SIZE);
-      allDocuments.addAll(readedDocuments);
-    }
-
-    return allDocuments;
+    return currentBatch.next();
   }
 
   @Override
@@ -80,27 +77,23 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
     Preconditions.checkArgument(maxResults > 0, "max results must be at "
         + "least 1, but " + maxResults + " was recived");
 
-    if (!docPartCursor.hasNext()) {
-      return Collections.emptyList();
+    List<ToroDocument> result = new ArrayList<>(Math.min(maxResults, BATCH_SIZE));
+    while (result.size() < maxResults && hasNext()) {
+      result.add(currentBatch.next());
     }
-
-    List<DocPartResult> nextDpBatch = docPartCursor.getNextBatch(maxResults);
-
-    List<ToroDocument> translated = r2dTranslator.translate(
-        nextDpBatch.iterator());
-
-    nextDpBatch.forEach(docPartResult -> docPartResult.close());
-
-    return translated;
-  }
-
-  @Override
-  public void forEachRemaining(Consumer<? super ToroDocument> action) {
-    getRemaining().forEach(action);
+    return result;
   }
 
   @Override
   public void close() {
+    closeCurrentBatch();
     docPartCursor.close();
   }
+
+  private void closeCurrentBatch() {
+    if (currentBatch != null) {
+      currentBatch.close();
+      currentBatch = null;
+    }
+  }
 }
@@ -18,34 +18,59 @@
 
 package com.torodb.torod.impl.sql;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.D2RTranslator;
 import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
 import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.core.transaction.metainf.WrapperMutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 
-import java.util.stream.Stream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 /**
  * Translates a batch of documents into a relational representation.
  *
- * <p/>NOTE: for historically reasons, transformation to relational model and changes on the
- * metamodel cache were done at the same time. Since we are using a independent thread schema
- * manager, it has no sense to do it in that way, but algorithms haven't been changed yet, so the
- * user thread transforms the data and then, if it detects a change on the metamodel, delegates on
- * the schema manager and it will execute the same code again (translating the data a second time)
- * and once the schema is changed, the user thread will transform the data again. Therefore, if
- * there a batch requires changes on the metamodel, it is translated three times!
+ * <p/>Batches are translated once. If they require changes on the metamodel, the changes detected
+ * during the translation are sent to the schema manager (see
+ * {@link SqlWriteTransaction.PrepareSchemaCallback}) and the translation is retained until the
+ * next write transaction is opened by the same thread, which is what happens when the
+ * transaction is retried. That transaction {@link #claimRetained() claims} the translation and
+ * drops it once it is used, committed or closed. If the retried insert contains the same
+ * documents and the schema manager has created the doc parts and fields with the same
+ * identifiers that were used on the translation, the retained {@link CollectionData} is reused
+ * instead of translating the documents again.
+ *
+ * <p>Translations that are not claimed, for example because the retrier gave up, are discarded
+ * after {@link #RETAIN_TIMEOUT_MILLIS}.
  */
+@ThreadSafe
 class InsertD2RTranslator {
 
+  static final long RETAIN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
   private final D2RTranslatorFactory translatorFactory;
+  private final Cache<Thread, Translation> retainedTranslations = CacheBuilder.newBuilder()
+      .weakKeys()
+      .expireAfterWrite(RETAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+      .build();
 
   @Inject
   public InsertD2RTranslator(D2RTranslatorFactory translatorFactory) {
@@ -53,27 +78,29 @@ class InsertD2RTranslator {
   }
 
   /**
-   * Translate a batch of documents into a {@link CollectionData} if they <em>fit</em> in the given
-   * collection.
+   * Translate a batch of documents into a {@link CollectionData}, even if they don't <em>fit</em>
+   * in the given collection.
    *
    * <p>A document <em>fits</em> in a collection if it can be stored there without schema
    * modifications, so all doc parts, scalar and fields required to store the document are declared
    * on the collection. If there is at least one document that doesn't fit in the given collection,
-   * a {@link IncompatibleSchemaException} is thrown.
+   * the returned translation contains the changes that must be done on the collection before the
+   * data can be inserted.
    *
    * @param snapshot The current view of the metadata
    * @param dbName   The name of the database on which documents would be inserted
    * @param colName  The name of the collection on which documents would be inserteds.
    * @param docs     The documents that will be inserted
-   * @return A {@link CollectionData} with the same documents translated to a relational
+   * @param retained A translation {@link #claimRetained() claimed} by the transaction, which is
+   *                 reused if it was done with the same documents and the current schema
+   * @return A {@link Translation} with the same documents translated to a relational
    *         representation.
    * @throws IncompatibleSchemaException if there is no database with that name or if the database
-   *                                     does not contains a collection with that name or there is
-   *                                     at least one document that doesn't fit on the given
-   *                                     collection
+   *                                     does not contains a collection with that name
    */
-  CollectionData analyze(ImmutableMetaSnapshot snapshot, String dbName, String colName,
-      Stream<KvDocument> docs) throws IncompatibleSchemaException {
+  Translation translate(ImmutableMetaSnapshot snapshot, String dbName, String colName,
+      Collection<KvDocument> docs, @Nullable Translation retained)
+      throws IncompatibleSchemaException {
 
     ImmutableMetaDatabase db = snapshot.getMetaDatabaseByName(dbName);
     if (db == null) {
@@ -83,19 +110,134 @@ class InsertD2RTranslator {
     if (col == null) {
       throw new IncompatibleSchemaException();
     }
-    
+
+    if (retained != null && retained.canBeReused(col, dbName, docs)) {
+      return new Translation(dbName, retained.data, null, docs);
+    }
+
     MutableMetaCollection mutableCol = new WrapperMutableMetaCollection(col);
 
     D2RTranslator translator = translatorFactory.createTranslator(db, mutableCol);
 
     docs.forEach(translator::translate);
 
-    if (mutableCol.hasChanges()) {
-      throw new IncompatibleSchemaException();
-    }
+    return new Translation(dbName, translator.getCollectionDataAccumulator(),
+        mutableCol.hasChanges() ? mutableCol : null, docs);
+  }
 
-    return translator.getCollectionDataAccumulator();
+  /**
+   * Retains the given translation, that must require schema changes, so it can be claimed by the
+   * next write transaction opened by the current thread.
+   */
+  void retain(Translation translation) {
+    assert !translation.fits();
+    //documents are immutable, but the collection that contains them could be modified by the caller
+    retainedTranslations.put(Thread.currentThread(), new Translation(translation.dbName,
+        translation.data, translation.schemaChanges, ImmutableList.copyOf(translation.docs)));
+  }
+
+  /**
+   * Removes and returns the translation retained by the current thread, if there is one.
+   */
+  @Nullable
+  Translation claimRetained() {
+    Thread thread = Thread.currentThread();
+    Translation retained = retainedTranslations.getIfPresent(thread);
+    if (retained != null) {
+      retainedTranslations.invalidate(thread);
+    }
+    return retained;
   }
 
+  static class Translation {
+
+    private final String dbName;
+    private final CollectionData data;
+    @Nullable
+    private final MutableMetaCollection schemaChanges;
+    private final Collection<KvDocument> docs;
+
+    private Translation(String dbName, CollectionData data,
+        @Nullable MutableMetaCollection schemaChanges, Collection<KvDocument> docs) {
+      this.dbName = dbName;
+      this.data = data;
+      this.schemaChanges = schemaChanges;
+      this.docs = docs;
+    }
+
+    /**
+     * Returns true iff the documents can be inserted without schema modifications.
+     */
+    boolean fits() {
+      return schemaChanges == null;
+    }
+
+    CollectionData getData() {
+      return data;
+    }
+
+    /**
+     * Returns the collection with the doc parts, fields and scalars that have to be added to the
+     * schema before the data can be inserted.
+     *
+     * @throws IllegalStateException if the translated documents fit on the collection
+     */
+    MutableMetaCollection getSchemaChanges() throws IllegalStateException {
+      if (schemaChanges == null) {
+        throw new IllegalStateException("The translated documents fit on the collection");
+      }
+      return schemaChanges;
+    }
+
+    private boolean canBeReused(MetaCollection col, String dbName, Collection<KvDocument> docs) {
+      if (schemaChanges == null || !this.dbName.equals(dbName)
+          || !schemaChanges.getName().equals(col.getName())
+          || !schemaChanges.getIdentifier().equals(col.getIdentifier())
+          || !sameDocs(docs)) {
+        return false;
+      }
+      for (DocPartData docPartData : data) {
+        MetaDocPart translated = docPartData.getMetaDocPart();
+        MetaDocPart current = col.getMetaDocPartByTableRef(translated.getTableRef());
+        if (current == null || !current.getIdentifier().equals(translated.getIdentifier())) {
+          return false;
+        }
+        Iterator<MetaField> fieldIt = docPartData.orderedMetaFieldIterator();
+        while (fieldIt.hasNext()) {
+          MetaField field = fieldIt.next();
+          MetaField currentField = current.getMetaFieldByNameAndType(field.getName(),
+              field.getType());
+          if (currentField == null
+              || !currentField.getIdentifier().equals(field.getIdentifier())) {
+            return false;
+          }
+        }
+        Iterator<MetaScalar> scalarIt = docPartData.orderedMetaScalarIterator();
+        while (scalarIt.hasNext()) {
+          MetaScalar scalar = scalarIt.next();
+          MetaScalar currentScalar = current.getScalar(scalar.getType());
+          if (currentScalar == null
+              || !currentScalar.getIdentifier().equals(scalar.getIdentifier())) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    private boolean sameDocs(Collection<KvDocument> otherDocs) {
+      if (docs.size() != otherDocs.size()) {
+        return false;
+      }
+      Iterator<KvDocument> it = docs.iterator();
+      Iterator<KvDocument> otherIt = otherDocs.iterator();
+      while (it.hasNext()) {
+        if (!Objects.equals(it.next(), otherIt.next())) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 
-}
\ No newline at end of file
+}
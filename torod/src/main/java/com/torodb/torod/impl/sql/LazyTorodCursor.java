@@ -23,9 +23,12 @@ import com.torodb.core.backend.BackendCursor;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.R2DTranslator;
 import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.Projection;
+import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.torod.cursors.TorodCursor;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  *
@@ -34,13 +37,29 @@ public class LazyTorodCursor implements TorodCursor {
 
   private final R2DTranslator r2dTranslator;
   private final BackendCursor backendCursor;
-  private FromBackendDocCursor docCursor;
+  private final MetaCollection projectedCollection;
+  private final Projection projection;
+  private Cursor<ToroDocument> docCursor;
   private boolean usedAsDidCursor = false;
 
   public LazyTorodCursor(@Nonnull R2DTranslator r2dTranslator,
       BackendCursor backendCursor) {
+    this(r2dTranslator, backendCursor, null, Projection.ALL);
+  }
+
+  /**
+   * Creates a cursor whose documents only contain the attributes selected by the given
+   * projection.
+   *
+   * @param projectedCollection the doc parts and fields that must be read to evaluate the
+   *                            projection or null to read all of them
+   */
+  public LazyTorodCursor(@Nonnull R2DTranslator r2dTranslator, BackendCursor backendCursor,
+      @Nullable MetaCollection projectedCollection, @Nonnull Projection projection) {
     this.r2dTranslator = r2dTranslator;
     this.backendCursor = backendCursor;
+    this.projectedCollection = projectedCollection;
+    this.projection = projection;
   }
 
   @Override
@@ -48,8 +67,13 @@ public class LazyTorodCursor implements TorodCursor {
     Preconditions.checkState(!usedAsDidCursor, "This cursor has already been used as a did cursor");
 
     if (docCursor == null) {
-      docCursor = new FromBackendDocCursor(
-          r2dTranslator, backendCursor.asDocPartResultCursor());
+      docCursor = new FromBackendDocCursor(r2dTranslator, projectedCollection == null
+          ? backendCursor.asDocPartResultCursor()
+          : backendCursor.asDocPartResultCursor(projectedCollection));
+      if (!projection.isAll()) {
+        docCursor = docCursor.transform(doc -> new ToroDocument(doc.getId(),
+            projection.apply(doc.getRoot())));
+      }
     }
 
     return docCursor;
@@ -59,7 +59,8 @@ public class SqlTorodModule extends PrivateModule {
         .to(SqlTorodServer.class)
         .in(Singleton.class);
 
-    bind(InsertD2RTranslator.class);
+    bind(InsertD2RTranslator.class)
+        .in(Singleton.class);
   }
 
   private void bindConfig() {
@@ -27,8 +27,10 @@ import com.torodb.core.concurrent.CompletableFutureUtils;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.DocTransaction;
+import com.torodb.torod.ImplicitSchemaChangeGuard;
 import com.torodb.torod.ProtectedServer;
 import com.torodb.torod.SchemaOperationExecutor;
 import com.torodb.torod.TorodLoggerFactory;
@@ -37,9 +39,11 @@ import com.torodb.torod.impl.sql.schema.SchemaManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
@@ -53,10 +57,12 @@ public class SqlTorodServer extends IdleTorodbService implements ProtectedServer
   private final BackendService backend;
   private final SchemaManager schemaManager;
   private final SqlWriteTransaction.PrepareSchemaCallback prepareSchemaCallback =
-      this::prepareSchema;
+      new PrepareSchemaCallbackImpl();
   private final ReadDocTransactionFactory readTransFactory;
   private final WriteDocTransactionFactory writeTransFactory;
   private final ReservedIdGenerator idGenerator;
+  private volatile ImplicitSchemaChangeGuard implicitSchemaChangeGuard =
+      ImplicitSchemaChangeGuard.UNGUARDED;
 
   @Inject
   public SqlTorodServer(@TorodbIdleService ThreadFactory threadFactory,
@@ -114,6 +120,11 @@ public class SqlTorodServer extends IdleTorodbService implements ProtectedServer
     );
   }
 
+  @Override
+  public void setImplicitSchemaChangeGuard(ImplicitSchemaChangeGuard guard) {
+    this.implicitSchemaChangeGuard = guard;
+  }
+
   @Override
   protected void startUp() throws Exception {
     if (!backend.isRunning()) {
@@ -138,15 +149,44 @@ public class SqlTorodServer extends IdleTorodbService implements ProtectedServer
     schemaManager.awaitTerminated();
   }
 
-  private void prepareSchema(String dbName, String colName, Collection<KvDocument> docs) {
-    DdlOperationExecutor ddlOpsEx = backend.openDdlOperationExecutor();
-    schemaManager.prepareSchema(ddlOpsEx, dbName, colName, docs)
-        .whenComplete((result, ex) -> {
-          if (ex != null) {
-            LOGGER.debug("Error while trying to adapt the schema to fit with some documents", ex);
-          }
+  private class PrepareSchemaCallbackImpl implements SqlWriteTransaction.PrepareSchemaCallback {
+
+    @Override
+    public void prepareSchema(String dbName, String colName, Collection<KvDocument> docs) {
+      prepareSchema(dbName, colName,
+          ddlOpsEx -> schemaManager.prepareSchema(ddlOpsEx, dbName, colName, docs));
+    }
+
+    @Override
+    public void prepareSchema(String dbName, String colName, MutableMetaCollection changes) {
+      prepareSchema(dbName, colName,
+          ddlOpsEx -> schemaManager.prepareSchema(ddlOpsEx, dbName, colName, changes));
+    }
+
+    /**
+     * Executes the given change through the {@link ImplicitSchemaChangeGuard}, so it is excluded
+     * with the transactions that use the collection.
+     *
+     * <p>The transaction that asks for the change still uses the collection, so this method must
+     * not wait until the change is done.
+     */
+    private void prepareSchema(String dbName, String colName,
+        Function<DdlOperationExecutor, CompletableFuture<Boolean>> change) {
+      implicitSchemaChangeGuard.execute(dbName, colName, () -> {
+        DdlOperationExecutor ddlOpsEx = backend.openDdlOperationExecutor();
+        try {
+          return change.apply(ddlOpsEx)
+              .whenComplete((result, ex) -> ddlOpsEx.close());
+        } catch (Throwable ex) {
           ddlOpsEx.close();
-        });
+          throw ex;
+        }
+      }).whenComplete((result, ex) -> {
+        if (ex != null) {
+          LOGGER.debug("Error while trying to adapt the schema to fit with some documents", ex);
+        }
+      });
+    }
   }
 
   static interface ReadDocTransactionFactory {
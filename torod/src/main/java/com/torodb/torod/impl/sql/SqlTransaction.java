@@ -19,47 +19,101 @@
 package com.torodb.torod.impl.sql;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.BackendCursor;
 import com.torodb.core.backend.DmlTransaction;
+import com.torodb.core.backend.DocPartFilter;
+import com.torodb.core.backend.DocPartSort;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
+import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
+import com.torodb.core.language.AttributeFilter;
+import com.torodb.core.language.AttributeFilter.Operator;
 import com.torodb.core.language.AttributeReference;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.Projection.Coverage;
+import com.torodb.core.language.QueryFilter;
+import com.torodb.core.language.Sort;
+import com.torodb.core.language.Sort.SortKey;
 import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.KvValueComparator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvNull;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.CollectionInfo.Type;
 import com.torodb.torod.DocTransaction;
 import com.torodb.torod.IndexInfo;
 import com.torodb.torod.TorodLoggerFactory;
+import com.torodb.torod.cursors.DocTorodCursor;
 import com.torodb.torod.cursors.EmptyTorodCursor;
 import com.torodb.torod.cursors.TorodCursor;
 import org.apache.logging.log4j.Logger;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.json.Json;
 
 class SqlTransaction<BT extends DmlTransaction> implements DocTransaction {
 
   private static final Logger LOGGER = TorodLoggerFactory.get(SqlTransaction.class);
+  /**
+   * The types whose values can be compared by order on the backend. Backends compare and sort
+   * strings with a binary collation, so they are ordered by code point as they are in memory.
+   */
+  private static final Set<FieldType> RANGE_FIELD_TYPES = EnumSet.of(FieldType.DATE,
+      FieldType.DOUBLE, FieldType.INSTANT, FieldType.INTEGER, FieldType.LONG,
+      FieldType.MONGO_OBJECT_ID, FieldType.STRING, FieldType.TIME);
+  /**
+   * The numeric field types, whose values MongoDB compares between them by their numeric value.
+   */
+  private static final Set<FieldType> NUMERIC_FIELD_TYPES = EnumSet.of(FieldType.INTEGER,
+      FieldType.LONG, FieldType.DOUBLE, FieldType.DECIMAL128);
+  /**
+   * The field types whose values the backend can sort, grouped on brackets of types that can be
+   * compared between them and listed in the order MongoDB sorts them.
+   */
+  private static final List<Set<FieldType>> SORT_TYPE_BRACKETS = ImmutableList.of(
+      EnumSet.of(FieldType.INTEGER, FieldType.LONG, FieldType.DOUBLE),
+      EnumSet.of(FieldType.STRING),
+      EnumSet.of(FieldType.MONGO_OBJECT_ID),
+      EnumSet.of(FieldType.BOOLEAN),
+      EnumSet.of(FieldType.INSTANT),
+      EnumSet.of(FieldType.DATE),
+      EnumSet.of(FieldType.TIME));
   private final BT backendTrans;
   private final ImmutableMetaSnapshot snapshot;
   private final R2DTranslator r2d;
@@ -200,6 +254,360 @@ class SqlTransaction<BT extends DmlTransaction> implements DocTransaction {
     );
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, QueryFilter filter,
+      Projection projection, Sort sort, long skip, long limit) {
+    MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+
+    TranslatedFilter translatedFilter = translateFilter(col, filter);
+    if (translatedFilter == null) {
+      LOGGER.trace("Filter " + filter + " is not fulfilled by any document of "
+          + dbName + '.' + colName + ". An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    List<DocPartFilter> docPartFilters = translatedFilter.getDocPartFilters();
+
+    List<DocPartSort> docPartSorts = toDocPartSorts(col, sort);
+    if (docPartSorts == null || !translatedFilter.getInMemoryFilters().isEmpty()) {
+      LOGGER.trace("Filter " + filter + " or sort " + sort + " cannot be evaluated by the "
+          + "backend. Documents of " + dbName + '.' + colName + " are filtered and sorted in "
+          + "memory");
+      return evaluateInMemory(findByDocPartFilters(db, col, docPartFilters),
+          translatedFilter.getInMemoryFilters(), projection, sort, skip, limit);
+    }
+
+    BackendCursor backendCursor;
+    if (docPartFilters.isEmpty() && docPartSorts.isEmpty() && skip == 0 && limit == 0) {
+      backendCursor = getBackendTransaction().findAll(db, col);
+    } else {
+      backendCursor = getBackendTransaction().findByFilter(db, col, docPartFilters,
+          docPartSorts, skip, limit);
+    }
+    if (projection.isAll()) {
+      return toToroCursor(backendCursor);
+    }
+    return new LazyTorodCursor(r2d, backendCursor, projectCollection(col, projection),
+        projection);
+  }
+
+  /**
+   * Translates a query filter to the doc part filters that the backend must evaluate and the
+   * attribute filters that must be evaluated in memory, or returns null if no document can
+   * fulfill it.
+   *
+   * <p>Numeric values are compared with the fields of all numeric types, as MongoDB compares
+   * numbers by their numeric value, and values are also compared with the scalar elements of the
+   * attribute when it is an array. Documents that do not contain the attribute are evaluated as
+   * if it were null. Filters whose values cannot be stored on any field of the collection are
+   * fulfilled by all documents when they are negated and by none otherwise, unless they
+   * {@link AttributeFilter#matchesNull() match null} and some document contains the attribute.
+   * Filters that require comparisons the backend cannot do, like the ones on decimal values, are
+   * evaluated in memory.
+   */
+  @Nullable
+  private TranslatedFilter translateFilter(MetaCollection col, QueryFilter filter) {
+    List<DocPartFilter> docPartFilters = new ArrayList<>(filter.getAttributeFilters().size());
+    List<AttributeFilter> inMemoryFilters = new ArrayList<>();
+    for (AttributeFilter attFilter : filter.getAttributeFilters()) {
+      AttributeReference attRef = attFilter.getAttributeReference();
+      TableRef ref = extractTableRef(attRef);
+      String lastKey = extractKeyName(attRef.getKeys().get(attRef.getKeys().size() - 1));
+
+      Multimap<MetaField, KvValue<?>> valuesMap = ArrayListMultimap.create();
+      Multimap<MetaScalar, KvValue<?>> elementValuesMap = ArrayListMultimap.create();
+      MetaDocPart docPart = col.getMetaDocPartByTableRef(ref);
+      MetaDocPart elementsDocPart = null;
+      boolean inMemory = false;
+      if (docPart != null) {
+        elementsDocPart = col.getMetaDocPartByTableRef(tableRefFactory.createChild(ref, lastKey));
+        for (KvValue<?> value : attFilter.getValues()) {
+          for (FieldType fieldType : getComparableFieldTypes(value)) {
+            MetaField field = docPart.getMetaFieldByNameAndType(lastKey, fieldType);
+            MetaScalar scalar = elementsDocPart != null ? elementsDocPart.getScalar(fieldType)
+                : null;
+            if (field == null && scalar == null) {
+              continue;
+            }
+            if (!isComparableOnBackend(attFilter.getOperator(), value, fieldType)) {
+              inMemory = true;
+              continue;
+            }
+            if (field != null) {
+              valuesMap.put(field, value);
+            }
+            if (scalar != null) {
+              elementValuesMap.put(scalar, value);
+            }
+          }
+        }
+      }
+
+      if (inMemory) {
+        LOGGER.trace("Filter " + attFilter + " cannot be evaluated by the backend on "
+            + col.getName() + ". It is evaluated in memory");
+        inMemoryFilters.add(attFilter);
+        continue;
+      }
+      boolean missingAsNull = attFilter.matchesNull();
+      List<MetaField> attributeFields = docPart != null && missingAsNull
+          ? docPart.streamMetaFieldByName(lastKey).collect(Collectors.toList())
+          : Collections.emptyList();
+      if (valuesMap.isEmpty() && elementValuesMap.isEmpty() && attributeFields.isEmpty()) {
+        if (attFilter.getOperator().isNegated() != missingAsNull) {
+          LOGGER.trace("Filter " + attFilter + " is fulfilled by all documents of "
+              + col.getName());
+          continue;
+        }
+        LOGGER.trace("Filter " + attFilter + " is not fulfilled by any document of "
+            + col.getName());
+        return null;
+      }
+      docPartFilters.add(new DocPartFilter(docPart, attFilter.getOperator(), valuesMap,
+          elementValuesMap.isEmpty() ? null : elementsDocPart, elementValuesMap,
+          !attributeFields.isEmpty(), attributeFields));
+    }
+    return new TranslatedFilter(docPartFilters, inMemoryFilters);
+  }
+
+  /**
+   * Returns the types of the fields whose values belong to the same bracket as the given value.
+   */
+  private Set<FieldType> getComparableFieldTypes(KvValue<?> value) {
+    FieldType fieldType = FieldType.from(value.getType());
+    if (NUMERIC_FIELD_TYPES.contains(fieldType)) {
+      return NUMERIC_FIELD_TYPES;
+    }
+    return EnumSet.of(fieldType);
+  }
+
+  /**
+   * Returns true if the backend can compare the given value with the values of a field of the
+   * given type as MongoDB does.
+   */
+  private boolean isComparableOnBackend(Operator operator, KvValue<?> value,
+      FieldType fieldType) {
+    FieldType valueType = FieldType.from(value.getType());
+    if (valueType == FieldType.DECIMAL128 || fieldType == FieldType.DECIMAL128
+        || valueType == FieldType.CHILD) {
+      return false;
+    }
+    return !operator.isRange() || RANGE_FIELD_TYPES.contains(fieldType);
+  }
+
+  private BackendCursor findByDocPartFilters(MetaDatabase db, MetaCollection col,
+      List<DocPartFilter> docPartFilters) {
+    if (docPartFilters.isEmpty()) {
+      return getBackendTransaction().findAll(db, col);
+    }
+    return getBackendTransaction().findByFilter(db, col, docPartFilters);
+  }
+
+  @Override
+  public long countByFilter(String dbName, String colName, QueryFilter filter) {
+    MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
+    TranslatedFilter translatedFilter = translateFilter(col, filter);
+    if (translatedFilter == null) {
+      return 0;
+    }
+    List<DocPartFilter> docPartFilters = translatedFilter.getDocPartFilters();
+    if (!translatedFilter.getInMemoryFilters().isEmpty()) {
+      LOGGER.trace("Filter " + filter + " cannot be evaluated by the backend. Documents of "
+          + dbName + '.' + colName + " are counted in memory");
+      long count = 0;
+      try (Cursor<ToroDocument> docCursor = toToroCursor(
+          findByDocPartFilters(db, col, docPartFilters)).asDocCursor()) {
+        while (docCursor.hasNext()) {
+          if (fulfills(docCursor.next(), translatedFilter.getInMemoryFilters())) {
+            count++;
+          }
+        }
+      }
+      return count;
+    }
+    if (docPartFilters.isEmpty()) {
+      return getBackendTransaction().countAll(db, col);
+    }
+    return getBackendTransaction().countByFilter(db, col, docPartFilters);
+  }
+
+  @Override
+  public Stream<KvValue<?>> findDistinct(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return Stream.empty();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return Stream.empty();
+    }
+    TranslatedFilter translatedFilter = translateFilter(col, filter);
+    if (translatedFilter == null) {
+      return Stream.empty();
+    }
+    if (!translatedFilter.getInMemoryFilters().isEmpty()) {
+      LOGGER.trace("Filter " + filter + " cannot be evaluated by the backend. Distinct values "
+          + "of " + attRef + " on " + dbName + '.' + colName + " are calculated in memory");
+      return findDistinctInMemory(dbName, colName, attRef, filter);
+    }
+    List<DocPartFilter> docPartFilters = translatedFilter.getDocPartFilters();
+
+    TableRef ref = extractTableRef(attRef);
+    String lastKey = extractKeyName(attRef.getKeys().get(attRef.getKeys().size() - 1));
+    MetaDocPart docPart = col.getMetaDocPartByTableRef(ref);
+    if (docPart == null) {
+      return Stream.empty();
+    }
+    MetaDocPart childDocPart = col.getMetaDocPartByTableRef(
+        tableRefFactory.createChild(ref, lastKey));
+    if (childDocPart != null && (childDocPart.streamFields().findAny().isPresent()
+        || childDocPart.streamScalars().anyMatch(
+            scalar -> scalar.getType() == FieldType.CHILD))) {
+      LOGGER.trace("Distinct values of " + attRef + " on " + dbName + '.' + colName
+          + " can contain documents or arrays. They are calculated in memory");
+      return findDistinctInMemory(dbName, colName, attRef, filter);
+    }
+
+    Set<KvValue<?>> values = new TreeSet<>(KvValueComparator.INSTANCE);
+    docPart.streamMetaFieldByName(lastKey)
+        .filter(field -> field.getType() != FieldType.CHILD)
+        .forEach(field -> {
+          try (Cursor<KvValue<?>> cursor = getBackendTransaction().findDistinct(db, col, docPart,
+              field, docPartFilters)) {
+            addDistinctValues(field.getType(), cursor, values);
+          }
+        });
+    if (childDocPart != null) {
+      childDocPart.streamScalars().forEach(scalar -> {
+        try (Cursor<KvValue<?>> cursor = getBackendTransaction().findDistinct(db, col,
+            childDocPart, scalar, docPartFilters)) {
+          addDistinctValues(scalar.getType(), cursor, values);
+        }
+      });
+    }
+    return values.stream();
+  }
+
+  private void addDistinctValues(FieldType fieldType, Cursor<KvValue<?>> cursor,
+      Set<KvValue<?>> values) {
+    if (fieldType == FieldType.NULL) {
+      if (cursor.hasNext()) {
+        values.add(KvNull.getInstance());
+      }
+      return;
+    }
+    cursor.forEachRemaining(values::add);
+  }
+
+  private Stream<KvValue<?>> findDistinctInMemory(String dbName, String colName,
+      AttributeReference attRef, QueryFilter filter) {
+    Set<KvValue<?>> values = new TreeSet<>(KvValueComparator.INSTANCE);
+    try (Cursor<ToroDocument> docCursor = findByFilter(dbName, colName, filter,
+        Projection.include(Collections.singletonList(attRef))).asDocCursor()) {
+      docCursor.forEachRemaining(doc -> values.addAll(
+          AttributeRefKvDocResolver.resolveAll(attRef, doc.getRoot())));
+    }
+    return values.stream();
+  }
+
+  /**
+   * Translates a sort to the root doc part fields that store the sorted attributes or returns
+   * null if the backend cannot evaluate it.
+   *
+   * <p>Only attributes of the root doc part whose values are scalars of types that the backend
+   * compares as MongoDB does can be sorted by the backend. Null values are not stored on the
+   * sorted columns, so they are sorted as missing attributes, which is the expected order.
+   */
+  @Nullable
+  private List<DocPartSort> toDocPartSorts(MetaCollection col, Sort sort) {
+    if (sort.isEmpty()) {
+      return Collections.emptyList();
+    }
+    MetaDocPart rootDocPart = col.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return Collections.emptyList();
+    }
+    List<DocPartSort> docPartSorts = new ArrayList<>(sort.getSortKeys().size());
+    for (SortKey sortKey : sort.getSortKeys()) {
+      List<Key<?>> keys = sortKey.getAttributeReference().getKeys();
+      if (keys.size() != 1) {
+        return null;
+      }
+      List<MetaField> fields = rootDocPart.streamMetaFieldByName(extractKeyName(keys.get(0)))
+          .filter(field -> field.getType() != FieldType.NULL)
+          .collect(Collectors.toList());
+      List<List<MetaField>> brackets = new ArrayList<>();
+      for (Set<FieldType> bracketTypes : SORT_TYPE_BRACKETS) {
+        List<MetaField> bracket = fields.stream()
+            .filter(field -> bracketTypes.contains(field.getType()))
+            .collect(Collectors.toList());
+        if (!bracket.isEmpty()) {
+          brackets.add(bracket);
+        }
+      }
+      if (brackets.stream().mapToInt(List::size).sum() != fields.size()) {
+        return null;
+      }
+      if (!brackets.isEmpty()) {
+        docPartSorts.add(new DocPartSort(rootDocPart, brackets, sortKey.getOrdering()));
+      }
+    }
+    return docPartSorts;
+  }
+
+  /**
+   * Reads all documents of the given cursor and returns the ones that fulfill the given filters,
+   * sorted, skipped and limited.
+   */
+  private TorodCursor evaluateInMemory(BackendCursor backendCursor,
+      List<AttributeFilter> filters, Projection projection, Sort sort, long skip, long limit) {
+    List<ToroDocument> docs;
+    try (Cursor<ToroDocument> docCursor = toToroCursor(backendCursor).asDocCursor()) {
+      docs = docCursor.getRemaining();
+    }
+    Stream<ToroDocument> sortedDocs = docs.stream();
+    if (!filters.isEmpty()) {
+      sortedDocs = sortedDocs.filter(doc -> fulfills(doc, filters));
+    }
+    if (!sort.isEmpty()) {
+      Comparator<KvDocument> comparator = sort.getComparator();
+      sortedDocs = sortedDocs
+          .sorted((doc1, doc2) -> comparator.compare(doc1.getRoot(), doc2.getRoot()));
+    }
+    if (skip > 0) {
+      sortedDocs = sortedDocs.skip(skip);
+    }
+    if (limit > 0) {
+      sortedDocs = sortedDocs.limit(limit);
+    }
+    if (!projection.isAll()) {
+      sortedDocs = sortedDocs.map(doc -> new ToroDocument(doc.getId(),
+          projection.apply(doc.getRoot())));
+    }
+    return new DocTorodCursor(new IteratorCursor<>(sortedDocs.iterator()));
+  }
+
+  private static boolean fulfills(ToroDocument doc, List<AttributeFilter> filters) {
+    return filters.stream().allMatch(attFilter -> attFilter.test(doc.getRoot()));
+  }
+
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
@@ -366,6 +774,11 @@ class SqlTransaction<BT extends DmlTransaction> implements DocTransaction {
     return createIndexInfo(idx);
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return getBackendTransaction().readMetaInfo(key);
+  }
+
   protected IndexInfo createIndexInfo(MetaIndex metaIndex) {
     IndexInfo.Builder indexInfoBuilder = new IndexInfo.Builder(metaIndex.getName(), metaIndex
         .isUnique());
@@ -392,6 +805,70 @@ class SqlTransaction<BT extends DmlTransaction> implements DocTransaction {
     return attributeReferenceBuilder.build();
   }
 
+  /**
+   * Returns a copy of the collection that only contains the doc parts and fields that must be
+   * read to evaluate the given projection.
+   *
+   * <p>Doc parts and fields that only contain attributes that are not selected are removed. The
+   * scalars of the remaining doc parts are always read, as they are the elements of arrays that
+   * can also contain selected documents. Fields whose nested attributes are partially selected
+   * are only read if they contain child doc parts, except on exclusive projections, where the
+   * scalar values of a partially excluded attribute are returned as they are.
+   */
+  protected MetaCollection projectCollection(MetaCollection col, Projection projection) {
+    ImmutableMetaCollection.Builder colBuilder = new ImmutableMetaCollection.Builder(
+        col.getName(), col.getIdentifier());
+    col.streamContainedMetaDocParts().forEach(docPart -> {
+      List<String> docPartPath = getDocumentPath(docPart.getTableRef());
+      Coverage docPartCoverage = projection.getCoverage(docPartPath);
+      if (docPartCoverage == Coverage.NONE) {
+        return;
+      }
+      ImmutableMetaDocPart.Builder docPartBuilder = new ImmutableMetaDocPart.Builder(
+          docPart.getTableRef(), docPart.getIdentifier());
+      docPart.streamScalars().forEach(scalar -> docPartBuilder.putScalar(scalar.getType(),
+          scalar.getIdentifier()));
+      docPart.streamFields().forEach(field -> {
+        if (docPartCoverage == Coverage.FULL || isProjected(projection, docPartPath, field)) {
+          docPartBuilder.putField(field.getName(), field.getIdentifier(), field.getType());
+        }
+      });
+      colBuilder.put(docPartBuilder);
+    });
+    return colBuilder.build();
+  }
+
+  private boolean isProjected(Projection projection, List<String> docPartPath, MetaField field) {
+    List<String> fieldPath = new ArrayList<>(docPartPath.size() + 1);
+    fieldPath.addAll(docPartPath);
+    fieldPath.add(field.getName());
+    switch (projection.getCoverage(fieldPath)) {
+      case FULL:
+        return true;
+      case PARTIAL:
+        return field.getType() == FieldType.CHILD || !projection.isInclusive();
+      case NONE:
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the names of the attributes that must be followed from the root of a document to
+   * reach the documents or scalars stored on the given doc part.
+   */
+  protected List<String> getDocumentPath(TableRef tableRef) {
+    LinkedList<String> path = new LinkedList<>();
+    while (!tableRef.isRoot()) {
+      // doc parts of nested arrays are reached with the name of their outermost array
+      if (!tableRef.isInArray()) {
+        path.addFirst(tableRef.getName());
+      }
+      tableRef = tableRef.getParent().get();
+    }
+    return path;
+  }
+
   protected TableRef extractTableRef(AttributeReference attRef) {
     return tableRefFactory.translate(attRef);
   }
@@ -409,6 +886,29 @@ class SqlTransaction<BT extends DmlTransaction> implements DocTransaction {
     getBackendTransaction().rollback();
   }
 
+  /**
+   * A query filter split on the part the backend evaluates and the part evaluated in memory.
+   */
+  private static class TranslatedFilter {
+
+    private final List<DocPartFilter> docPartFilters;
+    private final List<AttributeFilter> inMemoryFilters;
+
+    public TranslatedFilter(List<DocPartFilter> docPartFilters,
+        List<AttributeFilter> inMemoryFilters) {
+      this.docPartFilters = docPartFilters;
+      this.inMemoryFilters = inMemoryFilters;
+    }
+
+    public List<DocPartFilter> getDocPartFilters() {
+      return docPartFilters;
+    }
+
+    public List<AttributeFilter> getInMemoryFilters() {
+      return inMemoryFilters;
+    }
+  }
+
   @Override
   public boolean isClosed() {
     return backendTrans.isClosed();
@@ -21,11 +21,13 @@ package com.torodb.torod.impl.sql;
 import com.google.common.base.Preconditions;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.DocPartUpdate;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.backend.RootDocPartUpdates;
 import com.torodb.core.backend.WriteDmlTransaction;
 import com.torodb.core.cursors.Cursor;
-import com.torodb.core.d2r.CollectionData;
-import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
 import com.torodb.core.transaction.RollbackException;
@@ -35,28 +37,42 @@ import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.TorodLoggerFactory;
 import com.torodb.torod.WriteDocTransaction;
+import com.torodb.torod.impl.sql.InsertD2RTranslator.Translation;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
     implements WriteDocTransaction {
 
   private static final Logger LOGGER = TorodLoggerFactory.get(SqlWriteTransaction.class);
 
+  private final TableRefFactory tableRefFactory;
   private final InsertD2RTranslator insertAnalyzer;
   private final PrepareSchemaCallback prepareSchemaCallback;
+  /**
+   * The translation retained by a previous attempt of this transaction, if any. It is dropped
+   * once it has been used or the transaction is committed or closed.
+   */
+  @Nullable
+  private Translation retainedTranslation;
 
   public SqlWriteTransaction(WriteDmlTransaction backendTrans,
       ImmutableMetaSnapshot snapshot, R2DTranslator r2dTrans, TableRefFactory tableRefFactory,
       InsertD2RTranslator insertAnalyzer, PrepareSchemaCallback prepareSchemaCallback) {
     super(backendTrans, snapshot, r2dTrans, tableRefFactory);
+    this.tableRefFactory = tableRefFactory;
     this.insertAnalyzer = insertAnalyzer;
     this.prepareSchemaCallback = prepareSchemaCallback;
+    this.retainedTranslation = insertAnalyzer.claimRetained();
   }
 
 
@@ -65,19 +81,13 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
       RollbackException, UserException {
     Preconditions.checkState(!isClosed());
 
+    Translation translation;
     try {
-      CollectionData data = insertAnalyzer.analyze(
-          getMetaSnapshot(), dbName, colName, documents.stream());
-      
-      MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
-      assert db != null;
-      MetaCollection col = db.getMetaCollectionByName(colName);
-
-      for (DocPartData docPartData : data) {
-        getBackendTransaction().insert(db, col, docPartData);
-      }
+      translation = insertAnalyzer.translate(getMetaSnapshot(), dbName, colName, documents,
+          retainedTranslation);
+      retainedTranslation = null;
     } catch (IncompatibleSchemaException ex) {
-      LOGGER.debug("Documents don't fit on {}.{}. Rolling back", dbName, colName);
+      LOGGER.debug("There is no collection {}.{}. Rolling back", dbName, colName);
       LOGGER.trace("Exception:", ex);
       this.close();
 
@@ -85,6 +95,22 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
 
       throw new RollbackException(ex);
     }
+
+    if (!translation.fits()) {
+      LOGGER.debug("Documents don't fit on {}.{}. Rolling back", dbName, colName);
+      this.close();
+
+      prepareSchemaCallback.prepareSchema(dbName, colName, translation.getSchemaChanges());
+      insertAnalyzer.retain(translation);
+
+      throw new RollbackException("Documents don't fit on " + dbName + "." + colName);
+    }
+
+    MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
+    assert db != null;
+    MetaCollection col = db.getMetaCollectionByName(colName);
+
+    getBackendTransaction().insert(db, col, translation.getData());
   }
 
   @Override
@@ -98,7 +124,39 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
       return;
     }
 
-    getBackendTransaction().deleteDids(db, col, cursor.getRemaining());
+    getBackendTransaction().deleteDids(db, col, cursor);
+  }
+
+  @Override
+  public boolean updateInPlace(String dbName, String colName, List<ToroDocument> candidates,
+      List<KvDocument> updatedDocs) throws RollbackException, UserException {
+    Preconditions.checkState(!isClosed());
+    Preconditions.checkArgument(candidates.size() == updatedDocs.size(), "There are %s "
+        + "candidates but %s updated documents", candidates.size(), updatedDocs.size());
+
+    MetaDatabase db = getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return false;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return false;
+    }
+    MetaDocPart rootDocPart = col.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return false;
+    }
+
+    List<DocPartUpdate> updates = RootDocPartUpdates.calculate(rootDocPart, candidates,
+        updatedDocs);
+    if (updates == null) {
+      LOGGER.trace("Documents of {}.{} cannot be updated in place", dbName, colName);
+      return false;
+    }
+    for (DocPartUpdate update : updates) {
+      getBackendTransaction().update(db, col, update);
+    }
+    return true;
   }
 
   @Override
@@ -112,13 +170,7 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
       return 0;
     }
 
-    Collection<Integer> dids = getBackendTransaction()
-        .findAll(db, col)
-        .asDidCursor()
-        .getRemaining();
-    getBackendTransaction().deleteDids(db, col, dids);
-
-    return dids.size();
+    return getBackendTransaction().deleteAll(db, col);
   }
 
   @Override
@@ -146,21 +198,30 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
       return 0;
     }
 
-    Collection<Integer> dids = getBackendTransaction()
+    try (Cursor<Integer> didCursor = getBackendTransaction()
         .findByField(db, col, docPart, field, value)
-        .asDidCursor()
-        .getRemaining();
-    getBackendTransaction().deleteDids(db, col, dids);
+        .asDidCursor()) {
+      return getBackendTransaction().deleteDids(db, col, didCursor);
+    }
+  }
 
-    return dids.size();
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return getBackendTransaction().writeMetaInfo(key, newValue);
   }
 
   @Override
   public void commit() throws RollbackException, UserException {
+    retainedTranslation = null;
     getBackendTransaction().commit();
   }
 
-  @FunctionalInterface
+  @Override
+  public void close() {
+    retainedTranslation = null;
+    super.close();
+  }
+
   public static interface PrepareSchemaCallback {
 
     /**
@@ -176,5 +237,16 @@ class SqlWriteTransaction extends SqlTransaction<WriteDmlTransaction>
      * @param docs    The documents that must fit on the collection
      */
     void prepareSchema(String dbName, String colName, Collection<KvDocument> docs);
+
+    /**
+     * An asynchronous request to add to the given collection the doc parts, fields and scalars
+     * that were added on the given changes, which is usually a wrapper of the same collection that
+     * has been used to translate some documents.
+     *
+     * @param dbName  The name of the database
+     * @param colName The name of the collection
+     * @param changes The changes that must be applied on the collection
+     */
+    void prepareSchema(String dbName, String colName, MutableMetaCollection changes);
   }
 }
\ No newline at end of file
@@ -31,13 +31,10 @@ import javax.inject.Inject;
 /**
  * Analyze a batch of documents to look for any required change on the schema.
  * 
- * <p/>NOTE: for historically reasons, transformation to relational model and changes on the 
- * metamodel cache were done at the same time. Since we are using a independent thread schema
- * manager, it has no sense to do it in that way, but algorithms haven't been changed yet, so the
- * user thread transforms the data and then, if it detects a change on the metamodel, delegates on
- * the schema manager and it will execute the same code again (translating the data a second time)
- * and once the schema is changed, the user thread will transform the data again. Therefore, if
- * there a batch requires changes on the metamodel, it is translated three times!
+ * <p/>NOTE: when documents are inserted on an existent collection, the user thread translates them
+ * and sends the detected schema changes to the schema manager, so they don't need to be analyzed
+ * again. This class is used when there is no information about the changes, like when the
+ * collection doesn't exist yet.
  */
 public class DocSchemaAnalyzer {
 
@@ -31,9 +31,12 @@ import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.core.transaction.metainf.MutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 import com.torodb.core.transaction.metainf.MutableMetaIndex;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.IndexFieldInfo;
@@ -50,8 +53,11 @@ import org.jooq.lambda.tuple.Tuple3;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.inject.Inject;
@@ -94,12 +100,24 @@ class Logic {
 
   boolean prepareSchema(DdlOperationExecutor ops, String dbName, String colName,
       Collection<KvDocument> docs) throws UserSchemaException {
+    return prepareSchema(ops, dbName, colName,
+        (db, batchCol) -> docSchemaAnalyzer.analyze(db, batchCol, docs.stream()));
+  }
+
+  boolean prepareSchema(DdlOperationExecutor ops, String dbName, String colName,
+      MutableMetaCollection changes) throws UserSchemaException {
+    return prepareSchema(ops, dbName, colName,
+        (db, batchCol) -> applyChanges(db, batchCol, changes));
+  }
+
+  private boolean prepareSchema(DdlOperationExecutor ops, String dbName, String colName,
+      BiConsumer<MutableMetaDatabase, BatchMetaCollection> analyzer) throws UserSchemaException {
     try (TransactionalSnapshot snapshot = metadata.createTransactionalSnapshot()) {
       MutableMetaDatabase db = getDbOrCreate(snapshot, ops, dbName);
       MutableMetaCollection col = getColOrCreate(snapshot, ops, db, colName);
 
       BatchMetaCollection batchCol = new BatchMetaCollection(col);
-      docSchemaAnalyzer.analyze(db, batchCol, docs.stream());
+      analyzer.accept(db, batchCol);
 
       try {
         boolean changed = snapshot.hasChanged();
@@ -136,6 +154,39 @@ class Logic {
     }
   }
 
+  /**
+   * Adds to the collection the doc parts, fields and scalars that have been added on the given
+   * changes, generating their identifiers in the same way a {@link DocSchemaAnalyzer} would do.
+   */
+  private void applyChanges(MetaDatabase db, MutableMetaCollection col,
+      MutableMetaCollection changes) {
+    //parents are added before their children, like the d2r translator does
+    List<MutableMetaDocPart> changedDocParts = changes.streamModifiedMetaDocParts()
+        .collect(Collectors.toList());
+    changedDocParts.sort(Comparator.comparingInt(docPart -> docPart.getTableRef().getDepth()));
+    for (MutableMetaDocPart changedDocPart : changedDocParts) {
+      TableRef tableRef = changedDocPart.getTableRef();
+      MutableMetaDocPart docPart = col.getMetaDocPartByTableRef(tableRef);
+      if (docPart == null) {
+        docPart = col.addMetaDocPart(tableRef,
+            idFactory.toDocPartIdentifier(db, col.getName(), tableRef));
+      }
+      for (MetaField field : Seq.seq(changedDocPart.streamAddedMetaFields())) {
+        if (docPart.getMetaFieldByNameAndType(field.getName(), field.getType()) == null) {
+          docPart.addMetaField(field.getName(),
+              idFactory.toFieldIdentifier(docPart, field.getName(), field.getType()),
+              field.getType());
+        }
+      }
+      for (MetaScalar scalar : Seq.seq(changedDocPart.streamAddedMetaScalars())) {
+        if (docPart.getScalar(scalar.getType()) == null) {
+          docPart.addMetaScalar(idFactory.toFieldIdentifierForScalar(scalar.getType()),
+              scalar.getType());
+        }
+      }
+    }
+  }
+
   private void adaptCollection(DdlOperationExecutor op,
       MetaDatabase db, BatchMetaCollection col) throws UserException, RollbackException {
     for (BatchMetaDocPart dp : col.getOnBatchModifiedMetaDocParts()) {
@@ -23,6 +23,7 @@ import com.torodb.common.util.Empty;
 import com.torodb.core.backend.DdlOperationExecutor;
 import com.torodb.core.services.TorodbService;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.IndexFieldInfo;
 import com.torodb.torod.exception.UnexistentCollectionException;
@@ -65,6 +66,27 @@ public interface SchemaManager extends TorodbService {
   CompletableFuture<Boolean> prepareSchema(DdlOperationExecutor ops, String db,
       String collection, Collection<KvDocument> docs);
 
+  /**
+   * Extends the schema of a collection with the doc parts, fields and scalars that have been added
+   * on the given changes.
+   *
+   * <p>This method is designed to be used when the caller already translated some documents,
+   * detecting the changes that must be done on the schema, so they don't need to be analyzed again.
+   * Identifiers of the new elements are generated by the schema manager, so they may be different
+   * than the ones used on the given changes if the schema has been modified since these changes
+   * were calculated.
+   *
+   * @param ops        The backend object used to modify the database schema.
+   * @param db         The name of the database. It is created if there is no database with that
+   *                   name
+   * @param collection The name of the collection. It is created if there is no collection on the
+   *                   database that has that name
+   * @param changes    A collection, usually a wrapper of the same collection, whose added doc
+   *                   parts, fields and scalars will be added to the schema.
+   */
+  CompletableFuture<Boolean> prepareSchema(DdlOperationExecutor ops, String db,
+      String collection, MutableMetaCollection changes);
+
   /**
    * Creates a database with a given name if it doesn't exist yet.
    *
@@ -23,6 +23,7 @@ import com.torodb.core.backend.DdlOperationExecutor;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.services.ExecutorTorodbService;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.IndexFieldInfo;
 
@@ -80,6 +81,12 @@ class SingleThreadSchemaManager extends ExecutorTorodbService<ExecutorService>
     return execute(() -> logic.prepareSchema(ops, db, collection, docs));
   }
 
+  @Override
+  public CompletableFuture<Boolean> prepareSchema(DdlOperationExecutor ops, String db,
+      String collection, MutableMetaCollection changes) {
+    return execute(() -> logic.prepareSchema(ops, db, collection, changes));
+  }
+
   @Override
   public CompletableFuture<Empty> createDatabase(DdlOperationExecutor ops, String dbName) {
     return executeVoid(() -> logic.createDatabase(ops, dbName));
@@ -0,0 +1,223 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.core.transaction.RollbackException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnitPlatform.class)
+public class HierarchicalLockManagerTest {
+
+  private static final Duration TEST_TIMEOUT = Duration.ofSeconds(5);
+  private static final long LONG_MILLIS = 10_000;
+  private static final long SHORT_MILLIS = 100;
+
+  private HierarchicalLockManager lockManager;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    lockManager = new HierarchicalLockManager(new LockManagerMetrics(
+        new DisabledMetricRegistry()));
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private NamespaceLocker createTransactionLocker(long millis) {
+    return lockManager.createTransactionLocker(millis, TimeUnit.MILLISECONDS);
+  }
+
+  private NamespaceLocker createSchemaLocker(long millis) {
+    return lockManager.createSchemaLocker(millis, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void transactionsDoNotBlockEachOther() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans1 = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker trans2 = createTransactionLocker(SHORT_MILLIS);
+
+      trans1.lockCollection("db", "col", LockMode.SHARED);
+      trans2.lockCollection("db", "col", LockMode.SHARED);
+      trans2.lockDatabase("db", LockMode.SHARED);
+      trans1.lockServer(LockMode.SHARED);
+
+      trans1.releaseAll();
+      trans2.releaseAll();
+    });
+  }
+
+  @Test
+  void schemaHandlerDoesNotBlockOtherCollections() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+
+      schema.lockCollection("db", "col1", LockMode.EXCLUSIVE);
+      trans.lockCollection("db", "col2", LockMode.SHARED);
+      trans.lockCollection("otherDb", "col1", LockMode.SHARED);
+
+      trans.releaseAll();
+      schema.releaseAll();
+    });
+  }
+
+  @Test
+  void schemaHandlerBlocksSameCollection() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+
+      schema.lockCollection("db", "col", LockMode.EXCLUSIVE);
+      Assertions.assertThrows(RollbackException.class,
+          () -> trans.lockCollection("db", "col", LockMode.SHARED));
+      Assertions.assertThrows(RollbackException.class,
+          () -> trans.lockDatabase("db", LockMode.SHARED));
+
+      schema.releaseAll();
+      trans.releaseAll();
+    });
+  }
+
+  @Test
+  void transactionBlocksSchemaHandler() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(LONG_MILLIS);
+
+      trans.lockCollection("db", "col", LockMode.SHARED);
+      Future<?> schemaLock = executor.submit(
+          () -> schema.lockCollection("db", "col", LockMode.EXCLUSIVE));
+
+      Thread.sleep(SHORT_MILLIS);
+      Assertions.assertFalse(schemaLock.isDone(), "The schema handler should be waiting");
+
+      trans.releaseAll();
+      schemaLock.get();
+      schema.releaseAll();
+    });
+  }
+
+  @Test
+  void waitingTransactionIsRolledBackWhenSchemaChanges() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(LONG_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+
+      schema.lockCollection("db", "col", LockMode.EXCLUSIVE);
+      Future<?> transLock = executor.submit(
+          () -> trans.lockCollection("db", "col", LockMode.SHARED));
+
+      Thread.sleep(SHORT_MILLIS);
+      Assertions.assertFalse(transLock.isDone(), "The transaction should be waiting");
+
+      schema.releaseAll();
+      ExecutionException ex = Assertions.assertThrows(ExecutionException.class, transLock::get);
+      Assertions.assertTrue(ex.getCause() instanceof RollbackException);
+
+      trans.releaseAll();
+    });
+  }
+
+  @Test
+  void staleTransactionCanUseOtherCollections() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+
+      schema.lockCollection("db", "col1", LockMode.EXCLUSIVE);
+      schema.releaseAll();
+
+      trans.lockCollection("db", "col2", LockMode.SHARED);
+      Assertions.assertThrows(RollbackException.class,
+          () -> trans.lockCollection("db", "col1", LockMode.SHARED));
+      Assertions.assertThrows(RollbackException.class,
+          () -> trans.lockDatabase("db", LockMode.SHARED));
+      trans.releaseAll();
+
+      NamespaceLocker newTrans = createTransactionLocker(SHORT_MILLIS);
+      newTrans.lockCollection("db", "col1", LockMode.SHARED);
+      newTrans.lockDatabase("db", LockMode.SHARED);
+      newTrans.releaseAll();
+    });
+  }
+
+  @Test
+  void unusedNodesArePruned() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      for (int i = 0; i < 100; i++) {
+        trans.lockCollection("db" + (i % 10), "col" + i, LockMode.SHARED);
+      }
+      Assertions.assertEquals(111, lockManager.getNodeCount());
+      trans.releaseAll();
+      Assertions.assertEquals(1, lockManager.getNodeCount());
+
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+      schema.lockCollection("db", "col", LockMode.EXCLUSIVE);
+      NamespaceLocker blocked = createTransactionLocker(0);
+      Assertions.assertThrows(RollbackException.class,
+          () -> blocked.lockCollection("db", "col", LockMode.SHARED));
+      Assertions.assertEquals(3, lockManager.getNodeCount());
+      blocked.releaseAll();
+      schema.releaseAll();
+      Assertions.assertEquals(1, lockManager.getNodeCount());
+    });
+  }
+
+  @Test
+  void modifiedNodesAreKeptWhileOlderTransactionsAreOpen() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      NamespaceLocker trans = createTransactionLocker(SHORT_MILLIS);
+      NamespaceLocker schema = createSchemaLocker(SHORT_MILLIS);
+
+      schema.lockCollection("db", "col", LockMode.EXCLUSIVE);
+      schema.releaseAll();
+      Assertions.assertEquals(3, lockManager.getNodeCount());
+
+      NamespaceLocker newTrans = createTransactionLocker(SHORT_MILLIS);
+      newTrans.lockCollection("db", "col", LockMode.SHARED);
+      newTrans.releaseAll();
+      Assertions.assertEquals(3, lockManager.getNodeCount());
+
+      Assertions.assertThrows(RollbackException.class,
+          () -> trans.lockCollection("db", "col", LockMode.SHARED));
+      trans.releaseAll();
+      Assertions.assertEquals(1, lockManager.getNodeCount());
+    });
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.concurrency;
+
+import static org.mockito.Mockito.when;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.torod.ImplicitSchemaChangeGuard;
+import com.torodb.torod.ProtectedServer;
+import com.torodb.torod.WriteDocTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(JUnitPlatform.class)
+public class ImplicitSchemaChangeGuardTest {
+
+  private static final Duration TEST_TIMEOUT = Duration.ofSeconds(5);
+  private static final long MILLIS_TIMEOUT = 1000;
+
+  private ConcurrentTorodServer server;
+  private ImplicitSchemaChangeGuard implicitGuard;
+
+  @BeforeEach
+  void setUp() throws TimeoutException {
+    ProtectedServer decorated = Mockito.mock(ProtectedServer.class);
+    when(decorated.openWriteTransaction(Mockito.anyLong(), Mockito.any()))
+        .then(invocation -> Mockito.mock(WriteDocTransaction.class));
+
+    server = new ConcurrentTorodServer(
+        (Runnable runnable) -> new Thread(runnable),
+        decorated,
+        new HierarchicalConcurrentServerGuard(new HierarchicalLockManager(
+            new LockManagerMetrics(new DisabledMetricRegistry())))
+    );
+
+    ArgumentCaptor<ImplicitSchemaChangeGuard> captor =
+        ArgumentCaptor.forClass(ImplicitSchemaChangeGuard.class);
+    Mockito.verify(decorated).setImplicitSchemaChangeGuard(captor.capture());
+    implicitGuard = captor.getValue();
+
+    server.startAsync();
+    server.awaitRunning();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stopAsync();
+    server.awaitTerminated();
+  }
+
+  private WriteDocTransaction openWriteTransaction() throws TimeoutException {
+    return server.openWriteTransaction(MILLIS_TIMEOUT, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void changesWaitForTransactionsThatUseTheCollection() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      AtomicBoolean executed = new AtomicBoolean(false);
+      CompletableFuture<Boolean> result;
+
+      try (WriteDocTransaction trans = openWriteTransaction()) {
+        trans.insert("db", "col", Collections.emptyList());
+
+        result = implicitGuard.execute("db", "col", () -> {
+          executed.set(true);
+          return CompletableFuture.completedFuture(true);
+        });
+
+        Thread.sleep(100);
+        Assertions.assertFalse(executed.get(), "The change was executed while a transaction "
+            + "was using the collection");
+      }
+
+      Assertions.assertTrue(result.join());
+      Assertions.assertTrue(executed.get());
+    });
+  }
+
+  @Test
+  void changesRollbackOlderTransactions() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      try (WriteDocTransaction oldTrans = openWriteTransaction()) {
+        implicitGuard.execute("db", "col", () -> CompletableFuture.completedFuture(true))
+            .join();
+
+        Assertions.assertThrows(RollbackException.class,
+            () -> oldTrans.insert("db", "col", Collections.emptyList()));
+      }
+
+      try (WriteDocTransaction newTrans = openWriteTransaction()) {
+        newTrans.insert("db", "col", Collections.emptyList());
+      }
+    });
+  }
+
+  @Test
+  void failedChangesReleaseTheCollection() {
+    Assertions.assertTimeoutPreemptively(TEST_TIMEOUT, () -> {
+      CompletableFuture<Boolean> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IllegalStateException("Expected failure"));
+
+      CompletableFuture<Boolean> result = implicitGuard.execute("db", "col", () -> failed);
+      Assertions.assertThrows(Exception.class, result::join);
+
+      try (WriteDocTransaction trans = openWriteTransaction()) {
+        trans.insert("db", "col", Collections.emptyList());
+      }
+    });
+  }
+}
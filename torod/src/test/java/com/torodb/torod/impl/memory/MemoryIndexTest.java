@@ -0,0 +1,159 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.core.language.AttributeFilter;
+import com.torodb.core.language.AttributeFilter.Operator;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.IndexInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MemoryIndexTest {
+
+  private static final AttributeReference A_ATT_REF = new AttributeReference.Builder()
+      .addObjectKey("a")
+      .build();
+
+  private MemoryIndex index;
+
+  @Before
+  public void setUp() throws UniqueIndexViolationException {
+    PersistentHashMap<Integer, KvDocument> docs = PersistentHashMap.empty();
+    for (int did = 0; did < 100; did++) {
+      docs = docs.plus(did, new KvDocument.Builder()
+          .putValue("a", did % 10)
+          .build());
+    }
+    docs = docs.plus(100, new KvDocument.Builder()
+        .putValue("b", 1)
+        .build());
+    index = MemoryIndex.create(createInfo(false), docs);
+  }
+
+  @Test
+  public void testFindEqual() {
+    assertEquals(10, index.findEqual(KvInteger.of(3)).count());
+    assertEquals(0, index.findEqual(KvInteger.of(10)).count());
+    assertEquals(0, index.findEqual(KvLong.of(3)).count());
+  }
+
+  @Test
+  public void testFindIn() {
+    assertEquals(20, index.findIn(Arrays.asList(KvInteger.of(1), KvInteger.of(1),
+        KvInteger.of(2))).count());
+  }
+
+  @Test
+  public void testFindRange() {
+    assertEquals(20, index.find(filter(Operator.GT, KvInteger.of(7))).count());
+    assertEquals(30, index.find(filter(Operator.GTE, KvInteger.of(7))).count());
+    assertEquals(20, index.find(filter(Operator.LT, KvInteger.of(2))).count());
+    assertEquals(30, index.find(filter(Operator.LTE, KvInteger.of(2))).count());
+    assertEquals(20, index.find(filter(Operator.GT, KvLong.of(7))).count());
+  }
+
+  @Test
+  public void testFindMixedTypes() throws UniqueIndexViolationException {
+    PersistentHashMap<Integer, KvDocument> docs = PersistentHashMap.empty();
+    docs = docs.plus(1, new KvDocument.Builder().putValue("a", 1).build());
+    docs = docs.plus(2, new KvDocument.Builder().putValue("a", 2L).build());
+    docs = docs.plus(3, new KvDocument.Builder().putValue("a", 2.5).build());
+    docs = docs.plus(4, new KvDocument.Builder().putValue("a", 3).build());
+    docs = docs.plus(5, new KvDocument.Builder().putValue("a", 4L).build());
+    docs = docs.plus(6, new KvDocument.Builder().putValue("a", "2").build());
+    MemoryIndex mixedIndex = MemoryIndex.create(createInfo(false), docs);
+
+    assertEquals(new HashSet<>(Arrays.asList(3, 4, 5)),
+        dids(mixedIndex.find(filter(Operator.GT, KvInteger.of(2)))));
+    assertEquals(new HashSet<>(Arrays.asList(2, 3, 4, 5)),
+        dids(mixedIndex.find(filter(Operator.GTE, KvDouble.of(2)))));
+    assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)),
+        dids(mixedIndex.find(filter(Operator.LT, KvLong.of(3)))));
+    assertEquals(new HashSet<>(Arrays.asList(1, 2)),
+        dids(mixedIndex.find(filter(Operator.LTE, KvInteger.of(2)))));
+    assertEquals(Collections.singleton(6),
+        dids(mixedIndex.find(filter(Operator.GTE, new StringKvString("1")))));
+    assertEquals(Collections.singleton(2),
+        dids(mixedIndex.find(filter(Operator.EQ, KvDouble.of(2)))));
+  }
+
+  @Test
+  public void testPlusAndMinus() throws UniqueIndexViolationException {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("a", 42)
+        .build();
+    MemoryIndex newIndex = index.plus(200, doc);
+
+    assertEquals(Collections.singleton(200), dids(newIndex.findEqual(KvInteger.of(42))));
+    assertEquals(0, index.findEqual(KvInteger.of(42)).count());
+    assertEquals(0, newIndex.minus(200, doc).findEqual(KvInteger.of(42)).count());
+  }
+
+  @Test
+  public void testDocumentsWithoutAttributeAreIgnored() throws UniqueIndexViolationException {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("b", 42)
+        .build();
+
+    assertSame(index, index.plus(200, doc));
+    assertSame(index, index.minus(200, doc));
+  }
+
+  @Test(expected = UniqueIndexViolationException.class)
+  public void testUniqueViolation() throws UniqueIndexViolationException {
+    MemoryIndex uniqueIndex = MemoryIndex.create(createInfo(true), PersistentHashMap.empty())
+        .plus(1, new KvDocument.Builder().putValue("a", 1).build());
+
+    uniqueIndex.plus(2, new KvDocument.Builder().putValue("a", 1).build());
+  }
+
+  private static IndexInfo createInfo(boolean unique) {
+    return new IndexInfo.Builder("a_1", unique)
+        .addField(A_ATT_REF, true)
+        .build();
+  }
+
+  private static AttributeFilter filter(Operator operator, KvValue<?> value) {
+    return new AttributeFilter(A_ATT_REF, operator, Collections.singletonList(value));
+  }
+
+  private static Set<Integer> dids(Stream<ToroDocument> docs) {
+    return docs.map(ToroDocument::getId)
+        .collect(Collectors.toSet());
+  }
+}
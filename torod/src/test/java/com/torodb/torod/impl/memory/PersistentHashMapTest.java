@@ -0,0 +1,131 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.impl.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class PersistentHashMapTest {
+
+  @Test
+  public void testEmpty() {
+    PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+
+    assertTrue(map.isEmpty());
+    assertNull(map.get("key"));
+    assertSame(map, map.minus("key"));
+    assertEquals(0, map.entries().count());
+  }
+
+  @Test
+  public void testOldVersionsAreNotModified() {
+    PersistentHashMap<String, Integer> v1 = PersistentHashMap.<String, Integer>empty()
+        .plus("a", 1)
+        .plus("b", 2);
+    PersistentHashMap<String, Integer> v2 = v1.plus("a", 3).minus("b").plus("c", 4);
+
+    assertEquals(2, v1.size());
+    assertEquals(Integer.valueOf(1), v1.get("a"));
+    assertEquals(Integer.valueOf(2), v1.get("b"));
+    assertNull(v1.get("c"));
+
+    assertEquals(2, v2.size());
+    assertEquals(Integer.valueOf(3), v2.get("a"));
+    assertNull(v2.get("b"));
+    assertEquals(Integer.valueOf(4), v2.get("c"));
+  }
+
+  @Test
+  public void testSameValueReturnsSameMap() {
+    Integer value = 1;
+    PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty()
+        .plus("a", value);
+
+    assertSame(map, map.plus("a", value));
+  }
+
+  @Test
+  public void testCollisions() {
+    PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+    for (int i = 0; i < 10; i++) {
+      map = map.plus(new CollidingKey(i), i);
+    }
+
+    assertEquals(10, map.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Integer.valueOf(i), map.get(new CollidingKey(i)));
+    }
+    for (int i = 0; i < 10; i++) {
+      map = map.minus(new CollidingKey(i));
+      assertEquals(9 - i, map.size());
+      assertNull(map.get(new CollidingKey(i)));
+    }
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    Map<Integer, Integer> expected = new HashMap<>();
+    PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+
+    for (int i = 0; i < 10000; i++) {
+      Integer key = random.nextInt(2000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.minus(key);
+      } else {
+        int value = random.nextInt();
+        expected.put(key, value);
+        map = map.plus(key, value);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    assertEquals(expected, map.entries()
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  }
+
+  private static class CollidingKey {
+
+    private final int id;
+
+    CollidingKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof CollidingKey && ((CollidingKey) obj).id == id;
+    }
+  }
+}
@@ -168,6 +168,10 @@ public abstract class SchemaManagerContract {
       sm.prepareSchema(ddlOpsEx, dbName, colName, docs).join();
 
       //Then
+      checkFit(dbName, colName, docs);
+    }
+
+    private void checkFit(String dbName, String colName, Collection<KvDocument> docs) {
       ImmutableMetaSnapshot finalSnashot = sm.getMetaSnapshot().join();
       ImmutableMetaDatabase db = finalSnashot.getMetaDatabaseByName(dbName);
       assertThat(db, notNullValue());
@@ -242,6 +246,33 @@ public abstract class SchemaManagerContract {
       );
     }
 
+    @ParameterizedTest
+    @ArgumentsSource(StreamDocuments.class)
+    void whenChangesAreGiven(Collection<KvDocument> docs) {
+      String dbName = "oldDbName";
+      String colName = "oldColName";
+
+      //Given
+      ImmutableMetaDatabase initialDb = initialSnapshot.getMetaDatabaseByName(dbName);
+      MutableMetaCollection changes = new WrapperMutableMetaCollection(
+          initialDb.getMetaCollectionByName(colName));
+      getDocSchemaAnalyzer().analyze(initialDb, changes, docs.stream());
+
+      //When
+      sm.prepareSchema(ddlOpsEx, dbName, colName, changes).join();
+
+      //Then
+      checkFit(dbName, colName, docs);
+      MetaSnapshot finalSnapshot = sm.getMetaSnapshot().join();
+      MetaDatabase db = finalSnapshot.getMetaDatabaseByName(dbName);
+      verify(ddlOpsEx, times(0)).addDatabase(argThat(matchDb(db)));
+      MetaCollection col = db.getMetaCollectionByName(colName);
+      verify(ddlOpsEx, times(0)).addCollection(
+          argThat(matchDb(db)),
+          argThat(matchCol(col))
+      );
+    }
+
     @ParameterizedTest
     @ArgumentsSource(StreamFitDocuments.class)
     void whenFit(Collection<KvDocument> docs) {